@@ -0,0 +1,68 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.dxf;
+
+import java.util.AbstractList;
+
+
+/**
+ * A list of a {@link DXFEntityStore}, which keeps its entities in another
+ * form and creates them on access. The list is the container of the
+ * entities it adopts, so it is told about the changes of their setters,
+ * which drop the bounds, and of the common setters of {@link DXFEntity}.
+ * The bounds of the layer of the list are dropped before.
+ */
+public abstract class AbstractEntityList extends AbstractList<DXFEntity> {
+    private DXFLayer layer;
+
+    void setDXFLayer(DXFLayer layer) {
+        this.layer = layer;
+    }
+
+    DXFLayer getDXFLayer() {
+        return layer;
+    }
+
+    /**
+     * Makes the list the container of the entity, which it created.
+     */
+    protected void adopt(DXFEntity entity) {
+        entity.setContainer(this);
+    }
+
+    /**
+     * Ends the adoption of the entity, which is not kept by the list
+     * anymore.
+     */
+    protected void release(DXFEntity entity) {
+        if (entity.getContainer() == this) {
+            entity.setContainer(null);
+        }
+    }
+
+    void changed(DXFEntity entity, boolean bounds) {
+        if (bounds && (layer != null)) {
+            layer.invalidateBounds();
+        }
+
+        changed(entity);
+    }
+
+    /**
+     * Called after the entity, which was adopted by the list, was changed.
+     */
+    protected abstract void changed(DXFEntity entity);
+}
@@ -64,6 +64,7 @@ public class Bounds {
         this.min_y = b.getMinimumY();
         this.max_z = b.getMaximumZ();
         this.min_z = b.getMinimumZ();
+        this.set = b.set;
     }
 
     /**
@@ -0,0 +1,55 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.dxf;
+
+
+/**
+ * Keeps the computed bounds of a document, layer or block for the
+ * revision of their last change. The bounds are copied in and out, so
+ * the callers can change the returned bounds.
+ *
+ * @see DXFDocument#invalidateBounds()
+ */
+class BoundsCache {
+    public static final int ALL = 0;
+    public static final int MODELSPACE = 1;
+    public static final int PAPERSPACE = 2;
+    private Bounds[] bounds = new Bounds[3];
+    private long revision = -1;
+
+    /**
+     * @return a copy of the bounds or null if they are not computed for
+     *         the revision
+     */
+    public Bounds get(int kind, long revision) {
+        if ((this.revision != revision) || (bounds[kind] == null)) {
+            return null;
+        }
+
+        return new Bounds(bounds[kind]);
+    }
+
+    public void put(int kind, long revision, Bounds b) {
+        if (this.revision != revision) {
+            this.revision = revision;
+            bounds[0] = null;
+            bounds[1] = null;
+            bounds[2] = null;
+        }
+
+        bounds[kind] = new Bounds(b);
+    }
+}
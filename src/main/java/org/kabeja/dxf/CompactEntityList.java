@@ -0,0 +1,676 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.dxf;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+import org.apache.commons.lang3.StringUtils;
+import org.kabeja.dxf.helpers.DXFUtils;
+import org.kabeja.dxf.helpers.Point;
+
+
+/**
+ * Keeps the simple entities of a single type (LINE, ARC, CIRCLE or
+ * POINT) in columns of primitive arrays. An entity is simple, if it has
+ * beside its geometry only a layer, a line type, a color, a line weight
+ * and a hex handle as ID, all other properties have their default value.
+ * Other entities are kept as they are.
+ * <p>
+ * The entity of a simple row is created on the first {@link #get(int)}
+ * or by the iterator and kept from then on, so changes of the entity are
+ * seen like in other lists. {@link #set(int, DXFEntity)} writes an entity
+ * back to the columns. The {@link #flyweightIterator()} reuses one
+ * entity per iterator for all simple rows and the bounds are calculated
+ * from the columns, so reading the whole list this way keeps it compact.
+ * The kept entities are created and read while holding the monitor of
+ * the list, so readers sharing the list can create them.
+ * </p>
+ */
+public class CompactEntityList extends AbstractList<DXFEntity> {
+    static final int LINE = 0;
+    static final int ARC = 1;
+    static final int CIRCLE = 2;
+    static final int POINT = 3;
+    private static final String[] TYPES = {
+            DXFConstants.ENTITY_TYPE_LINE, DXFConstants.ENTITY_TYPE_ARC,
+            DXFConstants.ENTITY_TYPE_CIRCLE, DXFConstants.ENTITY_TYPE_POINT
+        };
+    private static final Class<?>[] CLASSES = {
+            DXFLine.class, DXFArc.class, DXFCircle.class, DXFPoint.class
+        };
+    private static final int[] STRIDES = { 6, 6, 4, 3 };
+    private static final int INITIAL_CAPACITY = 16;
+    private CompactEntityStore store;
+    private int kind;
+    private int stride;
+    private int size;
+    private double[] values;
+    private short[] layers;
+    private short[] lineTypes;
+    private short[] colors;
+    private short[] lineWeights;
+    private long[] handles;
+
+    // the entities, which are not simple
+    private DXFEntity[] entities;
+    private DXFDocument doc;
+    private DXFLayer layer;
+
+    CompactEntityList(CompactEntityStore store, int kind) {
+        this.store = store;
+        this.kind = kind;
+        this.stride = STRIDES[kind];
+    }
+
+    /**
+     * @return the kind of the type or -1 if the type is not supported
+     */
+    static int getKind(String type) {
+        for (int i = 0; i < TYPES.length; i++) {
+            if (TYPES[i].equals(type)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public DXFEntity get(int index) {
+        checkIndex(index, size - 1);
+
+        synchronized (this) {
+            DXFEntity entity = getEntity(index);
+
+            if (entity == null) {
+                // the row keeps the entity, so its changes are not lost
+                entity = read(index, createEntity());
+                entity.setContainer(layer);
+                setEntity(index, entity);
+            }
+
+            return entity;
+        }
+    }
+
+    @Override
+    public DXFEntity set(int index, DXFEntity entity) {
+        DXFEntity old = get(index);
+
+        if (old == entity) {
+            // the kept entity stays
+            invalidateBounds();
+
+            return old;
+        }
+
+        if (!write(index, entity)) {
+            setEntity(index, entity);
+        }
+
+        invalidateBounds();
+
+        return old;
+    }
+
+    @Override
+    public void add(int index, DXFEntity entity) {
+        checkIndex(index, size);
+        modCount++;
+
+        if (doc == null) {
+            doc = entity.getDXFDocument();
+        }
+
+        ensureCapacity(size + 1);
+
+        int moved = size - index;
+
+        if (moved > 0) {
+            System.arraycopy(values, index * stride, values,
+                (index + 1) * stride, moved * stride);
+            System.arraycopy(layers, index, layers, index + 1, moved);
+            System.arraycopy(lineTypes, index, lineTypes, index + 1, moved);
+            System.arraycopy(colors, index, colors, index + 1, moved);
+            System.arraycopy(lineWeights, index, lineWeights, index + 1, moved);
+            System.arraycopy(handles, index, handles, index + 1, moved);
+
+            if (entities != null) {
+                System.arraycopy(entities, index, entities, index + 1, moved);
+                entities[index] = null;
+            }
+        }
+
+        size++;
+
+        if (!write(index, entity)) {
+            setEntity(index, entity);
+        }
+
+        invalidateBounds();
+    }
+
+    @Override
+    public DXFEntity remove(int index) {
+        DXFEntity entity = get(index);
+        modCount++;
+
+        int moved = size - index - 1;
+        System.arraycopy(values, (index + 1) * stride, values, index * stride,
+            moved * stride);
+        System.arraycopy(layers, index + 1, layers, index, moved);
+        System.arraycopy(lineTypes, index + 1, lineTypes, index, moved);
+        System.arraycopy(colors, index + 1, colors, index, moved);
+        System.arraycopy(lineWeights, index + 1, lineWeights, index, moved);
+        System.arraycopy(handles, index + 1, handles, index, moved);
+
+        if (entities != null) {
+            System.arraycopy(entities, index + 1, entities, index, moved);
+            entities[size - 1] = null;
+        }
+
+        size--;
+        invalidateBounds();
+
+        return entity;
+    }
+
+    private void invalidateBounds() {
+        if (layer != null) {
+            layer.invalidateBounds();
+        } else if (doc != null) {
+            doc.invalidateBounds();
+        }
+    }
+
+    void setDXFLayer(DXFLayer layer) {
+        this.layer = layer;
+    }
+
+    /**
+     * Searches the entity by identity and then a simple row with the same
+     * values.
+     */
+    @Override
+    public int indexOf(Object o) {
+        if (entities != null) {
+            for (int i = 0; i < size; i++) {
+                if (entities[i] == o) {
+                    return i;
+                }
+            }
+        }
+
+        if ((o instanceof DXFEntity) && isSimple((DXFEntity) o)) {
+            DXFEntity entity = (DXFEntity) o;
+            double[] row = new double[stride];
+            getValues(entity, row, 0);
+
+            for (int i = 0; i < size; i++) {
+                if ((getEntity(i) == null) && matches(i, entity, row)) {
+                    return i;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int index = indexOf(o);
+
+        if (index >= 0) {
+            remove(index);
+
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    @Override
+    public void clear() {
+        modCount++;
+        size = 0;
+
+        if (entities != null) {
+            Arrays.fill(entities, null);
+        }
+
+        invalidateBounds();
+    }
+
+    /**
+     * @return an iterator, which returns for all simple rows the same
+     *         entity, so it is only valid until the next call
+     */
+    public Iterator<DXFEntity> flyweightIterator() {
+        return new Iterator<DXFEntity>() {
+                private int next = 0;
+
+                // each iterator has its own entity for concurrent readers
+                private DXFEntity flyweight;
+
+                @Override
+                public boolean hasNext() {
+                    return next < size;
+                }
+
+                @Override
+                public DXFEntity next() {
+                    if (next >= size) {
+                        throw new NoSuchElementException();
+                    }
+
+                    DXFEntity entity = getEntity(next);
+
+                    if (entity == null) {
+                        if (flyweight == null) {
+                            flyweight = createEntity();
+                        }
+
+                        entity = read(next, flyweight);
+                    }
+
+                    next++;
+
+                    return entity;
+                }
+
+                @Override
+                public void remove() {
+                    if (next == 0) {
+                        throw new IllegalStateException();
+                    }
+
+                    next--;
+                    CompactEntityList.this.remove(next);
+                }
+            };
+    }
+
+    /**
+     * Adds the bounds of the entities, the simple rows are all in the
+     * model space.
+     *
+     * @param bounds
+     * @param filter whether only the entities of one space are added
+     * @param onModelspace the space of the added entities
+     */
+    void addToBounds(Bounds bounds, boolean filter, boolean onModelspace) {
+        DXFEntity scratch = null;
+
+        for (int i = 0; i < size; i++) {
+            DXFEntity entity = getEntity(i);
+
+            if (entity == null) {
+                if (filter && !onModelspace) {
+                    continue;
+                }
+
+                int offset = i * stride;
+
+                if (kind == LINE) {
+                    bounds.addToBounds(values[offset + 3], values[offset + 4],
+                        values[offset + 5]);
+                    bounds.addToBounds(values[offset], values[offset + 1],
+                        values[offset + 2]);
+
+                    continue;
+                } else if (kind == POINT) {
+                    bounds.addToBounds(values[offset], values[offset + 1],
+                        values[offset + 2]);
+
+                    continue;
+                }
+
+                // the arc bounds are not repeated here
+                if (scratch == null) {
+                    scratch = createEntity();
+                }
+
+                entity = read(i, scratch);
+            } else if (filter && (onModelspace != entity.isModelSpace())) {
+                continue;
+            }
+
+            Bounds b = entity.getBounds();
+
+            if (b.isValid()) {
+                bounds.addToBounds(b);
+            }
+        }
+    }
+
+    DXFEntity getDXFEntityByID(String id) {
+        long handle = DXFUtils.parseHandle(id);
+
+        for (int i = 0; i < size; i++) {
+            DXFEntity entity = getEntity(i);
+
+            if (entity != null) {
+                if (entity.getID().equals(id)) {
+                    return entity;
+                }
+            } else if ((handle >= 0) && (handles[i] == handle)) {
+                return get(i);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @return true if the entity at the index has the ID, the entity of a
+     *         simple row is not created
+     */
+    boolean hasID(int index, String id) {
+        DXFEntity entity = getEntity(index);
+
+        if (entity != null) {
+            return id.equals(entity.getID());
+        }
+
+        return (handles[index] >= 0) &&
+        (handles[index] == DXFUtils.parseHandle(id));
+    }
+
+    private synchronized DXFEntity getEntity(int index) {
+        return (entities != null) ? entities[index] : null;
+    }
+
+    private synchronized void setEntity(int index, DXFEntity entity) {
+        if (entities == null) {
+            entities = new DXFEntity[handles.length];
+        }
+
+        entities[index] = entity;
+    }
+
+    private void checkIndex(int index, int max) {
+        if ((index < 0) || (index > max)) {
+            throw new IndexOutOfBoundsException("Index: " + index +
+                ", Size: " + size);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (handles == null) {
+            int length = Math.max(INITIAL_CAPACITY, capacity);
+            values = new double[length * stride];
+            layers = new short[length];
+            lineTypes = new short[length];
+            colors = new short[length];
+            lineWeights = new short[length];
+            handles = new long[length];
+        } else if (handles.length < capacity) {
+            int length = Math.max(handles.length + (handles.length >> 1),
+                    capacity);
+            values = Arrays.copyOf(values, length * stride);
+            layers = Arrays.copyOf(layers, length);
+            lineTypes = Arrays.copyOf(lineTypes, length);
+            colors = Arrays.copyOf(colors, length);
+            lineWeights = Arrays.copyOf(lineWeights, length);
+            handles = Arrays.copyOf(handles, length);
+
+            if (entities != null) {
+                entities = Arrays.copyOf(entities, length);
+            }
+        }
+    }
+
+    private DXFEntity createEntity() {
+        switch (kind) {
+        case LINE:
+            return new DXFLine();
+
+        case ARC:
+            return new DXFArc();
+
+        case CIRCLE:
+
+            DXFCircle circle = new DXFCircle();
+            circle.setCenterPoint(new Point());
+
+            return circle;
+
+        default:
+            return new DXFPoint();
+        }
+    }
+
+    private boolean isSimple(DXFEntity entity) {
+        if ((entity.getClass() != CLASSES[kind]) || (entity.id == null) ||
+                (entity.layerID == null) || (entity.lineType == null) ||
+                !entity.visibile || entity.block || (entity.flags != 0) ||
+                (entity.linetypeScaleFactor != 1.0) ||
+                (entity.color != (short) entity.color) ||
+                (entity.colorRGB != null) ||
+                (entity.lineWeight != (short) entity.lineWeight) ||
+                (entity.transparency != 0.0) || (entity.thickness != 0.0) ||
+                (entity.extrusion.getX() != 0.0) ||
+                (entity.extrusion.getY() != 0.0) ||
+                (entity.extrusion.getZ() != 1.0) || !entity.modelSpace) {
+            return false;
+        }
+
+        if ((entity.id.length() > 0) && (DXFUtils.parseHandle(entity.id) < 0)) {
+            return false;
+        }
+
+        switch (kind) {
+        case ARC:
+            return !((DXFArc) entity).isCounterClockwise() &&
+            (((DXFArc) entity).getCenterPoint() != null);
+
+        case CIRCLE:
+            return ((DXFCircle) entity).getCenterPoint() != null;
+
+        default:
+            return true;
+        }
+    }
+
+    private void getValues(DXFEntity entity, double[] row, int offset) {
+        switch (kind) {
+        case LINE:
+
+            DXFLine line = (DXFLine) entity;
+            Point start = line.getStartPoint();
+            Point end = line.getEndPoint();
+            row[offset] = start.getX();
+            row[offset + 1] = start.getY();
+            row[offset + 2] = start.getZ();
+            row[offset + 3] = end.getX();
+            row[offset + 4] = end.getY();
+            row[offset + 5] = end.getZ();
+
+            break;
+
+        case ARC:
+
+            DXFArc arc = (DXFArc) entity;
+            row[offset] = arc.getCenterPoint().getX();
+            row[offset + 1] = arc.getCenterPoint().getY();
+            row[offset + 2] = arc.getCenterPoint().getZ();
+            row[offset + 3] = arc.getRadius();
+            row[offset + 4] = arc.getStartAngle();
+            row[offset + 5] = arc.getEndAngle();
+
+            break;
+
+        case CIRCLE:
+
+            DXFCircle circle = (DXFCircle) entity;
+            row[offset] = circle.getCenterPoint().getX();
+            row[offset + 1] = circle.getCenterPoint().getY();
+            row[offset + 2] = circle.getCenterPoint().getZ();
+            row[offset + 3] = circle.getRadius();
+
+            break;
+
+        default:
+
+            DXFPoint point = (DXFPoint) entity;
+            row[offset] = point.getX();
+            row[offset + 1] = point.getY();
+            row[offset + 2] = point.getZ();
+        }
+    }
+
+    /**
+     * Writes the entity to the columns if it is simple.
+     *
+     * @return whether the entity was written
+     */
+    private boolean write(int index, DXFEntity entity) {
+        if (!isSimple(entity)) {
+            return false;
+        }
+
+        int layer = store.getIndex(entity.layerID);
+        int lineType = store.getIndex(entity.lineType);
+
+        if ((layer < 0) || (lineType < 0)) {
+            return false;
+        }
+
+        getValues(entity, values, index * stride);
+        layers[index] = (short) layer;
+        lineTypes[index] = (short) lineType;
+        colors[index] = (short) entity.color;
+        lineWeights[index] = (short) entity.lineWeight;
+        handles[index] = (entity.id.length() > 0) ? DXFUtils.parseHandle(entity.id) : (-1);
+
+        if (entities != null) {
+            entities[index] = null;
+        }
+
+        return true;
+    }
+
+    private boolean matches(int index, DXFEntity entity, double[] row) {
+        long handle = (entity.id.length() > 0) ? DXFUtils.parseHandle(entity.id) : (-1);
+
+        if ((handles[index] != handle) || (colors[index] != entity.color) ||
+                (lineWeights[index] != entity.lineWeight) ||
+                !store.getName(layers[index]).equals(entity.layerID) ||
+                !store.getName(lineTypes[index]).equals(entity.lineType)) {
+            return false;
+        }
+
+        int offset = index * stride;
+
+        for (int i = 0; i < stride; i++) {
+            if (Double.compare(values[offset + i], row[i]) != 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Sets all properties of the entity from the columns.
+     */
+    private DXFEntity read(int index, DXFEntity entity) {
+        int offset = index * stride;
+
+        switch (kind) {
+        case LINE:
+
+            DXFLine line = (DXFLine) entity;
+            line.getStartPoint().setX(values[offset]);
+            line.getStartPoint().setY(values[offset + 1]);
+            line.getStartPoint().setZ(values[offset + 2]);
+            line.getEndPoint().setX(values[offset + 3]);
+            line.getEndPoint().setY(values[offset + 4]);
+            line.getEndPoint().setZ(values[offset + 5]);
+
+            break;
+
+        case ARC:
+
+            DXFArc arc = (DXFArc) entity;
+            arc.getCenterPoint().setX(values[offset]);
+            arc.getCenterPoint().setY(values[offset + 1]);
+            arc.getCenterPoint().setZ(values[offset + 2]);
+            arc.setRadius(values[offset + 3]);
+            arc.setStartAngle(values[offset + 4]);
+            arc.setEndAngle(values[offset + 5]);
+            arc.setCounterClockwise(false);
+
+            break;
+
+        case CIRCLE:
+
+            DXFCircle circle = (DXFCircle) entity;
+            circle.getCenterPoint().setX(values[offset]);
+            circle.getCenterPoint().setY(values[offset + 1]);
+            circle.getCenterPoint().setZ(values[offset + 2]);
+            circle.setRadius(values[offset + 3]);
+
+            break;
+
+        default:
+
+            DXFPoint point = (DXFPoint) entity;
+            point.setX(values[offset]);
+            point.setY(values[offset + 1]);
+            point.setZ(values[offset + 2]);
+        }
+
+        entity.doc = doc;
+        entity.id = (handles[index] >= 0)
+            ? Long.toHexString(handles[index]).toUpperCase(Locale.ENGLISH)
+            : StringUtils.EMPTY;
+        entity.layerID = store.getName(layers[index]);
+        entity.lineType = store.getName(lineTypes[index]);
+        entity.color = colors[index];
+        entity.lineWeight = lineWeights[index];
+        entity.visibile = true;
+        entity.block = false;
+        entity.flags = 0;
+        entity.linetypeScaleFactor = 1.0;
+        entity.colorRGB = null;
+        entity.transparency = 0.0;
+        entity.thickness = 0.0;
+        entity.modelSpace = true;
+
+        if ((entity.extrusion.getX() != 0.0) ||
+                (entity.extrusion.getY() != 0.0) ||
+                (entity.extrusion.getZ() != 1.0)) {
+            entity.extrusion = new DXFExtrusion();
+        }
+
+        return entity;
+    }
+}
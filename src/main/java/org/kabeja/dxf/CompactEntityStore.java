@@ -0,0 +1,79 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.dxf;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+
+/**
+ * Keeps the simple LINE, ARC, CIRCLE and POINT entities of the layers in
+ * {@link CompactEntityList}s, the entities of other types in ArrayLists.
+ * The layer and line type names of all lists are kept once in the store
+ * and referenced by index.
+ */
+public class CompactEntityStore implements DXFEntityStore {
+    private List<String> names = new ArrayList<String>();
+    private Map<String, Integer> indices = new HashMap<String, Integer>();
+
+    public CompactEntityStore() {
+        getIndex(StringUtils.EMPTY);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.kabeja.dxf.DXFEntityStore#createList(java.lang.String)
+     */
+    @Override
+    public List<DXFEntity> createList(String type) {
+        int kind = CompactEntityList.getKind(type);
+
+        if (kind < 0) {
+            return new ArrayList<DXFEntity>();
+        }
+
+        return new CompactEntityList(this, kind);
+    }
+
+    /**
+     * @return the index of the name or -1 if there are too many names
+     */
+    synchronized int getIndex(String name) {
+        Integer index = indices.get(name);
+
+        if (index != null) {
+            return index.intValue();
+        }
+
+        if (names.size() > Short.MAX_VALUE) {
+            return -1;
+        }
+
+        indices.put(name, Integer.valueOf(names.size()));
+        names.add(name);
+
+        return names.size() - 1;
+    }
+
+    synchronized String getName(int index) {
+        return names.get(index);
+    }
+}
@@ -37,6 +37,7 @@ public class DXFArc extends DXFEntity {
      */
     public void setEndAngle(double end_angle) {
         this.end_angle = end_angle;
+        invalidateBounds();
     }
 
     /**
@@ -52,6 +53,7 @@ public class DXFArc extends DXFEntity {
      */
     public void setRadius(double radius) {
         this.radius = radius;
+        invalidateBounds();
     }
 
     /**
@@ -67,6 +69,7 @@ public class DXFArc extends DXFEntity {
      */
     public void setStartAngle(double start_angle) {
         this.start_angle = start_angle;
+        invalidateBounds();
     }
 
     /*
@@ -128,6 +131,7 @@ public class DXFArc extends DXFEntity {
 
     public void setCenterPoint(Point p) {
         this.center = p;
+        invalidateBounds();
     }
 
     public Point getCenterPoint() {
@@ -218,5 +222,6 @@ public class DXFArc extends DXFEntity {
 
     public void setCounterClockwise(boolean counterclockwise) {
         this.counterclockwise = counterclockwise;
+        invalidateBounds();
     }
 }
@@ -35,5 +35,6 @@ public class DXFAttdef extends DXFText {
     @Override
     public void setText(String text) {
         super.setText(text); //To change body of generated methods, choose Tools | Templates.
+        invalidateBounds();
     }
 }
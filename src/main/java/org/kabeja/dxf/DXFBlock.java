@@ -17,6 +17,7 @@ package org.kabeja.dxf;
 
 import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
 import org.kabeja.dxf.helpers.Point;
@@ -34,6 +35,15 @@ public class DXFBlock {
     private String description = StringUtils.EMPTY;
     private ArrayList<DXFEntity> entities;
     private DXFDocument doc;
+    private transient BoundsCache boundsCache;
+    private transient DXFSpatialIndex spatialIndex;
+    private transient long spatialIndexRevision;
+
+    // the revision of the last change, see DXFDocument#changed(DXFBlock)
+    private transient volatile long revision;
+
+    // whether inserts or dimensions refer to other blocks
+    private transient boolean references;
 
     /**
      *
@@ -46,24 +56,70 @@ public class DXFBlock {
     }
 
     public Bounds getBounds() {
-        // first set the own point
-        Bounds bounds = new Bounds();
-        Iterator<DXFEntity> i = entities.iterator();
+        synchronized (monitor()) {
+            if ((doc != null) && (boundsCache != null)) {
+                Bounds bounds = boundsCache.get(BoundsCache.ALL,
+                        getBoundsRevision());
+
+                if (bounds != null) {
+                    return bounds;
+                }
+            }
 
-        if (i.hasNext()) {
-            while (i.hasNext()) {
-                DXFEntity entity = i.next();
-                Bounds b = entity.getBounds();
+            // first set the own point
+            Bounds bounds = new Bounds();
+            Iterator<DXFEntity> i = entities.iterator();
 
-                if (b.isValid()) {
-                    bounds.addToBounds(b);
+            if (i.hasNext()) {
+                while (i.hasNext()) {
+                    DXFEntity entity = i.next();
+                    Bounds b = entity.getBounds();
+
+                    if (b.isValid()) {
+                        bounds.addToBounds(b);
+                    }
                 }
+            } else {
+                bounds.setValid(false);
+            }
+
+            if (doc != null) {
+                if (boundsCache == null) {
+                    boundsCache = new BoundsCache();
+                }
+
+                boundsCache.put(BoundsCache.ALL, getBoundsRevision(), bounds);
             }
-        } else {
-            bounds.setValid(false);
+
+            return bounds;
         }
+    }
+
+    /**
+     * Returns the spatial index of the entities, which is built on the
+     * first call and again after changes of the block.
+     *
+     * @return the index
+     */
+    public DXFSpatialIndex getSpatialIndex() {
+        synchronized (monitor()) {
+            if ((doc != null) && (spatialIndex != null) &&
+                    (spatialIndexRevision == getBoundsRevision())) {
+                return spatialIndex;
+            }
+
+            List<List<DXFEntity>> lists = new ArrayList<List<DXFEntity>>();
+            lists.add(entities);
 
-        return bounds;
+            DXFSpatialIndex index = new DXFSpatialIndex(lists);
+
+            if (doc != null) {
+                spatialIndex = index;
+                spatialIndexRevision = getBoundsRevision();
+            }
+
+            return index;
+        }
     }
 
     /**
@@ -94,10 +150,46 @@ public class DXFBlock {
      */
     public void setReferencePoint(Point p) {
         this.referencePoint = p;
+        invalidateBounds();
     }
 
     public void addDXFEntity(DXFEntity entity) {
         entities.add(entity);
+        entity.setContainer(this);
+
+        if (entity.getType().equals(DXFConstants.ENTITY_TYPE_INSERT) ||
+                entity.getType().equals(DXFConstants.ENTITY_TYPE_DIMENSION)) {
+            references = true;
+        }
+
+        invalidateBounds();
+
+        if (doc != null) {
+            doc.addedDXFEntity(this, null, entities);
+        }
+    }
+
+    /**
+     * Drops the computed bounds and the spatial index of this block, the
+     * bounds of the layers and blocks which may refer to it and of the
+     * document.
+     */
+    void invalidateBounds() {
+        if (doc != null) {
+            revision = doc.changed(this);
+        }
+    }
+
+    /**
+     * @return the monitor held while building the bounds or the spatial
+     *         index
+     */
+    private Object monitor() {
+        return (doc != null) ? doc : this;
+    }
+
+    private long getBoundsRevision() {
+        return doc.getBoundsRevision(revision, references);
     }
 
     /**
@@ -108,6 +200,10 @@ public class DXFBlock {
         return entities.iterator();
     }
 
+    List<DXFEntity> getEntityList() {
+        return entities;
+    }
+
     /**
      * @return Returns the layerID.
      */
@@ -144,6 +240,9 @@ public class DXFBlock {
      */
     public void setDXFDocument(DXFDocument doc) {
         this.doc = doc;
+        this.revision = 0;
+        this.boundsCache = null;
+        this.spatialIndex = null;
 
         Iterator<DXFEntity> i = entities.iterator();
 
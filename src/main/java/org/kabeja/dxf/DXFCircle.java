@@ -43,10 +43,12 @@ public class DXFCircle extends DXFEntity {
      */
     public void setRadius(double radius) {
         this.radius = radius;
+        invalidateBounds();
     }
 
     public void setCenterPoint(Point p) {
         this.center = p;
+        invalidateBounds();
     }
 
     public Point getCenterPoint() {
@@ -121,6 +121,7 @@ public class DXFDimension extends DXFEntity {
      */
     public void setInsertPoint(Point insertPoint) {
         this.insertPoint = insertPoint;
+        invalidateBounds();
     }
 
     /**
@@ -297,6 +298,7 @@ public class DXFDimension extends DXFEntity {
 
     public void setDimensionBlock(String dimensionBlock) {
         this.dimensionBlock = dimensionBlock;
+        invalidateBounds();
     }
 
     public int getDimensionArea() {
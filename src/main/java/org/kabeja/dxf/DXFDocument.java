@@ -16,18 +16,26 @@
 package org.kabeja.dxf;
 
 import java.util.ArrayList;
-import java.util.Enumeration;
 import java.util.HashMap;
-import java.util.Hashtable;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.kabeja.dxf.objects.DXFDictionary;
 import org.kabeja.dxf.objects.DXFObject;
 
 
 /**
+ * A document with its layers, blocks and entities is not synchronized.
+ * Threads sharing a document hold the read lock of {@link #getLock()}
+ * while reading it and the write lock while changing it. The bounds,
+ * the spatial indexes and the handle indexes, which are built on
+ * reading, are built while holding the monitor of the document.
+ *
  * @author <a href="mailto:simon.mieth@gmx.de>Simon Mieth</a>
  *
  *
@@ -35,13 +43,13 @@ import org.kabeja.dxf.objects.DXFObject;
 public class DXFDocument {
     public static String PROPERTY_ENCODING = "encoding";
     public static final double DEFAULT_MARGIN = 5;
-    private Hashtable<String, DXFLayer> layers = new Hashtable<String, DXFLayer>();
-    private Hashtable<String, DXFBlock> blocks = new Hashtable<String, DXFBlock>();
+    private LinkedHashMap<String, DXFLayer> layers = new LinkedHashMap<String, DXFLayer>();
+    private LinkedHashMap<String, DXFBlock> blocks = new LinkedHashMap<String, DXFBlock>();
     private HashMap<String, DXFLineType> lineTypes = new HashMap<String, DXFLineType>();
     private HashMap<String, DXFDimensionStyle> dimensionStyles = new HashMap<String, DXFDimensionStyle>();
     private HashMap<String, DXFStyle> textStyles = new HashMap<String, DXFStyle>();
 
-    private Hashtable<String, String> properties = new Hashtable<String, String>();
+    private LinkedHashMap<String, String> properties = new LinkedHashMap<String, String>();
     private List<DXFViewport> viewports = new ArrayList<DXFViewport>();
     private Bounds bounds = new Bounds();
     private DXFHeader header = new DXFHeader();
@@ -49,6 +57,23 @@ public class DXFDocument {
     private HashMap<String, DXFHatchPattern> patterns = new HashMap<String, DXFHatchPattern>();
     private List<DXFView> views = new ArrayList<DXFView>();
     private DXFDictionary rootDictionary = new DXFDictionary();
+    private transient DXFEntityStore entityStore = null;
+
+    // the revisions of the changes, see getBoundsRevision(long, boolean)
+    private transient volatile long revision = 0;
+    private transient volatile long allRevision = 0;
+    private transient volatile long blocksRevision = 0;
+    private transient BoundsCache boundsCache;
+    private transient HandleIndex entityIndex;
+
+    // the number of entity loaders of the layers, see getDXFEntityByID
+    private transient int entityLoaders;
+    private transient HandleMap<DXFObject> objectIndex;
+
+    // the layers in the order of the map for the iterators, which is
+    // copied on changes only
+    private transient CopyOnWriteArrayList<DXFLayer> layerList = new CopyOnWriteArrayList<DXFLayer>();
+    private transient ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 
     public DXFDocument() {
         // the defalut layer
@@ -56,15 +81,59 @@ public class DXFDocument {
         defaultLayer.setDXFDocument(this);
         defaultLayer.setName(DXFConstants.DEFAULT_LAYER);
         this.layers.put(DXFConstants.DEFAULT_LAYER, defaultLayer);
+        this.layerList.add(defaultLayer);
 
         // setup the root Dictionary
         this.rootDictionary = new DXFDictionary();
         this.rootDictionary.setDXFDocument(this);
     }
 
+    /**
+     * Sets the store for the entities of the layers, which is used for
+     * the entity types added afterwards.
+     *
+     * @param entityStore the store or null to keep the entities in
+     *        ArrayLists
+     */
+    public void setDXFEntityStore(DXFEntityStore entityStore) {
+        this.entityStore = entityStore;
+    }
+
+    public DXFEntityStore getDXFEntityStore() {
+        return entityStore;
+    }
+
+    /**
+     * The lock of the document for the threads, which share it. The
+     * document takes no locks itself, a thread holds the read lock while
+     * reading and the write lock while changing the document. A
+     * ProcessPipeline holds the read lock while processing the document,
+     * or the write lock if it has post processors.
+     *
+     * @return the lock of the document
+     */
+    public ReentrantReadWriteLock getLock() {
+        return lock;
+    }
+
     public void addDXFLayer(DXFLayer layer) {
         layer.setDXFDocument(this);
-        layers.put(layer.getName(), layer);
+
+        DXFLayer old = layers.put(layer.getName(), layer);
+        revision++;
+
+        if (old != null) {
+            layerList.set(layerList.indexOf(old), layer);
+            entityLoaders -= old.getDXFEntityLoaderCount();
+        } else {
+            layerList.add(layer);
+        }
+
+        entityLoaders += layer.getDXFEntityLoaderCount();
+
+        if (entityIndex != null) {
+            entityIndex.addDXFLayer(layer);
+        }
     }
 
     /**
@@ -104,11 +173,15 @@ public class DXFDocument {
     }
 
     /**
+     * The layers are returned in the order they were added. The iterator
+     * is read-only and does not copy the layers. Layers can be added and
+     * removed by the document while iterating, which copies the internal
+     * list of the layers.
      *
      * @return the iterator over all DXFLayer of this document
      */
     public Iterator<DXFLayer> getDXFLayerIterator() {
-        return new ArrayList<DXFLayer>(layers.values()).iterator();
+        return layerList.iterator();
     }
 
     public void addDXFLineType(DXFLineType ltype) {
@@ -137,6 +210,11 @@ public class DXFDocument {
     public void addDXFBlock(DXFBlock block) {
         block.setDXFDocument(this);
         this.blocks.put(block.getName(), block);
+        changed(block);
+
+        if (entityIndex != null) {
+            entityIndex.index(block, null, block.getEntityList(), 0);
+        }
     }
 
     public DXFBlock getDXFBlock(String name) {
@@ -167,27 +245,21 @@ public class DXFDocument {
         return this.properties.containsKey(key);
     }
 
+    /**
+     *
+     * @return the iterator over the keys of the properties
+     */
+    public Iterator<String> getPropertyKeyIterator() {
+        return this.properties.keySet().iterator();
+    }
+
     /**
      * Returns the bounds of this document
      *
      * @return
      */
     public Bounds getBounds() {
-        this.bounds = new Bounds();
-
-        Enumeration<DXFLayer> e = this.layers.elements();
-
-        while (e.hasMoreElements()) {
-            DXFLayer layer = e.nextElement();
-
-            if (!layer.isFrozen()) {
-                Bounds b = layer.getBounds();
-
-                if (b.isValid()) {
-                    this.bounds.addToBounds(b);
-                }
-            }
-        }
+        this.bounds = getBounds(BoundsCache.ALL);
 
         return bounds;
     }
@@ -198,15 +270,31 @@ public class DXFDocument {
      * @return
      */
     public Bounds getBounds(boolean onModelspace) {
-        Bounds bounds = new Bounds();
+        return getBounds(onModelspace ? BoundsCache.MODELSPACE
+                                      : BoundsCache.PAPERSPACE);
+    }
+
+    private synchronized Bounds getBounds(int kind) {
+        if (boundsCache == null) {
+            boundsCache = new BoundsCache();
+        }
+
+        Bounds bounds = boundsCache.get(kind, revision);
+
+        if (bounds != null) {
+            return bounds;
+        }
 
-        Enumeration<DXFLayer> e = this.layers.elements();
+        bounds = new Bounds();
 
-        while (e.hasMoreElements()) {
-            DXFLayer layer = e.nextElement();
+        Iterator<DXFLayer> i = getDXFLayerIterator();
+
+        while (i.hasNext()) {
+            DXFLayer layer = i.next();
 
             if (!layer.isFrozen()) {
-                Bounds b = layer.getBounds(onModelspace);
+                Bounds b = (kind == BoundsCache.ALL) ? layer.getBounds()
+                                                     : layer.getBounds(kind == BoundsCache.MODELSPACE);
 
                 if (b.isValid()) {
                     bounds.addToBounds(b);
@@ -214,9 +302,77 @@ public class DXFDocument {
             }
         }
 
+        boundsCache.put(kind, revision, bounds);
+
         return bounds;
     }
 
+    /**
+     * Drops the computed bounds of the document, all layers and blocks.
+     * The setters of the entities and the methods of the layers and
+     * blocks drop only the bounds of their layer or block. After changing
+     * the points of entities in place or changing the entity lists
+     * directly this has to be called. The handle index of
+     * {@link #getDXFEntityByID(String)} is kept, it checks the positions
+     * of the entities on access.
+     */
+    public void invalidateBounds() {
+        allRevision = ++revision;
+    }
+
+    /**
+     * Drops the computed bounds of the document after a change of the
+     * layer.
+     *
+     * @return the revision of the change
+     */
+    long changed(DXFLayer layer) {
+        return ++revision;
+    }
+
+    /**
+     * Drops the computed bounds of the document and of the layers and
+     * blocks with inserts or dimensions after a change of the block.
+     *
+     * @return the revision of the change
+     */
+    long changed(DXFBlock block) {
+        blocksRevision = ++revision;
+
+        return revision;
+    }
+
+    /**
+     * Returns the spatial index of the entities of all layers, which
+     * combines the indexes of the layers.
+     *
+     * @return the index
+     * @see DXFLayer#getSpatialIndex()
+     */
+    public DXFSpatialIndex getSpatialIndex() {
+        List<DXFSpatialIndex> parts = new ArrayList<DXFSpatialIndex>();
+        Iterator<DXFLayer> i = getDXFLayerIterator();
+
+        while (i.hasNext()) {
+            parts.add(i.next().getSpatialIndex());
+        }
+
+        return new DXFSpatialIndex(parts);
+    }
+
+    /**
+     * @param revision the revision of the last change of a layer or block
+     * @param blocks whether the bounds of the layer or block depend on the
+     *        blocks
+     * @return the revision the computed bounds of a layer or block are
+     *         valid for
+     */
+    long getBoundsRevision(long revision, boolean blocks) {
+        long r = Math.max(revision, allRevision);
+
+        return blocks ? Math.max(r, blocksRevision) : r;
+    }
+
     /**
      * @deprecated use getBounds().getHeight() instead
      * @return
@@ -268,7 +424,13 @@ public class DXFDocument {
     }
 
     public void removeDXFLayer(String id) {
-        this.layers.remove(id);
+        DXFLayer layer = this.layers.remove(id);
+        revision++;
+
+        if (layer != null) {
+            layerList.remove(layer);
+            entityLoaders -= layer.getDXFEntityLoaderCount();
+        }
     }
 
     public void addDXFViewport(DXFViewport viewport) {
@@ -314,6 +476,10 @@ public class DXFDocument {
 
             type.put(obj.getID(), obj);
         }
+
+        if (objectIndex != null) {
+            objectIndex.put(obj.getID(), obj);
+        }
     }
 
     /**
@@ -327,6 +493,16 @@ public class DXFDocument {
 
     public void setRootDXFDictionary(DXFDictionary root) {
         this.rootDictionary = root;
+        this.objectIndex = null;
+    }
+
+    /**
+     *
+     * @return the iterator over the types of the objects, which are not
+     *         kept in a dictionary
+     */
+    public Iterator<String> getDXFObjectTypeIterator() {
+        return this.objects.keySet().iterator();
     }
 
     public List<DXFObject> getDXFObjectsByType(String type) {
@@ -342,20 +518,45 @@ public class DXFDocument {
      *            the ID of the object
      * @return the object
      */
-    public DXFObject getDXFObjectByID(String id) {
-        Iterator<Map<String, DXFObject>> i = this.objects.values().iterator();
+    public synchronized DXFObject getDXFObjectByID(String id) {
+        if (objectIndex == null) {
+            HandleMap<DXFObject> index = new HandleMap<DXFObject>();
+            Iterator<Map<String, DXFObject>> i = this.objects.values().iterator();
+
+            while (i.hasNext()) {
+                for (DXFObject obj : i.next().values()) {
+                    index.put(obj.getID(), obj);
+                }
+            }
+
+            // then the objects of the dictionaries
+            indexDXFObjects(rootDictionary, index,
+                new IdentityHashMap<DXFObject, Boolean>());
+            objectIndex = index;
+        }
+
+        return objectIndex.get(id);
+    }
+
+    private static void indexDXFObjects(DXFDictionary dictionary,
+        HandleMap<DXFObject> index, Map<DXFObject, Boolean> visited) {
+        if (visited.put(dictionary, Boolean.TRUE) != null) {
+            return;
+        }
+
+        Iterator<DXFObject> i = dictionary.getDXFObjectIterator();
 
         while (i.hasNext()) {
-            Map<String, DXFObject> map = i.next();
-            DXFObject obj;
+            DXFObject obj = i.next();
+
+            if (obj != null) {
+                index.put(obj.getID(), obj);
 
-            if ((obj = map.get(id)) != null) {
-                return obj;
+                if (obj instanceof DXFDictionary) {
+                    indexDXFObjects((DXFDictionary) obj, index, visited);
+                }
             }
         }
-
-        // Nothing found --> search in the dictionaries
-        return this.rootDictionary.getDXFObjectByID(id);
     }
 
     /**
@@ -369,29 +570,75 @@ public class DXFDocument {
      * @see DXFEntity with the specified ID or null if there is no
      * @see DXFEntity with the specified ID
      */
-    public DXFEntity getDXFEntityByID(String id) {
-        DXFEntity entity = null;
-        Iterator<DXFLayer> i = this.getDXFLayerIterator();
+    public synchronized DXFEntity getDXFEntityByID(String id) {
+        if (entityIndex == null) {
+            entityIndex = new HandleIndex(this);
+        }
 
-        while (i.hasNext()) {
-            DXFLayer layer = i.next();
+        DXFEntity entity = entityIndex.get(id);
+
+        if ((entity == null) && (entityLoaders > 0)) {
+            Iterator<DXFLayer> i = this.getDXFLayerIterator();
 
-            if ((entity = layer.getDXFEntityByID(id)) != null) {
-                return entity;
+            while (i.hasNext()) {
+                i.next().loadDXFEntities(id);
             }
+
+            entity = entityIndex.get(id);
         }
 
-        Iterator<DXFBlock> ib = this.getDXFBlockIterator();
+        return entity;
+    }
 
-        while (ib.hasNext()) {
-            DXFBlock block = ib.next();
+    /**
+     * Updates the handle index after the entity was added to the list of
+     * the layer or block.
+     *
+     * @param type the entity type of a layer list or null
+     */
+    void addedDXFEntity(Object owner, String type, List<DXFEntity> list) {
+        if (entityIndex != null) {
+            entityIndex.index(owner, type, list, list.size() - 1);
+        }
+    }
 
-            if ((entity = block.getDXFEntityByID(id)) != null) {
-                return entity;
-            }
+    /**
+     * Updates the handle index after the entity was removed from the
+     * index of the list.
+     */
+    void removedDXFEntity(DXFEntity entity, List<DXFEntity> list, int index) {
+        if (entityIndex != null) {
+            entityIndex.removed(entity, list, index);
         }
+    }
 
-        return entity;
+    /**
+     * Updates the handle index after the loader of the layer list was
+     * replaced by the loaded entities.
+     */
+    void loadedDXFEntities(DXFLayer layer, String type, List<DXFEntity> list) {
+        if (layers.get(layer.getName()) == layer) {
+            entityLoaders--;
+        }
+
+        if (entityIndex != null) {
+            entityIndex.index(layer, type, list, 0);
+        }
+    }
+
+    /**
+     * Counts a loader added to a layer of the document.
+     */
+    void addedDXFEntityLoader(DXFLayer layer) {
+        if (layers.get(layer.getName()) == layer) {
+            entityLoaders++;
+        }
+    }
+
+    void changedDXFEntityID(DXFEntity entity, String oldID) {
+        if ((entityIndex != null) && (oldID != null)) {
+            entityIndex.changedID(entity, oldID);
+        }
     }
 
     /**
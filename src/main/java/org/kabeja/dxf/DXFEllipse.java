@@ -95,6 +95,7 @@ public class DXFEllipse extends DXFEntity {
 
     public void setCenterPoint(Point center) {
         this.center = center;
+        invalidateBounds();
     }
 
     public Vector getMajorAxisDirection() {
@@ -103,6 +104,7 @@ public class DXFEllipse extends DXFEntity {
 
     public void setMajorAxisDirection(Vector d) {
         this.majorAxisDirection = d;
+        invalidateBounds();
     }
 
     public double getEndParameter() {
@@ -115,6 +117,7 @@ public class DXFEllipse extends DXFEntity {
         } else {
             this.endParameter = endParameter;
         }
+        invalidateBounds();
     }
 
     public double getRatio() {
@@ -123,6 +126,7 @@ public class DXFEllipse extends DXFEntity {
 
     public void setRatio(double ratio) {
         this.ratio = ratio;
+        invalidateBounds();
     }
 
     public double getStartParameter() {
@@ -135,6 +139,7 @@ public class DXFEllipse extends DXFEntity {
         } else {
             this.startParameter = startParameter;
         }
+        invalidateBounds();
     }
 
     @Override
@@ -242,5 +247,6 @@ public class DXFEllipse extends DXFEntity {
 
     public void setCounterClockwise(boolean counterclockwise) {
         this.counterclockwise = counterclockwise;
+        invalidateBounds();
     }
 }
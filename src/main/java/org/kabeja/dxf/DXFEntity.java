@@ -44,6 +44,9 @@ public abstract class DXFEntity {
      */
     protected boolean modelSpace = true;
 
+    // the layer, block, polyline or list of a store, which keeps the entity
+    private transient Object container;
+
     public DXFEntity() {
     }
 
@@ -69,6 +72,7 @@ public abstract class DXFEntity {
      */
     public void setLayerName(String id) {
         this.layerID = id;
+        changed();
     }
 
     public abstract Bounds getBounds();
@@ -86,6 +90,7 @@ public abstract class DXFEntity {
      */
     public void setLineType(String lineType) {
         this.lineType = lineType;
+        changed();
     }
 
     /**
@@ -101,6 +106,7 @@ public abstract class DXFEntity {
      */
     public void setVisibile(boolean visibile) {
         this.visibile = visibile;
+        changed();
     }
 
     /**
@@ -116,10 +122,12 @@ public abstract class DXFEntity {
      */
     public void setFlags(int flags) {
         this.flags = flags;
+        changed();
     }
 
     public void setBlockEntity(boolean b) {
         this.block = b;
+        changed();
     }
 
     public boolean isBlockEntity() {
@@ -128,6 +136,7 @@ public abstract class DXFEntity {
 
     public void setExtrusion(DXFExtrusion extrusion) {
         this.extrusion = extrusion;
+        changed();
     }
 
     public DXFExtrusion getExtrusion() {
@@ -140,6 +149,7 @@ public abstract class DXFEntity {
 
     public void setLinetypeScaleFactor(double linetypeScaleFactor) {
         this.linetypeScaleFactor = linetypeScaleFactor;
+        changed();
     }
 
     public int getColor() {
@@ -148,6 +158,7 @@ public abstract class DXFEntity {
 
     public void setColor(int color) {
         this.color = color;
+        changed();
     }
 
     public byte[] getColorRGB() {
@@ -156,6 +167,7 @@ public abstract class DXFEntity {
 
     public void setColorRGB(byte[] colorRGB) {
         this.colorRGB = colorRGB;
+        changed();
     }
 
     public int getLineWeight() {
@@ -164,6 +176,7 @@ public abstract class DXFEntity {
 
     public void setLineWeight(int lineWeight) {
         this.lineWeight = lineWeight;
+        changed();
     }
 
     public double getTransparency() {
@@ -172,10 +185,18 @@ public abstract class DXFEntity {
 
     public void setTransparency(double transparency) {
         this.transparency = transparency;
+        changed();
     }
 
     public void setID(String id) {
+        String old = this.id;
         this.id = id;
+
+        if (doc != null) {
+            doc.changedDXFEntityID(this, old);
+        }
+
+        changed();
     }
 
     public String getID() {
@@ -184,14 +205,17 @@ public abstract class DXFEntity {
 
     public void setExtrusionX(double x) {
         extrusion.setX(x);
+        invalidateBounds();
     }
 
     public void setExtrusionY(double y) {
         extrusion.setY(y);
+        invalidateBounds();
     }
 
     public void setExtrusionZ(double z) {
         extrusion.setZ(z);
+        invalidateBounds();
     }
 
     public abstract String getType();
@@ -212,6 +236,7 @@ public abstract class DXFEntity {
      */
     public void setThickness(double thickness) {
         this.thickness = thickness;
+        changed();
     }
 
     public boolean isOmitLineType() {
@@ -230,6 +255,44 @@ public abstract class DXFEntity {
      */
     public void setModelSpace(boolean modelSpace) {
         this.modelSpace = modelSpace;
+        invalidateBounds();
+    }
+
+    /**
+     * Drops the computed bounds of the layer, block, polyline or list of
+     * a store, which keeps this entity, and so of the document. Entities, which are not
+     * kept by one, have no computed bounds.
+     */
+    protected void invalidateBounds() {
+        if (container instanceof DXFLayer) {
+            ((DXFLayer) container).invalidateBounds();
+        } else if (container instanceof DXFBlock) {
+            ((DXFBlock) container).invalidateBounds();
+        } else if (container instanceof DXFEntity) {
+            ((DXFEntity) container).invalidateBounds();
+        } else if (container instanceof AbstractEntityList) {
+            ((AbstractEntityList) container).changed(this, true);
+        }
+    }
+
+    /**
+     * Tells the list of an entity store, which keeps this entity, about a
+     * change, which does not drop the bounds.
+     */
+    protected void changed() {
+        if (container instanceof AbstractEntityList) {
+            ((AbstractEntityList) container).changed(this, false);
+        } else if (container instanceof DXFEntity) {
+            ((DXFEntity) container).changed();
+        }
+    }
+
+    Object getContainer() {
+        return container;
+    }
+
+    void setContainer(Object container) {
+        this.container = container;
     }
 
     /**
@@ -0,0 +1,40 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.dxf;
+
+import java.util.List;
+
+
+/**
+ * Builds the entities of a single type on a {@link DXFLayer}, which
+ * were not built while parsing.
+ *
+ * @see DXFLayer#addDXFEntityLoader(String, DXFEntityLoader)
+ */
+public interface DXFEntityLoader {
+    /**
+     * @return the entities in the order of the file
+     * @throws IllegalStateException if the entities cannot be built
+     */
+    public List<DXFEntity> load();
+
+    /**
+     * @param id
+     * @return false if none of the entities has the ID, true if one of them
+     *         may have it
+     */
+    public boolean containsID(String id);
+}
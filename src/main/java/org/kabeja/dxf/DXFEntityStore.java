@@ -0,0 +1,33 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.dxf;
+
+import java.util.List;
+
+
+/**
+ * Creates the lists, which hold the entities of the layers of a
+ * document. Without a store the entities are kept in ArrayLists.
+ *
+ * @see DXFDocument#setDXFEntityStore(DXFEntityStore)
+ */
+public interface DXFEntityStore {
+    /**
+     * @param type the type of the entities
+     * @return a new empty list for the entities of the type on a layer
+     */
+    public List<DXFEntity> createList(String type);
+}
@@ -286,6 +286,7 @@ public class DXFHatch extends DXFEntity {
 
     public void addBoundaryLoop(HatchBoundaryLoop loop) {
         this.boundaries.add(loop);
+        invalidateBounds();
     }
 
     public Iterator<HatchBoundaryLoop> getBoundaryLoops() {
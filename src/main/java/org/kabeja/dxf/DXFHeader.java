@@ -15,8 +15,8 @@
 */
 package org.kabeja.dxf;
 
-import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 
 
 /**
@@ -26,7 +26,7 @@ import java.util.Iterator;
  *
  */
 public class DXFHeader {
-    private Hashtable<String, DXFVariable> variables = new Hashtable<String, DXFVariable>();
+    private LinkedHashMap<String, DXFVariable> variables = new LinkedHashMap<String, DXFVariable>();
 
     public DXFHeader() {
     }
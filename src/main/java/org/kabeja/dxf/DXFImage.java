@@ -67,10 +67,12 @@ public class DXFImage extends DXFEntity {
 
     public void setInsertPoint(Point p) {
         this.insertPoint = p;
+        invalidateBounds();
     }
 
     public void setImageDefObjectID(String id) {
         this.imageDefID = id;
+        invalidateBounds();
     }
 
     public String getImageDefObjectID() {
@@ -90,6 +92,7 @@ public class DXFImage extends DXFEntity {
      */
     public void setImageSizeAlongU(double imageSizeAlongU) {
         this.imageSizeAlongU = imageSizeAlongU;
+        invalidateBounds();
     }
 
     /**
@@ -105,6 +108,7 @@ public class DXFImage extends DXFEntity {
      */
     public void setImageSizeAlongV(double imageSizeAlongV) {
         this.imageSizeAlongV = imageSizeAlongV;
+        invalidateBounds();
     }
 
     /**
@@ -125,6 +125,7 @@ public class DXFInsert extends DXFEntity {
      */
     public void setBlockID(String blockID) {
         this.blockID = blockID;
+        invalidateBounds();
     }
 
     /**
@@ -140,6 +141,7 @@ public class DXFInsert extends DXFEntity {
      */
     public void setColumnSpacing(double column_spacing) {
         this.column_spacing = column_spacing;
+        invalidateBounds();
     }
 
     /**
@@ -155,6 +157,7 @@ public class DXFInsert extends DXFEntity {
      */
     public void setColumns(int columns) {
         this.columns = columns;
+        invalidateBounds();
     }
 
     /**
@@ -170,6 +173,7 @@ public class DXFInsert extends DXFEntity {
      */
     public void setPoint(Point p) {
         this.insertPoint = p;
+        invalidateBounds();
     }
 
     /**
@@ -185,6 +189,7 @@ public class DXFInsert extends DXFEntity {
      */
     public void setRotate(double rotate) {
         this.rotate = rotate;
+        invalidateBounds();
     }
 
     /**
@@ -200,6 +205,7 @@ public class DXFInsert extends DXFEntity {
      */
     public void setRowSpacing(double row_spacing) {
         this.row_spacing = row_spacing;
+        invalidateBounds();
     }
 
     /**
@@ -215,6 +221,7 @@ public class DXFInsert extends DXFEntity {
      */
     public void setRows(int rows) {
         this.rows = rows;
+        invalidateBounds();
     }
 
     /**
@@ -230,6 +237,7 @@ public class DXFInsert extends DXFEntity {
      */
     public void setScaleX(double scale_x) {
         this.scale_x = scale_x;
+        invalidateBounds();
     }
 
     /**
@@ -245,6 +253,7 @@ public class DXFInsert extends DXFEntity {
      */
     public void setScaleY(double scale_y) {
         this.scale_y = scale_y;
+        invalidateBounds();
     }
 
     /**
@@ -16,9 +16,9 @@
 package org.kabeja.dxf;
 
 import java.util.ArrayList;
-import java.util.Enumeration;
-import java.util.Hashtable;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 
 import org.apache.commons.lang3.StringUtils;
@@ -30,7 +30,7 @@ import org.apache.commons.lang3.StringUtils;
  *
  */
 public class DXFLayer {
-    private Hashtable<String, List<DXFEntity>> entities = new Hashtable<String, List<DXFEntity>>();
+    private LinkedHashMap<String, List<DXFEntity>> entities = new LinkedHashMap<String, List<DXFEntity>>();
     private String name = StringUtils.EMPTY;
     private int color = 0;
     private DXFDocument doc;
@@ -38,6 +38,14 @@ public class DXFLayer {
     private int flags = 0;
     private int lineWeight = 0;
     private String plotStyle = StringUtils.EMPTY;
+    // null after all loaders were loaded, see load(String)
+    private transient volatile HashMap<String, DXFEntityLoader> loaders = null;
+    private transient BoundsCache boundsCache;
+    private transient DXFSpatialIndex spatialIndex;
+    private transient long spatialIndexRevision;
+
+    // the revision of the last change, see DXFDocument#changed(DXFLayer)
+    private transient volatile long revision;
 
     public DXFLayer() {
     }
@@ -59,30 +67,114 @@ public class DXFLayer {
 
     public void addDXFEntity(DXFEntity entity) {
         entity.setDXFDocument(this.doc);
+        entity.setContainer(this);
 
-        if (entities.containsKey(entity.getType())) {
-            ((ArrayList<DXFEntity>) entities.get(entity.getType())).add(entity);
+        List<DXFEntity> list = entities.get(entity.getType());
+
+        if (list != null) {
+            list.add(entity);
         } else {
-            ArrayList<DXFEntity> list = new ArrayList<DXFEntity>();
+            list = createList(entity.getType());
 
             list.add(entity);
             entities.put(entity.getType(), list);
         }
+
+        invalidateBounds();
+
+        if (doc != null) {
+            doc.addedDXFEntity(this, entity.getType(), list);
+        }
     }
 
     public void removeDXFEntity(DXFEntity entity) {
+        load(entity.getType());
+
         if (entities.containsKey(entity.getType())) {
-            ArrayList<?> list = (ArrayList<?>) entities.get(entity.getType());
-            list.remove(entity);
+            List<DXFEntity> list = entities.get(entity.getType());
+            int index = list.indexOf(entity);
+
+            if (index >= 0) {
+                list.remove(index);
+
+                if (isContainer(entity)) {
+                    entity.setContainer(null);
+                }
+
+                if (doc != null) {
+                    doc.removedDXFEntity(entity, list, index);
+                }
+            }
 
             if (list.isEmpty()) {
                 entities.remove(entity.getType());
             }
+
+            invalidateBounds();
+        }
+    }
+
+    /**
+     * Drops the computed bounds and the spatial index of this layer and
+     * the bounds of the document.
+     */
+    void invalidateBounds() {
+        if (doc != null) {
+            revision = doc.changed(this);
+        }
+    }
+
+    /**
+     * @return the revision the computed bounds are valid for, which
+     *         includes the changes of the blocks if inserts or dimensions
+     *         refer to them
+     */
+    private long getBoundsRevision() {
+        return doc.getBoundsRevision(revision,
+            entities.containsKey(DXFConstants.ENTITY_TYPE_INSERT) ||
+            entities.containsKey(DXFConstants.ENTITY_TYPE_DIMENSION));
+    }
+
+    /**
+     * @return the monitor held while building the bounds, the spatial
+     *         index or the entities of a loader
+     */
+    private Object monitor() {
+        return (doc != null) ? doc : this;
+    }
+
+    private List<DXFEntity> createList(String type) {
+        if ((doc != null) && (doc.getDXFEntityStore() != null)) {
+            List<DXFEntity> list = doc.getDXFEntityStore().createList(type);
+
+            if (list instanceof CompactEntityList) {
+                ((CompactEntityList) list).setDXFLayer(this);
+            } else if (list instanceof AbstractEntityList) {
+                ((AbstractEntityList) list).setDXFLayer(this);
+            }
+
+            return list;
         }
+
+        return new ArrayList<DXFEntity>();
+    }
+
+    /**
+     * @return true if the layer or one of its lists keeps the entity
+     */
+    private boolean isContainer(DXFEntity entity) {
+        Object container = entity.getContainer();
+
+        return (container == this) ||
+        ((container instanceof AbstractEntityList) &&
+        (((AbstractEntityList) container).getDXFLayer() == this));
     }
 
     public void setDXFDocument(DXFDocument doc) {
         this.doc = doc;
+        this.revision = 0;
+        this.boundsCache = null;
+        this.spatialIndex = null;
     }
 
     public DXFDocument getDXFDocument() {
@@ -90,25 +182,40 @@ public class DXFLayer {
     }
 
     public Bounds getBounds() {
-        Bounds bounds = new Bounds();
-        Enumeration<List<DXFEntity>> e = entities.elements();
+        synchronized (monitor()) {
+            loadDXFEntities();
 
-        while (e.hasMoreElements()) {
-            List<?> list = e.nextElement();
+            Bounds bounds = getCachedBounds(BoundsCache.ALL);
 
-            Iterator<?> i = list.iterator();
+            if (bounds != null) {
+                return bounds;
+            }
 
-            while (i.hasNext()) {
-                DXFEntity entity = (DXFEntity) i.next();
-                Bounds b = entity.getBounds();
+            bounds = new Bounds();
 
-                if (b.isValid()) {
-                    bounds.addToBounds(b);
+            for (List<DXFEntity> list : entities.values()) {
+                if (list instanceof CompactEntityList) {
+                    ((CompactEntityList) list).addToBounds(bounds, false, false);
+
+                    continue;
+                }
+
+                Iterator<?> i = list.iterator();
+
+                while (i.hasNext()) {
+                    DXFEntity entity = (DXFEntity) i.next();
+                    Bounds b = entity.getBounds();
+
+                    if (b.isValid()) {
+                        bounds.addToBounds(b);
+                    }
                 }
             }
-        }
 
-        return bounds;
+            putCachedBounds(BoundsCache.ALL, bounds);
+
+            return bounds;
+        }
     }
 
     /**
@@ -119,34 +226,94 @@ public class DXFLayer {
      * @return
      */
     public Bounds getBounds(boolean onModelspace) {
-        Bounds bounds = new Bounds();
+        synchronized (monitor()) {
+            loadDXFEntities();
 
-        Enumeration<List<DXFEntity>> e = entities.elements();
+            int kind = onModelspace ? BoundsCache.MODELSPACE : BoundsCache.PAPERSPACE;
+            Bounds bounds = getCachedBounds(kind);
 
-        while (e.hasMoreElements()) {
-            List<?> list = e.nextElement();
+            if (bounds != null) {
+                return bounds;
+            }
 
-            Iterator<?> i = list.iterator();
+            bounds = new Bounds();
 
-            while (i.hasNext()) {
-                DXFEntity entity = (DXFEntity) i.next();
+            for (List<DXFEntity> list : entities.values()) {
+                if (list instanceof CompactEntityList) {
+                    ((CompactEntityList) list).addToBounds(bounds, true,
+                        onModelspace);
 
-                if ((onModelspace && entity.isModelSpace()) ||
-                        (!onModelspace && !entity.isModelSpace())) {
-                    Bounds b = entity.getBounds();
+                    continue;
+                }
 
-                    if (b.getMaximumX() == Double.NaN) {
-                        System.out.println("NANA=" + entity);
-                    }
+                Iterator<?> i = list.iterator();
 
-                    if (b.isValid()) {
-                        bounds.addToBounds(b);
+                while (i.hasNext()) {
+                    DXFEntity entity = (DXFEntity) i.next();
+
+                    if ((onModelspace && entity.isModelSpace()) ||
+                            (!onModelspace && !entity.isModelSpace())) {
+                        Bounds b = entity.getBounds();
+
+                        if (b.getMaximumX() == Double.NaN) {
+                            System.out.println("NANA=" + entity);
+                        }
+
+                        if (b.isValid()) {
+                            bounds.addToBounds(b);
+                        }
                     }
                 }
             }
+
+            putCachedBounds(kind, bounds);
+
+            return bounds;
+        }
+    }
+
+    private Bounds getCachedBounds(int kind) {
+        if ((doc == null) || (boundsCache == null)) {
+            return null;
         }
 
-        return bounds;
+        return boundsCache.get(kind, getBoundsRevision());
+    }
+
+    private void putCachedBounds(int kind, Bounds bounds) {
+        if (doc != null) {
+            if (boundsCache == null) {
+                boundsCache = new BoundsCache();
+            }
+
+            boundsCache.put(kind, getBoundsRevision(), bounds);
+        }
+    }
+
+    /**
+     * Returns the spatial index of the entities, which is built on the
+     * first call and again after changes of the layer.
+     *
+     * @return the index
+     */
+    public DXFSpatialIndex getSpatialIndex() {
+        synchronized (monitor()) {
+            loadDXFEntities();
+
+            if ((doc != null) && (spatialIndex != null) &&
+                    (spatialIndexRevision == getBoundsRevision())) {
+                return spatialIndex;
+            }
+
+            DXFSpatialIndex index = new DXFSpatialIndex(entities.values());
+
+            if (doc != null) {
+                spatialIndex = index;
+                spatialIndexRevision = getBoundsRevision();
+            }
+
+            return index;
+        }
     }
 
     /**
@@ -156,6 +323,8 @@ public class DXFLayer {
      * @return List or null
      */
     public List<DXFEntity> getDXFEntities(String type) {
+        load(type);
+
         if (entities.containsKey(type)) {
             return entities.get(type);
         }
@@ -188,10 +357,38 @@ public class DXFLayer {
      */
     public DXFEntity getDXFEntityByID(String id) {
         DXFEntity entity = null;
+        loadDXFEntities(id);
+
+        if ((doc != null) && doc.containsDXFLayer(name) &&
+                (doc.getDXFLayer(name) == this)) {
+            // the handle index of the document has all entities
+            entity = doc.getDXFEntityByID(id);
+
+            if ((entity == null) || isContainer(entity)) {
+                return entity;
+            }
+
+            // the entity of another layer with the same ID or moved
+            // directly between the lists
+            entity = null;
+        }
+
         Iterator<List<DXFEntity>> i = this.entities.values().iterator();
 
         while (i.hasNext()) {
-            Iterator<?> entityIterator = ((List<?>) i.next()).iterator();
+            List<DXFEntity> list = i.next();
+
+            if (list instanceof CompactEntityList) {
+                DXFEntity e = ((CompactEntityList) list).getDXFEntityByID(id);
+
+                if (e != null) {
+                    return e;
+                }
+
+                continue;
+            }
+
+            Iterator<?> entityIterator = list.iterator();
 
             while (entityIterator.hasNext()) {
                 DXFEntity e = (DXFEntity) entityIterator.next();
@@ -205,6 +402,110 @@ public class DXFLayer {
         return entity;
     }
 
+    /**
+     * @return the list of the type without building the entities of a
+     *         loader or null
+     */
+    List<DXFEntity> getEntityList(String type) {
+        return entities.get(type);
+    }
+
+    int getDXFEntityLoaderCount() {
+        return (loaders != null) ? loaders.size() : 0;
+    }
+
+    /**
+     * Adds entities of the type, which are built by the loader on the
+     * first access of the type or of all entities of the layer. Entities
+     * added before are kept behind the loaded entities.
+     *
+     * @param type
+     * @param loader
+     */
+    public void addDXFEntityLoader(String type, DXFEntityLoader loader) {
+        if (!entities.containsKey(type)) {
+            entities.put(type, createList(type));
+        }
+
+        load(type);
+
+        if (loaders == null) {
+            loaders = new HashMap<String, DXFEntityLoader>();
+        }
+
+        loaders.put(type, loader);
+
+        if (doc != null) {
+            doc.addedDXFEntityLoader(this);
+        }
+    }
+
+    /**
+     * Builds all entities, which are not built yet.
+     */
+    public void loadDXFEntities() {
+        if (loaders == null) {
+            return;
+        }
+
+        synchronized (monitor()) {
+            while (loaders != null) {
+                load(loaders.keySet().iterator().next());
+            }
+        }
+    }
+
+    /**
+     * Builds the entities of the types, which may contain the ID.
+     */
+    void loadDXFEntities(String id) {
+        if (loaders == null) {
+            return;
+        }
+
+        synchronized (monitor()) {
+            for (String type : new ArrayList<String>(loaders.keySet())) {
+                if ((loaders != null) && loaders.get(type).containsID(id)) {
+                    load(type);
+                }
+            }
+        }
+    }
+
+    private void load(String type) {
+        if (loaders == null) {
+            return;
+        }
+
+        synchronized (monitor()) {
+            DXFEntityLoader loader = (loaders != null) ? loaders.remove(type)
+                                                       : null;
+
+            if (loader != null) {
+                List<DXFEntity> loaded = loader.load();
+
+                List<DXFEntity> list = entities.get(type);
+
+                for (DXFEntity entity : loaded) {
+                    entity.setDXFDocument(this.doc);
+                    entity.setContainer(this);
+                }
+
+                list.addAll(0, loaded);
+                invalidateBounds();
+
+                if (loaders.isEmpty()) {
+                    // the readers see the entities without the monitor
+                    loaders = null;
+                }
+
+                if (doc != null) {
+                    doc.loadedDXFEntities(this, type, list);
+                }
+            }
+        }
+    }
+
     public int getColor() {
         return this.color;
     }
@@ -234,6 +535,7 @@ public class DXFLayer {
      */
     public void setFlags(int flags) {
         this.flags = flags;
+        invalidateBounds();
     }
 
     public boolean isVisible() {
@@ -38,6 +38,7 @@ public class DXFLine extends DXFEntity {
 
     public void setStartPoint(Point start) {
         this.start = start;
+        invalidateBounds();
     }
 
     /**
@@ -53,6 +54,7 @@ public class DXFLine extends DXFEntity {
      */
     public void setEndPoint(Point end) {
         this.end = end;
+        invalidateBounds();
     }
 
     /**
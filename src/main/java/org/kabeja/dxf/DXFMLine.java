@@ -83,6 +83,7 @@ public class DXFMLine extends DXFEntity {
 
     public void addDXFMLineSegement(DXFMLineSegment seg) {
         this.mlineSegments.add(seg);
+        invalidateBounds();
     }
 
     public int getDXFMLineSegmentCount() {
@@ -99,6 +100,7 @@ public class DXFMLine extends DXFEntity {
 
     public void setScale(double scale) {
         this.scale = scale;
+        invalidateBounds();
     }
 
     public Point getStartPoint() {
@@ -107,6 +109,7 @@ public class DXFMLine extends DXFEntity {
 
     public void setStartPoint(Point startPoint) {
         this.startPoint = startPoint;
+        invalidateBounds();
     }
 
     public int getLineCount() {
@@ -123,6 +126,7 @@ public class DXFMLine extends DXFEntity {
 
     public void setMLineStyleID(String lineStyleID) {
         mLineStyleID = lineStyleID;
+        invalidateBounds();
     }
 
     public int getJustification() {
@@ -131,6 +135,7 @@ public class DXFMLine extends DXFEntity {
 
     public void setJustification(int justification) {
         this.justification = justification;
+        invalidateBounds();
     }
 
     public String getMLineStyleName() {
@@ -46,10 +46,12 @@ public class DXFMText extends DXFText {
      */
     public void setAttachmentPoint(int value) {
         this.attachmentpointLocation = value;
+        invalidateBounds();
     }
 
     public void setReferenceWidth(double width) {
         this.refwidth = width;
+        invalidateBounds();
     }
 
     public double getReferenceWidth() {
@@ -58,6 +60,7 @@ public class DXFMText extends DXFText {
 
     public void setReferenceHeight(double height) {
         this.refheight = height;
+        invalidateBounds();
     }
 
     public double getReferenceHeight() {
@@ -98,6 +101,7 @@ public class DXFMText extends DXFText {
         this.text = text;
 
         this.textDoc = DXFTextParser.parseDXFMText(this);
+        invalidateBounds();
     }
 
     public int getAlignment() {
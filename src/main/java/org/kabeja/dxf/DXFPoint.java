@@ -51,6 +51,7 @@ public class DXFPoint extends DXFEntity {
      */
     public void setX(double x) {
         this.p.setX(x);
+        invalidateBounds();
     }
 
     /**
@@ -66,6 +67,7 @@ public class DXFPoint extends DXFEntity {
      */
     public void setY(double y) {
         this.p.setY(y);
+        invalidateBounds();
     }
 
     /**
@@ -81,6 +83,7 @@ public class DXFPoint extends DXFEntity {
      */
     public void setZ(double z) {
         this.p.setZ(z);
+        invalidateBounds();
     }
 
     @Override
@@ -102,6 +105,7 @@ public class DXFPoint extends DXFEntity {
 
     public void setPoint(Point p) {
         this.p = p;
+        invalidateBounds();
     }
 
     @Override
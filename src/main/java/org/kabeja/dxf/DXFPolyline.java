@@ -5,9 +5,12 @@
 package org.kabeja.dxf;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
+import org.apache.commons.lang3.StringUtils;
 import org.kabeja.dxf.helpers.Point;
 import org.kabeja.dxf.helpers.Vector;
 import org.kabeja.math.MathUtils;
@@ -19,7 +22,7 @@ import org.kabeja.math.MathUtils;
  */
 public class DXFPolyline extends DXFEntity {
     protected static final double QUARTER_CIRCLE_ANGLE = Math.tan(0.39269908169872414D);
-    protected ArrayList<DXFVertex> vertices = new ArrayList<DXFVertex>();
+    private static final int INITIAL_CAPACITY = 4;
     protected double startWidth = 0.0;
     protected double endWidth = 0.0;
     protected boolean constantWidth = true;
@@ -29,6 +32,22 @@ public class DXFPolyline extends DXFEntity {
     protected int rows = 0;
     protected int columns = 0;
 
+    // the vertices are packed in parallel arrays, the arrays
+    // beside x and y are created with the first value != 0, a snapshot
+    // writes the vertices instead of the arrays
+    private transient int vertexCount = 0;
+    private transient double[] vertexX;
+    private transient double[] vertexY;
+    private transient double[] vertexZ;
+    private transient double[] bulges;
+    private transient double[] startWidths;
+    private transient double[] endWidths;
+    private transient int[] vertexFlags;
+    private transient String[] vertexIDs;
+
+    // vertices with further properties are kept as they are
+    private transient DXFVertex[] vertexEntities;
+
     /**
      *
      */
@@ -44,24 +63,15 @@ public class DXFPolyline extends DXFEntity {
     public Bounds getBounds() {
         Bounds bounds = new Bounds();
 
-        Iterator<DXFVertex> i = vertices.iterator();
-
-        if (i.hasNext()) {
-            DXFVertex last;
-            DXFVertex first;
-            DXFVertex v = null;
+        if (vertexCount > 0) {
+            bounds.addToBounds(getVertexX(0), getVertexY(0), getVertexZ(0));
 
-            last = first = i.next();
-            bounds.addToBounds(last.getPoint());
-
-            while (i.hasNext()) {
-                v = i.next();
-                addToBounds(last, v, bounds);
-                last = v;
+            for (int i = 1; i < vertexCount; i++) {
+                addToBounds(i - 1, i, bounds);
             }
 
-            if ((v != null) && (v.getBulge() != 0.0)) {
-                addToBounds(v, first, bounds);
+            if ((vertexCount > 1) && (getVertexBulge(vertexCount - 1) != 0.0)) {
+                addToBounds(vertexCount - 1, 0, bounds);
             }
         } else {
             bounds.setValid(false);
@@ -70,55 +80,416 @@ public class DXFPolyline extends DXFEntity {
         return bounds;
     }
 
+    /**
+     * Adds the vertex, which is kept, so later changes of the vertex are
+     * seen by the polyline. A vertex returned by {@link #getVertex(int)}
+     * of another polyline, which is a view of the packed values, is
+     * copied.
+     *
+     * @param vertex
+     */
     public void addVertex(DXFVertex vertex) {
-        vertices.add(vertex);
+        if (vertex instanceof PackedVertex) {
+            PackedVertex packed = (PackedVertex) vertex;
+
+            if (isPackable(packed)) {
+                pack(packed);
+            } else {
+                keep(packed.copy());
+            }
+        } else {
+            keep(vertex);
+        }
+    }
+
+    /**
+     * Adds the vertex like {@link #addVertex(DXFVertex)}, but a vertex with
+     * no other properties than the point, bulge, widths, flags and ID is
+     * copied to the packed vertices, so later changes of that vertex are
+     * not seen by the polyline. Use the vertex returned by
+     * {@link #getVertex(int)} to change it. The parsers add the vertices
+     * this way.
+     *
+     * @param vertex
+     */
+    public void addPackedVertex(DXFVertex vertex) {
+        if (isPackable(vertex)) {
+            pack(vertex);
+        } else {
+            addVertex(vertex);
+        }
+    }
+
+    private void pack(DXFVertex vertex) {
+        int index = vertexCount;
+        addVertex(vertex.getX(), vertex.getY(), vertex.getZ());
+        setVertexBulge(index, vertex.getBulge());
+        setVertexStartWidth(index, vertex.getStartWidth());
+        setVertexEndWidth(index, vertex.getEndWidth());
+        setVertexFlags(index, vertex.getFlags());
+        setVertexID(index, vertex.getID());
+
+        if (!vertex.isConstantWidth()) {
+            constantWidth = false;
+        }
+    }
+
+    private void keep(DXFVertex vertex) {
+        int index = vertexCount;
+        ensureCapacity(index + 1);
+
+        if (vertexEntities == null) {
+            vertexEntities = new DXFVertex[vertexX.length];
+        }
+
+        vertexEntities[index] = vertex;
+        vertex.setContainer(this);
+        vertexCount++;
+        invalidateBounds();
 
         if (!vertex.isConstantWidth()) {
             constantWidth = false;
         }
     }
 
+    /**
+     * Adds a vertex without bulge and widths.
+     *
+     * @param x
+     * @param y
+     * @param z
+     */
+    public void addVertex(double x, double y, double z) {
+        ensureCapacity(vertexCount + 1);
+        vertexX[vertexCount] = x;
+        vertexY[vertexCount] = y;
+        vertexZ = set(vertexZ, vertexCount, z);
+        vertexCount++;
+        invalidateBounds();
+    }
+
     public int getVertexCount() {
-        return this.vertices.size();
+        return this.vertexCount;
     }
 
     public Iterator<DXFVertex> getVertexIterator() {
-        return this.vertices.iterator();
+        return new Iterator<DXFVertex>() {
+                private int next = 0;
+                private int last = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return next < vertexCount;
+                }
+
+                @Override
+                public DXFVertex next() {
+                    if (next >= vertexCount) {
+                        throw new NoSuchElementException();
+                    }
+
+                    last = next;
+                    next++;
+
+                    return getVertex(last);
+                }
+
+                @Override
+                public void remove() {
+                    if (last < 0) {
+                        throw new IllegalStateException();
+                    }
+
+                    removeVertex(last);
+                    next = last;
+                    last = -1;
+                }
+            };
     }
 
     public void removeVertex(DXFVertex vertex) {
-        // remove and check the constantwidth
-        constantWidth = true;
+        for (int i = 0; i < vertexCount; i++) {
+            if ((getVertexEntity(i) == vertex) ||
+                    ((vertex instanceof PackedVertex) &&
+                    ((PackedVertex) vertex).isVertex(this, i))) {
+                removeVertex(i);
 
-        Iterator<DXFVertex> i = vertices.iterator();
+                return;
+            }
+        }
+    }
 
-        while (i.hasNext()) {
-            DXFVertex v = i.next();
+    /**
+     * Removes the vertex, vertices returned before by
+     * {@link #getVertex(int)} for a following index are invalid
+     * afterwards.
+     *
+     * @param index
+     * @return the removed vertex
+     */
+    public DXFVertex removeVertex(int index) {
+        DXFVertex vertex = getVertexEntity(index);
+
+        if (vertex == null) {
+            vertex = new DXFVertex(new Point(vertexX[index], vertexY[index],
+                        get(vertexZ, index)));
+            vertex.setDXFDocument(doc);
+            vertex.setLayerName(layerID);
+            vertex.setBulge(get(bulges, index));
+            vertex.setStartWidth(get(startWidths, index));
+            vertex.setEndWidth(get(endWidths, index));
+            vertex.setFlags((vertexFlags != null) ? vertexFlags[index] : 0);
+
+            if ((vertexIDs != null) && (vertexIDs[index] != null)) {
+                vertex.setID(vertexIDs[index]);
+            }
+        } else {
+            vertex.setContainer(null);
+        }
+
+        int moved = vertexCount - index - 1;
+        vertexCount--;
+        remove(vertexX, index, moved);
+        remove(vertexY, index, moved);
+        remove(vertexZ, index, moved);
+        remove(bulges, index, moved);
+        remove(startWidths, index, moved);
+        remove(endWidths, index, moved);
+
+        if (vertexFlags != null) {
+            System.arraycopy(vertexFlags, index + 1, vertexFlags, index, moved);
+            vertexFlags[vertexCount] = 0;
+        }
+
+        remove(vertexIDs, index, moved);
+        remove(vertexEntities, index, moved);
+
+        // check the constantwidth
+        constantWidth = true;
 
-            if (v == vertex) {
-                i.remove();
-            } else if (!v.isConstantWidth()) {
+        for (int i = 0; i < vertexCount; i++) {
+            if (getVertexStartWidth(i) != getVertexEndWidth(i)) {
                 constantWidth = false;
+
+                break;
             }
         }
+
+        invalidateBounds();
+
+        return vertex;
     }
 
-    public void removeVertex(int index) {
-        constantWidth = true;
+    /**
+     * @param i
+     * @return the vertex, a packed vertex is returned as view, which
+     *         changes the polyline
+     */
+    public DXFVertex getVertex(int i) {
+        DXFVertex vertex = getVertexEntity(i);
+
+        if (vertex != null) {
+            return vertex;
+        }
 
-        for (int i = 0; i < vertices.size(); i++) {
-            DXFVertex v = vertices.get(i);
+        return new PackedVertex(i);
+    }
 
-            if (index == i) {
-                vertices.remove(i);
-            } else if (!v.isConstantWidth()) {
-                constantWidth = false;
+    public double getVertexX(int i) {
+        DXFVertex vertex = getVertexEntity(i);
+
+        return (vertex != null) ? vertex.getX() : vertexX[i];
+    }
+
+    public double getVertexY(int i) {
+        DXFVertex vertex = getVertexEntity(i);
+
+        return (vertex != null) ? vertex.getY() : vertexY[i];
+    }
+
+    public double getVertexZ(int i) {
+        DXFVertex vertex = getVertexEntity(i);
+
+        return (vertex != null) ? vertex.getZ() : get(vertexZ, i);
+    }
+
+    public double getVertexBulge(int i) {
+        DXFVertex vertex = getVertexEntity(i);
+
+        return (vertex != null) ? vertex.getBulge() : get(bulges, i);
+    }
+
+    public double getVertexStartWidth(int i) {
+        DXFVertex vertex = getVertexEntity(i);
+
+        return (vertex != null) ? vertex.getStartWidth() : get(startWidths, i);
+    }
+
+    public double getVertexEndWidth(int i) {
+        DXFVertex vertex = getVertexEntity(i);
+
+        return (vertex != null) ? vertex.getEndWidth() : get(endWidths, i);
+    }
+
+    public int getVertexFlags(int i) {
+        DXFVertex vertex = getVertexEntity(i);
+
+        if (vertex != null) {
+            return vertex.getFlags();
+        }
+
+        return (vertexFlags != null) ? vertexFlags[i] : 0;
+    }
+
+    private void setVertexBulge(int i, double bulge) {
+        bulges = set(bulges, i, bulge);
+    }
+
+    private void setVertexStartWidth(int i, double width) {
+        startWidths = set(startWidths, i, width);
+    }
+
+    private void setVertexEndWidth(int i, double width) {
+        endWidths = set(endWidths, i, width);
+    }
+
+    private void setVertexFlags(int i, int flags) {
+        if ((vertexFlags == null) && (flags != 0)) {
+            vertexFlags = new int[vertexX.length];
+        }
+
+        if (vertexFlags != null) {
+            vertexFlags[i] = flags;
+        }
+    }
+
+    private void setVertexID(int i, String id) {
+        if ((vertexIDs == null) && (id != null) && (id.length() > 0)) {
+            vertexIDs = new String[vertexX.length];
+        }
+
+        if (vertexIDs != null) {
+            vertexIDs[i] = id;
+        }
+    }
+
+    private DXFVertex getVertexEntity(int i) {
+        if ((i < 0) || (i >= vertexCount)) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " +
+                vertexCount);
+        }
+
+        return (vertexEntities != null) ? vertexEntities[i] : null;
+    }
+
+    /**
+     * @return whether the vertex has no other properties than the
+     *         packed ones
+     */
+    private boolean isPackable(DXFVertex v) {
+        return ((v.getClass() == DXFVertex.class) ||
+        (v instanceof PackedVertex)) &&
+        ((v.layerID.length() == 0) || v.layerID.equals(layerID)) &&
+        (v.lineType.length() == 0) && v.visibile && !v.block &&
+        (v.linetypeScaleFactor == 1.0) && (v.color == 0) &&
+        (v.colorRGB == null) && (v.lineWeight == 0) &&
+        (v.transparency == 0.0) && (v.thickness == 0.0) &&
+        (v.extrusion.getX() == 0.0) && (v.extrusion.getY() == 0.0) &&
+        (v.extrusion.getZ() == 1.0) && (v.getPolyFaceMeshVertex0() == 0) &&
+        (v.getPolyFaceMeshVertex1() == 0) &&
+        (v.getPolyFaceMeshVertex2() == 0) &&
+        (v.getPolyFaceMeshVertex3() == 0);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (vertexX == null) {
+            int length = Math.max(INITIAL_CAPACITY, capacity);
+            vertexX = new double[length];
+            vertexY = new double[length];
+        } else if (vertexX.length < capacity) {
+            int length = Math.max(vertexX.length + (vertexX.length >> 1),
+                    capacity);
+            vertexX = Arrays.copyOf(vertexX, length);
+            vertexY = Arrays.copyOf(vertexY, length);
+            vertexZ = copyOf(vertexZ, length);
+            bulges = copyOf(bulges, length);
+            startWidths = copyOf(startWidths, length);
+            endWidths = copyOf(endWidths, length);
+
+            if (vertexFlags != null) {
+                vertexFlags = Arrays.copyOf(vertexFlags, length);
+            }
+
+            if (vertexIDs != null) {
+                vertexIDs = Arrays.copyOf(vertexIDs, length);
+            }
+
+            if (vertexEntities != null) {
+                vertexEntities = Arrays.copyOf(vertexEntities, length);
             }
         }
     }
 
-    public DXFVertex getVertex(int i) {
-        return vertices.get(i);
+    /**
+     * Releases the unused capacity of the vertex arrays.
+     */
+    public void trimToSize() {
+        if ((vertexX != null) && (vertexX.length > vertexCount)) {
+            vertexX = Arrays.copyOf(vertexX, vertexCount);
+            vertexY = Arrays.copyOf(vertexY, vertexCount);
+            vertexZ = copyOf(vertexZ, vertexCount);
+            bulges = copyOf(bulges, vertexCount);
+            startWidths = copyOf(startWidths, vertexCount);
+            endWidths = copyOf(endWidths, vertexCount);
+
+            if (vertexFlags != null) {
+                vertexFlags = Arrays.copyOf(vertexFlags, vertexCount);
+            }
+
+            if (vertexIDs != null) {
+                vertexIDs = Arrays.copyOf(vertexIDs, vertexCount);
+            }
+
+            if (vertexEntities != null) {
+                vertexEntities = Arrays.copyOf(vertexEntities, vertexCount);
+            }
+        }
+    }
+
+    private double[] set(double[] a, int i, double value) {
+        if (a == null) {
+            if (value == 0.0) {
+                return null;
+            }
+
+            a = new double[vertexX.length];
+        }
+
+        a[i] = value;
+
+        return a;
+    }
+
+    private static double get(double[] a, int i) {
+        return (a != null) ? a[i] : 0.0;
+    }
+
+    private static double[] copyOf(double[] a, int length) {
+        return (a != null) ? Arrays.copyOf(a, length) : null;
+    }
+
+    private void remove(double[] a, int i, int moved) {
+        if (a != null) {
+            System.arraycopy(a, i + 1, a, i, moved);
+            a[vertexCount] = 0.0;
+        }
+    }
+
+    private void remove(Object[] a, int i, int moved) {
+        if (a != null) {
+            System.arraycopy(a, i + 1, a, i, moved);
+            a[vertexCount] = null;
+        }
     }
 
     /**
@@ -246,12 +617,8 @@ public class DXFPolyline extends DXFEntity {
         } else {
             this.constantWidth = true;
 
-            Iterator<DXFVertex> i = vertices.iterator();
-
-            while (i.hasNext()) {
-                DXFVertex vertex = i.next();
-
-                if (!vertex.isConstantWidth()) {
+            for (int i = 0; i < vertexCount; i++) {
+                if (getVertexStartWidth(i) != getVertexEndWidth(i)) {
                     this.constantWidth = false;
 
                     return this.constantWidth;
@@ -308,19 +675,38 @@ public class DXFPolyline extends DXFEntity {
     }
 
     protected void addToBounds(DXFVertex start, DXFVertex end, Bounds bounds) {
-        if (start.getBulge() != 0) {
+        addToBounds(start.getPoint(), end.getPoint(), start.getBulge(), bounds);
+    }
+
+    private void addToBounds(int start, int end, Bounds bounds) {
+        double bulge = getVertexBulge(start);
+
+        if (bulge != 0) {
+            addToBounds(new Point(getVertexX(start), getVertexY(start),
+                    getVertexZ(start)),
+                new Point(getVertexX(end), getVertexY(end), getVertexZ(end)),
+                bulge, bounds);
+        } else {
+            // the start point is already added
+            bounds.addToBounds(getVertexX(end), getVertexY(end),
+                getVertexZ(end));
+        }
+    }
+
+    private void addToBounds(Point startPoint, Point endPoint, double bulge,
+        Bounds bounds) {
+        if (bulge != 0) {
             // calculte the height
-            double l = MathUtils.distance(start.getPoint(), end.getPoint());
+            double l = MathUtils.distance(startPoint, endPoint);
 
             // double h = Math.abs(last.getBulge()) * l / 2;
-            double r = this.getRadius(start.getBulge(), l);
+            double r = this.getRadius(bulge, l);
 
             double s = l / 2;
-            Vector edgeDirection = MathUtils.getVector(start.getPoint(),
-                    end.getPoint());
+            Vector edgeDirection = MathUtils.getVector(startPoint, endPoint);
             edgeDirection = MathUtils.normalize(edgeDirection);
 
-            Point centerPoint = MathUtils.getPointOfStraightLine(start.getPoint(),
+            Point centerPoint = MathUtils.getPointOfStraightLine(startPoint,
                     edgeDirection, s);
 
             Vector centerPointDirection = MathUtils.crossProduct(edgeDirection,
@@ -329,9 +715,9 @@ public class DXFPolyline extends DXFEntity {
 
             // double t = Math.sqrt(Math.pow(r, 2) - Math.pow(s, 2));
             // double t = 0;
-            double h = Math.abs(start.getBulge() * l) / 2;
+            double h = Math.abs(bulge * l) / 2;
 
-            // if(Math.abs(start.getBulge())>=1.0){
+            // if(Math.abs(bulge)>=1.0){
             // t = h-r;
             // }else{
             // //t = Math.sqrt(Math.pow(r, 2) - Math.pow(s, 2));
@@ -341,8 +727,6 @@ public class DXFPolyline extends DXFEntity {
             int startQ = 0;
             int endQ = 0;
 
-            double bulge = start.getBulge();
-
             if (bulge > 0) {
                 // the arc goes over the right side, but where is the center
                 // point?
@@ -356,8 +740,8 @@ public class DXFPolyline extends DXFEntity {
                             centerPointDirection, (-1 * t));
                 }
 
-                endQ = MathUtils.getQuadrant(end.getPoint(), centerPoint);
-                startQ = MathUtils.getQuadrant(start.getPoint(), centerPoint);
+                endQ = MathUtils.getQuadrant(endPoint, centerPoint);
+                startQ = MathUtils.getQuadrant(startPoint, centerPoint);
             } else {
                 // the arc goes over the left side, but where is the center
                 // point?
@@ -371,14 +755,14 @@ public class DXFPolyline extends DXFEntity {
                             centerPointDirection, t);
                 }
 
-                startQ = MathUtils.getQuadrant(end.getPoint(), centerPoint);
-                endQ = MathUtils.getQuadrant(start.getPoint(), centerPoint);
+                startQ = MathUtils.getQuadrant(endPoint, centerPoint);
+                endQ = MathUtils.getQuadrant(startPoint, centerPoint);
             }
 
             if (endQ < startQ) {
                 endQ += 4;
             } else if ((endQ == startQ) &&
-                    (Math.abs(start.getBulge()) > QUARTER_CIRCLE_ANGLE)) {
+                    (Math.abs(bulge) > QUARTER_CIRCLE_ANGLE)) {
                 endQ += 4;
             }
 
@@ -415,20 +799,20 @@ public class DXFPolyline extends DXFEntity {
             }
         }
 
-        bounds.addToBounds(start.getPoint());
-        bounds.addToBounds(end.getPoint());
+        bounds.addToBounds(startPoint);
+        bounds.addToBounds(endPoint);
     }
 
     public DXFVertex getPolyFaceMeshVertex(int index) {
-        Iterator<DXFVertex> i = this.vertices.iterator();
         int count = 1;
 
-        while (i.hasNext()) {
-            DXFVertex v = i.next();
+        for (int i = 0; i < vertexCount; i++) {
+            int f = getVertexFlags(i);
 
-            if (v.isPolyFaceMeshVertex()) {
+            // bit 7 and 8 are set
+            if (((f & 64) == 64) && ((f & 128) == 128)) {
                 if (count == index) {
-                    return v;
+                    return getVertex(i);
                 } else {
                     count++;
                 }
@@ -497,7 +881,7 @@ public class DXFPolyline extends DXFEntity {
             return getMeshLength();
         } else {
             // a normal polyline with or without bulges
-            Iterator<DXFVertex> i = this.vertices.iterator();
+            Iterator<DXFVertex> i = getVertexIterator();
             DXFVertex first;
             DXFVertex last = first = i.next();
 
@@ -534,7 +918,7 @@ public class DXFPolyline extends DXFEntity {
         double length = 0.0;
 
         // use the approximation
-        Iterator<DXFVertex> i = this.vertices.iterator();
+        Iterator<DXFVertex> i = getVertexIterator();
         DXFVertex first;
         DXFVertex last = first = null;
 
@@ -560,7 +944,7 @@ public class DXFPolyline extends DXFEntity {
 
     protected double getPolyfaceLength() {
         double length = 0.0;
-        Iterator<DXFVertex> i = this.vertices.iterator();
+        Iterator<DXFVertex> i = getVertexIterator();
 
         while (i.hasNext()) {
             DXFVertex v = i.next();
@@ -604,7 +988,7 @@ public class DXFPolyline extends DXFEntity {
 
         if (isSimpleMesh()) {
             DXFVertex[][] points = new DXFVertex[this.rows][this.columns];
-            Iterator<DXFVertex> it = this.vertices.iterator();
+            Iterator<DXFVertex> it = getVertexIterator();
 
             // create a line for each row
             for (int i = 0; i < this.rows; i++) {
@@ -640,7 +1024,7 @@ public class DXFPolyline extends DXFEntity {
             }
         } else {
             DXFVertex[][] points = new DXFVertex[this.surefaceDensityRows][this.surefaceDensityColumns];
-            Iterator<DXFVertex> vi = this.vertices.iterator();
+            Iterator<DXFVertex> vi = getVertexIterator();
             List<DXFVertex> appVertices = new ArrayList<DXFVertex>();
 
             while (vi.hasNext()) {
@@ -689,4 +1073,368 @@ public class DXFPolyline extends DXFEntity {
 
         return length;
     }
+
+    /**
+     * The view of a packed vertex, the point, bulge, widths, flags and ID
+     * are read from and written to the polyline. The layer, document and
+     * space are the ones of the polyline. The first change of another
+     * property moves the vertex to a {@link DXFVertex} kept by the
+     * polyline, which {@link #getVertex(int)} returns from then on and
+     * the view changes as well.
+     */
+    private class PackedVertex extends DXFVertex {
+        private int index;
+
+        public PackedVertex(int index) {
+            this.index = index;
+            this.doc = DXFPolyline.this.doc;
+            this.layerID = DXFPolyline.this.layerID;
+            this.modelSpace = DXFPolyline.this.modelSpace;
+        }
+
+        boolean isVertex(DXFPolyline pline, int i) {
+            return (pline == DXFPolyline.this) && (index == i);
+        }
+
+        /**
+         * @return a vertex with the values of this vertex
+         */
+        DXFVertex copy() {
+            DXFVertex vertex = new DXFVertex(getPoint());
+            vertex.setDXFDocument(doc);
+            vertex.setBulge(getBulge());
+            vertex.setStartWidth(getStartWidth());
+            vertex.setEndWidth(getEndWidth());
+            vertex.setFlags(getFlags());
+            vertex.setID(getID());
+            vertex.setPolyFaceMeshVertex0(getPolyFaceMeshVertex0());
+            vertex.setPolyFaceMeshVertex1(getPolyFaceMeshVertex1());
+            vertex.setPolyFaceMeshVertex2(getPolyFaceMeshVertex2());
+            vertex.setPolyFaceMeshVertex3(getPolyFaceMeshVertex3());
+            vertex.layerID = layerID;
+            vertex.lineType = lineType;
+            vertex.visibile = visibile;
+            vertex.block = block;
+            vertex.linetypeScaleFactor = linetypeScaleFactor;
+            vertex.color = color;
+            vertex.colorRGB = colorRGB;
+            vertex.lineWeight = lineWeight;
+            vertex.transparency = transparency;
+            vertex.thickness = thickness;
+            vertex.extrusion = new DXFExtrusion();
+            vertex.extrusion.setX(extrusion.getX());
+            vertex.extrusion.setY(extrusion.getY());
+            vertex.extrusion.setZ(extrusion.getZ());
+            vertex.modelSpace = modelSpace;
+
+            return vertex;
+        }
+
+        /**
+         * @return the vertex kept by the polyline for the index, which is
+         *         created from this vertex on the first call
+         */
+        private DXFVertex unpack() {
+            DXFVertex vertex = getVertexEntity(index);
+
+            if (vertex == null) {
+                vertex = copy();
+
+                if (vertexEntities == null) {
+                    vertexEntities = new DXFVertex[vertexX.length];
+                }
+
+                vertexEntities[index] = vertex;
+                vertex.setContainer(DXFPolyline.this);
+            }
+
+            return vertex;
+        }
+
+        @Override
+        public double getX() {
+            return getVertexX(index);
+        }
+
+        @Override
+        public void setX(double x) {
+            DXFVertex vertex = getVertexEntity(index);
+
+            if (vertex != null) {
+                vertex.setX(x);
+            } else {
+                vertexX[index] = x;
+                invalidateBounds();
+            }
+        }
+
+        @Override
+        public double getY() {
+            return getVertexY(index);
+        }
+
+        @Override
+        public void setY(double y) {
+            DXFVertex vertex = getVertexEntity(index);
+
+            if (vertex != null) {
+                vertex.setY(y);
+            } else {
+                vertexY[index] = y;
+                invalidateBounds();
+            }
+        }
+
+        @Override
+        public double getZ() {
+            return getVertexZ(index);
+        }
+
+        @Override
+        public void setZ(double z) {
+            DXFVertex vertex = getVertexEntity(index);
+
+            if (vertex != null) {
+                vertex.setZ(z);
+            } else {
+                vertexZ = set(vertexZ, index, z);
+                invalidateBounds();
+            }
+        }
+
+        /**
+         * @return a copy of the point, use the setters to change it
+         */
+        @Override
+        public Point getPoint() {
+            return new Point(getX(), getY(), getZ());
+        }
+
+        @Override
+        public void setPoint(Point p) {
+            setX(p.getX());
+            setY(p.getY());
+            setZ(p.getZ());
+        }
+
+        @Override
+        protected void invalidateBounds() {
+            DXFPolyline.this.invalidateBounds();
+        }
+
+        @Override
+        public Bounds getBounds() {
+            Bounds bounds = new Bounds();
+            bounds.addToBounds(getX(), getY(), getZ());
+
+            return bounds;
+        }
+
+        @Override
+        public double getBulge() {
+            return getVertexBulge(index);
+        }
+
+        @Override
+        public void setBulge(double bulge) {
+            DXFVertex vertex = getVertexEntity(index);
+
+            if (vertex != null) {
+                vertex.setBulge(bulge);
+            } else {
+                setVertexBulge(index, bulge);
+                invalidateBounds();
+            }
+        }
+
+        @Override
+        public double getStartWidth() {
+            return getVertexStartWidth(index);
+        }
+
+        @Override
+        public void setStartWidth(double startWidth) {
+            DXFVertex vertex = getVertexEntity(index);
+
+            if (vertex != null) {
+                vertex.setStartWidth(startWidth);
+            } else {
+                setVertexStartWidth(index, startWidth);
+            }
+        }
+
+        @Override
+        public double getEndWidth() {
+            return getVertexEndWidth(index);
+        }
+
+        @Override
+        public void setEndWidth(double endWidth) {
+            DXFVertex vertex = getVertexEntity(index);
+
+            if (vertex != null) {
+                vertex.setEndWidth(endWidth);
+            } else {
+                setVertexEndWidth(index, endWidth);
+            }
+        }
+
+        @Override
+        public int getFlags() {
+            return getVertexFlags(index);
+        }
+
+        @Override
+        public void setFlags(int flags) {
+            DXFVertex vertex = getVertexEntity(index);
+
+            if (vertex != null) {
+                vertex.setFlags(flags);
+            } else {
+                setVertexFlags(index, flags);
+            }
+        }
+
+        @Override
+        public String getID() {
+            DXFVertex vertex = getVertexEntity(index);
+
+            if (vertex != null) {
+                return vertex.getID();
+            }
+
+            if ((vertexIDs != null) && (vertexIDs[index] != null)) {
+                return vertexIDs[index];
+            }
+
+            return StringUtils.EMPTY;
+        }
+
+        @Override
+        public void setID(String id) {
+            DXFVertex vertex = getVertexEntity(index);
+
+            if (vertex != null) {
+                vertex.setID(id);
+            } else {
+                setVertexID(index, id);
+            }
+        }
+
+        // the other properties are changed in this view and in the kept
+        // vertex
+        @Override
+        public void setLayerName(String id) {
+            super.setLayerName(id);
+            unpack().setLayerName(id);
+        }
+
+        @Override
+        public void setLineType(String lineType) {
+            super.setLineType(lineType);
+            unpack().setLineType(lineType);
+        }
+
+        @Override
+        public void setVisibile(boolean visibile) {
+            super.setVisibile(visibile);
+            unpack().setVisibile(visibile);
+        }
+
+        @Override
+        public void setBlockEntity(boolean b) {
+            super.setBlockEntity(b);
+            unpack().setBlockEntity(b);
+        }
+
+        @Override
+        public void setExtrusion(DXFExtrusion extrusion) {
+            super.setExtrusion(extrusion);
+            unpack().setExtrusion(extrusion);
+        }
+
+        @Override
+        public void setExtrusionX(double x) {
+            super.setExtrusionX(x);
+            unpack().setExtrusionX(x);
+        }
+
+        @Override
+        public void setExtrusionY(double y) {
+            super.setExtrusionY(y);
+            unpack().setExtrusionY(y);
+        }
+
+        @Override
+        public void setExtrusionZ(double z) {
+            super.setExtrusionZ(z);
+            unpack().setExtrusionZ(z);
+        }
+
+        @Override
+        public void setLinetypeScaleFactor(double linetypeScaleFactor) {
+            super.setLinetypeScaleFactor(linetypeScaleFactor);
+            unpack().setLinetypeScaleFactor(linetypeScaleFactor);
+        }
+
+        @Override
+        public void setColor(int color) {
+            super.setColor(color);
+            unpack().setColor(color);
+        }
+
+        @Override
+        public void setColorRGB(byte[] colorRGB) {
+            super.setColorRGB(colorRGB);
+            unpack().setColorRGB(colorRGB);
+        }
+
+        @Override
+        public void setLineWeight(int lineWeight) {
+            super.setLineWeight(lineWeight);
+            unpack().setLineWeight(lineWeight);
+        }
+
+        @Override
+        public void setTransparency(double transparency) {
+            super.setTransparency(transparency);
+            unpack().setTransparency(transparency);
+        }
+
+        @Override
+        public void setThickness(double thickness) {
+            super.setThickness(thickness);
+            unpack().setThickness(thickness);
+        }
+
+        @Override
+        public void setModelSpace(boolean modelSpace) {
+            super.setModelSpace(modelSpace);
+            unpack().setModelSpace(modelSpace);
+        }
+
+        @Override
+        public void setPolyFaceMeshVertex0(int polyFaceMeshVertex0) {
+            super.setPolyFaceMeshVertex0(polyFaceMeshVertex0);
+            unpack().setPolyFaceMeshVertex0(polyFaceMeshVertex0);
+        }
+
+        @Override
+        public void setPolyFaceMeshVertex1(int polyFaceMeshVertex1) {
+            super.setPolyFaceMeshVertex1(polyFaceMeshVertex1);
+            unpack().setPolyFaceMeshVertex1(polyFaceMeshVertex1);
+        }
+
+        @Override
+        public void setPolyFaceMeshVertex2(int polyFaceMeshVertex2) {
+            super.setPolyFaceMeshVertex2(polyFaceMeshVertex2);
+            unpack().setPolyFaceMeshVertex2(polyFaceMeshVertex2);
+        }
+
+        @Override
+        public void setPolyFaceMeshVertex3(int polyFaceMeshVertex3) {
+            super.setPolyFaceMeshVertex3(polyFaceMeshVertex3);
+            unpack().setPolyFaceMeshVertex3(polyFaceMeshVertex3);
+        }
+    }
 }
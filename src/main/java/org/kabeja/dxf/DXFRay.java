@@ -60,6 +60,7 @@ public class DXFRay extends DXFEntity {
      */
     public void setBasePoint(Point basePoint) {
         this.basePoint = basePoint;
+        invalidateBounds();
     }
 
     /**
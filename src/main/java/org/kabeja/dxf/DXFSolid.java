@@ -57,6 +57,7 @@ public class DXFSolid extends DXFEntity {
      */
     public void setPoint1(Point point1) {
         this.point1 = point1;
+        invalidateBounds();
     }
 
     /**
@@ -72,6 +73,7 @@ public class DXFSolid extends DXFEntity {
      */
     public void setPoint2(Point point2) {
         this.point2 = point2;
+        invalidateBounds();
     }
 
     /**
@@ -87,6 +89,7 @@ public class DXFSolid extends DXFEntity {
      */
     public void setPoint3(Point point3) {
         this.point3 = point3;
+        invalidateBounds();
     }
 
     /**
@@ -102,6 +105,7 @@ public class DXFSolid extends DXFEntity {
      */
     public void setPoint4(Point point4) {
         this.point4 = point4;
+        invalidateBounds();
     }
 
     @Override
@@ -0,0 +1,416 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.dxf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+
+/**
+ * An R-tree over the bounds of the entities of a layer or a block, which
+ * is bulk loaded with sort tile recursive packing and kept in primitive
+ * arrays. The index of a document combines the indexes of its layers.
+ * <p>
+ * Entities without an extent, for example with bounds which were never
+ * enlarged, are not indexed. The results are returned in the order of
+ * the entity lists. An index is valid until the entities are changed,
+ * {@link DXFLayer#getSpatialIndex()} and
+ * {@link DXFBlock#getSpatialIndex()} build a new one afterwards.
+ * </p>
+ */
+public class DXFSpatialIndex {
+    private static final int NODE_SIZE = 16;
+    private List<List<DXFEntity>> lists = new ArrayList<List<DXFEntity>>();
+
+    // the position of the first entity of each list
+    private int[] starts;
+    private int count;
+
+    // minX, minY, maxX, maxY of the entities and then of the nodes
+    private double[] boxes;
+
+    // the position of the entity in the lists for every leaf
+    private int[] positions;
+    private int[] levels;
+    private List<DXFSpatialIndex> parts;
+
+    /**
+     * Indexes the entities of the lists.
+     */
+    DXFSpatialIndex(Iterable<List<DXFEntity>> entityLists) {
+        int total = 0;
+
+        for (List<DXFEntity> list : entityLists) {
+            lists.add(list);
+        }
+
+        starts = new int[lists.size() + 1];
+
+        double[] b = new double[64];
+        int[] p = new int[16];
+
+        for (int l = 0; l < lists.size(); l++) {
+            List<DXFEntity> list = lists.get(l);
+            starts[l] = total;
+
+            Iterator<DXFEntity> i = (list instanceof CompactEntityList)
+                ? ((CompactEntityList) list).flyweightIterator() : list.iterator();
+
+            while (i.hasNext()) {
+                Bounds e = i.next().getBounds();
+
+                // the bounds without an extent keep the initial values
+                if ((e.getMaximumX() != Double.NEGATIVE_INFINITY) &&
+                        (e.getMaximumY() != Double.NEGATIVE_INFINITY) &&
+                        (e.getMinimumX() != Double.POSITIVE_INFINITY) &&
+                        (e.getMinimumY() != Double.POSITIVE_INFINITY)) {
+                    if (count == p.length) {
+                        p = Arrays.copyOf(p, count * 2);
+                        b = Arrays.copyOf(b, count * 8);
+                    }
+
+                    b[count * 4] = e.getMinimumX();
+                    b[(count * 4) + 1] = e.getMinimumY();
+                    b[(count * 4) + 2] = e.getMaximumX();
+                    b[(count * 4) + 3] = e.getMaximumY();
+                    p[count] = total;
+                    count++;
+                }
+
+                total++;
+            }
+        }
+
+        starts[lists.size()] = total;
+        build(b, p);
+    }
+
+    /**
+     * Combines the indexes.
+     */
+    DXFSpatialIndex(List<DXFSpatialIndex> parts) {
+        this.parts = parts;
+
+        for (DXFSpatialIndex part : parts) {
+            count += part.count;
+        }
+    }
+
+    /**
+     * @return the number of indexed entities
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return the bounds of the indexed entities
+     */
+    public Bounds getBounds() {
+        Bounds bounds = new Bounds();
+
+        if (parts != null) {
+            for (DXFSpatialIndex part : parts) {
+                if (part.count > 0) {
+                    bounds.addToBounds(part.getBounds());
+                }
+            }
+        } else if (count > 0) {
+            int root = boxes.length - 4;
+            bounds.addToBounds(boxes[root], boxes[root + 1], 0);
+            bounds.addToBounds(boxes[root + 2], boxes[root + 3], 0);
+        }
+
+        return bounds;
+    }
+
+    /**
+     * @return the entities, which bounds intersect or touch the window
+     */
+    public List<DXFEntity> getDXFEntities(Bounds window) {
+        return getDXFEntities(window.getMinimumX(), window.getMinimumY(),
+            window.getMaximumX(), window.getMaximumY());
+    }
+
+    /**
+     * @return the entities, which bounds contain the point
+     */
+    public List<DXFEntity> getDXFEntities(double x, double y) {
+        return getDXFEntities(x, y, x, y);
+    }
+
+    private List<DXFEntity> getDXFEntities(double minX, double minY,
+        double maxX, double maxY) {
+        List<DXFEntity> result = new ArrayList<DXFEntity>();
+
+        if (parts != null) {
+            for (DXFSpatialIndex part : parts) {
+                result.addAll(part.getDXFEntities(minX, minY, maxX, maxY));
+            }
+
+            return result;
+        }
+
+        if (count == 0) {
+            return result;
+        }
+
+        int[] found = new int[16];
+        int size = 0;
+        int[] stack = new int[64];
+        int top = 0;
+
+        // the nodes are pushed as level and offset
+        stack[top++] = levels.length - 2;
+        stack[top++] = 0;
+
+        while (top > 0) {
+            int offset = stack[--top];
+            int level = stack[--top];
+            int first = offset * NODE_SIZE;
+            int last = Math.min(first + NODE_SIZE,
+                    levels[level + 1] - levels[level]);
+
+            for (int i = first; i < last; i++) {
+                int box = (levels[level] + i) * 4;
+
+                if ((boxes[box] > maxX) || (boxes[box + 1] > maxY) ||
+                        (boxes[box + 2] < minX) || (boxes[box + 3] < minY)) {
+                    continue;
+                }
+
+                if (level == 0) {
+                    if (size == found.length) {
+                        found = Arrays.copyOf(found, size * 2);
+                    }
+
+                    found[size++] = positions[i];
+                } else {
+                    if ((top + 2) > stack.length) {
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    }
+
+                    stack[top++] = level - 1;
+                    stack[top++] = i;
+                }
+            }
+        }
+
+        Arrays.sort(found, 0, size);
+
+        for (int i = 0; i < size; i++) {
+            result.add(getDXFEntity(found[i]));
+        }
+
+        return result;
+    }
+
+    /**
+     * @return the entity with the nearest bounds to the point or null if
+     *         there are no entities
+     */
+    public DXFEntity getNearestDXFEntity(double x, double y) {
+        if (parts != null) {
+            DXFEntity nearest = null;
+            double distance = Double.POSITIVE_INFINITY;
+
+            for (DXFSpatialIndex part : parts) {
+                int leaf = part.getNearest(x, y);
+
+                if (leaf >= 0) {
+                    double d = part.distance(leaf, x, y);
+
+                    if (d < distance) {
+                        distance = d;
+                        nearest = part.getDXFEntity(part.positions[leaf]);
+                    }
+                }
+            }
+
+            return nearest;
+        }
+
+        int leaf = getNearest(x, y);
+
+        return (leaf >= 0) ? getDXFEntity(positions[leaf]) : null;
+    }
+
+    /**
+     * Searches best first.
+     *
+     * @return the nearest leaf or -1
+     */
+    private int getNearest(double x, double y) {
+        if (count == 0) {
+            return -1;
+        }
+
+        // the nodes are queued with the level and the offset in the level
+        int root = levels.length - 2;
+        PriorityQueue<Node> queue = new PriorityQueue<Node>();
+        queue.add(new Node(root, 0, distance(levels[root], x, y)));
+
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+
+            if (node.level == 0) {
+                return node.offset;
+            }
+
+            int level = node.level - 1;
+            int first = node.offset * NODE_SIZE;
+            int last = Math.min(first + NODE_SIZE,
+                    levels[level + 1] - levels[level]);
+
+            for (int i = first; i < last; i++) {
+                queue.add(new Node(level, i, distance(levels[level] + i, x, y)));
+            }
+        }
+
+        return -1;
+    }
+
+    private double distance(int box, double x, double y) {
+        box *= 4;
+
+        double dx = Math.max(Math.max(boxes[box] - x, 0.0), x - boxes[box + 2]);
+        double dy = Math.max(Math.max(boxes[box + 1] - y, 0.0),
+                y - boxes[box + 3]);
+
+        return (dx * dx) + (dy * dy);
+    }
+
+    /**
+     * @return a key, which sorts by the center and holds the entity in the
+     *         lower bits
+     */
+    private static long key(double center, int i) {
+        int bits = Float.floatToIntBits((float) center);
+        bits ^= ((bits >> 31) & 0x7fffffff);
+
+        return ((long) bits << 32) | i;
+    }
+
+    private DXFEntity getDXFEntity(int position) {
+        int l = Arrays.binarySearch(starts, position);
+
+        if (l < 0) {
+            l = -l - 2;
+        } else {
+            // skip empty lists
+            while (starts[l + 1] == position) {
+                l++;
+            }
+        }
+
+        return lists.get(l).get(position - starts[l]);
+    }
+
+    /**
+     * Sorts the entities into tiles of vertical slices by the centers of
+     * the boxes and packs the levels of nodes above.
+     */
+    private void build(double[] b, int[] p) {
+        int leaves = (count + NODE_SIZE - 1) / NODE_SIZE;
+        int slices = (int) Math.ceil(Math.sqrt(leaves));
+        int sliceSize = slices * NODE_SIZE;
+        long[] order = new long[count];
+
+        for (int i = 0; i < count; i++) {
+            order[i] = key(b[i * 4] + b[(i * 4) + 2], i);
+        }
+
+        Arrays.sort(order);
+
+        for (int s = 0; s < count; s += sliceSize) {
+            int last = Math.min(s + sliceSize, count);
+
+            for (int i = s; i < last; i++) {
+                int j = (int) order[i];
+                order[i] = key(b[(j * 4) + 1] + b[(j * 4) + 3], j);
+            }
+
+            Arrays.sort(order, s, last);
+        }
+
+        // the number of boxes of all levels
+        List<Integer> sizes = new ArrayList<Integer>();
+        int n = count;
+        int total = 0;
+
+        do {
+            sizes.add(Integer.valueOf(n));
+            total += n;
+            n = (n + NODE_SIZE - 1) / NODE_SIZE;
+        } while (sizes.get(sizes.size() - 1).intValue() > 1);
+
+        levels = new int[sizes.size() + 1];
+        boxes = new double[Math.max(total, 1) * 4];
+        positions = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            int j = (int) order[i];
+            System.arraycopy(b, j * 4, boxes, i * 4, 4);
+            positions[i] = p[j];
+        }
+
+        for (int level = 1; level < sizes.size(); level++) {
+            levels[level] = levels[level - 1] + sizes.get(level - 1).intValue();
+
+            int children = sizes.get(level - 1).intValue();
+
+            for (int node = 0; node < sizes.get(level).intValue(); node++) {
+                int box = (levels[level] + node) * 4;
+                boxes[box] = Double.POSITIVE_INFINITY;
+                boxes[box + 1] = Double.POSITIVE_INFINITY;
+                boxes[box + 2] = Double.NEGATIVE_INFINITY;
+                boxes[box + 3] = Double.NEGATIVE_INFINITY;
+
+                int last = Math.min((node + 1) * NODE_SIZE, children);
+
+                for (int c = node * NODE_SIZE; c < last; c++) {
+                    int child = (levels[level - 1] + c) * 4;
+                    boxes[box] = Math.min(boxes[box], boxes[child]);
+                    boxes[box + 1] = Math.min(boxes[box + 1], boxes[child + 1]);
+                    boxes[box + 2] = Math.max(boxes[box + 2], boxes[child + 2]);
+                    boxes[box + 3] = Math.max(boxes[box + 3], boxes[child + 3]);
+                }
+            }
+        }
+
+        levels[sizes.size()] = total;
+    }
+
+    private static class Node implements Comparable<Node> {
+        private int level;
+        private int offset;
+        private double distance;
+
+        public Node(int level, int offset, double distance) {
+            this.level = level;
+            this.offset = offset;
+            this.distance = distance;
+        }
+
+        @Override
+        public int compareTo(Node n) {
+            return Double.compare(distance, n.distance);
+        }
+    }
+}
@@ -79,6 +79,7 @@ public class DXFSpline extends DXFEntity {
     public void addSplinePoint(SplinePoint p) {
         this.points.add(p);
         this.polyline = null;
+        invalidateBounds();
     }
 
     public Iterator<SplinePoint> getSplinePointIterator() {
@@ -133,6 +134,8 @@ public class DXFSpline extends DXFEntity {
      */
     public void setDegree(int degree) {
         this.degree = degree;
+        this.polyline = null;
+        invalidateBounds();
     }
 
     /**
@@ -179,6 +182,7 @@ public class DXFSpline extends DXFEntity {
     public void setKnots(double[] knots) {
         this.knots = knots;
         this.polyline = null;
+        invalidateBounds();
     }
 
     /**
@@ -209,6 +213,8 @@ public class DXFSpline extends DXFEntity {
      */
     public void setWeights(double[] weights) {
         this.weights = weights;
+        this.polyline = null;
+        invalidateBounds();
     }
 
     /**
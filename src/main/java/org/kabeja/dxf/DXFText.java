@@ -184,6 +184,7 @@ public class DXFText extends DXFEntity {
      */
     public void setAlign(int align) {
         this.align = align;
+        invalidateBounds();
     }
 
     /**
@@ -199,6 +200,7 @@ public class DXFText extends DXFEntity {
      */
     public void setAlignX(double align_x) {
         align_p1.setX(align_x);
+        invalidateBounds();
     }
 
     /**
@@ -214,6 +216,7 @@ public class DXFText extends DXFEntity {
      */
     public void setAlignY(double align_y) {
         align_p1.setY(align_y);
+        invalidateBounds();
     }
 
     /**
@@ -229,6 +232,7 @@ public class DXFText extends DXFEntity {
      */
     public void setAlignZ(double align_z) {
         align_p1.setZ(align_z);
+        invalidateBounds();
     }
 
     /**
@@ -250,6 +254,7 @@ public class DXFText extends DXFEntity {
      */
     public void setHeight(double height) {
         this.height = height;
+        invalidateBounds();
     }
 
     /**
@@ -311,6 +316,7 @@ public class DXFText extends DXFEntity {
     public void setText(String text) {
         this.text = text;
         this.textDoc = DXFTextParser.parseDXFText(this);
+        invalidateBounds();
     }
 
     /**
@@ -341,18 +347,22 @@ public class DXFText extends DXFEntity {
      */
     public void setValign(int valign) {
         this.valign = valign;
+        invalidateBounds();
     }
 
     public void setX(double x) {
         p.setX(x);
+        invalidateBounds();
     }
 
     public void setY(double y) {
         p.setY(y);
+        invalidateBounds();
     }
 
     public void setZ(double z) {
         p.setZ(z);
+        invalidateBounds();
     }
 
     public boolean isBackward() {
@@ -361,6 +371,7 @@ public class DXFText extends DXFEntity {
 
     public void setBackward(boolean backward) {
         this.backward = backward;
+        invalidateBounds();
     }
 
     public boolean isUpsideDown() {
@@ -369,6 +380,7 @@ public class DXFText extends DXFEntity {
 
     public void setUpsideDown(boolean upsideDown) {
         this.upsideDown = upsideDown;
+        invalidateBounds();
     }
 
     @Override
@@ -389,6 +401,7 @@ public class DXFText extends DXFEntity {
      */
     public void setAlignmentPoint(boolean alignmentPoint) {
         this.alignmentPointSet = alignmentPoint;
+        invalidateBounds();
     }
 
     public TextDocument getTextDocument() {
@@ -15,8 +15,8 @@
 */
 package org.kabeja.dxf;
 
-import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -28,7 +28,7 @@ import org.apache.commons.lang3.StringUtils;
  *
  */
 public class DXFVariable {
-    private Hashtable<String, String> values = new Hashtable<String, String>();
+    private LinkedHashMap<String, String> values = new LinkedHashMap<String, String>();
     private String name = StringUtils.EMPTY;
 
     public DXFVariable(String name) {
@@ -90,6 +90,7 @@ public class DXFVertex extends DXFPoint {
      */
     public void setBulge(double bulge) {
         this.bulge = bulge;
+        invalidateBounds();
     }
 
     /* (non-Javadoc)
@@ -101,36 +102,36 @@ public class DXFVertex extends DXFPoint {
     }
 
     public boolean isConstantWidth() {
-        return endWidth == startWidth;
+        return getEndWidth() == getStartWidth();
     }
 
     public boolean isCurveFitVertex() {
-        return (this.flags & 1) == 1;
+        return (getFlags() & 1) == 1;
     }
 
     public boolean isTagentUsed() {
-        return (this.flags & 2) == 2;
+        return (getFlags() & 2) == 2;
     }
 
     public boolean is2DSplineControlVertex() {
-        return (this.flags & 16) == 16;
+        return (getFlags() & 16) == 16;
     }
 
     public boolean is2DSplineApproximationVertex() {
-        return (this.flags & 8) == 8;
+        return (getFlags() & 8) == 8;
     }
 
     public boolean isPolyFaceMeshVertex() {
         //bit 7 and 8 are set
-        return (((this.flags & 64) == 64) && ((this.flags & 128) == 128));
+        return (((getFlags() & 64) == 64) && ((getFlags() & 128) == 128));
     }
 
     public boolean isFaceRecord() {
-        return this.flags == 128;
+        return getFlags() == 128;
     }
 
     public boolean isMeshApproximationVertex() {
-        return ((this.flags & 64) == 64) && ((this.flags & 8) == 8);
+        return ((getFlags() & 64) == 64) && ((getFlags() & 8) == 8);
     }
 
     /**
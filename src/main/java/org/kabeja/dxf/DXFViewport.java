@@ -94,6 +94,7 @@ public class DXFViewport extends DXFEntity {
      */
     public void setCenterPoint(Point centerPoint) {
         this.centerPoint = centerPoint;
+        invalidateBounds();
     }
 
     /**
@@ -184,6 +185,7 @@ public class DXFViewport extends DXFEntity {
      */
     public void setHeight(double height) {
         this.height = height;
+        invalidateBounds();
     }
 
     /**
@@ -374,6 +376,7 @@ public class DXFViewport extends DXFEntity {
 
     public void setWidth(double width) {
         this.width = width;
+        invalidateBounds();
     }
 
     public void setRenderMode(int renderMode) {
@@ -486,6 +489,7 @@ public class DXFViewport extends DXFEntity {
 
     public void setViewportStatus(int viewportStatus) {
         this.viewportStatus = viewportStatus;
+        invalidateBounds();
     }
 
     public double getTwistAngle() {
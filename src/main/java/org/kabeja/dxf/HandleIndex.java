@@ -0,0 +1,417 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.dxf;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.kabeja.dxf.helpers.DXFUtils;
+
+
+/**
+ * Maps the handles of the entities of a document to their positions, the
+ * entity list of a layer or block and the index in the list, so the
+ * entities of the compact and spilling stores are built without a scan.
+ * The usual hex handles are kept as long keys with the positions as long
+ * values in an open addressing table, other IDs in a HashMap. The first
+ * position put for a handle is kept.
+ * <p>
+ * The layers and blocks update the index when entities are added,
+ * removed or loaded, a position, which does not hold the entity anymore,
+ * is replaced by the position put next. After the entity lists were
+ * changed directly, a list, which changed its size or has a stale
+ * position, is indexed again on access. The other lists are kept.
+ * </p>
+ */
+class HandleIndex {
+    private static final int INITIAL_CAPACITY = 64;
+    private DXFDocument doc;
+
+    // 0 marks a free slot, the hex handles have no leading zero
+    private long[] keys;
+    private long[] values;
+    private int size;
+    private Map<String, Long> others;
+
+    // the indexed lists, the number of a list is the upper half of a value
+    private List<Slot> slots;
+    private Map<List<DXFEntity>, Slot> listSlots;
+
+    public HandleIndex(DXFDocument doc) {
+        this.doc = doc;
+        build();
+    }
+
+    /**
+     * Indexes all entities of the layers and blocks of the document.
+     */
+    private void build() {
+        keys = new long[INITIAL_CAPACITY];
+        values = new long[INITIAL_CAPACITY];
+        size = 0;
+        others = new HashMap<String, Long>();
+        slots = new ArrayList<Slot>();
+        listSlots = new IdentityHashMap<List<DXFEntity>, Slot>();
+
+        Iterator<DXFLayer> i = doc.getDXFLayerIterator();
+
+        while (i.hasNext()) {
+            addDXFLayer(i.next());
+        }
+
+        Iterator<DXFBlock> ib = doc.getDXFBlockIterator();
+
+        while (ib.hasNext()) {
+            DXFBlock block = ib.next();
+            index(block, null, block.getEntityList(), 0);
+        }
+    }
+
+    public void addDXFLayer(DXFLayer layer) {
+        Iterator<String> types = layer.getDXFEntityTypeIterator();
+
+        while (types.hasNext()) {
+            String type = types.next();
+            index(layer, type, layer.getEntityList(type), 0);
+        }
+    }
+
+    /**
+     * @return the entity or null if there is no entity with the ID in the
+     *         lists of the document
+     */
+    public DXFEntity get(String id) {
+        DXFEntity entity = find(id);
+
+        if ((entity == null) && refresh()) {
+            entity = find(id);
+        }
+
+        return entity;
+    }
+
+    /**
+     * Indexes the entities of the list from the index on.
+     *
+     * @param owner the layer or block of the list
+     * @param type the entity type of a layer list or null
+     */
+    public void index(Object owner, String type, List<DXFEntity> list,
+        int from) {
+        Slot slot = listSlots.get(list);
+
+        if (slot == null) {
+            slot = new Slot(slots.size(), owner, type, list);
+            slots.add(slot);
+            listSlots.put(list, slot);
+            from = 0;
+        }
+
+        Iterator<DXFEntity> i = ((from == 0) &&
+            (list instanceof CompactEntityList))
+            ? ((CompactEntityList) list).flyweightIterator()
+            : list.listIterator(from);
+
+        for (int n = from; i.hasNext(); n++) {
+            put(i.next().getID(), slot.number, n);
+        }
+
+        slot.size = list.size();
+    }
+
+    /**
+     * Removes the handle of the entity, which was at the index of the list,
+     * and moves the positions of the following entities.
+     */
+    public void removed(DXFEntity entity, List<DXFEntity> list, int index) {
+        Slot slot = listSlots.get(list);
+
+        if (slot == null) {
+            return;
+        }
+
+        long value = getValue(entity.getID());
+
+        if ((value >= 0) && ((int) (value >>> 32) == slot.number)) {
+            remove(entity.getID());
+        }
+
+        index(slot.owner, slot.type, list, index);
+    }
+
+    /**
+     * Moves the position of the entity to the new ID.
+     */
+    public void changedID(DXFEntity entity, String oldID) {
+        long value = getValue(oldID);
+
+        if (value >= 0) {
+            Slot slot = slots.get((int) (value >>> 32));
+            int index = (int) value;
+
+            if ((index < slot.list.size()) && (slot.list.get(index) == entity)) {
+                remove(oldID);
+                put(entity.getID(), slot.number, index);
+            }
+        }
+    }
+
+    private DXFEntity find(String id) {
+        long value = getValue(id);
+
+        if (value < 0) {
+            return null;
+        }
+
+        Slot slot = slots.get((int) (value >>> 32));
+        int index = (int) value;
+
+        if (holds(slot, index, id)) {
+            return slot.list.get(index);
+        }
+
+        // the entity may be in another list now
+        remove(id);
+
+        if (slot.isAttached()) {
+            index(slot.owner, slot.type, slot.list, 0);
+
+            return find(id);
+        }
+
+        return null;
+    }
+
+    /**
+     * Indexes the lists again, which changed their size without an update
+     * of the index.
+     *
+     * @return true if a list was indexed again
+     */
+    private boolean refresh() {
+        boolean changed = false;
+
+        for (int i = 0; i < slots.size(); i++) {
+            Slot slot = slots.get(i);
+
+            if ((slot.size != slot.list.size()) && slot.isAttached()) {
+                index(slot.owner, slot.type, slot.list, 0);
+                changed = true;
+            }
+        }
+
+        return changed;
+    }
+
+    /**
+     * @return true if the entity at the index of the list of the slot has
+     *         the ID
+     */
+    private boolean holds(Slot slot, int index, String id) {
+        if (!slot.isAttached() || (index >= slot.list.size())) {
+            return false;
+        }
+
+        if (slot.list instanceof CompactEntityList) {
+            return ((CompactEntityList) slot.list).hasID(index, id);
+        }
+
+        return id.equals(slot.list.get(index).getID());
+    }
+
+    /**
+     * @return the position or -1
+     */
+    private long getValue(String id) {
+        long handle = DXFUtils.parseHandle(id);
+
+        if (handle <= 0) {
+            Long value = others.get(id);
+
+            return (value != null) ? value.longValue() : (-1);
+        }
+
+        int mask = keys.length - 1;
+
+        for (int i = HandleMap.slot(handle, mask); keys[i] != 0;
+                i = (i + 1) & mask) {
+            if (keys[i] == handle) {
+                return values[i];
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Puts the position, if there is no position for the handle, the
+     * position is in the same list or does not hold the entity anymore.
+     */
+    private void put(String id, int number, int index) {
+        if ((id == null) || (id.length() == 0)) {
+            return;
+        }
+
+        long value = ((long) number << 32) | index;
+        long handle = DXFUtils.parseHandle(id);
+
+        if (handle <= 0) {
+            Long old = others.get(id);
+
+            if ((old == null) || ((int) (old.longValue() >>> 32) == number) ||
+                    !holds(old.longValue(), id)) {
+                others.put(id, Long.valueOf(value));
+            }
+
+            return;
+        }
+
+        if ((size + 1) > ((keys.length * 3) / 4)) {
+            resize();
+        }
+
+        int mask = keys.length - 1;
+        int i = HandleMap.slot(handle, mask);
+
+        while (keys[i] != 0) {
+            if (keys[i] == handle) {
+                if (((int) (values[i] >>> 32) == number) ||
+                        !holds(values[i], id)) {
+                    values[i] = value;
+                }
+
+                return;
+            }
+
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = handle;
+        values[i] = value;
+        size++;
+    }
+
+    private boolean holds(long value, String id) {
+        return holds(slots.get((int) (value >>> 32)), (int) value, id);
+    }
+
+    private void remove(String id) {
+        long handle = DXFUtils.parseHandle(id);
+
+        if (handle <= 0) {
+            others.remove(id);
+
+            return;
+        }
+
+        int mask = keys.length - 1;
+        int i = HandleMap.slot(handle, mask);
+
+        while (keys[i] != handle) {
+            if (keys[i] == 0) {
+                return;
+            }
+
+            i = (i + 1) & mask;
+        }
+
+        // shift the following keys of the probe sequence back
+        int j = i;
+
+        while (true) {
+            j = (j + 1) & mask;
+
+            if (keys[j] == 0) {
+                break;
+            }
+
+            int k = HandleMap.slot(keys[j], mask);
+
+            if ((i <= j) ? ((i < k) && (k <= j)) : ((i < k) || (k <= j))) {
+                continue;
+            }
+
+            keys[i] = keys[j];
+            values[i] = values[j];
+            i = j;
+        }
+
+        keys[i] = 0;
+        size--;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldKeys.length * 2];
+
+        int mask = keys.length - 1;
+
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != 0) {
+                int i = HandleMap.slot(oldKeys[j], mask);
+
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private class Slot {
+        private int number;
+        private Object owner;
+        private String type;
+        private List<DXFEntity> list;
+
+        // the size after the last update
+        private int size;
+
+        public Slot(int number, Object owner, String type,
+            List<DXFEntity> list) {
+            this.number = number;
+            this.owner = owner;
+            this.type = type;
+            this.list = list;
+        }
+
+        /**
+         * @return true if the list is still in the layer or block of the
+         *         document
+         */
+        public boolean isAttached() {
+            if (owner instanceof DXFLayer) {
+                DXFLayer layer = (DXFLayer) owner;
+
+                return doc.containsDXFLayer(layer.getName()) &&
+                (doc.getDXFLayer(layer.getName()) == layer) &&
+                (layer.getEntityList(type) == list);
+            }
+
+            DXFBlock block = (DXFBlock) owner;
+
+            return doc.getDXFBlock(block.getName()) == block;
+        }
+    }
+}
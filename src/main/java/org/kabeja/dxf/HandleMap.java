@@ -0,0 +1,118 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.dxf;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.kabeja.dxf.helpers.DXFUtils;
+
+
+/**
+ * Maps the handles (group code 5) to values. The usual hex handles are
+ * kept as long keys in an open addressing table, other IDs in a HashMap.
+ * The first value put for a handle is kept.
+ */
+class HandleMap<V> {
+    private static final int INITIAL_CAPACITY = 64;
+
+    // 0 marks a free slot, the hex handles have no leading zero
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private Object[] values = new Object[INITIAL_CAPACITY];
+    private int size;
+    private Map<String, V> others = new HashMap<String, V>();
+
+    @SuppressWarnings("unchecked")
+    public V get(String id) {
+        long handle = DXFUtils.parseHandle(id);
+
+        if (handle <= 0) {
+            return others.get(id);
+        }
+
+        int mask = keys.length - 1;
+
+        for (int i = slot(handle, mask); keys[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == handle) {
+                return (V) values[i];
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Puts the value, if there is no value for the handle.
+     */
+    public void put(String id, V value) {
+        long handle = DXFUtils.parseHandle(id);
+
+        if (handle <= 0) {
+            if (!others.containsKey(id)) {
+                others.put(id, value);
+            }
+
+            return;
+        }
+
+        if ((size + 1) > ((keys.length * 3) / 4)) {
+            resize();
+        }
+
+        int mask = keys.length - 1;
+        int i = slot(handle, mask);
+
+        while (keys[i] != 0) {
+            if (keys[i] == handle) {
+                return;
+            }
+
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = handle;
+        values[i] = value;
+        size++;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new Object[oldKeys.length * 2];
+
+        int mask = keys.length - 1;
+
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] != 0) {
+                int i = slot(oldKeys[j], mask);
+
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    static int slot(long handle, int mask) {
+        long h = handle * 0x9E3779B97F4A7C15L;
+
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
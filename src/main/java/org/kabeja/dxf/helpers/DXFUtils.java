@@ -97,7 +97,7 @@ public class DXFUtils {
         int size = pline.getVertexCount();
 
         for (int i = 0; i < size; i++) {
-            DXFVertex v = pline.getVertex(0);
+            DXFVertex v = pline.removeVertex(0);
             double b = v.getBulge();
 
             if (b != 0) {
@@ -112,7 +112,6 @@ public class DXFUtils {
             bulge = b;
 
             list.add(v);
-            pline.removeVertex(0);
         }
 
         // reverse now
@@ -150,4 +149,29 @@ public class DXFUtils {
 
         // return false;
     }
+
+    /**
+     * @return the value of the hex handle or -1 if it is not a hex
+     *         number in the usual notation
+     */
+    public static long parseHandle(String handle) {
+        if ((handle == null) || (handle.length() == 0) ||
+                (handle.length() > 15) || (handle.charAt(0) == '0')) {
+            return -1;
+        }
+
+        long h = 0;
+
+        for (int i = 0; i < handle.length(); i++) {
+            int digit = Character.digit(handle.charAt(i), 16);
+
+            if ((digit < 0) || Character.isLowerCase(handle.charAt(i))) {
+                return -1;
+            }
+
+            h = (h << 4) | digit;
+        }
+
+        return h;
+    }
 }
@@ -16,17 +16,34 @@
 package org.kabeja.dxf.objects;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.kabeja.dxf.DXFConstants;
 
 
+/**
+ * The records are hashed by name and ID, if there are more than a few.
+ * Every dictionary also hashes the IDs of the records of the
+ * dictionaries below it, so the dictionary of an ID is found without
+ * walking the tree.
+ */
 public class DXFDictionary extends DXFObject {
+    private static final int HASH_THRESHOLD = 8;
     protected List<DXFDictionaryRecord> records = new ArrayList<DXFDictionaryRecord>();
 
+    // the records list the indexes are built for
+    private transient volatile List<DXFDictionaryRecord> indexed;
+    private transient boolean indexing;
+    private transient Map<String, DXFDictionaryRecord> names;
+    private transient Map<String, DXFDictionaryRecord> ids;
+    private transient Map<String, DXFDictionary> descendants;
+    private transient DXFDictionary parent;
+
     @Override
     public String getObjectType() {
         return DXFConstants.OBJECT_TYPE_DICTIONARY;
@@ -74,20 +91,49 @@ public class DXFDictionary extends DXFObject {
 
     public void putDXFObject(DXFObject obj) {
         findByID(obj.getID()).setDXFObject(obj);
+
+        if (obj instanceof DXFDictionary) {
+            attach((DXFDictionary) obj);
+        }
     }
 
     public void putDXFObjectRelation(String name, String id) {
         DXFDictionaryRecord record = null;
 
         if ((record = findByName(name)) != null) {
+            if (ids != null) {
+                ids.remove(record.getID());
+            }
+
             record.setID(id);
         } else {
             record = new DXFDictionaryRecord(name, id);
             this.records.add(record);
+
+            if (names != null) {
+                names.put(name, record);
+            } else if (records.size() > HASH_THRESHOLD) {
+                // hash the records from now on
+                indexed = null;
+            }
+        }
+
+        if ((ids != null) && !ids.containsKey(id)) {
+            ids.put(id, record);
+        }
+
+        for (DXFDictionary d = parent; d != null; d = d.parent) {
+            d.putDescendant(id, this);
         }
     }
 
     protected DXFDictionaryRecord findByName(String name) {
+        index();
+
+        if (names != null) {
+            return names.get(name);
+        }
+
         for (int i = 0; i < this.records.size(); i++) {
             DXFDictionaryRecord record = records.get(i);
 
@@ -100,6 +146,12 @@ public class DXFDictionary extends DXFObject {
     }
 
     protected DXFDictionaryRecord findByID(String id) {
+        index();
+
+        if (ids != null) {
+            return ids.get(id);
+        }
+
         for (int i = 0; i < this.records.size(); i++) {
             DXFDictionaryRecord record = records.get(i);
 
@@ -118,6 +170,25 @@ public class DXFDictionary extends DXFObject {
      * @return the dictionary or null
      */
     public DXFDictionary getDXFDictionaryForID(String id) {
+        if (findByID(id) != null) {
+            return this;
+        }
+
+        if (descendants == null) {
+            return null;
+        }
+
+        DXFDictionary d = descendants.get(id);
+
+        if ((d == null) || d.hasDXFObjectByID(id)) {
+            return d;
+        }
+
+        // the record was removed below
+        return searchDXFDictionaryForID(id);
+    }
+
+    private DXFDictionary searchDXFDictionaryForID(String id) {
         Set<DXFDictionary> dictionaries = new HashSet<DXFDictionary>();
         DXFObject obj = null;
 
@@ -137,7 +208,7 @@ public class DXFDictionary extends DXFObject {
 
         while (ie.hasNext()) {
             DXFDictionary dic = ie.next();
-            DXFDictionary d = dic.getDXFDictionaryForID(id);
+            DXFDictionary d = dic.searchDXFDictionaryForID(id);
 
             if (d != null) {
                 return d;
@@ -168,15 +239,103 @@ public class DXFDictionary extends DXFObject {
                 @Override
                 public void remove() {
                     records.remove(count - 1);
+                    indexed = null;
                 }
             };
     }
 
-    private class DXFDictionaryRecord {
+    /**
+     * Builds the indexes, if they are not built for the records, for
+     * example after the dictionary was read from a snapshot. The indexes
+     * are built while holding the monitor of the document.
+     */
+    private void index() {
+        if (indexed == records) {
+            return;
+        }
+
+        synchronized ((doc != null) ? doc : this) {
+            if ((indexed == records) || indexing) {
+                // built by another thread or in a cycle of dictionaries
+                return;
+            }
+
+            indexing = true;
+            names = null;
+            ids = null;
+            descendants = null;
+
+            if (records.size() > HASH_THRESHOLD) {
+                names = new HashMap<String, DXFDictionaryRecord>();
+                ids = new HashMap<String, DXFDictionaryRecord>();
+
+                for (int i = records.size() - 1; i >= 0; i--) {
+                    DXFDictionaryRecord record = records.get(i);
+                    names.put(record.getName(), record);
+                    ids.put(record.getID(), record);
+                }
+            }
+
+            for (int i = 0; i < records.size(); i++) {
+                DXFObject obj = records.get(i).getDXFObject();
+
+                if (obj instanceof DXFDictionary) {
+                    attach((DXFDictionary) obj);
+                }
+            }
+
+            indexing = false;
+            indexed = records;
+        }
+    }
+
+    /**
+     * Adds the IDs of the dictionary and the dictionaries below it to
+     * this dictionary and the dictionaries above.
+     */
+    private void attach(DXFDictionary child) {
+        for (DXFDictionary d = this; d != null; d = d.parent) {
+            if (d == child) {
+                // a cycle
+                return;
+            }
+        }
+
+        child.index();
+        child.parent = this;
+
+        for (DXFDictionary d = this; d != null; d = d.parent) {
+            for (int i = 0; i < child.records.size(); i++) {
+                d.putDescendant(child.records.get(i).getID(), child);
+            }
+
+            if (child.descendants != null) {
+                for (Map.Entry<String, DXFDictionary> e : child.descendants.entrySet()) {
+                    d.putDescendant(e.getKey(), e.getValue());
+                }
+            }
+        }
+    }
+
+    private void putDescendant(String id, DXFDictionary d) {
+        if (descendants == null) {
+            descendants = new HashMap<String, DXFDictionary>();
+        }
+
+        if (!descendants.containsKey(id)) {
+            descendants.put(id, d);
+        }
+    }
+
+    private static class DXFDictionaryRecord {
         private String id;
         private String name;
         private DXFObject obj;
 
+        // for the snapshots
+        DXFDictionaryRecord() {
+        }
+
         public DXFDictionaryRecord(String name, String id) {
             this.id = id;
             this.name = name;
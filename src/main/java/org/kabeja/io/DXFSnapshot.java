@@ -0,0 +1,1644 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.io;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.kabeja.dxf.DXFBlock;
+import org.kabeja.dxf.DXFConstants;
+import org.kabeja.dxf.DXFDimensionStyle;
+import org.kabeja.dxf.DXFDocument;
+import org.kabeja.dxf.DXFEntity;
+import org.kabeja.dxf.DXFHatchPattern;
+import org.kabeja.dxf.DXFHeader;
+import org.kabeja.dxf.DXFLayer;
+import org.kabeja.dxf.DXFLineType;
+import org.kabeja.dxf.DXFPolyline;
+import org.kabeja.dxf.DXFStyle;
+import org.kabeja.dxf.DXFVariable;
+import org.kabeja.dxf.DXFVertex;
+import org.kabeja.dxf.DXFView;
+import org.kabeja.dxf.DXFViewport;
+import org.kabeja.dxf.helpers.Point;
+import org.kabeja.dxf.objects.DXFDictionary;
+import org.kabeja.dxf.objects.DXFObject;
+
+
+/**
+ * Writes a {@link DXFDocument} into a compact binary snapshot and reads
+ * it back without parsing the DXF again.
+ * <p>
+ * The snapshot contains the layers, blocks, tables, header variables,
+ * dictionaries, objects and all entities of the document. The document,
+ * layers, blocks and the header are written through their methods, so
+ * the way they keep their content, for example the entity stores, is not
+ * part of the format. The polylines write their vertices. The fields of
+ * the other model classes are written by reflection, each class is
+ * described once by its field names, so a snapshot can still be read
+ * when fields were added or removed. Transient and static fields are not
+ * written, nor are fields which still have the value set by the
+ * constructor. Strings are written once and then referenced, shared
+ * objects are written once.
+ * </p>
+ * <p>
+ * Only the classes of the packages <code>org.kabeja.dxf</code> with a
+ * constructor without parameters, strings, boxed primitives, arrays of
+ * these and the collections and maps of {@link #COLLECTIONS} are written
+ * and read, a snapshot naming another class is rejected.
+ * </p>
+ * <p>
+ * A snapshot starts with a magic and the {@link #FORMAT_VERSION}, other
+ * versions are rejected.
+ * </p>
+ */
+public final class DXFSnapshot {
+    public static final int FORMAT_VERSION = 4;
+    private static final byte[] MAGIC = { 'K', 'D', 'X', 'S' };
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final String MODEL_PACKAGE = "org.kabeja.dxf.";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // the value tags
+    private static final int NULL = 0;
+    private static final int REF = 1;
+    private static final int STRING = 2;
+    private static final int STRING_REF = 3;
+    private static final int OBJECT = 4;
+    private static final int COLLECTION = 5;
+    private static final int MAP = 6;
+    private static final int ARRAY = 7;
+    private static final int BOOLEAN = 8;
+    private static final int BYTE = 9;
+    private static final int SHORT = 10;
+    private static final int CHARACTER = 11;
+    private static final int INTEGER = 12;
+    private static final int LONG = 13;
+    private static final int FLOAT = 14;
+    private static final int DOUBLE = 15;
+    private static final int STRING_BUILDER = 16;
+    private static final int ENUM = 17;
+    private static final int CODEC = 18;
+
+    // the field types of the class descriptions
+    private static final byte TYPE_BOOLEAN = 'Z';
+    private static final byte TYPE_BYTE = 'B';
+    private static final byte TYPE_SHORT = 'S';
+    private static final byte TYPE_CHAR = 'C';
+    private static final byte TYPE_INT = 'I';
+    private static final byte TYPE_LONG = 'J';
+    private static final byte TYPE_FLOAT = 'F';
+    private static final byte TYPE_DOUBLE = 'D';
+    private static final byte TYPE_REFERENCE = 'L';
+    private static final int MAX_DEFAULT_DEPTH = 4;
+    private static final Map<Class<?>, ClassModel> MODELS = new ConcurrentHashMap<Class<?>, ClassModel>();
+    private static final Map<Class<?>, Constructor<?>> CONSTRUCTORS = new ConcurrentHashMap<Class<?>, Constructor<?>>();
+
+    /**
+     * The collections and maps, which are read by their name, other
+     * collections are written as ArrayList, LinkedHashSet or
+     * LinkedHashMap.
+     */
+    private static final Map<String, Class<?>> COLLECTIONS = new HashMap<String, Class<?>>();
+    private static final Map<Class<?>, Codec> CODECS = new HashMap<Class<?>, Codec>();
+
+    static {
+        Class<?>[] collections = {
+                ArrayList.class, LinkedList.class, HashSet.class,
+                LinkedHashSet.class, HashMap.class, LinkedHashMap.class,
+                Hashtable.class
+            };
+
+        for (Class<?> c : collections) {
+            COLLECTIONS.put(c.getName(), c);
+        }
+
+        CODECS.put(DXFDocument.class, new DocumentCodec());
+        CODECS.put(DXFLayer.class, new LayerCodec());
+        CODECS.put(DXFBlock.class, new BlockCodec());
+        CODECS.put(DXFHeader.class, new HeaderCodec());
+        CODECS.put(DXFVariable.class, new VariableCodec());
+    }
+
+    private DXFSnapshot() {
+    }
+
+    /**
+     * Writes the snapshot of the document, the stream is not closed.
+     * Lazily parsed entities are built before.
+     *
+     * @param doc
+     * @param out
+     * @throws IOException
+     */
+    public static void write(DXFDocument doc, OutputStream out)
+        throws IOException {
+        Iterator<DXFLayer> layers = doc.getDXFLayerIterator();
+
+        while (layers.hasNext()) {
+            layers.next().loadDXFEntities();
+        }
+
+        Writer writer = new Writer(out);
+        writer.writeBytes(MAGIC);
+        writer.writeVarInt(FORMAT_VERSION);
+        writer.writeValue(doc);
+        writer.flush();
+    }
+
+    /**
+     * Reads a snapshot written by {@link #write(DXFDocument, OutputStream)},
+     * the stream is not closed.
+     *
+     * @param in
+     * @return the document
+     * @throws IOException if the snapshot is invalid or of another version
+     */
+    public static DXFDocument read(InputStream in) throws IOException {
+        Reader reader = new Reader(in);
+
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (reader.readByte() != MAGIC[i]) {
+                throw new IOException("Not a DXF snapshot");
+            }
+        }
+
+        int version = reader.readVarInt();
+
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot version: " + version);
+        }
+
+        Object doc = reader.readValue();
+
+        if (!(doc instanceof DXFDocument)) {
+            throw new IOException("No DXFDocument in the snapshot");
+        }
+
+        return (DXFDocument) doc;
+    }
+
+    /**
+     * Writes the entities without the document they refer to, which is
+     * given again to {@link #readEntities(InputStream, DXFDocument)}.
+     */
+    static void writeEntities(List<DXFEntity> entities, DXFDocument doc,
+        OutputStream out) throws IOException {
+        Writer writer = new Writer(out);
+        writer.objects.put(doc, Integer.valueOf(0));
+        writer.writeValue(entities);
+        writer.flush();
+    }
+
+    @SuppressWarnings("unchecked")
+    static List<DXFEntity> readEntities(InputStream in, DXFDocument doc)
+        throws IOException {
+        Reader reader = new Reader(in);
+        reader.objects.add(doc);
+
+        Object entities = reader.readValue();
+
+        if (!(entities instanceof List)) {
+            throw new IOException("No entities in the segment");
+        }
+
+        return (List<DXFEntity>) entities;
+    }
+
+    private static ClassModel getModel(Class<?> c) {
+        ClassModel model = MODELS.get(c);
+
+        if (model == null) {
+            List<Class<?>> hierarchy = new ArrayList<Class<?>>();
+
+            for (Class<?> k = c; (k != null) && (k != Object.class);
+                    k = k.getSuperclass()) {
+                hierarchy.add(0, k);
+            }
+
+            List<Field> list = new ArrayList<Field>();
+
+            for (Class<?> k : hierarchy) {
+                for (Field f : k.getDeclaredFields()) {
+                    int modifiers = f.getModifiers();
+
+                    if (!Modifier.isStatic(modifiers) &&
+                            !Modifier.isTransient(modifiers)) {
+                        f.setAccessible(true);
+                        list.add(f);
+                    }
+                }
+            }
+
+            model = new ClassModel();
+            model.fields = list.toArray(new Field[list.size()]);
+            model.types = new byte[model.fields.length];
+
+            for (int i = 0; i < model.fields.length; i++) {
+                model.types[i] = getType(model.fields[i].getType());
+            }
+
+            try {
+                model.prototype = newInstance(c);
+            } catch (IOException e) {
+                // all fields are written
+            }
+
+            MODELS.put(c, model);
+        }
+
+        return model;
+    }
+
+    /**
+     * Creates an instance with the constructor without parameters.
+     */
+    private static Object newInstance(Class<?> c) throws IOException {
+        try {
+            Constructor<?> constructor = CONSTRUCTORS.get(c);
+
+            if (constructor == null) {
+                constructor = c.getDeclaredConstructor();
+                constructor.setAccessible(true);
+                CONSTRUCTORS.put(c, constructor);
+            }
+
+            return constructor.newInstance();
+        } catch (Exception e) {
+            throw new IOException("Cannot create " + c.getName(), e);
+        }
+    }
+
+    private static boolean isModelClass(String name) {
+        return name.startsWith(MODEL_PACKAGE);
+    }
+
+    /**
+     * Resolves the name of a class of a snapshot, which must be a model
+     * class, a collection of {@link #COLLECTIONS} or an array of model
+     * classes, strings or primitives.
+     */
+    private static Class<?> resolve(String name) throws IOException {
+        Class<?> c = COLLECTIONS.get(name);
+
+        if (c != null) {
+            return c;
+        }
+
+        String element = name;
+        boolean allowed = false;
+
+        if (name.startsWith("[")) {
+            element = name.substring(name.lastIndexOf('[') + 1);
+
+            if (element.length() == 1) {
+                allowed = "ZBSCIJFD".indexOf(element.charAt(0)) >= 0;
+            } else if (element.startsWith("L") && element.endsWith(";")) {
+                element = element.substring(1, element.length() - 1);
+                allowed = element.equals(String.class.getName());
+            }
+        }
+
+        if (!allowed && !isModelClass(element)) {
+            throw new IOException("Class not allowed in snapshot: " + name);
+        }
+
+        try {
+            return Class.forName(name, false,
+                DXFSnapshot.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown class in snapshot: " + name, e);
+        }
+    }
+
+    /**
+     * Checks whether the value equals the value set by the constructor,
+     * so it needs not to be written.
+     */
+    private static boolean isDefault(Object value, Object prototype,
+        int depth) throws IllegalAccessException {
+        if ((value == null) || (prototype == null)) {
+            return value == prototype;
+        }
+
+        Class<?> c = value.getClass();
+
+        if (c != prototype.getClass()) {
+            return false;
+        } else if (value instanceof String) {
+            return value.equals(prototype);
+        } else if (value instanceof Collection) {
+            return ((Collection<?>) value).isEmpty() &&
+            ((Collection<?>) prototype).isEmpty();
+        } else if (value instanceof Map) {
+            return ((Map<?, ?>) value).isEmpty() &&
+            ((Map<?, ?>) prototype).isEmpty();
+        } else if ((depth >= MAX_DEFAULT_DEPTH) || c.isArray() ||
+                !c.getName().startsWith(MODEL_PACKAGE)) {
+            return false;
+        }
+
+        ClassModel model = getModel(c);
+
+        for (int i = 0; i < model.fields.length; i++) {
+            if (!isDefault(model.fields[i], model.types[i], value, prototype,
+                        depth + 1)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static boolean isDefault(Field f, byte type, Object o,
+        Object prototype, int depth) throws IllegalAccessException {
+        switch (type) {
+        case TYPE_DOUBLE:
+            return Double.doubleToRawLongBits(f.getDouble(o)) == Double.doubleToRawLongBits(f.getDouble(
+                    prototype));
+
+        case TYPE_INT:
+            return f.getInt(o) == f.getInt(prototype);
+
+        case TYPE_BOOLEAN:
+            return f.getBoolean(o) == f.getBoolean(prototype);
+
+        case TYPE_REFERENCE:
+            return isDefault(f.get(o), f.get(prototype), depth);
+
+        case TYPE_FLOAT:
+            return Float.floatToRawIntBits(f.getFloat(o)) == Float.floatToRawIntBits(f.getFloat(
+                    prototype));
+
+        default:
+            return f.get(o).equals(f.get(prototype));
+        }
+    }
+
+    private static String getFieldName(Field f) {
+        return f.getDeclaringClass().getName() + '#' + f.getName();
+    }
+
+    private static byte getType(Class<?> c) {
+        if (c == boolean.class) {
+            return TYPE_BOOLEAN;
+        } else if (c == byte.class) {
+            return TYPE_BYTE;
+        } else if (c == short.class) {
+            return TYPE_SHORT;
+        } else if (c == char.class) {
+            return TYPE_CHAR;
+        } else if (c == int.class) {
+            return TYPE_INT;
+        } else if (c == long.class) {
+            return TYPE_LONG;
+        } else if (c == float.class) {
+            return TYPE_FLOAT;
+        } else if (c == double.class) {
+            return TYPE_DOUBLE;
+        }
+
+        return TYPE_REFERENCE;
+    }
+
+    private static class Writer {
+        private OutputStream out;
+        private byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+        private Map<Object, Integer> objects = new IdentityHashMap<Object, Integer>();
+        private Map<String, Integer> strings = new HashMap<String, Integer>();
+        private Map<Class<?>, Integer> classes = new HashMap<Class<?>, Integer>();
+
+        public Writer(OutputStream out) {
+            this.out = out;
+        }
+
+        private void ensure(int count) throws IOException {
+            if ((position + count) > buffer.length) {
+                flush();
+
+                if (count > buffer.length) {
+                    buffer = new byte[count];
+                }
+            }
+        }
+
+        public void flush() throws IOException {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+
+        public void writeByte(int b) throws IOException {
+            ensure(1);
+            buffer[position++] = (byte) b;
+        }
+
+        public void writeBytes(byte[] b) throws IOException {
+            ensure(b.length);
+            System.arraycopy(b, 0, buffer, position, b.length);
+            position += b.length;
+        }
+
+        public void writeVarInt(int v) throws IOException {
+            ensure(5);
+
+            while ((v & ~0x7f) != 0) {
+                buffer[position++] = (byte) ((v & 0x7f) | 0x80);
+                v >>>= 7;
+            }
+
+            buffer[position++] = (byte) v;
+        }
+
+        public void writeLong(long v) throws IOException {
+            ensure(8);
+
+            for (int i = 56; i >= 0; i -= 8) {
+                buffer[position++] = (byte) (v >>> i);
+            }
+        }
+
+        public void writeInt(int v) throws IOException {
+            // zigzag, small negative numbers are common
+            writeVarInt((v << 1) ^ (v >> 31));
+        }
+
+        public void writeDouble(double d) throws IOException {
+            writeLong(Double.doubleToRawLongBits(d));
+        }
+
+        public void writeString(String s) throws IOException {
+            Integer id = strings.get(s);
+
+            if (id != null) {
+                writeByte(STRING_REF);
+                writeVarInt(id.intValue());
+            } else {
+                strings.put(s, Integer.valueOf(strings.size()));
+                writeByte(STRING);
+                writeText(s);
+            }
+        }
+
+        private void writeText(String s) throws IOException {
+            byte[] b = s.getBytes(UTF8);
+            writeVarInt(b.length);
+            writeBytes(b);
+        }
+
+        /**
+         * Writes the class once with its field description and later
+         * only the id.
+         */
+        private void writeClass(Class<?> c, boolean fields)
+            throws IOException {
+            Integer id = classes.get(c);
+
+            if (id != null) {
+                writeVarInt(id.intValue() + 1);
+
+                return;
+            }
+
+            classes.put(c, Integer.valueOf(classes.size()));
+            writeVarInt(0);
+            writeText(c.getName());
+
+            if (fields) {
+                ClassModel model = getModel(c);
+                writeVarInt(model.fields.length);
+
+                for (int i = 0; i < model.fields.length; i++) {
+                    writeText(getFieldName(model.fields[i]));
+                    writeByte(model.types[i]);
+                }
+            }
+        }
+
+        /**
+         * @return true if the object is new and must be written
+         */
+        private boolean register(Object o) throws IOException {
+            Integer id = objects.get(o);
+
+            if (id != null) {
+                writeByte(REF);
+                writeVarInt(id.intValue());
+
+                return false;
+            }
+
+            objects.put(o, Integer.valueOf(objects.size()));
+
+            return true;
+        }
+
+        public void writeValue(Object o) throws IOException {
+            if (o == null) {
+                writeByte(NULL);
+            } else if (o instanceof String) {
+                writeString((String) o);
+            } else if (o instanceof Double) {
+                writeByte(DOUBLE);
+                writeDouble(((Double) o).doubleValue());
+            } else if (o instanceof Integer) {
+                writeByte(INTEGER);
+                writeInt(((Integer) o).intValue());
+            } else if (o instanceof Boolean) {
+                writeByte(BOOLEAN);
+                writeByte(((Boolean) o).booleanValue() ? 1 : 0);
+            } else if (o instanceof Long) {
+                writeByte(LONG);
+                writeLong(((Long) o).longValue());
+            } else if (o instanceof Float) {
+                writeByte(FLOAT);
+                writeInt(Float.floatToRawIntBits(((Float) o).floatValue()));
+            } else if (o instanceof Short) {
+                writeByte(SHORT);
+                writeInt(((Short) o).shortValue());
+            } else if (o instanceof Byte) {
+                writeByte(BYTE);
+                writeByte(((Byte) o).byteValue());
+            } else if (o instanceof Character) {
+                writeByte(CHARACTER);
+                writeVarInt(((Character) o).charValue());
+            } else if (o instanceof Enum) {
+                if (!isModelClass(o.getClass().getName())) {
+                    throw new IOException("Unsupported class: " +
+                        o.getClass().getName());
+                }
+
+                writeByte(ENUM);
+                writeClass(((Enum<?>) o).getDeclaringClass(), false);
+                writeString(((Enum<?>) o).name());
+            } else if (register(o)) {
+                Class<?> c = o.getClass();
+
+                if (c.isArray()) {
+                    writeByte(ARRAY);
+                    writeClass(c, false);
+                    writeArray(o);
+                } else if (o instanceof StringBuilder) {
+                    writeByte(STRING_BUILDER);
+                    writeString(o.toString());
+                } else if (o instanceof Collection) {
+                    Collection<?> collection = (Collection<?>) o;
+                    writeByte(COLLECTION);
+
+                    if (COLLECTIONS.containsKey(c.getName())) {
+                        writeClass(c, false);
+                    } else {
+                        writeClass((o instanceof Set) ? LinkedHashSet.class
+                                                      : ArrayList.class, false);
+                    }
+
+                    writeVarInt(collection.size());
+
+                    for (Object e : collection) {
+                        writeValue(e);
+                    }
+                } else if (o instanceof Map) {
+                    Map<?, ?> map = (Map<?, ?>) o;
+                    writeByte(MAP);
+                    writeClass(COLLECTIONS.containsKey(c.getName()) ? c
+                                                                    : LinkedHashMap.class,
+                        false);
+                    writeVarInt(map.size());
+
+                    Iterator<? extends Map.Entry<?, ?>> i = map.entrySet()
+                                                               .iterator();
+
+                    while (i.hasNext()) {
+                        Map.Entry<?, ?> e = i.next();
+                        writeValue(e.getKey());
+                        writeValue(e.getValue());
+                    }
+                } else if (CODECS.containsKey(c)) {
+                    writeByte(CODEC);
+                    writeClass(c, false);
+                    CODECS.get(c).write(this, o);
+                } else if (isModelClass(c.getName())) {
+                    writeByte(OBJECT);
+                    writeClass(c, true);
+                    writeFields(o, getModel(c));
+
+                    if (o instanceof DXFPolyline) {
+                        writeVertices((DXFPolyline) o);
+                    }
+                } else {
+                    throw new IOException("Unsupported class: " + c.getName());
+                }
+            }
+        }
+
+        /**
+         * Writes the number of values followed by the values.
+         */
+        public void writeValues(Iterator<?> values) throws IOException {
+            List<Object> list = new ArrayList<Object>();
+
+            while (values.hasNext()) {
+                list.add(values.next());
+            }
+
+            writeVarInt(list.size());
+
+            for (Object value : list) {
+                writeValue(value);
+            }
+        }
+
+        /**
+         * Writes the vertices, the packed ones with their values only.
+         */
+        private void writeVertices(DXFPolyline pline) throws IOException {
+            int count = pline.getVertexCount();
+            writeVarInt(count);
+
+            for (int i = 0; i < count; i++) {
+                DXFVertex vertex = pline.getVertex(i);
+
+                // the packed vertices are views of the polyline
+                if (vertex.getClass().getEnclosingClass() == DXFPolyline.class) {
+                    writeByte(1);
+                    writeDouble(pline.getVertexX(i));
+                    writeDouble(pline.getVertexY(i));
+                    writeDouble(pline.getVertexZ(i));
+                    writeDouble(pline.getVertexBulge(i));
+                    writeDouble(pline.getVertexStartWidth(i));
+                    writeDouble(pline.getVertexEndWidth(i));
+                    writeInt(pline.getVertexFlags(i));
+                    writeValue(vertex.getID());
+                } else {
+                    writeByte(0);
+                    writeValue(vertex);
+                }
+            }
+        }
+
+        private void writeArray(Object array) throws IOException {
+            int length = Array.getLength(array);
+            writeVarInt(length);
+
+            if (array instanceof double[]) {
+                double[] a = (double[]) array;
+
+                for (int i = 0; i < length; i++) {
+                    writeDouble(a[i]);
+                }
+            } else if (array instanceof byte[]) {
+                writeBytes((byte[]) array);
+            } else if (array instanceof int[]) {
+                int[] a = (int[]) array;
+
+                for (int i = 0; i < length; i++) {
+                    writeInt(a[i]);
+                }
+            } else if (array.getClass().getComponentType().isPrimitive()) {
+                byte type = getType(array.getClass().getComponentType());
+
+                for (int i = 0; i < length; i++) {
+                    writePrimitive(type, Array.get(array, i));
+                }
+            } else {
+                Object[] a = (Object[]) array;
+
+                for (int i = 0; i < length; i++) {
+                    writeValue(a[i]);
+                }
+            }
+        }
+
+        /**
+         * Writes a mask of the fields, which differ from the prototype,
+         * followed by their values.
+         */
+        private void writeFields(Object o, ClassModel model)
+            throws IOException {
+            Field[] fields = model.fields;
+            byte[] types = model.types;
+            Object prototype = model.prototype;
+            byte[] mask = new byte[(fields.length + 7) / 8];
+
+            try {
+                for (int i = 0; i < fields.length; i++) {
+                    if ((prototype == null) ||
+                            !isDefault(fields[i], types[i], o, prototype, 0)) {
+                        mask[i >> 3] |= (1 << (i & 7));
+                    }
+                }
+
+                writeBytes(mask);
+
+                for (int i = 0; i < fields.length; i++) {
+                    Field f = fields[i];
+
+                    if ((mask[i >> 3] & (1 << (i & 7))) == 0) {
+                        continue;
+                    }
+
+                    switch (types[i]) {
+                    case TYPE_DOUBLE:
+                        writeDouble(f.getDouble(o));
+
+                        break;
+
+                    case TYPE_INT:
+                        writeInt(f.getInt(o));
+
+                        break;
+
+                    case TYPE_BOOLEAN:
+                        writeByte(f.getBoolean(o) ? 1 : 0);
+
+                        break;
+
+                    case TYPE_REFERENCE:
+                        writeValue(f.get(o));
+
+                        break;
+
+                    default:
+                        writePrimitive(types[i], f.get(o));
+                    }
+                }
+            } catch (IllegalAccessException e) {
+                throw new IOException(e);
+            }
+        }
+
+        private void writePrimitive(byte type, Object value)
+            throws IOException {
+            switch (type) {
+            case TYPE_BOOLEAN:
+                writeByte(((Boolean) value).booleanValue() ? 1 : 0);
+
+                break;
+
+            case TYPE_BYTE:
+                writeByte(((Byte) value).byteValue());
+
+                break;
+
+            case TYPE_SHORT:
+                writeInt(((Short) value).shortValue());
+
+                break;
+
+            case TYPE_CHAR:
+                writeVarInt(((Character) value).charValue());
+
+                break;
+
+            case TYPE_INT:
+                writeInt(((Integer) value).intValue());
+
+                break;
+
+            case TYPE_LONG:
+                writeLong(((Long) value).longValue());
+
+                break;
+
+            case TYPE_FLOAT:
+                writeInt(Float.floatToRawIntBits(((Float) value).floatValue()));
+
+                break;
+
+            default:
+                writeDouble(((Double) value).doubleValue());
+            }
+        }
+    }
+
+    /**
+     * The written fields of a class, superclass fields first, and an
+     * instance with the values set by the constructor.
+     */
+    private static class ClassModel {
+        private Field[] fields;
+        private byte[] types;
+        private Object prototype;
+    }
+
+    private static class ClassInfo {
+        private Class<?> type;
+
+        // the local fields in the order of the snapshot, null if unknown
+        private Field[] fields;
+        private byte[] types;
+    }
+
+    /**
+     * Writes a class through its methods instead of its fields.
+     */
+    private abstract static class Codec {
+        /**
+         * Creates the instance, which is known before its content is read,
+         * so the content can refer to it.
+         */
+        public Object create(Reader reader, Class<?> type)
+            throws IOException {
+            return newInstance(type);
+        }
+
+        public abstract void write(Writer writer, Object o)
+            throws IOException;
+
+        public abstract void read(Reader reader, Object o)
+            throws IOException;
+    }
+
+    private static class DocumentCodec extends Codec {
+        @Override
+        public void write(Writer writer, Object o) throws IOException {
+            DXFDocument doc = (DXFDocument) o;
+            List<String> keys = new ArrayList<String>();
+            Iterator<String> k = doc.getPropertyKeyIterator();
+
+            while (k.hasNext()) {
+                keys.add(k.next());
+            }
+
+            writer.writeVarInt(keys.size());
+
+            for (String key : keys) {
+                writer.writeString(key);
+                writer.writeValue(doc.getProperty(key));
+            }
+
+            writer.writeValue(doc.getDXFHeader());
+            writer.writeValues(doc.getDXFLayerIterator());
+            writer.writeValues(doc.getDXFBlockIterator());
+            writer.writeValues(doc.getDXFLineTypeIterator());
+            writer.writeValues(doc.getDXFDimensionStyleIterator());
+            writer.writeValues(doc.getDXFStyleIterator());
+            writer.writeValues(doc.getDXFViewIterator());
+            writer.writeValues(doc.getDXFViewportIterator());
+            writer.writeValues(doc.getDXFHatchPatternIterator());
+
+            List<DXFObject> objects = new ArrayList<DXFObject>();
+            Iterator<String> types = doc.getDXFObjectTypeIterator();
+
+            while (types.hasNext()) {
+                objects.addAll(doc.getDXFObjectsByType(types.next()));
+            }
+
+            writer.writeValues(objects.iterator());
+            writer.writeValue(doc.getRootDXFDictionary());
+        }
+
+        @Override
+        public void read(Reader reader, Object o) throws IOException {
+            DXFDocument doc = (DXFDocument) o;
+            int count = reader.readVarInt();
+
+            for (int i = 0; i < count; i++) {
+                String key = reader.readString();
+                doc.setProperty(key, (String) reader.readValue(String.class));
+            }
+
+            doc.setDXFHeader((DXFHeader) reader.readValue(DXFHeader.class));
+
+            // the layers are added in their order with the default layer
+            doc.removeDXFLayer(DXFConstants.DEFAULT_LAYER);
+
+            for (Object layer : reader.readValues(DXFLayer.class)) {
+                doc.addDXFLayer((DXFLayer) layer);
+            }
+
+            for (Object block : reader.readValues(DXFBlock.class)) {
+                doc.addDXFBlock((DXFBlock) block);
+            }
+
+            for (Object lineType : reader.readValues(DXFLineType.class)) {
+                doc.addDXFLineType((DXFLineType) lineType);
+            }
+
+            for (Object style : reader.readValues(DXFDimensionStyle.class)) {
+                doc.addDXFDimensionStyle((DXFDimensionStyle) style);
+            }
+
+            for (Object style : reader.readValues(DXFStyle.class)) {
+                doc.addDXStyle((DXFStyle) style);
+            }
+
+            for (Object view : reader.readValues(DXFView.class)) {
+                doc.addDXFView((DXFView) view);
+            }
+
+            for (Object viewport : reader.readValues(DXFViewport.class)) {
+                doc.addDXFViewport((DXFViewport) viewport);
+            }
+
+            for (Object pattern : reader.readValues(DXFHatchPattern.class)) {
+                doc.addDXFHatchPattern((DXFHatchPattern) pattern);
+            }
+
+            // the objects without dictionary are added before the
+            // dictionaries, which would take them
+            for (Object object : reader.readValues(DXFObject.class)) {
+                doc.addDXFObject((DXFObject) object);
+            }
+
+            doc.setRootDXFDictionary((DXFDictionary) reader.readValue(
+                    DXFDictionary.class));
+        }
+    }
+
+    private static class LayerCodec extends Codec {
+        @Override
+        public void write(Writer writer, Object o) throws IOException {
+            DXFLayer layer = (DXFLayer) o;
+            writer.writeValue(layer.getDXFDocument());
+            writer.writeValue(layer.getName());
+            writer.writeInt(layer.getColor());
+            writer.writeValue(layer.getLineType());
+            writer.writeInt(layer.getFlags());
+            writer.writeInt(layer.getLineWeight());
+            writer.writeValue(layer.getPlotStyle());
+
+            List<DXFEntity> entities = new ArrayList<DXFEntity>();
+            Iterator<String> types = layer.getDXFEntityTypeIterator();
+
+            while (types.hasNext()) {
+                entities.addAll(layer.getDXFEntities(types.next()));
+            }
+
+            writer.writeValues(entities.iterator());
+        }
+
+        @Override
+        public void read(Reader reader, Object o) throws IOException {
+            DXFLayer layer = (DXFLayer) o;
+            layer.setDXFDocument((DXFDocument) reader.readValue(
+                    DXFDocument.class));
+            layer.setName((String) reader.readValue(String.class));
+            layer.setColor(reader.readInt());
+            layer.setLineType((String) reader.readValue(String.class));
+            layer.setFlags(reader.readInt());
+            layer.setLineWeight(reader.readInt());
+            layer.setPlotStyle((String) reader.readValue(String.class));
+
+            for (Object entity : reader.readValues(DXFEntity.class)) {
+                layer.addDXFEntity((DXFEntity) entity);
+            }
+        }
+    }
+
+    private static class BlockCodec extends Codec {
+        @Override
+        public void write(Writer writer, Object o) throws IOException {
+            DXFBlock block = (DXFBlock) o;
+            writer.writeValue(block.getDXFDocument());
+            writer.writeValue(block.getName());
+            writer.writeValue(block.getDescription());
+            writer.writeValue(block.getLayerID());
+            writer.writeValue(block.getReferencePoint());
+            writer.writeValues(block.getDXFEntitiesIterator());
+        }
+
+        @Override
+        public void read(Reader reader, Object o) throws IOException {
+            DXFBlock block = (DXFBlock) o;
+            block.setDXFDocument((DXFDocument) reader.readValue(
+                    DXFDocument.class));
+            block.setName((String) reader.readValue(String.class));
+            block.setDescription((String) reader.readValue(String.class));
+            block.setLayerID((String) reader.readValue(String.class));
+            block.setReferencePoint((Point) reader.readValue(Point.class));
+
+            for (Object entity : reader.readValues(DXFEntity.class)) {
+                block.addDXFEntity((DXFEntity) entity);
+            }
+        }
+    }
+
+    private static class HeaderCodec extends Codec {
+        @Override
+        public void write(Writer writer, Object o) throws IOException {
+            writer.writeValues(((DXFHeader) o).getVarialbeIterator());
+        }
+
+        @Override
+        public void read(Reader reader, Object o) throws IOException {
+            for (Object variable : reader.readValues(DXFVariable.class)) {
+                ((DXFHeader) o).setVariable((DXFVariable) variable);
+            }
+        }
+    }
+
+    private static class VariableCodec extends Codec {
+        @Override
+        public Object create(Reader reader, Class<?> type)
+            throws IOException {
+            return new DXFVariable(reader.readString());
+        }
+
+        @Override
+        public void write(Writer writer, Object o) throws IOException {
+            DXFVariable variable = (DXFVariable) o;
+            writer.writeString(variable.getName());
+
+            List<String> keys = new ArrayList<String>();
+            Iterator<String> i = variable.getValueKeyIterator();
+
+            while (i.hasNext()) {
+                keys.add(i.next());
+            }
+
+            writer.writeVarInt(keys.size());
+
+            for (String key : keys) {
+                writer.writeString(key);
+                writer.writeValue(variable.getValue(key));
+            }
+        }
+
+        @Override
+        public void read(Reader reader, Object o) throws IOException {
+            DXFVariable variable = (DXFVariable) o;
+            int count = reader.readVarInt();
+
+            for (int i = 0; i < count; i++) {
+                String key = reader.readString();
+                variable.setValue(key, (String) reader.readValue(String.class));
+            }
+        }
+    }
+
+    private static class Reader {
+        private InputStream in;
+        private byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+        private int limit;
+        private List<Object> objects = new ArrayList<Object>();
+        private List<String> strings = new ArrayList<String>();
+        private List<ClassInfo> classes = new ArrayList<ClassInfo>();
+
+        public Reader(InputStream in) {
+            this.in = in;
+        }
+
+        private void ensure(int count) throws IOException {
+            if ((limit - position) >= count) {
+                return;
+            }
+
+            int remaining = limit - position;
+
+            if (count > buffer.length) {
+                byte[] b = new byte[count];
+                System.arraycopy(buffer, position, b, 0, remaining);
+                buffer = b;
+            } else {
+                System.arraycopy(buffer, position, buffer, 0, remaining);
+            }
+
+            position = 0;
+            limit = remaining;
+
+            while (limit < count) {
+                int read = in.read(buffer, limit, buffer.length - limit);
+
+                if (read < 0) {
+                    throw new EOFException("Truncated snapshot");
+                }
+
+                limit += read;
+            }
+        }
+
+        public int readByte() throws IOException {
+            ensure(1);
+
+            return buffer[position++];
+        }
+
+        public int readVarInt() throws IOException {
+            int v = 0;
+
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = readByte();
+                v |= ((b & 0x7f) << shift);
+
+                if ((b & 0x80) == 0) {
+                    return v;
+                }
+            }
+
+            throw new IOException("Invalid snapshot");
+        }
+
+        public int readInt() throws IOException {
+            int v = readVarInt();
+
+            return (v >>> 1) ^ -(v & 1);
+        }
+
+        public long readLong() throws IOException {
+            ensure(8);
+
+            long v = 0;
+
+            for (int i = 0; i < 8; i++) {
+                v = (v << 8) | (buffer[position++] & 0xff);
+            }
+
+            return v;
+        }
+
+        public double readDouble() throws IOException {
+            return Double.longBitsToDouble(readLong());
+        }
+
+        private String readText() throws IOException {
+            int length = readVarInt();
+            ensure(length);
+
+            String s = new String(buffer, position, length, UTF8);
+            position += length;
+
+            return s;
+        }
+
+        public String readString() throws IOException {
+            Object o = readValue();
+
+            if (!(o instanceof String)) {
+                throw new IOException("Invalid snapshot");
+            }
+
+            return (String) o;
+        }
+
+        private ClassInfo readClass(boolean fields) throws IOException {
+            int id = readVarInt();
+
+            if (id > 0) {
+                return classes.get(id - 1);
+            }
+
+            ClassInfo info = new ClassInfo();
+            info.type = resolve(readText());
+            classes.add(info);
+
+            if (fields) {
+                int count = readVarInt();
+                Map<String, Field> local = new HashMap<String, Field>();
+
+                for (Field f : getModel(info.type).fields) {
+                    local.put(getFieldName(f), f);
+                }
+
+                info.fields = new Field[count];
+                info.types = new byte[count];
+
+                for (int i = 0; i < count; i++) {
+                    Field f = local.get(readText());
+                    info.types[i] = (byte) readByte();
+
+                    if ((f != null) && (getType(f.getType()) == info.types[i])) {
+                        info.fields[i] = f;
+                    }
+                }
+            }
+
+            return info;
+        }
+
+        @SuppressWarnings({"unchecked",
+            "rawtypes"
+        })
+        public Object readValue() throws IOException {
+            int tag = readByte();
+
+            switch (tag) {
+            case NULL:
+                return null;
+
+            case REF:
+                return objects.get(readVarInt());
+
+            case STRING: {
+                String s = readText();
+                strings.add(s);
+
+                return s;
+            }
+
+            case STRING_REF:
+                return strings.get(readVarInt());
+
+            case DOUBLE:
+                return Double.valueOf(readDouble());
+
+            case INTEGER:
+                return Integer.valueOf(readInt());
+
+            case BOOLEAN:
+                return Boolean.valueOf(readByte() != 0);
+
+            case LONG:
+                return Long.valueOf(readLong());
+
+            case FLOAT:
+                return Float.valueOf(Float.intBitsToFloat(readInt()));
+
+            case SHORT:
+                return Short.valueOf((short) readInt());
+
+            case BYTE:
+                return Byte.valueOf((byte) readByte());
+
+            case CHARACTER:
+                return Character.valueOf((char) readVarInt());
+
+            case ENUM: {
+                Class<?> type = readClass(false).type;
+
+                if (!type.isEnum()) {
+                    throw new IOException("Not an enum: " + type.getName());
+                }
+
+                return Enum.valueOf((Class) type, readString());
+            }
+
+            case STRING_BUILDER: {
+                StringBuilder buf = new StringBuilder();
+                objects.add(buf);
+                buf.append(readString());
+
+                return buf;
+            }
+
+            case ARRAY: {
+                ClassInfo info = readClass(false);
+
+                if (!info.type.isArray()) {
+                    throw new IOException("Not an array: " +
+                        info.type.getName());
+                }
+
+                int length = readVarInt();
+                Object array = Array.newInstance(info.type.getComponentType(),
+                        length);
+                objects.add(array);
+                readArray(array, length);
+
+                return array;
+            }
+
+            case COLLECTION: {
+                Collection c = (Collection) newInstance(readClass(false).type,
+                        Collection.class);
+                objects.add(c);
+
+                int size = readVarInt();
+
+                for (int i = 0; i < size; i++) {
+                    c.add(readValue());
+                }
+
+                return c;
+            }
+
+            case MAP: {
+                Map m = (Map) newInstance(readClass(false).type, Map.class);
+                objects.add(m);
+
+                int size = readVarInt();
+
+                for (int i = 0; i < size; i++) {
+                    Object key = readValue();
+                    m.put(key, readValue());
+                }
+
+                return m;
+            }
+
+            case OBJECT: {
+                ClassInfo info = readClass(true);
+                Object o = newInstance(info.type, Object.class);
+                objects.add(o);
+                readFields(o, info);
+
+                if (o instanceof DXFPolyline) {
+                    readVertices((DXFPolyline) o);
+                }
+
+                return o;
+            }
+
+            case CODEC: {
+                Class<?> type = readClass(false).type;
+                Codec codec = CODECS.get(type);
+
+                if (codec == null) {
+                    throw new IOException("No codec for " + type.getName());
+                }
+
+                Object o = codec.create(this, type);
+                objects.add(o);
+                codec.read(this, o);
+
+                return o;
+            }
+
+            default:
+                throw new IOException("Invalid snapshot tag: " + tag);
+            }
+        }
+
+        /**
+         * Creates an instance of a collection of {@link #COLLECTIONS} or
+         * of a model class, which is an instance of the type.
+         */
+        private Object newInstance(Class<?> c, Class<?> type)
+            throws IOException {
+            boolean collection = COLLECTIONS.containsKey(c.getName());
+
+            if ((collection == (type == Object.class)) ||
+                    !type.isAssignableFrom(c) || c.isInterface() ||
+                    Modifier.isAbstract(c.getModifiers())) {
+                throw new IOException("Invalid class in snapshot: " +
+                    c.getName());
+            }
+
+            return DXFSnapshot.newInstance(c);
+        }
+
+        /**
+         * @return the value as the type or the value if it is no
+         *         collection or map
+         */
+        @SuppressWarnings({"unchecked",
+            "rawtypes"
+        })
+        private Object convert(Object value, Class<?> type)
+            throws IOException {
+            if (!COLLECTIONS.containsKey(type.getName())) {
+                return value;
+            } else if (value instanceof Collection) {
+                Collection c = (Collection) newInstance(type, Collection.class);
+                c.addAll((Collection) value);
+
+                return c;
+            } else if (value instanceof Map) {
+                Map m = (Map) newInstance(type, Map.class);
+                m.putAll((Map) value);
+
+                return m;
+            }
+
+            return value;
+        }
+
+        private void readVertices(DXFPolyline pline) throws IOException {
+            int count = readVarInt();
+
+            for (int i = 0; i < count; i++) {
+                if (readByte() != 0) {
+                    DXFVertex vertex = new DXFVertex(new Point(readDouble(),
+                                readDouble(), readDouble()));
+                    vertex.setBulge(readDouble());
+                    vertex.setStartWidth(readDouble());
+                    vertex.setEndWidth(readDouble());
+                    vertex.setFlags(readInt());
+
+                    String id = (String) readValue(String.class);
+
+                    if (id != null) {
+                        vertex.setID(id);
+                    }
+
+                    pline.addPackedVertex(vertex);
+                } else {
+                    pline.addVertex((DXFVertex) readValue(DXFVertex.class));
+                }
+            }
+        }
+
+        /**
+         * Reads the values written by {@link Writer#writeValues(Iterator)}.
+         */
+        public List<Object> readValues(Class<?> type) throws IOException {
+            int count = readVarInt();
+            List<Object> values = new ArrayList<Object>(Math.min(count, 1024));
+
+            for (int i = 0; i < count; i++) {
+                values.add(readValue(type));
+            }
+
+            return values;
+        }
+
+        /**
+         * @return the value, which is null or an instance of the type
+         */
+        public Object readValue(Class<?> type) throws IOException {
+            Object value = readValue();
+
+            if ((value != null) && !type.isInstance(value)) {
+                throw new IOException("Invalid snapshot, no " +
+                    type.getName() + ": " + value.getClass().getName());
+            }
+
+            return value;
+        }
+
+        private void readArray(Object array, int length)
+            throws IOException {
+            if (array instanceof double[]) {
+                double[] a = (double[]) array;
+
+                for (int i = 0; i < length; i++) {
+                    a[i] = readDouble();
+                }
+            } else if (array instanceof byte[]) {
+                ensure(length);
+                System.arraycopy(buffer, position, array, 0, length);
+                position += length;
+            } else if (array instanceof int[]) {
+                int[] a = (int[]) array;
+
+                for (int i = 0; i < length; i++) {
+                    a[i] = readInt();
+                }
+            } else if (array.getClass().getComponentType().isPrimitive()) {
+                byte type = getType(array.getClass().getComponentType());
+
+                for (int i = 0; i < length; i++) {
+                    Array.set(array, i, readPrimitive(type));
+                }
+            } else {
+                Object[] a = (Object[]) array;
+
+                for (int i = 0; i < length; i++) {
+                    a[i] = readValue();
+                }
+            }
+        }
+
+        private void readFields(Object o, ClassInfo info)
+            throws IOException {
+            Field[] fields = info.fields;
+            byte[] types = info.types;
+            int maskLength = (fields.length + 7) / 8;
+            long mask = 0;
+            int maskPosition = 0;
+
+            try {
+                for (int i = 0; i < fields.length; i++) {
+                    if ((i & 63) == 0) {
+                        // the next up to 64 bits of the mask
+                        int length = Math.min(8, maskLength - maskPosition);
+                        ensure(length);
+                        mask = 0;
+
+                        for (int k = 0; k < length; k++) {
+                            mask |= ((buffer[position++] & 0xffL) << (8 * k));
+                        }
+
+                        maskPosition += length;
+                    }
+
+                    if ((mask & (1L << (i & 63))) == 0) {
+                        continue;
+                    }
+
+                    Field f = fields[i];
+
+                    switch (types[i]) {
+                    case TYPE_DOUBLE: {
+                        double d = readDouble();
+
+                        if (f != null) {
+                            f.setDouble(o, d);
+                        }
+
+                        break;
+                    }
+
+                    case TYPE_INT: {
+                        int v = readInt();
+
+                        if (f != null) {
+                            f.setInt(o, v);
+                        }
+
+                        break;
+                    }
+
+                    case TYPE_BOOLEAN: {
+                        boolean b = readByte() != 0;
+
+                        if (f != null) {
+                            f.setBoolean(o, b);
+                        }
+
+                        break;
+                    }
+
+                    case TYPE_REFERENCE: {
+                        Object value = readValue();
+
+                        if (f != null) {
+                            if ((value != null) &&
+                                    !f.getType().isInstance(value)) {
+                                // a field changed to another collection
+                                value = convert(value, f.getType());
+                            }
+
+                            if ((value != null) &&
+                                    !f.getType().isInstance(value)) {
+                                throw new IOException("Invalid value for " +
+                                    f);
+                            }
+
+                            f.set(o, value);
+                        }
+
+                        break;
+                    }
+
+                    default: {
+                        Object value = readPrimitive(types[i]);
+
+                        if (f != null) {
+                            f.set(o, value);
+                        }
+                    }
+                    }
+                }
+            } catch (IllegalAccessException e) {
+                throw new IOException(e);
+            }
+        }
+
+        private Object readPrimitive(byte type) throws IOException {
+            switch (type) {
+            case TYPE_BOOLEAN:
+                return Boolean.valueOf(readByte() != 0);
+
+            case TYPE_BYTE:
+                return Byte.valueOf((byte) readByte());
+
+            case TYPE_SHORT:
+                return Short.valueOf((short) readInt());
+
+            case TYPE_CHAR:
+                return Character.valueOf((char) readVarInt());
+
+            case TYPE_INT:
+                return Integer.valueOf(readInt());
+
+            case TYPE_LONG:
+                return Long.valueOf(readLong());
+
+            case TYPE_FLOAT:
+                return Float.valueOf(Float.intBitsToFloat(readInt()));
+
+            case TYPE_DOUBLE:
+                return Double.valueOf(readDouble());
+
+            default:
+                throw new IOException("Invalid field type: " + type);
+            }
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.io;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.kabeja.dxf.DXFDocument;
+
+
+/**
+ * A directory of {@link DXFSnapshot}s keyed by the digest of the parsed
+ * content. A snapshot, which cannot be read (for example of an older
+ * format version) is removed and reported as missing. Snapshots are
+ * written to a temporary file first and then renamed, so concurrent
+ * readers never see a partial snapshot.
+ */
+public class SnapshotCache {
+    public static final String SUFFIX = ".kds";
+    public static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private File directory;
+
+    public SnapshotCache(File directory) {
+        this.directory = directory;
+        directory.mkdirs();
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return a new digest to compute the keys
+     */
+    public static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param digest the digest of the content
+     * @return the key for the digest
+     */
+    public static String getKey(MessageDigest digest) {
+        byte[] b = digest.digest();
+        char[] c = new char[b.length * 2];
+
+        for (int i = 0; i < b.length; i++) {
+            c[2 * i] = HEX[(b[i] >> 4) & 0x0f];
+            c[(2 * i) + 1] = HEX[b[i] & 0x0f];
+        }
+
+        return new String(c);
+    }
+
+    private File getFile(String key) {
+        return new File(directory, key + SUFFIX);
+    }
+
+    public boolean contains(String key) {
+        return getFile(key).isFile();
+    }
+
+    /**
+     * @param key
+     * @return the document of the snapshot or null if there is none
+     */
+    public DXFDocument get(String key) {
+        File file = getFile(key);
+
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try {
+            InputStream in = new FileInputStream(file);
+
+            try {
+                return DXFSnapshot.read(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            file.delete();
+
+            return null;
+        }
+    }
+
+    /**
+     * Stores the snapshot of the document, an existing snapshot is
+     * replaced.
+     *
+     * @param key
+     * @param doc
+     * @throws IOException
+     */
+    public void put(String key, DXFDocument doc) throws IOException {
+        File tmp = File.createTempFile(key, ".tmp", directory);
+
+        try {
+            OutputStream out = new BufferedOutputStream(new FileOutputStream(
+                        tmp));
+
+            try {
+                DXFSnapshot.write(doc, out);
+            } finally {
+                out.close();
+            }
+
+            try {
+                Files.move(tmp.toPath(), getFile(key).toPath(),
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp.toPath(), getFile(key).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            tmp.delete();
+        }
+    }
+
+    public void remove(String key) {
+        getFile(key).delete();
+    }
+}
@@ -0,0 +1,581 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.kabeja.dxf.AbstractEntityList;
+import org.kabeja.dxf.DXFDocument;
+import org.kabeja.dxf.DXFEntity;
+import org.kabeja.dxf.DXFEntityStore;
+import org.kabeja.dxf.DXFPolyline;
+
+
+/**
+ * Keeps the entities of the layers in memory up to a budget of the
+ * estimated heap size, afterwards the entities are written in segments
+ * of {@link DXFSnapshot} format to a temporary file. The lists decode a
+ * segment on access and keep a few decoded segments, changed segments
+ * are written again when they are dropped. So the iterators and the
+ * List methods work as before, but an entity of a spilled segment is
+ * only the same instance while its segment is decoded. Removing such an
+ * entity falls back to its ID.
+ * <p>
+ * A segment is changed by the List methods and by the setters of its
+ * decoded entities, which drop the bounds, and the common setters of
+ * {@link DXFEntity}. Other changes in place are kept after setting the
+ * entity again with {@link List#set(int, Object)}. A changed segment is
+ * written to its old place in the file if it fits, else to a free place
+ * or to the end of the file.
+ * </p>
+ * <p>
+ * The store can be used by several threads, {@link #close()} removes the
+ * file.
+ * </p>
+ */
+public class SpillingEntityStore implements DXFEntityStore, Closeable {
+    public static final long DEFAULT_BUDGET = 256L * 1024 * 1024;
+    public static final int DEFAULT_SEGMENT_SIZE = 4096;
+    private static final int ENTITY_SIZE = 256;
+    private static final int VERTEX_SIZE = 32;
+    private static final int DECODED_SEGMENTS = 4;
+
+    // the share of the size of a segment reserved for its growth
+    private static final int RESERVE = 8;
+    private long budget;
+    private int segmentSize;
+    private File directory;
+    private File file;
+    private RandomAccessFile data;
+    private long length;
+    private long heapSize;
+    private long spilled;
+    private LinkedList<SpillingList> decoded = new LinkedList<SpillingList>();
+
+    // the free places in the file, which segments were moved from
+    private List<Segment> free = new ArrayList<Segment>();
+
+    public SpillingEntityStore() {
+        this(DEFAULT_BUDGET);
+    }
+
+    /**
+     * @param budget the estimated heap size in bytes of the entities kept
+     *        in memory
+     */
+    public SpillingEntityStore(long budget) {
+        this(budget, DEFAULT_SEGMENT_SIZE, null);
+    }
+
+    /**
+     * @param budget the estimated heap size in bytes of the entities kept
+     *        in memory
+     * @param segmentSize the number of entities written at once
+     * @param directory the directory of the temporary file or null for
+     *        the default temporary directory
+     */
+    public SpillingEntityStore(long budget, int segmentSize, File directory) {
+        this.budget = budget;
+        this.segmentSize = Math.max(1, segmentSize);
+        this.directory = directory;
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.kabeja.dxf.DXFEntityStore#createList(java.lang.String)
+     */
+    @Override
+    public List<DXFEntity> createList(String type) {
+        return new SpillingList();
+    }
+
+    /**
+     * @return the estimated heap size of the entities, which are not
+     *         spilled
+     */
+    public synchronized long getHeapSize() {
+        return heapSize;
+    }
+
+    /**
+     * @return the number of entities written to the file
+     */
+    public synchronized long getSpilledCount() {
+        return spilled;
+    }
+
+    /**
+     * @return the size of the file
+     */
+    public synchronized long getFileLength() {
+        return length;
+    }
+
+    /**
+     * Removes the file, the spilled entities are lost afterwards.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (data != null) {
+            data.close();
+            data = null;
+            file.delete();
+            free.clear();
+        }
+    }
+
+    /**
+     * @return the estimated heap size of the entity
+     */
+    protected long estimateSize(DXFEntity entity) {
+        if (entity instanceof DXFPolyline) {
+            return ENTITY_SIZE +
+            (((DXFPolyline) entity).getVertexCount() * (long) VERTEX_SIZE);
+        }
+
+        return ENTITY_SIZE;
+    }
+
+    /**
+     * Writes the encoded segment to its place in the file, if it fits,
+     * else to a free place, which fits, or to the end of the file. The old
+     * place is free afterwards.
+     */
+    private void write(Segment segment, byte[] b) throws IOException {
+        if (data == null) {
+            file = File.createTempFile("kabeja", ".spill", directory);
+            file.deleteOnExit();
+            data = new RandomAccessFile(file, "rw");
+        }
+
+        if (b.length > segment.capacity) {
+            freePlace(segment);
+            allocate(segment, b.length);
+        }
+
+        data.seek(segment.offset);
+        data.write(b);
+        segment.length = b.length;
+    }
+
+    private void allocate(Segment segment, int size) {
+        for (int i = 0; i < free.size(); i++) {
+            Segment place = free.get(i);
+
+            if (place.capacity >= size) {
+                free.remove(i);
+                segment.offset = place.offset;
+                segment.capacity = place.capacity;
+
+                return;
+            }
+        }
+
+        segment.offset = length;
+        segment.capacity = size + (size / RESERVE);
+        length += segment.capacity;
+    }
+
+    /**
+     * Frees the place of the segment in the file.
+     */
+    private void freePlace(Segment segment) {
+        if (segment.capacity > 0) {
+            Segment place = new Segment(0);
+            place.offset = segment.offset;
+            place.capacity = segment.capacity;
+            free.add(place);
+            segment.capacity = 0;
+        }
+    }
+
+    private byte[] read(long offset, int count) throws IOException {
+        if (data == null) {
+            throw new IOException("The store is closed");
+        }
+
+        byte[] b = new byte[count];
+        data.seek(offset);
+        data.readFully(b);
+
+        return b;
+    }
+
+    private static byte[] encode(List<DXFEntity> entities, DXFDocument doc)
+        throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DXFSnapshot.writeEntities(entities, doc, out);
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Marks the list as the last used with a decoded segment and drops
+     * the decoded segment of the least recently used list.
+     */
+    private void decoded(SpillingList list) {
+        undecoded(list);
+        decoded.addLast(list);
+
+        if (decoded.size() > DECODED_SEGMENTS) {
+            decoded.getFirst().drop();
+        }
+    }
+
+    private void undecoded(SpillingList list) {
+        // the lists are compared by identity, not by their entities
+        Iterator<SpillingList> i = decoded.iterator();
+
+        while (i.hasNext()) {
+            if (i.next() == list) {
+                i.remove();
+            }
+        }
+    }
+
+    private static class Segment {
+        private long offset;
+        private int length;
+
+        // the size of the place in the file
+        private int capacity;
+        private int count;
+
+        public Segment(int count) {
+            this.count = count;
+        }
+    }
+
+    private class SpillingList extends AbstractEntityList {
+        private List<Segment> segments = new ArrayList<Segment>();
+        private int spilledCount;
+        private List<DXFEntity> tail = new ArrayList<DXFEntity>();
+        private long tailSize;
+        private DXFDocument doc;
+        private int current = -1;
+        private int currentStart;
+        private List<DXFEntity> currentEntities;
+        private boolean currentChanged;
+
+        @Override
+        public int size() {
+            synchronized (SpillingEntityStore.this) {
+                return spilledCount + tail.size();
+            }
+        }
+
+        @Override
+        public DXFEntity get(int index) {
+            synchronized (SpillingEntityStore.this) {
+                checkIndex(index, size() - 1);
+
+                if (index >= spilledCount) {
+                    return tail.get(index - spilledCount);
+                }
+
+                int i = decode(index);
+
+                return currentEntities.get(i);
+            }
+        }
+
+        @Override
+        public DXFEntity set(int index, DXFEntity entity) {
+            synchronized (SpillingEntityStore.this) {
+                checkIndex(index, size() - 1);
+
+                if (index >= spilledCount) {
+                    return tail.set(index - spilledCount, entity);
+                }
+
+                int i = decode(index);
+                DXFEntity old = currentEntities.set(i, entity);
+                currentChanged = true;
+
+                if (old != entity) {
+                    release(old);
+                }
+
+                return old;
+            }
+        }
+
+        @Override
+        public void add(int index, DXFEntity entity) {
+            synchronized (SpillingEntityStore.this) {
+                checkIndex(index, size());
+                modCount++;
+
+                if (doc == null) {
+                    doc = entity.getDXFDocument();
+                }
+
+                if (index >= spilledCount) {
+                    long size = estimateSize(entity);
+                    tail.add(index - spilledCount, entity);
+                    tailSize += size;
+                    heapSize += size;
+
+                    if ((heapSize > budget) && (tail.size() >= segmentSize)) {
+                        spill();
+                    }
+                } else {
+                    int i = decode(index);
+                    currentEntities.add(i, entity);
+                    currentChanged = true;
+                    segments.get(current).count++;
+                    spilledCount++;
+                    spilled++;
+                }
+            }
+        }
+
+        @Override
+        public DXFEntity remove(int index) {
+            synchronized (SpillingEntityStore.this) {
+                checkIndex(index, size() - 1);
+                modCount++;
+
+                if (index >= spilledCount) {
+                    DXFEntity entity = tail.remove(index - spilledCount);
+                    long size = estimateSize(entity);
+                    tailSize -= size;
+                    heapSize -= size;
+
+                    return entity;
+                }
+
+                int i = decode(index);
+                DXFEntity entity = currentEntities.remove(i);
+                currentChanged = true;
+                release(entity);
+                segments.get(current).count--;
+                spilledCount--;
+                spilled--;
+
+                return entity;
+            }
+        }
+
+        /**
+         * Removes the entity or the spilled entity with the same type and
+         * ID.
+         */
+        @Override
+        public boolean remove(Object o) {
+            synchronized (SpillingEntityStore.this) {
+                int index = indexOf(o);
+
+                if (index >= 0) {
+                    remove(index);
+
+                    return true;
+                }
+
+                return false;
+            }
+        }
+
+        @Override
+        public int indexOf(Object o) {
+            synchronized (SpillingEntityStore.this) {
+                for (int i = 0; i < tail.size(); i++) {
+                    if (tail.get(i) == o) {
+                        return spilledCount + i;
+                    }
+                }
+
+                if (current >= 0) {
+                    for (int i = 0; i < currentEntities.size(); i++) {
+                        if (currentEntities.get(i) == o) {
+                            return currentStart + i;
+                        }
+                    }
+                }
+
+                if (!(o instanceof DXFEntity) ||
+                        (((DXFEntity) o).getID().length() == 0)) {
+                    return -1;
+                }
+
+                DXFEntity entity = (DXFEntity) o;
+
+                for (int i = 0; i < spilledCount; i++) {
+                    DXFEntity e = get(i);
+
+                    if ((e.getClass() == entity.getClass()) &&
+                            e.getID().equals(entity.getID())) {
+                        return i;
+                    }
+                }
+
+                return -1;
+            }
+        }
+
+        @Override
+        public void clear() {
+            synchronized (SpillingEntityStore.this) {
+                modCount++;
+                undecoded(this);
+
+                if (current >= 0) {
+                    for (DXFEntity entity : currentEntities) {
+                        release(entity);
+                    }
+                }
+
+                current = -1;
+                currentEntities = null;
+
+                for (Segment segment : segments) {
+                    freePlace(segment);
+                }
+
+                segments.clear();
+                spilled -= spilledCount;
+                spilledCount = 0;
+                tail.clear();
+                heapSize -= tailSize;
+                tailSize = 0;
+            }
+        }
+
+        private void checkIndex(int index, int max) {
+            if ((index < 0) || (index > max)) {
+                throw new IndexOutOfBoundsException("Index: " + index +
+                    ", Size: " + size());
+            }
+        }
+
+        /**
+         * Decodes the segment of the spilled index.
+         *
+         * @return the index in the decoded segment
+         */
+        private int decode(int index) {
+            if ((current >= 0) && (index >= currentStart) &&
+                    (index < (currentStart + currentEntities.size()))) {
+                return index - currentStart;
+            }
+
+            drop();
+
+            int start = 0;
+
+            for (int s = 0; s < segments.size(); s++) {
+                Segment segment = segments.get(s);
+
+                if (index < (start + segment.count)) {
+                    try {
+                        currentEntities = DXFSnapshot.readEntities(new ByteArrayInputStream(
+                                    read(segment.offset, segment.length)), doc);
+                    } catch (IOException e) {
+                        throw new IllegalStateException("Cannot read the spilled entities",
+                            e);
+                    }
+
+                    for (DXFEntity entity : currentEntities) {
+                        adopt(entity);
+                    }
+
+                    current = s;
+                    currentStart = start;
+                    currentChanged = false;
+                    decoded(this);
+
+                    return index - start;
+                }
+
+                start += segment.count;
+            }
+
+            throw new IndexOutOfBoundsException("Index: " + index);
+        }
+
+        /**
+         * Marks the decoded segment as changed, only the decoded entities
+         * have the list as container.
+         */
+        @Override
+        protected void changed(DXFEntity entity) {
+            synchronized (SpillingEntityStore.this) {
+                if (current >= 0) {
+                    currentChanged = true;
+                }
+            }
+        }
+
+        /**
+         * Drops the decoded segment, which is written again if it was
+         * changed.
+         */
+        private void drop() {
+            if (current < 0) {
+                return;
+            }
+
+            Segment segment = segments.get(current);
+
+            try {
+                for (DXFEntity entity : currentEntities) {
+                    release(entity);
+                }
+
+                if (currentEntities.isEmpty()) {
+                    segments.remove(current);
+                    freePlace(segment);
+                } else if (currentChanged) {
+                    write(segment, encode(currentEntities, doc));
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot write the spilled entities",
+                    e);
+            } finally {
+                current = -1;
+                currentEntities = null;
+                undecoded(this);
+            }
+        }
+
+        private void spill() {
+            try {
+                Segment segment = new Segment(tail.size());
+                write(segment, encode(tail, doc));
+                segments.add(segment);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot write the spilled entities",
+                    e);
+            }
+
+            spilledCount += tail.size();
+            spilled += tail.size();
+            heapSize -= tailSize;
+            tailSize = 0;
+            tail = new ArrayList<DXFEntity>();
+        }
+    }
+}
@@ -0,0 +1,283 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+import org.kabeja.dxf.DXFConstants;
+
+
+/**
+ * Reads the groups of a binary DXF. The values are little-endian
+ * encoded and are given typed to the {@link DXFValue}, so no number
+ * parsing is needed. Strings are null-terminated and decoded only on
+ * request.
+ * <p>
+ * Both group code layouts are supported: the 1 byte group codes of
+ * R12 and the 2 byte group codes of R13 and later.
+ * </p>
+ */
+public class BinaryDXFTokenizer extends DXFTokenizer {
+    public static final String SENTINEL = "AutoCAD Binary DXF\r\n\u001a\u0000";
+    public static final int SENTINEL_LENGTH = SENTINEL.length();
+    private static final int TYPE_STRING = 0;
+    private static final int TYPE_DOUBLE = 1;
+    private static final int TYPE_INT16 = 2;
+    private static final int TYPE_INT32 = 3;
+    private static final int TYPE_INT64 = 4;
+    private static final int TYPE_BOOLEAN = 5;
+    private static final int TYPE_BINARY = 6;
+    private static final int EXTENDED_GROUPCODE = 255;
+    private boolean started = false;
+    private boolean singleByteCodes = false;
+
+    public BinaryDXFTokenizer(InputStream in, Charset charset) {
+        super(in, charset);
+    }
+
+    /**
+     * Checks for the binary DXF sentinel.
+     *
+     * @param b the first bytes of the file
+     * @param length the number of valid bytes
+     * @return true if the bytes start with the sentinel of a binary DXF
+     */
+    public static boolean isBinaryDXF(byte[] b, int length) {
+        if (length < SENTINEL_LENGTH) {
+            return false;
+        }
+
+        for (int i = 0; i < SENTINEL_LENGTH; i++) {
+            if (b[i] != SENTINEL.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * The binary groups must be read one by one, because the length of a
+     * value depends on the group code.
+     */
+    @Override
+    public boolean skipSection() throws IOException, ParseException {
+        while (next()) {
+            if ((groupCode == 0) &&
+                    DXFConstants.SECTION_END.equals(value.getValue())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean next() throws IOException, ParseException {
+        if (!started) {
+            start();
+        }
+
+        if (!ensure(1)) {
+            return false;
+        }
+
+        long offset = bufferOffset + position;
+        int code;
+
+        if (singleByteCodes) {
+            code = buffer[position++] & 0xff;
+
+            if (code == EXTENDED_GROUPCODE) {
+                require(2);
+                code = (int) readLittleEndian(2);
+            }
+        } else {
+            require(2);
+            code = (int) readLittleEndian(2);
+        }
+
+        switch (getValueType(code)) {
+        case TYPE_DOUBLE:
+            require(8);
+            value.setDouble(Double.longBitsToDouble(readLittleEndian(8)));
+
+            break;
+
+        case TYPE_INT16:
+            require(2);
+            value.setInteger(readLittleEndian(2));
+
+            break;
+
+        case TYPE_INT32:
+            require(4);
+            value.setInteger(readLittleEndian(4));
+
+            break;
+
+        case TYPE_INT64:
+            require(8);
+            value.setInteger(readLittleEndian(8));
+
+            break;
+
+        case TYPE_BOOLEAN:
+            require(1);
+            value.setInteger(buffer[position++]);
+
+            break;
+
+        case TYPE_BINARY:
+            require(1);
+
+            int length = buffer[position] & 0xff;
+            require(length + 1);
+            value.setBinary(buffer, position + 1, length);
+            position += (length + 1);
+
+            break;
+
+        default:
+            readString();
+        }
+
+        this.groupCode = code;
+        this.groupOffset = offset;
+        // the line count of the same ASCII DXF
+        this.lineNumber += 2;
+
+        return true;
+    }
+
+    private void start() throws IOException, ParseException {
+        started = true;
+
+        // the sentinel and the first group code (0) with "SECTION"
+        if (!ensure(SENTINEL_LENGTH + 2) ||
+                !isBinaryDXF(buffer, limit - position)) {
+            throw new ParseException("Not a binary DXF");
+        }
+
+        position += SENTINEL_LENGTH;
+        // R12 uses one byte group codes, so the second byte is the
+        // first char of the value
+        singleByteCodes = buffer[position + 1] != 0;
+    }
+
+    private void readString() throws IOException {
+        int scan = position;
+
+        while (true) {
+            while (scan < limit) {
+                if (buffer[scan] == 0) {
+                    int start = position;
+                    int end = scan;
+
+                    // trim like the ASCII values
+                    while ((start < end) && ((buffer[start] & 0xff) <= ' ')) {
+                        start++;
+                    }
+
+                    while ((end > start) && ((buffer[end - 1] & 0xff) <= ' ')) {
+                        end--;
+                    }
+
+                    value.setBytes(buffer, start, end - start, charset);
+                    position = scan + 1;
+
+                    return;
+                }
+
+                scan++;
+            }
+
+            int read = scan - position;
+
+            if (!fill()) {
+                // unterminated string at the end
+                value.setBytes(buffer, position, limit - position, charset);
+                position = limit;
+
+                return;
+            }
+
+            scan = position + read;
+        }
+    }
+
+    private boolean ensure(int count) throws IOException {
+        while ((limit - position) < count) {
+            if (!fill()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void require(int count) throws IOException {
+        if (!ensure(count)) {
+            throw new IOException("Unexpected end of binary DXF at offset " +
+                (bufferOffset + limit));
+        }
+    }
+
+    private long readLittleEndian(int count) {
+        long l = 0;
+
+        for (int i = count - 1; i >= 0; i--) {
+            l = (l << 8) | (buffer[position + i] & 0xff);
+        }
+
+        // sign extension for 16 and 32 bit values
+        int shift = 64 - (count * 8);
+        l = (l << shift) >> shift;
+        position += count;
+
+        return l;
+    }
+
+    private static int getValueType(int code) {
+        if (((code >= 10) && (code <= 59)) || ((code >= 110) && (code <= 149)) ||
+                ((code >= 210) && (code <= 239)) ||
+                ((code >= 460) && (code <= 469)) ||
+                ((code >= 1010) && (code <= 1059))) {
+            return TYPE_DOUBLE;
+        } else if (((code >= 60) && (code <= 79)) ||
+                ((code >= 170) && (code <= 179)) ||
+                ((code >= 270) && (code <= 289)) ||
+                ((code >= 370) && (code <= 389)) ||
+                ((code >= 400) && (code <= 409)) ||
+                ((code >= 1060) && (code <= 1070))) {
+            return TYPE_INT16;
+        } else if (((code >= 90) && (code <= 99)) ||
+                ((code >= 420) && (code <= 429)) ||
+                ((code >= 440) && (code <= 459)) || (code == 1071)) {
+            return TYPE_INT32;
+        } else if ((code >= 160) && (code <= 169)) {
+            return TYPE_INT64;
+        } else if ((code >= 290) && (code <= 299)) {
+            return TYPE_BOOLEAN;
+        } else if (((code >= 310) && (code <= 319)) || (code == 1004)) {
+            return TYPE_BINARY;
+        }
+
+        return TYPE_STRING;
+    }
+}
@@ -190,6 +190,14 @@ public class DXFBlocksSectionHandler extends DXFEntitiesSectionHandler {
         // endEntity();
     }
 
+    /**
+     * The entities of the blocks are always parsed.
+     */
+    @Override
+    protected boolean isEntityLoaded(String type) {
+        return true;
+    }
+
     @Override
     protected void endEntity() {
         if (parseEntity) {
@@ -198,6 +206,16 @@ public class DXFBlocksSectionHandler extends DXFEntitiesSectionHandler {
             DXFEntity entity = handler.getDXFEntity();
             block.addDXFEntity(entity);
             parseEntity = false;
+
+            if (listeners.size() > 0) {
+                entity.setDXFDocument(doc);
+                fireEntityParsed(entity, block);
+            }
+
+            if (statistics != null) {
+                statistics.entityParsed(handler.getDXFEntityName(),
+                    System.nanoTime() - entityStart);
+            }
         }
     }
 }
@@ -15,11 +15,16 @@
 */
 package org.kabeja.parser;
 
+import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 
+import org.kabeja.dxf.DXFBlock;
 import org.kabeja.dxf.DXFDocument;
 import org.kabeja.dxf.DXFEntity;
+import org.kabeja.dxf.DXFLayer;
 import org.kabeja.parser.entities.DXFEntityHandler;
 
 
@@ -35,6 +40,11 @@ public class DXFEntitiesSectionHandler extends AbstractSectionHandler
     protected Hashtable<String, DXFEntityHandler> handlers = new Hashtable<String, DXFEntityHandler>();
     protected DXFEntityHandler handler = null;
     protected boolean parseEntity = false;
+    protected List<DXFEntityListener> listeners = new ArrayList<DXFEntityListener>();
+    protected boolean keepEntities = true;
+    protected Set<String> entityTypes = null;
+    protected ParseStatistics statistics = null;
+    protected long entityStart;
 
     public DXFEntitiesSectionHandler() {
     }
@@ -68,18 +78,30 @@ public class DXFEntitiesSectionHandler extends AbstractSectionHandler
                 }
             }
 
-            if (handlers.containsKey(value.getValue())) {
+            if (handlers.containsKey(value.getValue()) &&
+                    isEntityLoaded(value.getValue())) {
                 //get handler for the new entity
                 handler = handlers.get(value.getValue());
                 handler.setDXFDocument(this.doc);
+
+                if (statistics != null) {
+                    entityStart = System.nanoTime();
+                }
+
                 handler.startDXFEntity();
                 parseEntity = true;
             } else {
                 //no handler found
                 parseEntity = false;
+
+                if (statistics != null) {
+                    statistics.addSkippedGroup();
+                }
             }
         } else if (parseEntity) {
             handler.parseGroup(groupCode, value);
+        } else if (statistics != null) {
+            statistics.addSkippedGroup();
         }
     }
 
@@ -118,10 +140,78 @@ public class DXFEntitiesSectionHandler extends AbstractSectionHandler
             handler.endDXFEntity();
 
             DXFEntity entity = handler.getDXFEntity();
-            doc.addDXFEntity(entity);
+
+            if (keepEntities) {
+                doc.addDXFEntity(entity);
+            } else {
+                entity.setDXFDocument(doc);
+            }
+
+            fireEntityParsed(entity, null);
+
+            if (statistics != null) {
+                statistics.entityParsed(handler.getDXFEntityName(),
+                    System.nanoTime() - entityStart);
+            }
         }
     }
 
+    protected void fireEntityParsed(DXFEntity entity, DXFBlock block) {
+        if (listeners.size() > 0) {
+            DXFLayer layer = doc.getDXFLayer(entity.getLayerName());
+
+            for (DXFEntityListener listener : listeners) {
+                listener.entityParsed(entity, layer, block);
+            }
+        }
+    }
+
+    public void addDXFEntityListener(DXFEntityListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeDXFEntityListener(DXFEntityListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @param keepEntities false if the entities should only be given to the
+     *        listeners and not added to the document
+     */
+    public void setKeepEntities(boolean keepEntities) {
+        this.keepEntities = keepEntities;
+    }
+
+    public boolean isKeepEntities() {
+        return keepEntities;
+    }
+
+    /**
+     * @param entityTypes the entity types to parse or null for all types
+     */
+    public void setEntityTypes(Set<String> entityTypes) {
+        this.entityTypes = entityTypes;
+    }
+
+    public Set<String> getEntityTypes() {
+        return entityTypes;
+    }
+
+    protected boolean isEntityLoaded(String type) {
+        return (entityTypes == null) || entityTypes.contains(type);
+    }
+
+    /**
+     * @param statistics the statistics to record the entities in or null
+     */
+    public void setParseStatistics(ParseStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    public ParseStatistics getParseStatistics() {
+        return statistics;
+    }
+
     public void addDXFEntityHandler(DXFEntityHandler handler) {
         handler.setDXFDocument(doc);
         handlers.put(handler.getDXFEntityName(), handler);
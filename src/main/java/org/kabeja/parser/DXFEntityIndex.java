@@ -0,0 +1,378 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+import org.kabeja.dxf.DXFBlock;
+import org.kabeja.dxf.DXFDocument;
+import org.kabeja.dxf.DXFEntity;
+import org.kabeja.dxf.DXFEntityLoader;
+import org.kabeja.dxf.DXFLayer;
+import org.kabeja.dxf.helpers.DXFUtils;
+
+
+/**
+ * Records the file ranges of the entities in the ENTITIES section instead
+ * of building them. The ranges are collected per layer and entity type,
+ * neighboured ranges are joined. At the end of the section a loader for
+ * each layer and type is added to the layer, which builds the entities
+ * from the file with a copy of the entities section handler.
+ */
+class DXFEntityIndex {
+    private static final String[] FOLLOW_ENTITIES = { "VERTEX", "ATTRIB", "SEQEND" };
+    private static final int HANDLE = 5;
+    private static final int LAYER = 8;
+    private Source source;
+    private DXFDocument doc;
+    private Map<DXFLayer, Map<String, Loader>> loaders = new LinkedHashMap<DXFLayer, Map<String, Loader>>();
+    private Map<String, String> types = new HashMap<String, String>();
+    private String type;
+    private String layerName;
+    private DXFLayer layer;
+    private String handle;
+    private long start = -1;
+    private boolean follow;
+
+    /**
+     * @param doc the document to add the loaders to
+     * @param file the parsed file, which must not change afterwards
+     * @param charset
+     * @param handler a copy of the entities section handler, which is only
+     *        used by the loaders
+     */
+    DXFEntityIndex(DXFDocument doc, File file, Charset charset,
+        DXFEntitiesSectionHandler handler) {
+        this.doc = doc;
+        this.source = new Source(doc, file, charset, handler);
+    }
+
+    /**
+     * @param groupCode
+     * @param value
+     * @param offset the file offset of the group
+     */
+    void parseGroup(int groupCode, DXFValue value, long offset) {
+        if (groupCode == DXFEntitiesSectionHandler.ENTITY_START) {
+            String name = getType(value.getValue());
+
+            if ((start >= 0) && isFollowEntity(name)) {
+                follow = true;
+
+                return;
+            }
+
+            endEntity(offset);
+
+            if (source.handler.handlers.containsKey(name) &&
+                    source.handler.isEntityLoaded(name)) {
+                type = name;
+                start = offset;
+                layerName = StringUtils.EMPTY;
+                handle = null;
+                follow = false;
+            }
+        } else if ((start >= 0) && !follow) {
+            if (groupCode == LAYER) {
+                layerName = value.getValue();
+            } else if (groupCode == HANDLE) {
+                handle = value.getValue();
+            }
+        }
+    }
+
+    /**
+     * Adds the loaders to the layers.
+     *
+     * @param offset the file offset of the end of the section
+     */
+    void endSection(long offset) {
+        endEntity(offset);
+
+        for (Map.Entry<DXFLayer, Map<String, Loader>> entry : loaders.entrySet()) {
+            for (Map.Entry<String, Loader> t : entry.getValue().entrySet()) {
+                entry.getKey().addDXFEntityLoader(t.getKey(), t.getValue());
+            }
+        }
+
+        loaders.clear();
+    }
+
+    private void endEntity(long offset) {
+        if (start < 0) {
+            return;
+        }
+
+        if ((layer == null) || !layer.getName().equals(layerName)) {
+            // unknown layer names are mapped to the default layer
+            layer = doc.getDXFLayer(layerName);
+        }
+
+        Map<String, Loader> layerLoaders = loaders.get(layer);
+
+        if (layerLoaders == null) {
+            layerLoaders = new HashMap<String, Loader>();
+            loaders.put(layer, layerLoaders);
+        }
+
+        Loader loader = layerLoaders.get(type);
+
+        if (loader == null) {
+            loader = new Loader(source);
+            layerLoaders.put(type, loader);
+        }
+
+        loader.add(start, offset, handle);
+        start = -1;
+    }
+
+    private String getType(String name) {
+        String known = types.get(name);
+
+        if (known == null) {
+            types.put(name, name);
+
+            return name;
+        }
+
+        return known;
+    }
+
+    private static boolean isFollowEntity(String type) {
+        for (String follow : FOLLOW_ENTITIES) {
+            if (follow.equals(type)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * The file and the handler shared by all loaders of a section.
+     */
+    private static class Source implements DXFEntityListener {
+        private DXFDocument doc;
+        private File file;
+        private Charset charset;
+        private DXFEntitiesSectionHandler handler;
+        private List<DXFEntity> loaded;
+
+        public Source(DXFDocument doc, File file, Charset charset,
+            DXFEntitiesSectionHandler handler) {
+            this.doc = doc;
+            this.file = file;
+            this.charset = charset;
+            this.handler = handler;
+            handler.setKeepEntities(false);
+            handler.setParseStatistics(null);
+            handler.addDXFEntityListener(this);
+        }
+
+        public synchronized List<DXFEntity> load(Loader loader) {
+            loaded = new ArrayList<DXFEntity>(loader.count);
+
+            try {
+                RandomAccessFile in = new RandomAccessFile(file, "r");
+
+                try {
+                    DXFTokenizer tokenizer = new DXFTokenizer(new RangeInputStream(
+                                in.getChannel(), loader.starts, loader.ends,
+                                loader.ranges), charset);
+                    handler.setDXFDocument(doc);
+                    handler.startSection();
+
+                    while (tokenizer.next()) {
+                        handler.parseGroup(tokenizer.getGroupCode(),
+                            tokenizer.getValue());
+                    }
+
+                    handler.endSection();
+                } finally {
+                    in.close();
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot load the entities from " +
+                    file, e);
+            } catch (ParseException e) {
+                throw new IllegalStateException("Cannot load the entities from " +
+                    file, e);
+            } finally {
+                handler.releaseDXFDocument();
+            }
+
+            List<DXFEntity> result = loaded;
+            loaded = null;
+
+            return result;
+        }
+
+        @Override
+        public void entityParsed(DXFEntity entity, DXFLayer layer,
+            DXFBlock block) {
+            loaded.add(entity);
+        }
+    }
+
+    /**
+     * The ranges and handles of the entities of a single layer and type.
+     */
+    private static class Loader implements DXFEntityLoader {
+        private Source source;
+        private long[] starts = new long[1];
+        private long[] ends = new long[1];
+        private int ranges;
+        private long[] handles = new long[4];
+        private int count;
+        private boolean unknownHandles = false;
+        private boolean sorted = true;
+
+        public Loader(Source source) {
+            this.source = source;
+        }
+
+        void add(long start, long end, String handle) {
+            if ((ranges > 0) && (ends[ranges - 1] == start)) {
+                ends[ranges - 1] = end;
+            } else {
+                if (ranges == starts.length) {
+                    starts = Arrays.copyOf(starts, ranges * 2);
+                    ends = Arrays.copyOf(ends, ranges * 2);
+                }
+
+                starts[ranges] = start;
+                ends[ranges] = end;
+                ranges++;
+            }
+
+            long h = unknownHandles ? (-1) : DXFUtils.parseHandle(handle);
+
+            if (h < 0) {
+                // all entities must be loaded to search an ID
+                unknownHandles = true;
+                handles = null;
+            } else {
+                if (count == handles.length) {
+                    handles = Arrays.copyOf(handles, count * 2);
+                }
+
+                if ((count > 0) && (handles[count - 1] > h)) {
+                    sorted = false;
+                }
+
+                handles[count] = h;
+            }
+
+            count++;
+        }
+
+        @Override
+        public List<DXFEntity> load() {
+            return source.load(this);
+        }
+
+        @Override
+        public synchronized boolean containsID(String id) {
+            if (unknownHandles) {
+                return true;
+            }
+
+            long h = DXFUtils.parseHandle(id);
+
+            if (h < 0) {
+                return false;
+            }
+
+            if (!sorted) {
+                Arrays.sort(handles, 0, count);
+                sorted = true;
+            }
+
+            return Arrays.binarySearch(handles, 0, count, h) >= 0;
+        }
+    }
+
+    /**
+     * Reads the ranges of the file one after another.
+     */
+    private static class RangeInputStream extends InputStream {
+        private FileChannel channel;
+        private long[] starts;
+        private long[] ends;
+        private int ranges;
+        private int range;
+        private long position;
+
+        public RangeInputStream(FileChannel channel, long[] starts,
+            long[] ends, int ranges) {
+            this.channel = channel;
+            this.starts = starts;
+            this.ends = ends;
+            this.ranges = ranges;
+
+            if (ranges > 0) {
+                position = starts[0];
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+
+            return (read(b, 0, 1) < 0) ? (-1) : (b[0] & 0xff);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            while ((range < ranges) && (position >= ends[range])) {
+                range++;
+
+                if (range < ranges) {
+                    position = starts[range];
+                }
+            }
+
+            if (range == ranges) {
+                return -1;
+            }
+
+            len = (int) Math.min(len, ends[range] - position);
+
+            int count = channel.read(ByteBuffer.wrap(b, off, len), position);
+
+            if (count < 0) {
+                throw new IOException("The file was changed");
+            }
+
+            position += count;
+
+            return count;
+        }
+    }
+}
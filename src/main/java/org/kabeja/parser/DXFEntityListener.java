@@ -0,0 +1,37 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.parser;
+
+import org.kabeja.dxf.DXFBlock;
+import org.kabeja.dxf.DXFEntity;
+import org.kabeja.dxf.DXFLayer;
+
+
+/**
+ * Gets each entity from the parser as soon as it is complete. Together
+ * with {@link DXFParser#setKeepEntities(boolean)} a drawing can be
+ * processed in a single pass without holding its entities in memory.
+ * The tables are parsed before, so the layer and the styles are known.
+ */
+public interface DXFEntityListener {
+    /**
+     * @param entity the entity, its DXFDocument is set
+     * @param layer the layer of the entity
+     * @param block the block of the entity or null for an entity of the
+     *        ENTITIES section
+     */
+    public void entityParsed(DXFEntity entity, DXFLayer layer, DXFBlock block);
+}
@@ -0,0 +1,77 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.parser;
+
+import java.io.IOException;
+
+
+/**
+ * Gives the groups (group code/value pairs) of a DXF file one after the
+ * other to the {@link DXFParser}, for example a {@link DXFTokenizer}.
+ */
+public interface DXFGroupReader {
+    /**
+     * Reads the next group.
+     *
+     * @return false if the end of the input is reached, otherwise true
+     * @throws IOException
+     * @throws ParseException if the group code is not an integer
+     */
+    public boolean next() throws IOException, ParseException;
+
+    /**
+     * Skips the rest of the current section. Afterwards the ENDSEC group
+     * is the current group.
+     *
+     * @return false if the end of the input is reached before the ENDSEC
+     * @throws IOException
+     * @throws ParseException
+     */
+    public boolean skipSection() throws IOException, ParseException;
+
+    /**
+     *
+     * @return the group code of the current group
+     */
+    public int getGroupCode();
+
+    /**
+     *
+     * @return the value of the current group, only valid until the next
+     * call of next()
+     */
+    public DXFValue getValue();
+
+    /**
+     *
+     * @return the number of the last read line
+     */
+    public int getLineNumber();
+
+    /**
+     *
+     * @return the offset of the group code line of the current group
+     */
+    public long getGroupOffset();
+
+    /**
+     *
+     * @return the offset behind the current group
+     */
+    public long getPosition();
+
+    public void close() throws IOException;
+}
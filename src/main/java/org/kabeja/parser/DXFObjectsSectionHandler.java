@@ -28,7 +28,7 @@ public class DXFObjectsSectionHandler extends AbstractSectionHandler
     implements HandlerManager {
     private static String SECTION_KEY = "OBJECTS";
     public static final int OBJECT_START = 0;
-    private HashMap<String, DXFObjectHandler> handlers = new HashMap<String, DXFObjectHandler>();
+    protected HashMap<String, DXFObjectHandler> handlers = new HashMap<String, DXFObjectHandler>();
     private DXFObjectHandler handler;
     private boolean parseObject = false;
 
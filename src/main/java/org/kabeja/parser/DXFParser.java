@@ -17,21 +17,46 @@ package org.kabeja.parser;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.lang3.StringUtils;
+import org.kabeja.dxf.DXFBlock;
+import org.kabeja.dxf.DXFConstants;
+import org.kabeja.dxf.DXFDimensionStyle;
 import org.kabeja.dxf.DXFDocument;
+import org.kabeja.dxf.DXFEntity;
+import org.kabeja.dxf.DXFEntityStore;
+import org.kabeja.dxf.DXFHatchPattern;
+import org.kabeja.dxf.DXFHeader;
+import org.kabeja.dxf.DXFLayer;
+import org.kabeja.dxf.DXFLineType;
+import org.kabeja.dxf.DXFStyle;
+import org.kabeja.dxf.DXFView;
+import org.kabeja.dxf.DXFViewport;
 import org.kabeja.parser.dxf.DXFHandler;
 import org.kabeja.parser.dxf.filter.DXFStreamFilter;
-import org.kabeja.tools.CodePageParser;
 
 
 /**
@@ -42,16 +67,27 @@ import org.kabeja.tools.CodePageParser;
 public class DXFParser implements HandlerManager, Handler, Parser, DXFHandler {
     public final static String PARSER_NAME = "DXFParser";
     public final static String EXTENSION = "dxf";
+
+    /**
+     * The sections which can be parsed in parallel.
+     */
+    public final static String[] PARALLEL_SECTIONS = {
+            DXFConstants.SECTION_BLOCKS, DXFConstants.SECTION_ENTITIES,
+            DXFConstants.SECTION_OBJECTS
+        };
+    private final static long MIN_CHUNK_SIZE = 1024 * 1024;
     private final static String SECTION_START = "SECTION";
     private final static String SECTION_END = "ENDSEC";
     //private final static String END_STREAM = "EOF";
     private final static int COMMAND_CODE = 0;
     public static final String DEFAULT_ENCODING = StringUtils.EMPTY;
+    private static final Charset DETECTION_CHARSET = Charset.forName("US-ASCII");
     protected DXFDocument doc;
     protected Hashtable<String, DXFSectionHandler> handlers = new Hashtable<String, DXFSectionHandler>();
     protected DXFSectionHandler currentHandler;
     private String line;
     protected List<DXFStreamFilter> streamFilters = new ArrayList<DXFStreamFilter>();
+    protected List<DXFEntityListener> entityListeners = new ArrayList<DXFEntityListener>();
     protected DXFHandler filter;
 
     // some parse flags
@@ -59,6 +95,27 @@ public class DXFParser implements HandlerManager, Handler, Parser, DXFHandler {
     private boolean sectionstarts = false;
     private int linecount;
     private boolean parse = false;
+    private boolean memoryMapping = true;
+    private int parallelism = 1;
+    private boolean readAhead = false;
+    private boolean keepEntities = true;
+    private boolean skipSection = false;
+    private boolean stop = false;
+    private Set<String> startedSections = new HashSet<String>();
+    private long parsedLength = -1;
+    private Set<String> sections = null;
+    private Set<String> entityTypes = null;
+    private ParseStatistics statistics = null;
+    private boolean lazy = false;
+    private DXFEntityStore entityStore = null;
+    private HandlerFactory handlerFactory = null;
+
+    // counts the changes of the configuration for the ParserFactory
+    int configurationChanges;
+    private File lazyFile;
+    private Charset lazyCharset;
+    private DXFEntityIndex index;
+    private long groupOffset;
 
     public DXFParser() {
     }
@@ -80,10 +137,79 @@ public class DXFParser implements HandlerManager, Handler, Parser, DXFHandler {
      */
     @Override
     public void parse(String file, String encoding) throws ParseException {
+        if (!memoryMapping) {
+            try {
+                parse(new FileInputStream(file), encoding);
+            } catch (FileNotFoundException e) {
+                e.printStackTrace();
+            }
+
+            return;
+        }
+
+        FileChannel channel = null;
+
         try {
-            parse(new FileInputStream(file), encoding);
+            channel = new FileInputStream(file).getChannel();
         } catch (FileNotFoundException e) {
             e.printStackTrace();
+
+            return;
+        }
+
+        try {
+            initialize(encoding);
+
+            byte[] head = new byte[BinaryDXFTokenizer.SENTINEL_LENGTH];
+            int count = channel.read(ByteBuffer.wrap(head), 0);
+
+            if (BinaryDXFTokenizer.isBinaryDXF(head, count)) {
+                parse(new BinaryDXFTokenizer(Channels.newInputStream(channel),
+                        getCharset(encoding, true)));
+                finish();
+                finishStatistics();
+
+                return;
+            }
+
+            MappedDXFTokenizer tokenizer = new MappedDXFTokenizer(channel,
+                    DETECTION_CHARSET);
+            Charset charset = getCharset(tokenizer, encoding);
+
+            if (DXFTokenizer.isSupportedCharset(charset)) {
+                if (lazy && keepEntities && streamFilters.isEmpty() &&
+                        entityListeners.isEmpty()) {
+                    lazyFile = new File(file);
+                    lazyCharset = charset;
+                    parse(tokenizer);
+                } else if ((parallelism > 1) && streamFilters.isEmpty() &&
+                        entityListeners.isEmpty()) {
+                    tokenizer.close();
+                    parseParallel(channel, charset);
+                    // the scanner reads the whole file
+                    parsedLength = channel.size();
+                } else {
+                    parse(tokenizer);
+                }
+            } else {
+                channel.position(0);
+                parse(new BufferedReader(new InputStreamReader(
+                            Channels.newInputStream(channel), charset)));
+            }
+
+            finish();
+            finishStatistics();
+        } catch (IOException ioe) {
+            throw new ParseException(ioe.toString());
+        } finally {
+            lazyFile = null;
+            lazyCharset = null;
+            index = null;
+
+            try {
+                channel.close();
+            } catch (IOException e) {
+            }
         }
     }
 
@@ -96,70 +222,394 @@ public class DXFParser implements HandlerManager, Handler, Parser, DXFHandler {
     @Override
     public void parse(InputStream input, String encoding)
         throws ParseException {
-        String currentKey = StringUtils.EMPTY;
-        key = false;
+        initialize(encoding);
+
+        try {
+            BufferedInputStream buf = new BufferedInputStream(input);
+            byte[] head = new byte[BinaryDXFTokenizer.SENTINEL_LENGTH];
+            buf.mark(head.length);
+
+            int count = 0;
+            int read = 0;
+
+            while ((count < head.length) &&
+                    ((read = buf.read(head, count, head.length - count)) >= 0)) {
+                count += read;
+            }
+
+            buf.reset();
+            input = buf;
+
+            if (BinaryDXFTokenizer.isBinaryDXF(head, count)) {
+                parse(new BinaryDXFTokenizer(input, getCharset(encoding, true)));
+                finish();
+                finishStatistics();
+
+                return;
+            }
+
+            DXFTokenizer tokenizer = new DXFTokenizer(input, DETECTION_CHARSET);
+            Charset charset = getCharset(tokenizer, encoding);
+
+            if (DXFTokenizer.isSupportedCharset(charset)) {
+                parse(readAhead ? new PipelinedDXFTokenizer(tokenizer) : tokenizer);
+            } else {
+                parse(new BufferedReader(new InputStreamReader(
+                            tokenizer.getRemainingInput(), charset)));
+            }
+
+            finish();
+            finishStatistics();
+        } catch (IOException ioe) {
+            throw new ParseException(ioe.toString());
+        }
+    }
+
+    protected void initialize(String encoding) {
         linecount = 0;
         parse = false;
+        sectionstarts = false;
+        skipSection = false;
+        stop = false;
+        startedSections.clear();
+        parsedLength = -1;
+
+        if (statistics != null) {
+            statistics.reset();
+        }
 
         //initialize
         doc = new DXFDocument();
         doc.setProperty(DXFDocument.PROPERTY_ENCODING, encoding);
+        doc.setDXFEntityStore(entityStore);
         //the StreamFilters
         this.buildFilterChain();
+    }
+
+    protected void finish() {
+        if (index != null) {
+            // the ENTITIES section without ENDSEC
+            index.endSection(parsedLength);
+            index = null;
+        }
+
+        // finish last parsing
+        if (parse) {
+            currentHandler.endSection();
+        }
+    }
 
-        BufferedReader in = null;
+    private void finishStatistics() {
+        if (statistics != null) {
+            statistics.finish(parsedLength);
+        }
+    }
+
+    /**
+     * Parses the groups given by the tokenizer, the DXFValue
+     * is reused for all groups.
+     *
+     * @param tokenizer
+     * @throws IOException
+     * @throws ParseException
+     */
+    protected void parse(DXFGroupReader tokenizer)
+        throws IOException, ParseException {
+        long groups = 0;
 
         try {
-            if (StringUtils.isEmpty(encoding)) {
-                BufferedInputStream buf = new BufferedInputStream(input);
-                buf.mark(9000);
-
-                try {
-                    BufferedReader r = new BufferedReader(new InputStreamReader(
-                                buf));
-                    CodePageParser p = new CodePageParser();
-                    encoding = p.parseEncoding(r);
-                    buf.reset();
-
-                    in = new BufferedReader(new InputStreamReader(buf, encoding));
-                } catch (IOException e1) {
-                    buf.reset();
-                    in = new BufferedReader(new InputStreamReader(buf));
+            while (!stop && tokenizer.next()) {
+                groups++;
+                linecount = tokenizer.getLineNumber();
+                groupOffset = tokenizer.getGroupOffset();
+                //the filter chain
+                filter.parseGroup(tokenizer.getGroupCode(),
+                    tokenizer.getValue());
+
+                if (skipSection) {
+                    skipSection = false;
+
+                    if (tokenizer.skipSection()) {
+                        groups++;
+                        linecount = tokenizer.getLineNumber();
+                        groupOffset = tokenizer.getGroupOffset();
+                        filter.parseGroup(tokenizer.getGroupCode(),
+                            tokenizer.getValue());
+                    }
+                }
+            }
+
+            parsedLength = tokenizer.getPosition();
+        } finally {
+            tokenizer.close();
+
+            if (statistics != null) {
+                statistics.addGroups(groups);
+            }
+        }
+    }
+
+    /**
+     * Parses the sections of the file in parallel. The HEADER, TABLES and
+     * other sections are parsed first on the current thread. Then the
+     * BLOCKS and ENTITIES sections are parsed by new section handlers of
+     * the handler factory into own documents, which see the header and
+     * the tables of the document. Large ENTITIES sections are split into
+     * chunks at entity boundaries, each parsed by its own handlers. The
+     * OBJECTS section is parsed in parallel to them. At the end the
+     * blocks and entities are added to the document in file order.
+     * Without a handler factory all sections are parsed one after the
+     * other.
+     *
+     * @param channel
+     * @param charset
+     * @throws IOException
+     * @throws ParseException
+     */
+    protected void parseParallel(FileChannel channel, Charset charset)
+        throws IOException, ParseException {
+        DXFSectionScanner scanner = new DXFSectionScanner(channel);
+        List<DXFSectionScanner.Section> sections = scanner.scan();
+        List<DXFSectionScanner.Section> sequential = new ArrayList<DXFSectionScanner.Section>();
+        List<Callable<DXFDocument>> objects = new ArrayList<Callable<DXFDocument>>();
+        List<Callable<DXFDocument>> tasks = new ArrayList<Callable<DXFDocument>>();
+        List<ParseStatistics> parts = new ArrayList<ParseStatistics>();
+
+        for (DXFSectionScanner.Section section : sections) {
+            if (!handlers.containsKey(section.getName()) ||
+                    !isSectionLoaded(section.getName())) {
+                continue;
+            }
+
+            DXFSectionHandler handler = null;
+
+            if (Arrays.asList(PARALLEL_SECTIONS).contains(section.getName())) {
+                handler = createSectionHandler(section.getName());
+            }
+
+            if (handler == null) {
+                sequential.add(section);
+            } else if (DXFConstants.SECTION_OBJECTS.equals(section.getName())) {
+                // the objects are added to the document directly
+                objects.add(new SectionTask(channel, charset, section,
+                        handler, doc, newPart(parts)));
+            } else if (DXFConstants.SECTION_ENTITIES.equals(section.getName())) {
+                long chunkSize = Math.max(MIN_CHUNK_SIZE,
+                        (section.getEnd() - section.getStart()) / (parallelism * 2));
+                long[] chunks = scanner.split(section, chunkSize);
+
+                for (int i = 0; i < (chunks.length - 1); i++) {
+                    if (i > 0) {
+                        handler = createSectionHandler(section.getName());
+                    }
+
+                    tasks.add(new ChunkTask(channel, charset, chunks[i],
+                            chunks[i + 1], handler, new PartDocument(doc),
+                            newPart(parts)));
                 }
             } else {
-                in = new BufferedReader(new InputStreamReader(input, encoding));
+                tasks.add(new SectionTask(channel, charset, section, handler,
+                        new PartDocument(doc), newPart(parts)));
             }
+        }
+
+        for (DXFSectionScanner.Section section : sequential) {
+            parse(new MappedDXFTokenizer(channel, charset, section.getStart(),
+                    section.getEnd(), MappedDXFTokenizer.DEFAULT_CHUNK_SIZE));
+            finish();
+            parse = false;
+        }
 
-            key = true;
-            sectionstarts = false;
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
 
-            while ((line = in.readLine()) != null) {
-                linecount++;
+        try {
+            List<Future<DXFDocument>> direct = new ArrayList<Future<DXFDocument>>();
+            List<Future<DXFDocument>> results = new ArrayList<Future<DXFDocument>>();
 
-                if (key) {
-                    currentKey = line;
-                    key = false;
-                } else {
-                    int keyCode = Integer.parseInt(currentKey.trim());
-                    //the filter chain
-                    filter.parseGroup(keyCode, new DXFValue(line.trim()));
-                    // parseGroup(currentKey, line);
-                    key = true;
+            for (Callable<DXFDocument> task : objects) {
+                direct.add(executor.submit(task));
+            }
+
+            for (Callable<DXFDocument> task : tasks) {
+                results.add(executor.submit(task));
+            }
+
+            for (Future<DXFDocument> result : direct) {
+                getResult(result);
+            }
+
+            for (Future<DXFDocument> result : results) {
+                merge((PartDocument) getResult(result));
+            }
+
+            for (ParseStatistics part : parts) {
+                statistics.add(part);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates the handler of a section with the handler factory, which is
+     * configured like the handler of this parser.
+     *
+     * @return the handler or null without a handler factory
+     */
+    private DXFSectionHandler createSectionHandler(String section) {
+        if (handlerFactory == null) {
+            return null;
+        }
+
+        Handler handler = handlerFactory.createHandler();
+
+        if (!(handler instanceof DXFParser)) {
+            return null;
+        }
+
+        DXFParser parser = (DXFParser) handler;
+        parser.setKeepEntities(keepEntities);
+        parser.setEntityTypes(entityTypes);
+
+        DXFSectionHandler sectionHandler = parser.handlers.get(section);
+
+        if ((sectionHandler == null) ||
+                (sectionHandler.getClass() != handlers.get(section).getClass())) {
+            // the factory builds other parsers
+            return null;
+        }
+
+        return sectionHandler;
+    }
+
+    /**
+     * @return the statistics for a task or null without statistics
+     */
+    private ParseStatistics newPart(List<ParseStatistics> parts) {
+        if (statistics == null) {
+            return null;
+        }
+
+        ParseStatistics part = new ParseStatistics();
+        parts.add(part);
+
+        return part;
+    }
+
+    private DXFDocument getResult(Future<DXFDocument> result)
+        throws IOException, ParseException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ParseException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof ParseException) {
+                throw (ParseException) cause;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            throw new ParseException(e);
+        }
+    }
+
+    /**
+     * Adds the blocks, entities and hatch patterns of a section document.
+     *
+     * @param part
+     */
+    private void merge(PartDocument part) {
+        Iterator<DXFBlock> blocks = part.getDXFBlockIterator();
+
+        while (blocks.hasNext()) {
+            doc.addDXFBlock(blocks.next());
+        }
+
+        for (DXFEntity entity : part.entities) {
+            doc.addDXFEntity(entity);
+        }
+
+        Iterator<DXFHatchPattern> patterns = part.getDXFHatchPatternIterator();
+
+        while (patterns.hasNext()) {
+            doc.addDXFHatchPattern(patterns.next());
+        }
+    }
+
+    /**
+     * Parses line by line, used for charsets which cannot be
+     * scanned byte by byte.
+     *
+     * @param in
+     * @throws IOException
+     * @throws ParseException
+     */
+    protected void parse(BufferedReader in) throws IOException, ParseException {
+        String currentKey = StringUtils.EMPTY;
+        key = true;
+
+        while (!stop && ((line = in.readLine()) != null)) {
+            linecount++;
+
+            if (key) {
+                currentKey = line;
+                key = false;
+            } else {
+                int keyCode = Integer.parseInt(currentKey.trim());
+                //the filter chain
+                filter.parseGroup(keyCode, new DXFValue(line));
+                key = true;
+
+                if (statistics != null) {
+                    statistics.addGroups(1);
                 }
             }
+        }
 
-            in.close();
+        in.close();
+    }
 
-            in = null;
+    /**
+     * Gets the charset of the given encoding or detects it from the
+     * $DWGCODEPAGE by the tokenizer, which is set to the charset. The
+     * tokenizer keeps the header bytes until then, so nothing is decoded
+     * with a wrong charset and nothing is read twice.
+     */
+    private Charset getCharset(DXFTokenizer tokenizer, String encoding)
+        throws IOException, ParseException {
+        Charset charset;
 
-            // finish last parsing
-            if (parse) {
-                currentHandler.endSection();
+        if (StringUtils.isEmpty(encoding)) {
+            charset = getCharset(tokenizer.detectEncoding(), true);
+        } else {
+            charset = getCharset(encoding, false);
+        }
+
+        tokenizer.setCharset(charset);
+
+        return charset;
+    }
+
+    private Charset getCharset(String encoding, boolean detected)
+        throws ParseException {
+        if (StringUtils.isEmpty(encoding)) {
+            return Charset.defaultCharset();
+        }
+
+        try {
+            return Charset.forName(encoding);
+        } catch (IllegalArgumentException e) {
+            if (detected) {
+                // unknown codepage in the header
+                return Charset.defaultCharset();
             }
-        } catch (FileNotFoundException e) {
-            throw new ParseException(e.toString());
-        } catch (IOException ioe) {
-            throw new ParseException(ioe.toString());
+
+            throw new ParseException("Unsupported encoding: " + encoding, e);
         }
     }
 
@@ -171,6 +621,33 @@ public class DXFParser implements HandlerManager, Handler, Parser, DXFHandler {
         try {
             if (sectionstarts) {
                 sectionstarts = false;
+                startedSections.add(value.getValue());
+
+                if (!isSectionLoaded(value.getValue())) {
+                    // the rest of the section is skipped by the tokenizer
+                    skipSection = true;
+                    parse = false;
+
+                    return;
+                }
+
+                if (statistics != null) {
+                    statistics.startSection(value.getValue());
+                }
+
+                if ((lazyFile != null) &&
+                        DXFConstants.SECTION_ENTITIES.equals(value.getValue()) &&
+                        (handlers.get(value.getValue()) instanceof DXFEntitiesSectionHandler)) {
+                    DXFSectionHandler handler = createSectionHandler(value.getValue());
+
+                    if (handler != null) {
+                        index = new DXFEntityIndex(doc, lazyFile,
+                                lazyCharset, (DXFEntitiesSectionHandler) handler);
+                        parse = false;
+
+                        return;
+                    }
+                }
 
                 if (handlers.containsKey(value.getValue())) {
                     currentHandler = handlers.get(value.getValue());
@@ -193,15 +670,31 @@ public class DXFParser implements HandlerManager, Handler, Parser, DXFHandler {
                     SECTION_END.equals(value.getValue())) {
                 if (parse) {
                     currentHandler.endSection();
+                } else if (index != null) {
+                    index.endSection(groupOffset);
+                    index = null;
+                }
+
+                if (statistics != null) {
+                    statistics.endSection();
                 }
 
                 parse = false;
 
+                if ((sections != null) && startedSections.containsAll(sections)) {
+                    // nothing more to load
+                    stop = true;
+                }
+
                 return;
             }
 
             if (parse) {
                 currentHandler.parseGroup(keyCode, value);
+            } else if (index != null) {
+                index.parseGroup(keyCode, value, groupOffset);
+            } else if ((statistics != null) && !sectionstarts) {
+                statistics.addSkippedGroup();
             }
 
             return;
@@ -223,8 +716,150 @@ public class DXFParser implements HandlerManager, Handler, Parser, DXFHandler {
     }
 
     public void addDXFSectionHandler(DXFSectionHandler handler) {
+        configurationChanges++;
         handler.setDXFDocument(doc);
         handlers.put(handler.getSectionKey(), handler);
+
+        if (handler instanceof DXFEntitiesSectionHandler) {
+            DXFEntitiesSectionHandler entitiesHandler = (DXFEntitiesSectionHandler) handler;
+            entitiesHandler.setKeepEntities(keepEntities);
+            entitiesHandler.setEntityTypes(entityTypes);
+            entitiesHandler.setParseStatistics(statistics);
+
+            for (DXFEntityListener listener : entityListeners) {
+                entitiesHandler.addDXFEntityListener(listener);
+            }
+        }
+    }
+
+    /**
+     * Adds a listener, which gets the entities of the BLOCKS and ENTITIES
+     * sections while parsing. A parser with listeners parses all sections
+     * one after the other.
+     *
+     * @param listener
+     */
+    public void addDXFEntityListener(DXFEntityListener listener) {
+        configurationChanges++;
+        entityListeners.add(listener);
+
+        for (DXFEntitiesSectionHandler handler : getEntitiesSectionHandlers()) {
+            handler.addDXFEntityListener(listener);
+        }
+    }
+
+    public void removeDXFEntityListener(DXFEntityListener listener) {
+        configurationChanges++;
+        entityListeners.remove(listener);
+
+        for (DXFEntitiesSectionHandler handler : getEntitiesSectionHandlers()) {
+            handler.removeDXFEntityListener(listener);
+        }
+    }
+
+    /**
+     * Sets whether the entities of the ENTITIES section are added to the
+     * document. Without them the memory does not grow with the size of
+     * the drawing, the entities are only given to the DXFEntityListeners.
+     * The entities of the blocks are always kept for the inserts.
+     *
+     * @param keepEntities the default is true
+     */
+    public void setKeepEntities(boolean keepEntities) {
+        configurationChanges++;
+        this.keepEntities = keepEntities;
+
+        for (DXFEntitiesSectionHandler handler : getEntitiesSectionHandlers()) {
+            handler.setKeepEntities(keepEntities);
+        }
+    }
+
+    public boolean isKeepEntities() {
+        return keepEntities;
+    }
+
+    /**
+     * Sets the sections to load, all other sections are skipped without
+     * decoding their groups. The parser stops after the last of them.
+     *
+     * @param sections the names of the sections like
+     *        {@link DXFConstants#SECTION_TABLES} or null for all sections
+     */
+    public void setSections(Collection<String> sections) {
+        configurationChanges++;
+        this.sections = (sections == null) ? null : new HashSet<String>(sections);
+    }
+
+    /**
+     * @return the names of the sections to load or null for all sections
+     */
+    public Set<String> getSections() {
+        return sections;
+    }
+
+    /**
+     * @return the number of bytes read by the last parse or -1 if unknown
+     */
+    public long getParsedLength() {
+        return parsedLength;
+    }
+
+    public boolean isSectionLoaded(String section) {
+        return (sections == null) || sections.contains(section);
+    }
+
+    /**
+     * Sets the types of the entities to load from the ENTITIES section.
+     * The entities of the blocks are always loaded for the inserts.
+     *
+     * @param entityTypes the types like {@link DXFConstants#ENTITY_TYPE_LINE}
+     *        or null for all types
+     */
+    public void setEntityTypes(Collection<String> entityTypes) {
+        configurationChanges++;
+        this.entityTypes = (entityTypes == null) ? null
+                                                 : new HashSet<String>(entityTypes);
+
+        for (DXFEntitiesSectionHandler handler : getEntitiesSectionHandlers()) {
+            handler.setEntityTypes(this.entityTypes);
+        }
+    }
+
+    /**
+     * @return the types of the entities to load or null for all types
+     */
+    public Set<String> getEntityTypes() {
+        return entityTypes;
+    }
+
+    /**
+     * Sets the statistics, which are filled by the following parses.
+     *
+     * @param statistics the statistics or null to parse without measuring
+     */
+    public void setParseStatistics(ParseStatistics statistics) {
+        configurationChanges++;
+        this.statistics = statistics;
+
+        for (DXFEntitiesSectionHandler handler : getEntitiesSectionHandlers()) {
+            handler.setParseStatistics(statistics);
+        }
+    }
+
+    public ParseStatistics getParseStatistics() {
+        return statistics;
+    }
+
+    private List<DXFEntitiesSectionHandler> getEntitiesSectionHandlers() {
+        List<DXFEntitiesSectionHandler> list = new ArrayList<DXFEntitiesSectionHandler>();
+
+        for (DXFSectionHandler handler : handlers.values()) {
+            if (handler instanceof DXFEntitiesSectionHandler) {
+                list.add((DXFEntitiesSectionHandler) handler);
+            }
+        }
+
+        return list;
     }
 
     @Override
@@ -276,11 +911,119 @@ public class DXFParser implements HandlerManager, Handler, Parser, DXFHandler {
         return extension.toLowerCase().equals(EXTENSION);
     }
 
+    /**
+     * Enables or disables the memory mapping of files given by name,
+     * which is enabled by default. If disabled the file is read as
+     * stream.
+     *
+     * @param memoryMapping
+     */
+    public void setMemoryMapping(boolean memoryMapping) {
+        configurationChanges++;
+        this.memoryMapping = memoryMapping;
+    }
+
+    public boolean isMemoryMapping() {
+        return this.memoryMapping;
+    }
+
+    /**
+     * Sets the number of threads used to parse the sections of a file
+     * given by name. The default is 1, which parses all sections one
+     * after the other. Parallel parsing needs the memory mapping and is
+     * not used with DXFStreamFilters or DXFEntityListeners.
+     *
+     * @param parallelism the number of threads
+     */
+    public void setParallelism(int parallelism) {
+        configurationChanges++;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public int getParallelism() {
+        return this.parallelism;
+    }
+
+    /**
+     * Enables the reading of ASCII streams on a separate thread, so
+     * blocking reads and decompression of the input run in parallel to
+     * the parsing. Files parsed by name are memory mapped and do not use
+     * the read-ahead.
+     *
+     * @param readAhead the default is false
+     */
+    public void setReadAhead(boolean readAhead) {
+        configurationChanges++;
+        this.readAhead = readAhead;
+    }
+
+    public boolean isReadAhead() {
+        return this.readAhead;
+    }
+
+    /**
+     * Enables the lazy parsing of the ENTITIES section of files given by
+     * name. Only the file ranges of the entities are recorded per layer
+     * and type, the entities are built on the first access of their type
+     * by {@link DXFLayer#getDXFEntities(String)} or of all entities of
+     * their layer. The file must not be changed or removed while the
+     * document is used. Lazy parsing needs the memory mapping, it is not
+     * used with DXFStreamFilters, DXFEntityListeners or without keeping
+     * the entities.
+     *
+     * @param lazy the default is false
+     */
+    public void setLazy(boolean lazy) {
+        configurationChanges++;
+        this.lazy = lazy;
+    }
+
+    public boolean isLazy() {
+        return this.lazy;
+    }
+
+    /**
+     * Sets the store for the entities of the layers of the following
+     * parsed documents, for example a store, which spills the entities
+     * of large drawings to disk.
+     *
+     * @param entityStore the store or null to keep the entities in
+     *        ArrayLists
+     */
+    public void setDXFEntityStore(DXFEntityStore entityStore) {
+        configurationChanges++;
+        this.entityStore = entityStore;
+    }
+
+    public DXFEntityStore getDXFEntityStore() {
+        return entityStore;
+    }
+
+    /**
+     * Sets the factory, which builds parsers like this one. The parallel
+     * and the lazy parsing take new section handlers from its parsers
+     * and are not used without a factory. Changes of the section handlers
+     * after they were added to this parser are not seen by the handlers
+     * of the factory.
+     *
+     * @param handlerFactory the factory or null
+     */
+    public void setHandlerFactory(HandlerFactory handlerFactory) {
+        configurationChanges++;
+        this.handlerFactory = handlerFactory;
+    }
+
+    public HandlerFactory getHandlerFactory() {
+        return handlerFactory;
+    }
+
     public void addDXFStreamFilter(DXFStreamFilter filter) {
+        configurationChanges++;
         this.streamFilters.add(filter);
     }
 
     public void removeDXFStreamFilter(DXFStreamFilter filter) {
+        configurationChanges++;
         this.streamFilters.remove(filter);
     }
 
@@ -305,4 +1048,195 @@ public class DXFParser implements HandlerManager, Handler, Parser, DXFHandler {
     public String getName() {
         return PARSER_NAME;
     }
+
+    /**
+     * Parses a part of the ENTITIES section, which starts with an entity.
+     * The groups 0/SECTION and 0/ENDSEC of the first and last chunk are
+     * ignored by the section handler like unknown entities.
+     */
+    private static class ChunkTask implements Callable<DXFDocument> {
+        private FileChannel channel;
+        private Charset charset;
+        private long start;
+        private long end;
+        private DXFSectionHandler handler;
+        private DXFDocument doc;
+        private ParseStatistics statistics;
+
+        public ChunkTask(FileChannel channel, Charset charset, long start,
+            long end, DXFSectionHandler handler, DXFDocument doc,
+            ParseStatistics statistics) {
+            this.channel = channel;
+            this.charset = charset;
+            this.start = start;
+            this.end = end;
+            this.handler = handler;
+            this.doc = doc;
+            this.statistics = statistics;
+        }
+
+        @Override
+        public DXFDocument call() throws Exception {
+            DXFTokenizer tokenizer = new MappedDXFTokenizer(channel, charset,
+                    start, end, MappedDXFTokenizer.DEFAULT_CHUNK_SIZE);
+            long groups = 0;
+
+            if (statistics != null) {
+                statistics.reset();
+                statistics.startSection(DXFConstants.SECTION_ENTITIES);
+
+                if (handler instanceof DXFEntitiesSectionHandler) {
+                    ((DXFEntitiesSectionHandler) handler).setParseStatistics(statistics);
+                }
+            }
+
+            handler.setDXFDocument(doc);
+            handler.startSection();
+
+            while (tokenizer.next()) {
+                groups++;
+                handler.parseGroup(tokenizer.getGroupCode(),
+                    tokenizer.getValue());
+            }
+
+            tokenizer.close();
+            handler.endSection();
+            handler.releaseDXFDocument();
+
+            if (statistics != null) {
+                statistics.addGroups(groups);
+                statistics.endSection();
+            }
+
+            return doc;
+        }
+    }
+
+    /**
+     * Parses a single section with its own section handler.
+     */
+    private static class SectionTask implements Callable<DXFDocument> {
+        private FileChannel channel;
+        private Charset charset;
+        private DXFSectionScanner.Section section;
+        private DXFSectionHandler handler;
+        private DXFDocument doc;
+        private ParseStatistics statistics;
+
+        public SectionTask(FileChannel channel, Charset charset,
+            DXFSectionScanner.Section section, DXFSectionHandler handler,
+            DXFDocument doc, ParseStatistics statistics) {
+            this.channel = channel;
+            this.charset = charset;
+            this.section = section;
+            this.handler = handler;
+            this.doc = doc;
+            this.statistics = statistics;
+        }
+
+        @Override
+        public DXFDocument call() throws Exception {
+            DXFParser parser = new DXFParser();
+            parser.setParseStatistics(statistics);
+            parser.addDXFSectionHandler(handler);
+            parser.initialize(StringUtils.EMPTY);
+            parser.setDXFDocument(doc);
+            parser.parse(new MappedDXFTokenizer(channel, charset,
+                    section.getStart(), section.getEnd(),
+                    MappedDXFTokenizer.DEFAULT_CHUNK_SIZE));
+            parser.finish();
+            handler.releaseDXFDocument();
+
+            return doc;
+        }
+    }
+
+    /**
+     * The document of a task, which records the added entities in file
+     * order and reads the header and the tables from the parsed document.
+     */
+    private static class PartDocument extends DXFDocument {
+        private DXFDocument doc;
+        private List<DXFEntity> entities = new ArrayList<DXFEntity>();
+
+        public PartDocument(DXFDocument doc) {
+            this.doc = doc;
+        }
+
+        @Override
+        public void addDXFEntity(DXFEntity entity) {
+            entity.setDXFDocument(this);
+            entities.add(entity);
+        }
+
+        @Override
+        public DXFHeader getDXFHeader() {
+            return doc.getDXFHeader();
+        }
+
+        @Override
+        public DXFLayer getDXFLayer(String key) {
+            return doc.getDXFLayer(key);
+        }
+
+        @Override
+        public boolean containsDXFLayer(String layerName) {
+            return doc.containsDXFLayer(layerName);
+        }
+
+        @Override
+        public Iterator<DXFLayer> getDXFLayerIterator() {
+            return doc.getDXFLayerIterator();
+        }
+
+        @Override
+        public DXFLineType getDXFLineType(String name) {
+            return doc.getDXFLineType(name);
+        }
+
+        @Override
+        public Iterator<DXFLineType> getDXFLineTypeIterator() {
+            return doc.getDXFLineTypeIterator();
+        }
+
+        @Override
+        public DXFStyle getDXFStyle(String name) {
+            return doc.getDXFStyle(name);
+        }
+
+        @Override
+        public Iterator<DXFStyle> getDXFStyleIterator() {
+            return doc.getDXFStyleIterator();
+        }
+
+        @Override
+        public DXFDimensionStyle getDXFDimensionStyle(String name) {
+            return doc.getDXFDimensionStyle(name);
+        }
+
+        @Override
+        public Iterator<DXFDimensionStyle> getDXFDimensionStyleIterator() {
+            return doc.getDXFDimensionStyleIterator();
+        }
+
+        @Override
+        public Iterator<DXFView> getDXFViewIterator() {
+            return doc.getDXFViewIterator();
+        }
+
+        @Override
+        public Iterator<DXFViewport> getDXFViewportIterator() {
+            return doc.getDXFViewportIterator();
+        }
+
+        @Override
+        public String getProperty(String key) {
+            return doc.getProperty(key);
+        }
+
+        @Override
+        public boolean hasProperty(String key) {
+            return doc.hasProperty(key);
+        }
+    }
 }
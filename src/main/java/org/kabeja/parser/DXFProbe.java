@@ -0,0 +1,268 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.parser;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.kabeja.dxf.DXFConstants;
+import org.kabeja.dxf.DXFDocument;
+import org.kabeja.dxf.DXFHeader;
+import org.kabeja.dxf.DXFLayer;
+import org.kabeja.dxf.DXFVariable;
+import org.kabeja.dxf.helpers.Point;
+import org.kabeja.parser.table.DXFLayerTableHandler;
+import org.kabeja.parser.table.DXFTableHandler;
+
+
+/**
+ * Reads the metadata of a DXF file without parsing the entities. Only
+ * the HEADER and TABLES sections are parsed, the parser stops after
+ * them. The block names are taken from the BLOCK_RECORD table, only
+ * files without this table (R12 and older) need the BLOCKS section,
+ * where only the names of the blocks are read.
+ */
+public final class DXFProbe {
+    public static final String VARIABLE_VERSION = "$ACADVER";
+    public static final String VARIABLE_CODEPAGE = "$DWGCODEPAGE";
+    public static final String VARIABLE_EXTMIN = "$EXTMIN";
+    public static final String VARIABLE_EXTMAX = "$EXTMAX";
+    public static final String VARIABLE_UNITS = "$INSUNITS";
+
+    private DXFProbe() {
+    }
+
+    public static Summary probe(Path file) throws ParseException {
+        return probe(file.toString());
+    }
+
+    public static Summary probe(String file) throws ParseException {
+        final BlockNameHandler blocks = new BlockNameHandler();
+        DXFParser parser = new DXFParser() {
+                @Override
+                public boolean isSectionLoaded(String section) {
+                    if (DXFConstants.SECTION_BLOCKS.equals(section)) {
+                        return !blocks.hasBlockRecords() &&
+                        super.isSectionLoaded(section);
+                    }
+
+                    return super.isSectionLoaded(section);
+                }
+            };
+
+        parser.setSections(Arrays.asList(DXFConstants.SECTION_HEADER,
+                DXFConstants.SECTION_TABLES, DXFConstants.SECTION_BLOCKS));
+        parser.addHandler(new DXFHeaderSectionHandler());
+
+        DXFTableSectionHandler tables = new DXFTableSectionHandler();
+        tables.addHandler(new DXFLayerTableHandler());
+        tables.addHandler(blocks);
+        parser.addHandler(tables);
+        parser.addHandler(blocks);
+        parser.parse(file);
+
+        return new Summary(parser.getDocument(), blocks.getNames(),
+            parser.getParsedLength());
+    }
+
+    /**
+     * The metadata of a DXF file.
+     */
+    public static final class Summary {
+        private final String version;
+        private final String codepage;
+        private final double[] extMin;
+        private final double[] extMax;
+        private final int units;
+        private final List<String> layerNames;
+        private final List<String> blockNames;
+        private final long parsedLength;
+
+        Summary(DXFDocument doc, List<String> blockNames, long parsedLength) {
+            DXFHeader header = doc.getDXFHeader();
+            this.version = getValue(header, VARIABLE_VERSION, "1");
+            this.codepage = getValue(header, VARIABLE_CODEPAGE, "3");
+            this.extMin = getPoint(header, VARIABLE_EXTMIN);
+            this.extMax = getPoint(header, VARIABLE_EXTMAX);
+
+            String u = getValue(header, VARIABLE_UNITS, "70");
+            this.units = (u == null) ? 0 : Integer.parseInt(u.trim());
+
+            List<String> layers = new ArrayList<String>();
+            Iterator<DXFLayer> i = doc.getDXFLayerIterator();
+
+            while (i.hasNext()) {
+                layers.add(i.next().getName());
+            }
+
+            this.layerNames = Collections.unmodifiableList(layers);
+            this.blockNames = Collections.unmodifiableList(new ArrayList<String>(
+                        blockNames));
+            this.parsedLength = parsedLength;
+        }
+
+        private static String getValue(DXFHeader header, String variable,
+            String code) {
+            if (!header.hasVariable(variable)) {
+                return null;
+            }
+
+            return header.getVariable(variable).getValue(code);
+        }
+
+        private static double[] getPoint(DXFHeader header, String variable) {
+            if (!header.hasVariable(variable)) {
+                return null;
+            }
+
+            DXFVariable v = header.getVariable(variable);
+            double[] p = new double[3];
+            String[] codes = { "10", "20", "30" };
+
+            for (int i = 0; i < codes.length; i++) {
+                if (v.getValue(codes[i]) != null) {
+                    p[i] = v.getDoubleValue(codes[i]);
+                }
+            }
+
+            return p;
+        }
+
+        private static Point toPoint(double[] p) {
+            return (p == null) ? null : new Point(p[0], p[1], p[2]);
+        }
+
+        /**
+         * @return the value of $ACADVER like AC1015 or null
+         */
+        public String getVersion() {
+            return version;
+        }
+
+        /**
+         * @return the value of $DWGCODEPAGE like ANSI_1252 or null
+         */
+        public String getCodepage() {
+            return codepage;
+        }
+
+        /**
+         * @return a copy of $EXTMIN or null
+         */
+        public Point getExtMin() {
+            return toPoint(extMin);
+        }
+
+        /**
+         * @return a copy of $EXTMAX or null
+         */
+        public Point getExtMax() {
+            return toPoint(extMax);
+        }
+
+        /**
+         * @return the value of $INSUNITS, 0 (unitless) if not set
+         */
+        public int getUnits() {
+            return units;
+        }
+
+        public List<String> getLayerNames() {
+            return layerNames;
+        }
+
+        public List<String> getBlockNames() {
+            return blockNames;
+        }
+
+        /**
+         * @return the number of bytes read or -1 if unknown
+         */
+        public long getParsedLength() {
+            return parsedLength;
+        }
+    }
+
+    /**
+     * Collects the block names from the BLOCK_RECORD table or from the
+     * block headers of the BLOCKS section.
+     */
+    private static class BlockNameHandler extends AbstractSectionHandler
+        implements DXFTableHandler {
+        private static final String TABLE_KEY = "BLOCK_RECORD";
+        private static final int NAME = 2;
+        private List<String> names = new ArrayList<String>();
+        private boolean blockRecords = false;
+        private boolean blockHeader = false;
+
+        public boolean hasBlockRecords() {
+            return blockRecords;
+        }
+
+        public List<String> getNames() {
+            return names;
+        }
+
+        @Override
+        public String getTableKey() {
+            return TABLE_KEY;
+        }
+
+        @Override
+        public String getSectionKey() {
+            return DXFConstants.SECTION_BLOCKS;
+        }
+
+        @Override
+        public void startParsing() {
+            blockRecords = true;
+            blockHeader = true;
+        }
+
+        @Override
+        public void endParsing() {
+        }
+
+        @Override
+        public void startSection() {
+            blockHeader = false;
+        }
+
+        @Override
+        public void endSection() {
+        }
+
+        @Override
+        public void releaseDXFDocument() {
+            this.doc = null;
+        }
+
+        @Override
+        public void parseGroup(int groupCode, DXFValue value) {
+            if (groupCode == 0) {
+                // only in the BLOCKS section
+                blockHeader = DXFBlocksSectionHandler.BLOCK_START.equals(value.getValue());
+            } else if ((groupCode == NAME) && blockHeader) {
+                names.add(value.getValue());
+                blockHeader = false;
+            }
+        }
+    }
+}
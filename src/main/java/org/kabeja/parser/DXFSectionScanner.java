@@ -0,0 +1,382 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.parser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * Finds the sections of an ASCII DXF file by scanning the raw bytes for
+ * the "SECTION" and "ENDSEC" lines, no groups are tokenized.
+ * <p>
+ * In a valid DXF a line "SECTION" or "ENDSEC" after a line "0" is always
+ * a section marker, because the "0" must be a group code: if it were a
+ * value, the marker line would be a group code, which is not a number.
+ * </p>
+ */
+public class DXFSectionScanner {
+    private static final int WINDOW_SIZE = 1024 * 1024;
+
+    // the bytes around a marker, which must be in the same window
+    private static final int CONTEXT = 64;
+    private static final byte[] SECTION_START = { 'S', 'E', 'C', 'T', 'I', 'O', 'N' };
+    private static final byte[] SECTION_END = { 'E', 'N', 'D', 'S', 'E', 'C' };
+
+    // entities which belong to the entity before
+    private static final Set<String> FOLLOW_ENTITIES = new HashSet<String>(Arrays.asList(
+                "VERTEX", "SEQEND", "ATTRIB", "ENDSEC", "EOF"));
+    private FileChannel channel;
+    private byte[] window = new byte[WINDOW_SIZE];
+    private int windowLength;
+    private long windowStart;
+
+    public DXFSectionScanner(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Scans the file for sections.
+     *
+     * @return the sections in file order
+     * @throws IOException
+     */
+    public List<Section> scan() throws IOException {
+        List<Section> sections = new ArrayList<Section>();
+        Section current = null;
+        long size = channel.size();
+        long scanPosition = 0;
+
+        while (scanPosition < size) {
+            windowStart = Math.max(0, scanPosition - CONTEXT);
+            read();
+
+            boolean last = (windowStart + windowLength) >= size;
+            int from = (int) (scanPosition - windowStart);
+            int to = last ? windowLength : (windowLength - CONTEXT);
+
+            if (to <= from) {
+                // cannot happen with a window larger than the context
+                break;
+            }
+
+            for (int i = from; i < (to - 2); i++) {
+                if ((window[i] == 'S') && (window[i + 1] == 'E') &&
+                        (window[i + 2] == 'C')) {
+                    int lineStart = lineStart(i);
+                    int lineEnd = lineEnd(i);
+
+                    if ((lineStart < 0) || !isCommandLine(lineStart)) {
+                        continue;
+                    }
+
+                    if (matches(lineStart, lineEnd, SECTION_START)) {
+                        if (current != null) {
+                            // no ENDSEC for the last section
+                            current.end = windowStart + previousLineStart(lineStart);
+                        }
+
+                        current = new Section();
+                        current.start = windowStart +
+                            previousLineStart(lineStart);
+                        current.name = readName(lineEnd);
+                        sections.add(current);
+                    } else if ((current != null) &&
+                            matches(lineStart, lineEnd, SECTION_END)) {
+                        current.end = windowStart + nextLineStart(lineEnd);
+                        current = null;
+                    }
+                }
+            }
+
+            scanPosition = windowStart + to;
+        }
+
+        if (current != null) {
+            current.end = size;
+        }
+
+        return sections;
+    }
+
+    private void read() throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(window);
+        long position = windowStart;
+        int count;
+
+        while (buffer.hasRemaining() &&
+                ((count = channel.read(buffer, position)) >= 0)) {
+            position += count;
+        }
+
+        windowLength = buffer.position();
+    }
+
+    private static boolean isLineBreak(byte b) {
+        return (b == '\n') || (b == '\r');
+    }
+
+    /**
+     * @return the start of the line or -1 if it starts outside of the window
+     */
+    private int lineStart(int i) {
+        while ((i > 0) && !isLineBreak(window[i - 1])) {
+            i--;
+        }
+
+        if ((i == 0) && (windowStart > 0)) {
+            return -1;
+        }
+
+        return i;
+    }
+
+    private int lineEnd(int i) {
+        while ((i < windowLength) && !isLineBreak(window[i])) {
+            i++;
+        }
+
+        return i;
+    }
+
+    private int nextLineStart(int lineEnd) {
+        if ((lineEnd < windowLength) && (window[lineEnd] == '\r')) {
+            lineEnd++;
+        }
+
+        if ((lineEnd < windowLength) && (window[lineEnd] == '\n')) {
+            lineEnd++;
+        }
+
+        return lineEnd;
+    }
+
+    /**
+     * @return the start of the line before or -1 if there is none
+     */
+    private int previousLineStart(int lineStart) {
+        int end = lineStart;
+
+        if ((end > 0) && (window[end - 1] == '\n')) {
+            end--;
+        }
+
+        if ((end > 0) && (window[end - 1] == '\r')) {
+            end--;
+        }
+
+        if (end == lineStart) {
+            return -1;
+        }
+
+        return lineStart(end);
+    }
+
+    /**
+     * Checks whether the line before is the group code 0.
+     */
+    private boolean isCommandLine(int lineStart) {
+        int start = previousLineStart(lineStart);
+
+        if (start < 0) {
+            return false;
+        }
+
+        int end = lineEnd(start);
+
+        return matches(start, end, new byte[] { '0' });
+    }
+
+    private boolean matches(int start, int end, byte[] text) {
+        while ((start < end) && ((window[start] & 0xff) <= ' ')) {
+            start++;
+        }
+
+        while ((end > start) && ((window[end - 1] & 0xff) <= ' ')) {
+            end--;
+        }
+
+        if ((end - start) != text.length) {
+            return false;
+        }
+
+        for (int i = 0; i < text.length; i++) {
+            if (window[start + i] != text[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Splits the section into chunks of about the given size. A chunk
+     * always starts with an entity, which is not part of a follow sequence
+     * like POLYLINE/VERTEX/SEQEND, so each chunk can be parsed by its own
+     * entity handlers.
+     *
+     * @param section
+     * @param chunkSize
+     * @return the chunk boundaries, starting with the section start and
+     *         ending with the section end
+     * @throws IOException
+     */
+    public long[] split(Section section, long chunkSize)
+        throws IOException {
+        List<Long> boundaries = new ArrayList<Long>();
+        long position = section.getStart();
+        boundaries.add(Long.valueOf(position));
+
+        while ((position + chunkSize) < section.getEnd()) {
+            position = findEntityStart(position + chunkSize, section.getEnd());
+
+            if (position < 0) {
+                break;
+            }
+
+            boundaries.add(Long.valueOf(position));
+        }
+
+        boundaries.add(Long.valueOf(section.getEnd()));
+
+        long[] b = new long[boundaries.size()];
+
+        for (int i = 0; i < b.length; i++) {
+            b[i] = boundaries.get(i).longValue();
+        }
+
+        return b;
+    }
+
+    /**
+     * @return the start of the next group 0 of an entity, which can start
+     *         a chunk or -1 if there is none before the end
+     */
+    private long findEntityStart(long position, long end)
+        throws IOException {
+        while (position < end) {
+            windowStart = position;
+            read();
+
+            boolean last = (windowStart + windowLength) >= end;
+            int to = last ? windowLength : (windowLength - CONTEXT);
+
+            for (int i = 1; (i < to) && ((windowStart + i) < end); i++) {
+                if (!isLineBreak(window[i - 1]) || (window[i] == '\n')) {
+                    continue;
+                }
+
+                int lineEnd = lineEnd(i);
+
+                if ((lineEnd < windowLength) &&
+                        matches(i, lineEnd, new byte[] { '0' })) {
+                    int nameStart = nextLineStart(lineEnd);
+                    int nameEnd = lineEnd(nameStart);
+
+                    if ((nameEnd < windowLength) &&
+                            isChunkStart(text(nameStart, nameEnd))) {
+                        return windowStart + i;
+                    }
+                }
+            }
+
+            if (last) {
+                break;
+            }
+
+            position = windowStart + to;
+        }
+
+        return -1;
+    }
+
+    /**
+     * A line after a line "0", which is not a number is a value, so the "0"
+     * is a group code.
+     */
+    private static boolean isChunkStart(String name) {
+        if ((name.length() == 0) || FOLLOW_ENTITIES.contains(name)) {
+            return false;
+        }
+
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+
+            if (!(((c >= 'A') && (c <= 'Z')) || ((c >= '0') && (c <= '9')) ||
+                    (c == '_'))) {
+                return false;
+            }
+        }
+
+        return (name.charAt(0) >= 'A') && (name.charAt(0) <= 'Z');
+    }
+
+    /**
+     * Reads the value of the group 2 after the SECTION line.
+     */
+    private String readName(int sectionLineEnd) {
+        int codeStart = nextLineStart(sectionLineEnd);
+        int nameStart = nextLineStart(lineEnd(codeStart));
+
+        return text(nameStart, lineEnd(nameStart));
+    }
+
+    private String text(int nameStart, int nameEnd) {
+        while ((nameStart < nameEnd) && ((window[nameStart] & 0xff) <= ' ')) {
+            nameStart++;
+        }
+
+        while ((nameEnd > nameStart) && ((window[nameEnd - 1] & 0xff) <= ' ')) {
+            nameEnd--;
+        }
+
+        StringBuilder buf = new StringBuilder();
+
+        for (int i = nameStart; i < nameEnd; i++) {
+            buf.append((char) window[i]);
+        }
+
+        return buf.toString();
+    }
+
+    /**
+     * A section of the file from the group 0/SECTION up to and including
+     * the group 0/ENDSEC.
+     */
+    public static class Section {
+        private String name;
+        private long start;
+        private long end;
+
+        public String getName() {
+            return name;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+    }
+}
@@ -34,7 +34,7 @@ public class DXFTableSectionHandler extends AbstractSectionHandler
     public final int TABLE_CODE = 0;
     private String table = StringUtils.EMPTY;
     private DXFTableHandler handler;
-    private Hashtable<String, DXFTableHandler> handlers = new Hashtable<String, DXFTableHandler>();
+    protected Hashtable<String, DXFTableHandler> handlers = new Hashtable<String, DXFTableHandler>();
     private boolean parse = false;
 
     public DXFTableSectionHandler() {
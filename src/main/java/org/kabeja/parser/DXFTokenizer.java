@@ -0,0 +1,470 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import org.apache.commons.lang3.StringUtils;
+import org.kabeja.dxf.DXFConstants;
+import org.kabeja.tools.CodePageParser;
+
+
+/**
+ * Splits an ASCII DXF stream into groups (group code/value pairs)
+ * without creating Strings. The bytes are scanned directly, the group
+ * code is parsed as int and the value is given as a reusable
+ * {@link DXFValue} view on the internal buffer, which is only valid
+ * until the next call of {@link #next()}.
+ * <p>
+ * Works for all charsets, where the digits, the whitespaces and the
+ * line breaks are encoded like in ASCII (all DXF codepages and UTF-8).
+ * </p>
+ */
+public class DXFTokenizer implements DXFGroupReader {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final String ASCII_TEST = "0123456789+- \t\r\n";
+    private static final byte[] COMMAND = { '0' };
+    private static final byte[] SECTION_END = { 'E', 'N', 'D', 'S', 'E', 'C' };
+    protected InputStream in;
+    protected byte[] buffer;
+    protected int position;
+    protected int limit;
+    protected long bufferOffset;
+    private boolean eof = false;
+    private boolean skipLF = false;
+    private int lineStart;
+    private int lineEnd;
+    protected int lineNumber;
+    protected int groupCode;
+    protected long groupOffset;
+    protected Charset charset;
+    protected final DXFValue value = new DXFValue();
+
+    public DXFTokenizer(InputStream in, Charset charset) {
+        this(in, charset, DEFAULT_BUFFER_SIZE);
+    }
+
+    public DXFTokenizer(InputStream in, Charset charset, int bufferSize) {
+        this.in = in;
+        this.charset = charset;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Checks if the tokenizer can scan a stream in the given charset.
+     *
+     * @param charset
+     * @return true if the group codes and line breaks are ASCII encoded
+     */
+    public static boolean isSupportedCharset(Charset charset) {
+        return Arrays.equals(ASCII_TEST.getBytes(charset),
+            ASCII_TEST.getBytes(Charset.forName("US-ASCII")));
+    }
+
+    /**
+     * Reads the next group.
+     *
+     * @return false if the end of the stream is reached, otherwise true
+     * @throws IOException
+     * @throws ParseException if the group code is not an integer
+     */
+    @Override
+    public boolean next() throws IOException, ParseException {
+        if (!readLine()) {
+            return false;
+        }
+
+        long offset = bufferOffset + lineStart;
+        String invalidKey = null;
+        int start = trimStart(lineStart, lineEnd);
+        int end = trimEnd(start, lineEnd);
+        int code = parseInt(buffer, start, end);
+
+        if (code == Integer.MIN_VALUE) {
+            invalidKey = new String(buffer, start, end - start, charset);
+        }
+
+        if (!readLine()) {
+            // a group code without value at the end
+            return false;
+        }
+
+        if (invalidKey != null) {
+            throw new ParseException("Line: " + (lineNumber - 1) +
+                " unsupported groupcode: " + invalidKey);
+        }
+
+        start = trimStart(lineStart, lineEnd);
+        end = trimEnd(start, lineEnd);
+        this.groupCode = code;
+        this.groupOffset = offset;
+        this.value.setBytes(buffer, start, end - start, charset);
+
+        return true;
+    }
+
+    /**
+     * Detects the encoding from the $DWGCODEPAGE variable of the HEADER
+     * section. Must be called before the first group is read. The header
+     * is kept undecoded in the buffer, so it is read only once from the
+     * stream and can be decoded afterwards with the detected charset
+     * (see {@link #setCharset(Charset)}). There is no limit for the size
+     * of the header.
+     *
+     * @return the Java encoding or an empty String if the DXF contains no
+     *         codepage
+     * @throws IOException
+     */
+    public String detectEncoding() throws IOException {
+        int scan = position;
+        int start = position;
+        boolean key = true;
+        boolean codepage = false;
+        boolean codepageGroup = false;
+
+        while (true) {
+            if (scan == limit) {
+                int old = position;
+                boolean more = fill();
+
+                // fill() moves the buffer content to the start
+                scan -= (old - position);
+                start -= (old - position);
+
+                if (!more) {
+                    return StringUtils.EMPTY;
+                }
+
+                continue;
+            }
+
+            byte b = buffer[scan++];
+
+            if ((b == '\n') && (start == (scan - 1)) && (scan > 1) &&
+                    (buffer[scan - 2] == '\r')) {
+                // the second part of a \r\n
+                start = scan;
+
+                continue;
+            } else if ((b != '\n') && (b != '\r')) {
+                continue;
+            }
+
+            int valueStart = trimStart(start, scan - 1);
+            int valueEnd = trimEnd(valueStart, scan - 1);
+            start = scan;
+
+            if (key) {
+                codepageGroup = (valueEnd - valueStart == 1) &&
+                    (buffer[valueStart] == '3');
+            } else {
+                String line = new String(buffer, valueStart,
+                        valueEnd - valueStart, charset);
+
+                if (DXFConstants.SECTION_END.equals(line) ||
+                        DXFConstants.SECTION_CLASSES.equals(line) ||
+                        DXFConstants.SECTION_BLOCKS.equals(line) ||
+                        DXFConstants.SECTION_ENTITIES.equals(line)) {
+                    // the header is done
+                    return StringUtils.EMPTY;
+                } else if (CodePageParser.CODEPAGE_CODE.equals(line)) {
+                    codepage = true;
+                } else if (codepage && codepageGroup) {
+                    return new CodePageParser().translateCodePage(line);
+                }
+            }
+
+            key = !key;
+        }
+    }
+
+    /**
+     * Gives the unread bytes of the buffer and the rest of the stream,
+     * for example to read the rest with a Reader.
+     *
+     * @return the remaining input
+     */
+    public InputStream getRemainingInput() {
+        return new SequenceInputStream(new ByteArrayInputStream(buffer,
+                position, limit - position), in);
+    }
+
+    /**
+     * Skips the rest of the current section by comparing the raw lines
+     * with the group 0/ENDSEC, the skipped groups are neither decoded nor
+     * given as DXFValue. Afterwards the ENDSEC group is the current group.
+     *
+     * @return false if the end of the stream is reached before the ENDSEC
+     * @throws IOException
+     * @throws ParseException
+     */
+    @Override
+    public boolean skipSection() throws IOException, ParseException {
+        while (readLine()) {
+            long offset = bufferOffset + lineStart;
+            boolean command = matches(lineStart, lineEnd, COMMAND);
+
+            if (!readLine()) {
+                return false;
+            }
+
+            if (command && matches(lineStart, lineEnd, SECTION_END)) {
+                int start = trimStart(lineStart, lineEnd);
+                int end = trimEnd(start, lineEnd);
+                this.groupCode = 0;
+                this.groupOffset = offset;
+                this.value.setBytes(buffer, start, end - start, charset);
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     *
+     * @return the group code of the current group
+     */
+    @Override
+    public int getGroupCode() {
+        return groupCode;
+    }
+
+    /**
+     *
+     * @return the value of the current group, only valid until the next
+     * call of next()
+     */
+    @Override
+    public DXFValue getValue() {
+        return value;
+    }
+
+    /**
+     *
+     * @return the number of the last read line
+     */
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     *
+     * @return the stream offset of the group code line of the current group
+     */
+    @Override
+    public long getGroupOffset() {
+        return groupOffset;
+    }
+
+    /**
+     *
+     * @return the stream offset behind the current group
+     */
+    @Override
+    public long getPosition() {
+        return bufferOffset + position;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public void setCharset(Charset charset) {
+        this.charset = charset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private boolean readLine() throws IOException {
+        if (skipLF) {
+            if ((position == limit) && !fill()) {
+                return false;
+            }
+
+            if (buffer[position] == '\n') {
+                position++;
+            }
+
+            skipLF = false;
+        }
+
+        int scan = position;
+
+        while (true) {
+            while (scan < limit) {
+                byte b = buffer[scan];
+
+                if ((b == '\n') || (b == '\r')) {
+                    lineStart = position;
+                    lineEnd = scan;
+                    position = scan + 1;
+                    skipLF = (b == '\r');
+                    lineNumber++;
+
+                    return true;
+                }
+
+                scan++;
+            }
+
+            int read = scan - position;
+
+            if (!fill()) {
+                if (position < limit) {
+                    // the last line without line break
+                    lineStart = position;
+                    lineEnd = limit;
+                    position = limit;
+                    lineNumber++;
+
+                    return true;
+                }
+
+                return false;
+            }
+
+            scan = position + read;
+        }
+    }
+
+    /**
+     * Moves the unread bytes to the start of the buffer and reads more
+     * bytes from the stream behind them.
+     *
+     * @return false if nothing more could be read
+     * @throws IOException
+     */
+    protected boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            bufferOffset += position;
+            limit -= position;
+            position = 0;
+        }
+
+        if (limit == buffer.length) {
+            // a very long line
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+
+        int count = 0;
+
+        while (count == 0) {
+            count = read(buffer, limit, buffer.length - limit);
+        }
+
+        if (count < 0) {
+            eof = true;
+
+            return false;
+        }
+
+        limit += count;
+
+        return true;
+    }
+
+    /**
+     * Reads bytes from the underlying input into the buffer.
+     *
+     * @return the number of bytes read or -1 at the end of input
+     * @throws IOException
+     */
+    protected int read(byte[] b, int off, int len) throws IOException {
+        return in.read(b, off, len);
+    }
+
+    private boolean matches(int start, int end, byte[] text) {
+        start = trimStart(start, end);
+        end = trimEnd(start, end);
+
+        if ((end - start) != text.length) {
+            return false;
+        }
+
+        for (int i = 0; i < text.length; i++) {
+            if (buffer[start + i] != text[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private int trimStart(int start, int end) {
+        while ((start < end) && ((buffer[start] & 0xff) <= ' ')) {
+            start++;
+        }
+
+        return start;
+    }
+
+    private int trimEnd(int start, int end) {
+        while ((end > start) && ((buffer[end - 1] & 0xff) <= ' ')) {
+            end--;
+        }
+
+        return end;
+    }
+
+    /**
+     * Parses a trimmed group code.
+     *
+     * @return the code or Integer.MIN_VALUE if it is not a valid integer
+     */
+    static int parseInt(byte[] b, int start, int end) {
+        int i = start;
+        boolean negative = false;
+
+        if ((i < end) && ((b[i] == '-') || (b[i] == '+'))) {
+            negative = (b[i] == '-');
+            i++;
+        }
+
+        if ((i == end) || ((end - i) > 9)) {
+            return Integer.MIN_VALUE;
+        }
+
+        int result = 0;
+
+        for (; i < end; i++) {
+            int digit = b[i] - '0';
+
+            if ((digit < 0) || (digit > 9)) {
+                return Integer.MIN_VALUE;
+            }
+
+            result = (result * 10) + digit;
+        }
+
+        return negative ? (-result) : result;
+    }
+}
@@ -15,15 +15,66 @@
 */
 package org.kabeja.parser;
 
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
 
 /**
  * This is a helper class, which convert to different output formats.
+ * <p>
+ * A DXFValue can either hold a String or be a view on the raw bytes of
+ * a line read by the {@link DXFTokenizer}. In the latter case the
+ * String is only decoded if {@link #getValue()} is called and the
+ * view is reused for the next group. Handlers which keep a DXFValue
+ * after {@code parseGroup()} has returned must keep a {@link #copy()}.
+ * </p>
+ * <p>
+ * Values read from a binary DXF are stored typed (double, integer or
+ * binary data) and converted to a String only on request.
+ * </p>
+ * <p>
+ * Numbers of a byte view are decoded directly from the bytes for the
+ * plain decimal and exponent notation used in DXF. Only values which
+ * cannot be rounded correctly that way (more than 18 significant digits
+ * or exponents beyond the exact powers of ten) and unusual notations
+ * are given to the JDK.
+ * </p>
  * @author <a href="mailto:simon.mieth@gmx.de>Simon Mieth</a>
  *
  */
 public final class DXFValue {
+    private static final int TYPE_STRING = 0;
+    private static final int TYPE_BYTES = 1;
+    private static final int TYPE_DOUBLE = 2;
+    private static final int TYPE_INTEGER = 3;
+    private static final int TYPE_BINARY = 4;
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+    private static final int MAX_DIGITS = 18;
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+            1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+        };
+    private static final long[] LONG_POWERS_OF_TEN = {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L,
+            100000000L, 1000000000L, 10000000000L, 100000000000L,
+            1000000000000L, 10000000000000L, 100000000000000L,
+            1000000000000000L, 10000000000000000L, 100000000000000000L,
+            1000000000000000000L
+        };
+    private int type = TYPE_STRING;
     private String value;
-    private int integerValue = Integer.MAX_VALUE;
+    private double doubleNumber;
+    private long integerNumber;
+    private int integerValue;
+    private boolean integerParsed = false;
+    private byte[] bytes;
+    private int offset;
+    private int length;
+    private Charset charset;
+
+    // the bytes are not shared with a tokenizer
+    private boolean owned = false;
 
     /**
      *
@@ -37,6 +88,30 @@ public final class DXFValue {
     }
 
     public String getValue() {
+        if (value == null) {
+            switch (type) {
+            case TYPE_BYTES:
+                value = new String(bytes, offset, length, charset);
+
+                break;
+
+            case TYPE_DOUBLE:
+                value = Double.toString(doubleNumber);
+
+                break;
+
+            case TYPE_INTEGER:
+                value = Long.toString(integerNumber);
+
+                break;
+
+            case TYPE_BINARY:
+                value = toHex();
+
+                break;
+            }
+        }
+
         return value;
     }
 
@@ -44,15 +119,165 @@ public final class DXFValue {
      * @param value The value to set.
      */
     private void setValue(String value) {
+        this.type = TYPE_STRING;
         this.value = value.trim();
     }
 
+    /**
+     * Copies the undecoded bytes of a value given by
+     * {@link #setBytes(byte[], int, int, Charset)}.
+     *
+     * @return the position behind the copied bytes
+     */
+    int copyBytes(byte[] target, int position) {
+        System.arraycopy(bytes, offset, target, position, length);
+
+        return position + length;
+    }
+
+    int getLength() {
+        return length;
+    }
+
+    /**
+     * Points this value to the given (already trimmed) bytes. The bytes
+     * are not copied, the caller must not change them as long as the
+     * value is used.
+     *
+     * @param bytes the buffer
+     * @param offset the start of the value in the buffer
+     * @param length the length of the value
+     * @param charset the charset used to decode the value on request
+     */
+    void setBytes(byte[] bytes, int offset, int length, Charset charset) {
+        this.type = TYPE_BYTES;
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+        this.charset = charset;
+        this.value = null;
+        this.integerParsed = false;
+        this.owned = false;
+    }
+
+    void setDouble(double d) {
+        this.type = TYPE_DOUBLE;
+        this.doubleNumber = d;
+        this.value = null;
+        this.integerParsed = false;
+    }
+
+    void setInteger(long l) {
+        this.type = TYPE_INTEGER;
+        this.integerNumber = l;
+        this.value = null;
+        this.integerParsed = false;
+    }
+
+    /**
+     * Points this value to binary data, which will be given as hex
+     * String like in ASCII DXF.
+     */
+    void setBinary(byte[] bytes, int offset, int length) {
+        setBytes(bytes, offset, length, null);
+        this.type = TYPE_BINARY;
+    }
+
+    /**
+     * Returns a DXFValue which is independent from the buffer of the
+     * tokenizer and can be kept after the parseGroup() call.
+     *
+     * @return a copy of this value
+     */
+    public DXFValue copy() {
+        DXFValue v = new DXFValue();
+        v.type = this.type;
+        v.value = this.value;
+        v.integerValue = this.integerValue;
+        v.integerParsed = this.integerParsed;
+        v.doubleNumber = this.doubleNumber;
+        v.integerNumber = this.integerNumber;
+
+        if ((this.type == TYPE_BYTES) || (this.type == TYPE_BINARY)) {
+            v.bytes = Arrays.copyOfRange(this.bytes, this.offset,
+                    this.offset + this.length);
+            v.length = this.length;
+            v.charset = this.charset;
+            v.owned = true;
+        }
+
+        return v;
+    }
+
+    /**
+     * Copies this value into the given value like {@link #copy()}. The
+     * bytes of the target are reused if they are owned by the target and
+     * large enough, so a value can be kept without allocation.
+     *
+     * @param target the value to overwrite
+     * @return the target
+     */
+    public DXFValue copy(DXFValue target) {
+        target.type = this.type;
+        target.value = this.value;
+        target.integerValue = this.integerValue;
+        target.integerParsed = this.integerParsed;
+        target.doubleNumber = this.doubleNumber;
+        target.integerNumber = this.integerNumber;
+
+        if ((this.type == TYPE_BYTES) || (this.type == TYPE_BINARY)) {
+            if (!target.owned || (target.bytes.length < this.length)) {
+                target.bytes = new byte[Math.max(this.length, 16)];
+                target.owned = true;
+            }
+
+            System.arraycopy(this.bytes, this.offset, target.bytes, 0,
+                this.length);
+            target.offset = 0;
+            target.length = this.length;
+            target.charset = this.charset;
+        }
+
+        return target;
+    }
+
     public double getDoubleValue() {
-        return Double.parseDouble(value);
+        if (type == TYPE_DOUBLE) {
+            return doubleNumber;
+        } else if (type == TYPE_INTEGER) {
+            return integerNumber;
+        } else if (type == TYPE_BYTES) {
+            double d = parseDouble(bytes, offset, offset + length);
+
+            if (!Double.isNaN(d)) {
+                return d;
+            }
+        }
+
+        return Double.parseDouble(getValue());
     }
 
     public int getIntegerValue() {
-        return Integer.parseInt(value);
+        if (!integerParsed) {
+            if (type == TYPE_INTEGER) {
+                integerValue = (int) integerNumber;
+            } else if (type == TYPE_DOUBLE) {
+                integerValue = (int) doubleNumber;
+            } else {
+                long l = Long.MIN_VALUE;
+
+                if (type == TYPE_BYTES) {
+                    l = parseInteger(bytes, offset, offset + length);
+                }
+
+                integerValue = (l != Long.MIN_VALUE) ? (int) l
+                                                     : Integer.parseInt(getValue());
+            }
+
+            integerParsed = true;
+        }
+
+        return integerValue;
     }
 
     /**
@@ -69,14 +294,214 @@ public final class DXFValue {
 
     @Override
     public String toString() {
-        return value;
+        return getValue();
+    }
+
+    private String toHex() {
+        char[] c = new char[length * 2];
+
+        for (int i = 0; i < length; i++) {
+            int b = bytes[offset + i] & 0xff;
+            c[2 * i] = HEX[b >> 4];
+            c[(2 * i) + 1] = HEX[b & 0x0f];
+        }
+
+        return new String(c);
     }
 
     public boolean isBitSet(int pos) {
-        if (this.integerValue == Integer.MAX_VALUE) {
-            this.integerValue = getIntegerValue();
+        return (getIntegerValue() & pos) == pos;
+    }
+
+    /**
+     * Parses an integer in plain decimal notation.
+     *
+     * @return the integer or Long.MIN_VALUE if the bytes are not a plain
+     * integer in the range of int
+     */
+    static long parseInteger(byte[] b, int start, int end) {
+        int i = start;
+        boolean negative = false;
+
+        if ((i < end) && ((b[i] == '-') || (b[i] == '+'))) {
+            negative = (b[i] == '-');
+            i++;
+        }
+
+        if ((i == end) || ((end - i) > 10)) {
+            return Long.MIN_VALUE;
+        }
+
+        long l = 0;
+
+        for (; i < end; i++) {
+            int digit = b[i] - '0';
+
+            if ((digit < 0) || (digit > 9)) {
+                return Long.MIN_VALUE;
+            }
+
+            l = (l * 10) + digit;
+        }
+
+        if (negative) {
+            l = -l;
+        }
+
+        if ((l < Integer.MIN_VALUE) || (l > Integer.MAX_VALUE)) {
+            return Long.MIN_VALUE;
+        }
+
+        return l;
+    }
+
+    /**
+     * Parses a double in plain decimal or exponent notation. The
+     * significant digits are collected in a long and scaled by an exact
+     * power of ten, which gives the correctly rounded result if the
+     * mantissa has at most 53 bits (Clinger's fast path).
+     *
+     * @return the double or NaN if the value must be parsed by the JDK
+     */
+    static double parseDouble(byte[] b, int start, int end) {
+        int i = start;
+        boolean negative = false;
+
+        if ((i < end) && ((b[i] == '-') || (b[i] == '+'))) {
+            negative = (b[i] == '-');
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        // zeros which are not yet added to the mantissa
+        int zeros = 0;
+        int fractionZeros = 0;
+        boolean fraction = false;
+        boolean hasDigits = false;
+
+        for (; i < end; i++) {
+            int digit = b[i] - '0';
+
+            if ((digit >= 0) && (digit <= 9)) {
+                hasDigits = true;
+
+                if (digit == 0) {
+                    if (mantissa == 0) {
+                        // leading zero
+                        if (fraction) {
+                            exponent--;
+                        }
+                    } else {
+                        zeros++;
+
+                        if (fraction) {
+                            fractionZeros++;
+                        }
+                    }
+                } else {
+                    if ((digits + zeros + 1) > MAX_DIGITS) {
+                        return Double.NaN;
+                    }
+
+                    if (zeros > 0) {
+                        mantissa *= LONG_POWERS_OF_TEN[zeros];
+                        digits += zeros;
+
+                        if (fraction) {
+                            exponent -= fractionZeros;
+                        }
+                    }
+
+                    mantissa = (mantissa * 10) + digit;
+                    digits++;
+
+                    if (fraction) {
+                        exponent--;
+                    }
+
+                    zeros = 0;
+                    fractionZeros = 0;
+                }
+            } else if ((b[i] == '.') && !fraction) {
+                fraction = true;
+            } else {
+                break;
+            }
+        }
+
+        if (!hasDigits) {
+            return Double.NaN;
+        }
+
+        // trailing zeros of the integer part
+        exponent += (zeros - fractionZeros);
+
+        if (i < end) {
+            if ((b[i] != 'e') && (b[i] != 'E')) {
+                return Double.NaN;
+            }
+
+            i++;
+
+            boolean negativeExponent = false;
+
+            if ((i < end) && ((b[i] == '-') || (b[i] == '+'))) {
+                negativeExponent = (b[i] == '-');
+                i++;
+            }
+
+            if ((i == end) || ((end - i) > 4)) {
+                return Double.NaN;
+            }
+
+            int e = 0;
+
+            for (; i < end; i++) {
+                int digit = b[i] - '0';
+
+                if ((digit < 0) || (digit > 9)) {
+                    return Double.NaN;
+                }
+
+                e = (e * 10) + digit;
+            }
+
+            exponent += (negativeExponent ? (-e) : e);
+        }
+
+        double d;
+
+        if (mantissa == 0) {
+            d = 0.0;
+        } else if (mantissa >= MAX_EXACT_MANTISSA) {
+            return Double.NaN;
+        } else if (exponent == 0) {
+            d = mantissa;
+        } else if ((exponent < 0) && (exponent >= -22)) {
+            d = mantissa / POWERS_OF_TEN[-exponent];
+        } else if ((exponent > 0) && (exponent <= 22)) {
+            d = mantissa * POWERS_OF_TEN[exponent];
+        } else if ((exponent > 22) && (exponent <= (22 + MAX_DIGITS))) {
+            // move the exponent into the mantissa as long as it is exact
+            int shift = exponent - 22;
+
+            if ((digits + shift) > MAX_DIGITS) {
+                return Double.NaN;
+            }
+
+            long m = mantissa * LONG_POWERS_OF_TEN[shift];
+
+            if (m >= MAX_EXACT_MANTISSA) {
+                return Double.NaN;
+            }
+
+            d = m * POWERS_OF_TEN[22];
+        } else {
+            return Double.NaN;
         }
 
-        return (this.integerValue & pos) == pos;
+        return negative ? (-d) : d;
     }
 }
@@ -0,0 +1,32 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.parser;
+
+
+/**
+ * Builds new handler graphs with all their sub handlers, for example the
+ * parsers of a {@link ParserFactory} or the section handlers, which parse
+ * the parts of a file in parallel.
+ *
+ * @see DXFParser#setHandlerFactory(HandlerFactory)
+ */
+public interface HandlerFactory {
+    /**
+     * @return a new handler, which shares no state with the handlers
+     *         created before
+     */
+    public Handler createHandler();
+}
@@ -0,0 +1,95 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.parser;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+
+/**
+ * A {@link DXFTokenizer} which reads a file through a memory mapping
+ * instead of a stream. Files larger than the chunk size (and so larger
+ * than 2GB) are mapped chunk by chunk. The bytes are copied with bulk
+ * gets from the mapping into the scan buffer, no stream buffers and no
+ * decoding are involved.
+ */
+public class MappedDXFTokenizer extends DXFTokenizer {
+    public static final int DEFAULT_CHUNK_SIZE = 256 * 1024 * 1024;
+    private FileChannel channel;
+    private MappedByteBuffer mapping;
+    private long mappingEnd;
+    private long size;
+    private int chunkSize;
+
+    public MappedDXFTokenizer(FileChannel channel, Charset charset)
+        throws IOException {
+        this(channel, charset, 0, channel.size(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     *
+     * @param channel the file
+     * @param charset
+     * @param start the file position to start with
+     * @param end the file position to stop at
+     * @param chunkSize the maximal size of a single mapping
+     * @throws IOException
+     */
+    public MappedDXFTokenizer(FileChannel channel, Charset charset,
+        long start, long end, int chunkSize) throws IOException {
+        super(null, charset);
+        this.channel = channel;
+        this.mappingEnd = start;
+        this.size = end;
+        this.chunkSize = chunkSize;
+        this.bufferOffset = start;
+    }
+
+    @Override
+    protected int read(byte[] b, int off, int len) throws IOException {
+        if ((mapping == null) || !mapping.hasRemaining()) {
+            // the used chunk can be unmapped before the next is mapped
+            mapping = null;
+
+            if ((channel == null) || (mappingEnd >= size)) {
+                return -1;
+            }
+
+            long length = Math.min(chunkSize, size - mappingEnd);
+            mapping = channel.map(FileChannel.MapMode.READ_ONLY, mappingEnd,
+                    length);
+            mappingEnd += length;
+        }
+
+        int count = Math.min(len, mapping.remaining());
+        mapping.get(b, off, count);
+
+        return count;
+    }
+
+    /**
+     * Drops the references to the mapping and the channel, so the mapped
+     * memory is released with the next garbage collection. The channel is
+     * not closed and can be used by other tokenizers.
+     */
+    @Override
+    public void close() throws IOException {
+        mapping = null;
+        channel = null;
+    }
+}
@@ -0,0 +1,189 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.parser;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Collects statistics of a parse, set it with
+ * {@link DXFParser#setParseStatistics(ParseStatistics)}. Without a
+ * ParseStatistics the parser does no measuring at all. The statistics
+ * are reset at the start of each parse.
+ * <p>
+ * The time of an entity is the time from its group 0 up to the group 0
+ * of the next entity. In parallel mode the time of the ENTITIES section
+ * is the sum of the times of its chunks.
+ * </p>
+ */
+public class ParseStatistics {
+    private long startTime;
+    private long time;
+    private long bytes;
+    private long groups;
+    private long skippedGroups;
+    private Map<String, Long> sectionTimes = new LinkedHashMap<String, Long>();
+    private Map<String, Long> entityCounts = new LinkedHashMap<String, Long>();
+    private Map<String, Long> entityTimes = new LinkedHashMap<String, Long>();
+    private String section;
+    private long sectionStart;
+
+    public void reset() {
+        startTime = System.nanoTime();
+        time = 0;
+        bytes = -1;
+        groups = 0;
+        skippedGroups = 0;
+        section = null;
+        sectionTimes.clear();
+        entityCounts.clear();
+        entityTimes.clear();
+    }
+
+    void finish(long bytes) {
+        endSection();
+        this.time = System.nanoTime() - startTime;
+        this.bytes = bytes;
+    }
+
+    void addGroups(long count) {
+        groups += count;
+    }
+
+    void addSkippedGroup() {
+        skippedGroups++;
+    }
+
+    void startSection(String name) {
+        endSection();
+        section = name;
+        sectionStart = System.nanoTime();
+    }
+
+    void endSection() {
+        if (section != null) {
+            add(sectionTimes, section, System.nanoTime() - sectionStart);
+            section = null;
+        }
+    }
+
+    void entityParsed(String type, long time) {
+        add(entityCounts, type, 1);
+        add(entityTimes, type, time);
+    }
+
+    /**
+     * Adds the counts and times of a part parsed by another thread.
+     */
+    void add(ParseStatistics part) {
+        groups += part.groups;
+        skippedGroups += part.skippedGroups;
+        addAll(sectionTimes, part.sectionTimes);
+        addAll(entityCounts, part.entityCounts);
+        addAll(entityTimes, part.entityTimes);
+    }
+
+    private static void add(Map<String, Long> map, String key, long value) {
+        Long old = map.get(key);
+        map.put(key, Long.valueOf((old == null) ? value : (old.longValue() + value)));
+    }
+
+    private static void addAll(Map<String, Long> map, Map<String, Long> values) {
+        Iterator<Map.Entry<String, Long>> i = values.entrySet().iterator();
+
+        while (i.hasNext()) {
+            Map.Entry<String, Long> e = i.next();
+            add(map, e.getKey(), e.getValue().longValue());
+        }
+    }
+
+    /**
+     * @return the wall time of the parse in nanoseconds
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return the number of bytes read or -1 if unknown
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return the number of groups read, without the groups of skipped
+     *         sections
+     */
+    public long getGroups() {
+        return groups;
+    }
+
+    /**
+     * @return the number of groups for which no handler was found
+     */
+    public long getSkippedGroups() {
+        return skippedGroups;
+    }
+
+    public double getBytesPerSecond() {
+        return perSecond(bytes);
+    }
+
+    public double getGroupsPerSecond() {
+        return perSecond(groups);
+    }
+
+    private double perSecond(long count) {
+        return (time > 0) ? ((count * 1e9) / time) : 0;
+    }
+
+    /**
+     * @return the wall time in nanoseconds by section name
+     */
+    public Map<String, Long> getSectionTimes() {
+        return Collections.unmodifiableMap(sectionTimes);
+    }
+
+    /**
+     * @return the number of entities by entity type
+     */
+    public Map<String, Long> getEntityCounts() {
+        return Collections.unmodifiableMap(entityCounts);
+    }
+
+    /**
+     * @return the time in nanoseconds by entity type
+     */
+    public Map<String, Long> getEntityTimes() {
+        return Collections.unmodifiableMap(entityTimes);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buf = new StringBuilder();
+        buf.append("time=").append(time / 1000000).append("ms bytes=")
+           .append(bytes).append(" groups=").append(groups)
+           .append(" skipped=").append(skippedGroups).append(" groups/s=")
+           .append((long) getGroupsPerSecond()).append(" sections=")
+           .append(sectionTimes).append(" entities=").append(entityCounts);
+
+        return buf.toString();
+    }
+}
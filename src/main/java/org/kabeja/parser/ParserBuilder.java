@@ -65,6 +65,16 @@ import org.kabeja.parser.table.DXFViewTableHandler;
  *
  */
 public class ParserBuilder {
+    /**
+     * Builds the parsers of {@link #createDefaultParser()}.
+     */
+    public static final HandlerFactory DEFAULT_FACTORY = new HandlerFactory() {
+            @Override
+            public Handler createHandler() {
+                return createDefaultParser();
+            }
+        };
+
     public static Parser createDefaultParser() {
         DXFParser parser = new DXFParser();
 
@@ -278,6 +288,7 @@ public class ParserBuilder {
 
         //add the HandlerManager as Handler to the parser
         parser.addHandler(handlerManager);
+        parser.setHandlerFactory(DEFAULT_FACTORY);
 
         return parser;
     }
@@ -0,0 +1,173 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.parser;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+
+/**
+ * Creates parsers with a {@link HandlerFactory} and keeps the returned
+ * parsers for reuse. A parser keeps its state while parsing and cannot be
+ * shared, but the factory can be used by many threads at the same time:
+ *
+ * <pre>
+ * ParserFactory factory = ParserFactory.createDefaultFactory();
+ *
+ * // in each thread
+ * Parser parser = factory.borrowParser();
+ *
+ * try {
+ *     parser.parse(file);
+ *     DXFDocument doc = parser.getDocument();
+ *     ...
+ * } finally {
+ *     factory.returnParser(parser);
+ * }
+ * </pre>
+ *
+ * Only unchanged parsers go back to the pool. A parser, which was
+ * configured by the borrower, for example with DXFStreamFilters,
+ * DXFEntityListeners or ParseStatistics, is dropped on return, so the
+ * next borrower always gets the configuration of the handler factory.
+ */
+public class ParserFactory {
+    public static final int DEFAULT_POOL_SIZE = 16;
+    private HandlerFactory factory;
+    private BlockingQueue<Parser> pool;
+
+    /**
+     * @param factory the factory, which builds the parsers
+     */
+    public ParserFactory(HandlerFactory factory) {
+        this(factory, DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * @param factory the factory, which builds the parsers
+     * @param poolSize the maximal number of idle parsers kept
+     */
+    public ParserFactory(HandlerFactory factory, int poolSize) {
+        if (factory == null) {
+            throw new IllegalArgumentException("The handler factory is null");
+        }
+
+        this.factory = factory;
+        this.pool = new LinkedBlockingQueue<Parser>(Math.max(1, poolSize));
+    }
+
+    /**
+     * Creates a factory with the parsers of
+     * {@link ParserBuilder#createDefaultParser()}.
+     */
+    public static ParserFactory createDefaultFactory() {
+        return new ParserFactory(ParserBuilder.DEFAULT_FACTORY);
+    }
+
+    /**
+     * Creates a factory with the parser described by the XML stream, see
+     * {@link SAXParserBuilder}.
+     *
+     * @throws IllegalArgumentException if the stream cannot be read
+     */
+    public static ParserFactory createFromXML(InputStream in) {
+        return new ParserFactory(SAXParserBuilder.createHandlerFactory(in));
+    }
+
+    public static ParserFactory createFromXML(String file)
+        throws FileNotFoundException {
+        return createFromXML(new FileInputStream(file));
+    }
+
+    /**
+     * Creates a new independent parser.
+     *
+     * @return the parser
+     * @throws IllegalStateException if the handler factory does not build
+     *         parsers
+     */
+    public Parser createParser() {
+        Handler handler = factory.createHandler();
+
+        if (!(handler instanceof Parser)) {
+            throw new IllegalStateException(
+                "The handler factory does not build parsers: " + handler);
+        }
+
+        if (handler instanceof DXFParser) {
+            DXFParser parser = (DXFParser) handler;
+
+            if (parser.getHandlerFactory() == null) {
+                parser.setHandlerFactory(factory);
+            }
+
+            parser.configurationChanges = 0;
+        }
+
+        return (Parser) handler;
+    }
+
+    /**
+     * Returns an idle parser from the pool or a new parser.
+     *
+     * @return the parser
+     */
+    public Parser borrowParser() {
+        Parser parser = pool.poll();
+
+        if (parser == null) {
+            parser = createParser();
+        }
+
+        return parser;
+    }
+
+    /**
+     * Gives a parser from {@link #borrowParser()} back. The parser
+     * releases its DXFDocument, so the document has to be taken before.
+     * A parser, which was configured after it was borrowed, is dropped.
+     *
+     * @param parser
+     */
+    public void returnParser(Parser parser) {
+        parser.releaseDXFDocument();
+
+        if ((parser instanceof DXFParser) &&
+                (((DXFParser) parser).configurationChanges == 0)) {
+            pool.offer(parser);
+        }
+    }
+
+    /**
+     * @return the number of idle parsers in the pool
+     */
+    public int getPoolSize() {
+        return pool.size();
+    }
+
+    public boolean supportedExtension(String extension) {
+        Parser parser = borrowParser();
+
+        try {
+            return parser.supportedExtension(extension);
+        } finally {
+            returnParser(parser);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.parser;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.kabeja.dxf.DXFConstants;
+
+
+/**
+ * Reads the groups of an ASCII {@link DXFTokenizer} on a producer
+ * thread, so the reading from the stream (and the decompression) runs in
+ * parallel to the parsing. The groups are passed in batches through a
+ * bounded ring of reused buffers, the values stay undecoded bytes. The
+ * encoding must be detected with the source tokenizer before.
+ */
+public class PipelinedDXFTokenizer implements DXFGroupReader {
+    public static final int DEFAULT_BATCH_SIZE = 4096;
+    public static final int DEFAULT_BATCH_COUNT = 8;
+    private DXFTokenizer source;
+    private Charset charset;
+    private BlockingQueue<Batch> full;
+    private BlockingQueue<Batch> free;
+    private Batch batch;
+    private int index;
+    private int groupCode;
+    private int lineNumber;
+    private long groupOffset;
+    private long groupPosition;
+    private final DXFValue value = new DXFValue();
+    private Thread producer;
+    private volatile boolean closed = false;
+
+    /**
+     * @param source the ASCII tokenizer to read from, its charset must be
+     *        set
+     */
+    public PipelinedDXFTokenizer(DXFTokenizer source) {
+        this(source, DEFAULT_BATCH_SIZE, DEFAULT_BATCH_COUNT);
+    }
+
+    /**
+     *
+     * @param source the tokenizer to read from, its charset must be set
+     * @param batchSize the number of groups in one buffer
+     * @param batchCount the number of buffers
+     */
+    public PipelinedDXFTokenizer(DXFTokenizer source, int batchSize,
+        int batchCount) {
+        this.source = source;
+        this.charset = source.getCharset();
+        this.full = new ArrayBlockingQueue<Batch>(batchCount);
+        this.free = new ArrayBlockingQueue<Batch>(batchCount);
+
+        for (int i = 0; i < batchCount; i++) {
+            free.add(new Batch(batchSize));
+        }
+
+        producer = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        produce();
+                    }
+                }, "DXF read-ahead");
+        producer.setDaemon(true);
+        producer.start();
+    }
+
+    private void produce() {
+        try {
+            boolean more = true;
+
+            while (more && !closed) {
+                Batch b = free.take();
+                b.clear();
+
+                try {
+                    while (b.count < b.codes.length) {
+                        if (!source.next()) {
+                            more = false;
+
+                            break;
+                        }
+
+                        b.add(source);
+                    }
+                } catch (Exception e) {
+                    // given to the consumer after the groups before
+                    b.error = e;
+                    more = false;
+                }
+
+                b.last = !more;
+                full.put(b);
+            }
+        } catch (InterruptedException e) {
+            // closed
+        }
+    }
+
+    @Override
+    public boolean next() throws IOException, ParseException {
+        while ((batch == null) || (index == batch.count)) {
+            if ((batch != null) && batch.last) {
+                if (batch.error instanceof IOException) {
+                    throw (IOException) batch.error;
+                } else if (batch.error instanceof ParseException) {
+                    throw (ParseException) batch.error;
+                } else if (batch.error != null) {
+                    throw new ParseException(batch.error);
+                }
+
+                return false;
+            }
+
+            if (batch != null) {
+                free.offer(batch);
+            }
+
+            try {
+                batch = full.take();
+                index = 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e.toString());
+            }
+        }
+
+        groupCode = batch.codes[index];
+        lineNumber = batch.lines[index];
+        groupOffset = batch.offsets[index];
+        groupPosition = batch.positions[index];
+        value.setBytes(batch.data, batch.starts[index],
+            batch.starts[index + 1] - batch.starts[index], charset);
+        index++;
+
+        return true;
+    }
+
+    /**
+     * The groups are already split by the producer, so they are compared
+     * one by one.
+     */
+    @Override
+    public boolean skipSection() throws IOException, ParseException {
+        while (next()) {
+            if ((groupCode == 0) &&
+                    DXFConstants.SECTION_END.equals(value.getValue())) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public int getGroupCode() {
+        return groupCode;
+    }
+
+    @Override
+    public DXFValue getValue() {
+        return value;
+    }
+
+    @Override
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public long getGroupOffset() {
+        return groupOffset;
+    }
+
+    @Override
+    public long getPosition() {
+        return groupPosition;
+    }
+
+    /**
+     * Stops the producer and waits for it, before the source is closed.
+     * A producer blocked in a read of the source stops after the read.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        producer.interrupt();
+
+        boolean interrupted = false;
+
+        while (producer.isAlive()) {
+            try {
+                producer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        source.close();
+    }
+
+    /**
+     * A buffer for a number of groups.
+     */
+    private static class Batch {
+        private int[] codes;
+        private int[] lines;
+        private long[] offsets;
+        private long[] positions;
+        private int[] starts;
+        private byte[] data = new byte[64 * 1024];
+        private int count;
+        private boolean last;
+        private Exception error;
+
+        Batch(int size) {
+            codes = new int[size];
+            lines = new int[size];
+            offsets = new long[size];
+            positions = new long[size];
+            starts = new int[size + 1];
+        }
+
+        void clear() {
+            count = 0;
+            last = false;
+            error = null;
+        }
+
+        void add(DXFTokenizer t) {
+            DXFValue v = t.getValue();
+            int start = starts[count];
+
+            if ((start + v.getLength()) > data.length) {
+                data = Arrays.copyOf(data,
+                        Math.max(data.length * 2, start + v.getLength()));
+            }
+
+            v.copyBytes(data, start);
+            codes[count] = t.getGroupCode();
+            lines[count] = t.getLineNumber();
+            offsets[count] = t.getGroupOffset();
+            positions[count] = t.getPosition();
+            count++;
+            starts[count] = start + v.getLength();
+        }
+    }
+}
@@ -15,6 +15,8 @@
  */
 package org.kabeja.parser;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Stack;
@@ -252,13 +254,57 @@ public class SAXParserBuilder implements ContentHandler {
      * @return The DXFParser build from the XML description
      */
     public static Parser buildFromStream(InputStream in) {
+        HandlerFactory factory = createHandlerFactory(in);
+
+        return (factory == null) ? null : (Parser) factory.createHandler();
+    }
+
+    /**
+     * Reads the XML description, the factory builds a new parser from it
+     * for each call. A DXFParser gets the factory for its parallel parsing.
+     *
+     * @param in
+     *            the InputStream
+     * @return the factory or null if the stream cannot be read
+     */
+    public static HandlerFactory createHandlerFactory(InputStream in) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+
+        try {
+            int read;
+
+            while ((read = in.read(buffer)) >= 0) {
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException ioe) {
+            return null;
+        }
+
+        final byte[] description = out.toByteArray();
+
+        return new HandlerFactory() {
+                @Override
+                public Handler createHandler() {
+                    Parser parser = build(description);
+
+                    if (parser instanceof DXFParser) {
+                        ((DXFParser) parser).setHandlerFactory(this);
+                    }
+
+                    return parser;
+                }
+            };
+    }
+
+    private static Parser build(byte[] description) {
         SAXParserBuilder builder = new SAXParserBuilder();
 
         try {
             XMLReader parser = XMLReaderFactory.createXMLReader();
             parser.setFeature("http://apache.org/xml/features/xinclude", true);
             parser.setContentHandler(builder);
-            parser.parse(new InputSource(in));
+            parser.parse(new InputSource(new ByteArrayInputStream(description)));
         } catch (SAXException e) {
             System.err.println(e.getMessage());
         } catch (IOException ioe) {
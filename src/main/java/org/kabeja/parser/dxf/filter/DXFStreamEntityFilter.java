@@ -15,16 +15,45 @@
 */
 package org.kabeja.parser.dxf.filter;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import org.kabeja.parser.DXFValue;
 import org.kabeja.parser.ParseException;
 
 
+/**
+ * Base of the filters, which pass or drop whole entities of the ENTITIES
+ * section. A filter decides with {@link #passEntity()} or
+ * {@link #dropEntity()} as soon as it has seen enough groups of an
+ * entity, the following groups are then given to the next handler or
+ * dropped without buffering. Only the groups before the decision are
+ * buffered in reused values. An entity, which is still undecided at
+ * {@link #endEntity()} is passed.
+ * <p>
+ * The VERTEX, ATTRIB and SEQEND entities after a POLYLINE or INSERT
+ * belong to it and share its decision.
+ * </p>
+ */
 abstract class DXFStreamEntityFilter extends DXFStreamSectionFilter {
     private static String SECTION_KEY = "ENTITIES";
+    private static final String SECTION_END = "ENDSEC";
+    private static final Set<String> FOLLOW_ENTITIES = new HashSet<String>(Arrays.asList(
+                "VERTEX", "ATTRIB", "SEQEND"));
     public static final int ENTITY_START = 0;
+    protected static final int UNDECIDED = 0;
+    protected static final int PASS = 1;
+    protected static final int DROP = 2;
     protected boolean entitySection = false;
     protected boolean parseEntity = false;
     protected boolean parseHeader = false;
+    protected int decision = UNDECIDED;
+    private List<DXFValue> values = new ArrayList<DXFValue>();
+    private int[] groupCodes = new int[64];
+    private int size = 0;
 
     @Override
     protected void parseSection(int groupCode, DXFValue value)
@@ -36,21 +65,105 @@ abstract class DXFStreamEntityFilter extends DXFStreamSectionFilter {
             }
         } else if (entitySection) {
             if (groupCode == ENTITY_START) {
+                String type = value.getValue();
+
+                if (parseEntity && FOLLOW_ENTITIES.contains(type)) {
+                    parseEntityGroup(groupCode, value);
+
+                    return;
+                }
+
                 if (parseEntity) {
-                    endEntity();
+                    finishEntity();
+                }
+
+                if (SECTION_END.equals(type)) {
+                    parseEntity = false;
                 } else {
                     parseEntity = true;
+                    decision = UNDECIDED;
+                    buffer(groupCode, value);
+                    startEntity(type);
+
+                    return;
                 }
+            } else if (parseEntity) {
+                parseEntityGroup(groupCode, value);
 
-                startEntity(value.getValue());
+                return;
             }
+        }
 
+        handler.parseGroup(groupCode, value);
+    }
+
+    private void parseEntityGroup(int groupCode, DXFValue value)
+        throws ParseException {
+        switch (decision) {
+        case PASS:
+            handler.parseGroup(groupCode, value);
+
+            break;
+
+        case DROP:
+            break;
+
+        default:
+            buffer(groupCode, value);
             parseEntity(groupCode, value);
+        }
+    }
 
-            return;
+    private void buffer(int groupCode, DXFValue value) {
+        if (size == values.size()) {
+            values.add(new DXFValue());
         }
 
-        handler.parseGroup(groupCode, value);
+        if (size == groupCodes.length) {
+            groupCodes = Arrays.copyOf(groupCodes, size * 2);
+        }
+
+        value.copy(values.get(size));
+        groupCodes[size] = groupCode;
+        size++;
+    }
+
+    private void finishEntity() throws ParseException {
+        if (decision == UNDECIDED) {
+            endEntity();
+
+            if (decision == UNDECIDED) {
+                passEntity();
+            }
+        }
+
+        size = 0;
+    }
+
+    /**
+     * Passes the current entity to the next handler, the groups buffered
+     * so far are given at once.
+     */
+    protected void passEntity() throws ParseException {
+        if (decision == UNDECIDED) {
+            decision = PASS;
+
+            for (int i = 0; i < size; i++) {
+                handler.parseGroup(groupCodes[i], values.get(i));
+            }
+
+            size = 0;
+        }
+    }
+
+    /**
+     * Drops the current entity.
+     */
+    protected void dropEntity() {
+        if (decision == UNDECIDED) {
+            decision = DROP;
+            size = 0;
+        }
     }
 
     @Override
@@ -67,10 +180,21 @@ abstract class DXFStreamEntityFilter extends DXFStreamSectionFilter {
         }
     }
 
+    /**
+     * Called with the group 0 of an entity.
+     *
+     * @param type the entity type
+     */
     protected abstract void startEntity(String type) throws ParseException;
 
+    /**
+     * Called at the end of an entity, which is still undecided.
+     */
     protected abstract void endEntity() throws ParseException;
 
+    /**
+     * Called with the groups of an entity as long as it is undecided.
+     */
     protected abstract void parseEntity(int groupCode, DXFValue value)
         throws ParseException;
 }
@@ -0,0 +1,80 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.parser.dxf.filter;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringTokenizer;
+
+import org.kabeja.parser.DXFValue;
+import org.kabeja.parser.ParseException;
+
+
+/**
+ * Passes the entities of the included types or, without included types,
+ * all entities which are not of an excluded type. The types are given
+ * as "|" separated lists like "LINE|ARC". The entity is passed or dropped
+ * with its group 0, so nothing is buffered.
+ */
+public class DXFStreamEntityTypeFilter extends DXFStreamEntityFilter {
+    public final static String PROPERTY_TYPES_EXCLUDE = "entities.exclude";
+    public final static String PROPERTY_TYPES_INCLUDE = "entities.include";
+    protected Set<String> exclude = new HashSet<String>();
+    protected Set<String> include = new HashSet<String>();
+
+    @Override
+    public void setProperties(Map<String, Object> properties) {
+        if (properties.containsKey(PROPERTY_TYPES_INCLUDE)) {
+            split((String) properties.get(PROPERTY_TYPES_INCLUDE), include);
+        }
+
+        if (properties.containsKey(PROPERTY_TYPES_EXCLUDE)) {
+            split((String) properties.get(PROPERTY_TYPES_EXCLUDE), exclude);
+        }
+    }
+
+    private static void split(String types, Set<String> set) {
+        set.clear();
+
+        StringTokenizer st = new StringTokenizer(types, "|");
+
+        while (st.hasMoreTokens()) {
+            set.add(st.nextToken().trim());
+        }
+    }
+
+    @Override
+    protected void startEntity(String type) throws ParseException {
+        boolean pass = include.isEmpty() ? !exclude.contains(type)
+                                         : include.contains(type);
+
+        if (pass) {
+            passEntity();
+        } else {
+            dropEntity();
+        }
+    }
+
+    @Override
+    protected void endEntity() throws ParseException {
+    }
+
+    @Override
+    protected void parseEntity(int groupCode, DXFValue value)
+        throws ParseException {
+    }
+}
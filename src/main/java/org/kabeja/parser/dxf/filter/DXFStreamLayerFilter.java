@@ -15,9 +15,7 @@
 */
 package org.kabeja.parser.dxf.filter;
 
-import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
@@ -27,15 +25,20 @@ import org.kabeja.parser.DXFValue;
 import org.kabeja.parser.ParseException;
 
 
+/**
+ * Passes the entities of the included layers or, without included
+ * layers, all entities which are not on an excluded layer. The layers
+ * are given as "|" separated lists. The entity is passed or dropped as
+ * soon as its layer group is read.
+ */
 public class DXFStreamLayerFilter extends DXFStreamEntityFilter {
     public final static String PROPERTY_LAYERS_EXCLUDE = "layers.exclude";
     public final static String PROPERTY_LAYERS_INCLUDE = "layers.include";
     public final static int LAYER_NAME = 8;
-    protected List<ParseValue> parseValues = new ArrayList<ParseValue>();
+    public final static String DEFAULT_LAYER = "0";
     protected Set<String> exclude = new HashSet<String>();
     protected Set<String> include = new HashSet<String>();
     protected String layer = StringUtils.EMPTY;
-    boolean findLayer = true;
 
     @Override
     public void setProperties(Map<String, Object> properties) {
@@ -66,55 +69,36 @@ public class DXFStreamLayerFilter extends DXFStreamEntityFilter {
 
     @Override
     protected void endEntity() throws ParseException {
-        if (include.contains(this.layer)) {
-            this.outputEntity();
-        } else if (!exclude.contains(this.layer)) {
-            this.outputEntity();
-        }
+        // no layer group, the entity is on the default layer
+        decide(DEFAULT_LAYER);
     }
 
-    protected void outputEntity() throws ParseException {
-        // give the complete entity to the next handler
-        for (int i = 0; i < this.parseValues.size(); i++) {
-            ParseValue v = this.parseValues.get(i);
-            this.handler.parseGroup(v.getGroupCode(), v.getDXFValue());
+    /**
+     * Passes or drops the entity as soon as its layer is known.
+     */
+    protected void decide(String layer) throws ParseException {
+        this.layer = layer;
+
+        boolean pass = include.isEmpty() ? !exclude.contains(layer)
+                                         : include.contains(layer);
+
+        if (pass) {
+            passEntity();
+        } else {
+            dropEntity();
         }
     }
 
     @Override
     protected void startEntity(String type) throws ParseException {
-        this.parseValues.clear();
-        this.findLayer = true;
+        this.layer = StringUtils.EMPTY;
     }
 
     @Override
     protected void parseEntity(int groupCode, DXFValue value)
         throws ParseException {
-        if (this.findLayer && (groupCode == LAYER_NAME)) {
-            this.layer = value.getValue();
-            this.findLayer = false;
-        }
-
-        //parse values to buffer
-        ParseValue v = new ParseValue(groupCode, value);
-        this.parseValues.add(v);
-    }
-
-    private class ParseValue {
-        int groupCode;
-        DXFValue value;
-
-        public ParseValue(int groupCode, DXFValue value) {
-            this.groupCode = groupCode;
-            this.value = value;
-        }
-
-        public int getGroupCode() {
-            return this.groupCode;
-        }
-
-        public DXFValue getDXFValue() {
-            return this.value;
+        if (groupCode == LAYER_NAME) {
+            decide(value.getValue());
         }
     }
 }
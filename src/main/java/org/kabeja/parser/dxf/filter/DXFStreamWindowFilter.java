@@ -0,0 +1,212 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.parser.dxf.filter;
+
+import java.util.Map;
+import java.util.StringTokenizer;
+
+import org.kabeja.dxf.DXFConstants;
+import org.kabeja.parser.DXFValue;
+import org.kabeja.parser.ParseException;
+
+
+/**
+ * Drops the LINE, CIRCLE and LWPOLYLINE entities, whose bounding box is
+ * outside of a window, all other entities are passed. The window is
+ * given as "minx|miny|maxx|maxy".
+ * <p>
+ * An entity is passed as soon as a point inside the window is read. A
+ * LINE is dropped with its end point, CIRCLE and LWPOLYLINE entities are
+ * dropped at their end, since their coordinates are in the object
+ * coordinate system given by the extrusion after them. Entities with
+ * another than the default extrusion and LWPOLYLINE entities with arc
+ * segments are always passed.
+ * </p>
+ */
+public class DXFStreamWindowFilter extends DXFStreamEntityFilter {
+    public final static String PROPERTY_WINDOW = "window";
+    private static final int X = 10;
+    private static final int Y = 20;
+    private static final int END_X = 11;
+    private static final int END_Y = 21;
+    private static final int RADIUS = 40;
+    private static final int BULGE = 42;
+    private static final int EXTRUSION_X = 210;
+    private static final int EXTRUSION_Y = 220;
+    private static final int EXTRUSION_Z = 230;
+    private static final int OTHER = 0;
+    private static final int LINE = 1;
+    private static final int CIRCLE = 2;
+    private static final int LWPOLYLINE = 3;
+    protected double minX = Double.NEGATIVE_INFINITY;
+    protected double minY = Double.NEGATIVE_INFINITY;
+    protected double maxX = Double.POSITIVE_INFINITY;
+    protected double maxY = Double.POSITIVE_INFINITY;
+    private int type;
+    private double x;
+    private int points;
+    private double radius;
+    private boolean uncertain;
+    private double entityMinX;
+    private double entityMinY;
+    private double entityMaxX;
+    private double entityMaxY;
+
+    @Override
+    public void setProperties(Map<String, Object> properties) {
+        if (properties.containsKey(PROPERTY_WINDOW)) {
+            StringTokenizer st = new StringTokenizer((String) properties.get(
+                        PROPERTY_WINDOW), "|");
+            double[] w = new double[4];
+
+            for (int i = 0; i < w.length; i++) {
+                if (!st.hasMoreTokens()) {
+                    throw new IllegalArgumentException("Invalid window: " +
+                        properties.get(PROPERTY_WINDOW));
+                }
+
+                w[i] = Double.parseDouble(st.nextToken().trim());
+            }
+
+            setWindow(w[0], w[1], w[2], w[3]);
+        }
+    }
+
+    public void setWindow(double minX, double minY, double maxX, double maxY) {
+        this.minX = Math.min(minX, maxX);
+        this.minY = Math.min(minY, maxY);
+        this.maxX = Math.max(minX, maxX);
+        this.maxY = Math.max(minY, maxY);
+    }
+
+    @Override
+    protected void startEntity(String type) throws ParseException {
+        if (DXFConstants.ENTITY_TYPE_LINE.equals(type)) {
+            this.type = LINE;
+        } else if (DXFConstants.ENTITY_TYPE_CIRCLE.equals(type)) {
+            this.type = CIRCLE;
+        } else if (DXFConstants.ENTITY_TYPE_LWPOLYLINE.equals(type)) {
+            this.type = LWPOLYLINE;
+        } else {
+            this.type = OTHER;
+            passEntity();
+
+            return;
+        }
+
+        points = 0;
+        radius = 0;
+        uncertain = false;
+        entityMinX = Double.POSITIVE_INFINITY;
+        entityMinY = Double.POSITIVE_INFINITY;
+        entityMaxX = Double.NEGATIVE_INFINITY;
+        entityMaxY = Double.NEGATIVE_INFINITY;
+    }
+
+    @Override
+    protected void parseEntity(int groupCode, DXFValue value)
+        throws ParseException {
+        switch (groupCode) {
+        case X:
+        case END_X:
+            x = value.getDoubleValue();
+
+            break;
+
+        case Y:
+        case END_Y:
+            addPoint(x, value.getDoubleValue());
+
+            break;
+
+        case RADIUS:
+
+            if (type == CIRCLE) {
+                radius = Math.abs(value.getDoubleValue());
+
+                if ((points > 0) && intersects()) {
+                    passEntity();
+                }
+            }
+
+            break;
+
+        case BULGE:
+
+            // the arc can leave the bounding box of the vertices
+            if (value.getDoubleValue() != 0.0) {
+                uncertain = true;
+            }
+
+            break;
+
+        case EXTRUSION_X:
+        case EXTRUSION_Y:
+
+            if (value.getDoubleValue() != 0.0) {
+                uncertain = true;
+            }
+
+            break;
+
+        case EXTRUSION_Z:
+
+            if (value.getDoubleValue() != 1.0) {
+                uncertain = true;
+            }
+
+            break;
+        }
+    }
+
+    private void addPoint(double x, double y) throws ParseException {
+        points++;
+        entityMinX = Math.min(entityMinX, x);
+        entityMinY = Math.min(entityMinY, y);
+        entityMaxX = Math.max(entityMaxX, x);
+        entityMaxY = Math.max(entityMaxY, y);
+
+        if (type == CIRCLE) {
+            return;
+        }
+
+        if ((x >= minX) && (x <= maxX) && (y >= minY) && (y <= maxY)) {
+            passEntity();
+        } else if ((type == LINE) && (points == 2)) {
+            // a line is always in world coordinates
+            if (intersects()) {
+                passEntity();
+            } else {
+                dropEntity();
+            }
+        }
+    }
+
+    private boolean intersects() {
+        return ((entityMinX - radius) <= maxX) &&
+        ((entityMaxX + radius) >= minX) && ((entityMinY - radius) <= maxY) &&
+        ((entityMaxY + radius) >= minY);
+    }
+
+    @Override
+    protected void endEntity() throws ParseException {
+        if ((points == 0) || uncertain || intersects()) {
+            passEntity();
+        } else {
+            dropEntity();
+        }
+    }
+}
@@ -353,9 +353,9 @@ public class DXFHatchHandler extends AbstractEntityHandler {
     protected void parsePolylineBoundary(int groupCode, DXFValue value) {
         switch (groupCode) {
         case GROUPCODE_START_X:
-            this.vertex = new DXFVertex();
-            this.polyline.addVertex(vertex);
-            this.vertex.setX(value.getDoubleValue());
+            this.polyline.addVertex(value.getDoubleValue(), 0.0, 0.0);
+            this.vertex = this.polyline.getVertex(this.polyline.getVertexCount() -
+                    1);
 
             break;
 
@@ -39,6 +39,8 @@ public class DXFLWPolylineHandler extends AbstractEntityHandler {
      */
     @Override
     public void endDXFEntity() {
+        lwpolyline.trimToSize();
+        vertex = null;
     }
 
     /*
@@ -145,8 +147,8 @@ public class DXFLWPolylineHandler extends AbstractEntityHandler {
     }
 
     private void createVertex() {
-        vertex = new DXFVertex();
-        vertex.setDXFDocument(doc);
-        lwpolyline.addVertex(vertex);
+        // the vertex is a view of the packed vertex
+        lwpolyline.addVertex(0.0, 0.0, 0.0);
+        vertex = lwpolyline.getVertex(lwpolyline.getVertexCount() - 1);
     }
 }
@@ -102,7 +102,12 @@ public class DXFPolylineHandler extends AbstractEntityHandler {
     public void parseGroup(int groupCode, DXFValue value) {
         if ((groupCode == END_SEQUENCE_CODE) ||
                 END_SEQUENCE.equals(value.getValue())) {
-            polyline.addVertex(vertex);
+            // the groups of the SEQEND still go to the vertex
+            if (parse_vertex) {
+                polyline.addPackedVertex(vertex);
+            }
+
+            polyline.trimToSize();
             follow = false;
 
             return;
@@ -114,7 +119,7 @@ public class DXFPolylineHandler extends AbstractEntityHandler {
             if (ENTITY_VERTEX.equals(value.getValue())) {
                 // store the old before
                 if (parse_vertex) {
-                    polyline.addVertex(vertex);
+                    polyline.addPackedVertex(vertex);
                 } else {
                     parse_vertex = true;
                 }
@@ -89,5 +89,9 @@ public class BoundsFilter extends AbstractPostProcessor {
                 }
             }
         }
+
+        if (layer.getDXFDocument() != null) {
+            layer.getDXFDocument().invalidateBounds();
+        }
     }
 }
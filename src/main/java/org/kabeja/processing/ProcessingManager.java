@@ -15,17 +15,30 @@
 */
 package org.kabeja.processing;
 
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import org.kabeja.dxf.DXFDocument;
+import org.kabeja.dxf.DXFLayer;
+import org.kabeja.io.SnapshotCache;
+import org.kabeja.parser.DXFParser;
 import org.kabeja.parser.ParseException;
 import org.kabeja.parser.Parser;
 import org.kabeja.processing.event.ProcessingListener;
@@ -39,12 +52,18 @@ import org.kabeja.xml.SAXSerializer;
  *
  */
 public class ProcessingManager {
+    public static final String GZIP_EXTENSION = ".gz";
+    private static final int MAGIC_LENGTH = 4;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Charset DIGEST_CHARSET = Charset.forName("UTF-8");
     private Map<String, SAXFilter> saxfilters = new HashMap<String, SAXFilter>();
     private Map<String, SAXSerializer> saxserializers = new HashMap<String, SAXSerializer>();
     private Map<String, PostProcessor> postprocessors = new HashMap<String, PostProcessor>();
     private Map<String, ProcessPipeline> pipelines = new HashMap<String, ProcessPipeline>();
     private Map<String, SAXGenerator> saxgenerators = new HashMap<String, SAXGenerator>();
     private List<Parser> parsers = new ArrayList<Parser>();
+    private SnapshotCache snapshotCache = null;
+    private DocumentCache documentCache = null;
 
     public void addSAXFilter(SAXFilter filter, String name) {
         this.saxfilters.put(name, filter);
@@ -117,19 +136,323 @@ public class ProcessingManager {
         return this.pipelines;
     }
 
+    /**
+     * Parses and processes the stream. A gzip compressed stream (for
+     * example with the extension "dxf.gz") and a zip archive with a
+     * single file are decompressed, the parser is then chosen by the
+     * extension without ".gz" or the extension of the file in the archive.
+     */
     public void process(InputStream stream, String extension, Map<String, Object> context,
         String pipeline, OutputStream out) throws ProcessorException {
+        File extracted = null;
+
+        try {
+            BufferedInputStream in = new BufferedInputStream(stream);
+            in.mark(MAGIC_LENGTH);
+
+            byte[] magic = new byte[MAGIC_LENGTH];
+            int count = 0;
+            int read;
+
+            while ((count < MAGIC_LENGTH) &&
+                    ((read = in.read(magic, count, MAGIC_LENGTH - count)) >= 0)) {
+                count += read;
+            }
+
+            in.reset();
+
+            if ((count >= 2) && ((magic[0] & 0xff) == 0x1f) &&
+                    ((magic[1] & 0xff) == 0x8b)) {
+                stream = new GZIPInputStream(in, BUFFER_SIZE);
+
+                if (extension.toLowerCase().endsWith(GZIP_EXTENSION)) {
+                    extension = extension.substring(0,
+                            extension.length() - GZIP_EXTENSION.length());
+                }
+            } else if ((count == MAGIC_LENGTH) && (magic[0] == 'P') &&
+                    (magic[1] == 'K') && (magic[2] == 3) && (magic[3] == 4)) {
+                ZipInputStream zip = new ZipInputStream(in);
+                ZipEntry entry = zip.getNextEntry();
+
+                while ((entry != null) && entry.isDirectory()) {
+                    entry = zip.getNextEntry();
+                }
+
+                if (entry == null) {
+                    throw new ProcessorException("No file in the zip archive");
+                }
+
+                String name = entry.getName();
+                extension = name.substring(name.lastIndexOf('.') + 1);
+                extracted = extract(zip, extension);
+                stream = new FileInputStream(extracted);
+            } else {
+                stream = in;
+            }
+        } catch (IOException e) {
+            throw new ProcessorException(e);
+        }
+
         Parser parser = this.getParser(extension);
 
-        if (parser != null) {
-            try {
-                parser.parse(stream, null);
+        try {
+            if (parser != null) {
+                DXFDocument doc;
+
+                if ((snapshotCache == null) && (documentCache == null)) {
+                    parser.parse(stream, DXFParser.DEFAULT_ENCODING);
+                    doc = parser.getDocument();
+                } else {
+                    doc = parseCached(parser, stream, extension, pipeline);
+                }
 
-                DXFDocument doc = parser.getDocument();
                 this.process(doc, context, pipeline, out);
-            } catch (ParseException e) {
-                throw new ProcessorException(e);
             }
+        } catch (ParseException e) {
+            throw new ProcessorException(e);
+        } finally {
+            if (extracted != null) {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    // the file is deleted anyway
+                }
+
+                extracted.delete();
+            }
+        }
+    }
+
+    /**
+     * Copies the current entry of the archive into a temporary file.
+     *
+     * @throws ProcessorException if the archive has another file
+     */
+    private static File extract(ZipInputStream zip, String extension)
+        throws IOException, ProcessorException {
+        File tmp = File.createTempFile("kabeja", "." + extension);
+        OutputStream out = new FileOutputStream(tmp);
+
+        try {
+            copy(zip, out);
+        } finally {
+            out.close();
+        }
+
+        ZipEntry entry = zip.getNextEntry();
+
+        while ((entry != null) && entry.isDirectory()) {
+            entry = zip.getNextEntry();
+        }
+
+        if (entry != null) {
+            tmp.delete();
+            throw new ProcessorException(
+                "More than one file in the zip archive: " + entry.getName());
+        }
+
+        return tmp;
+    }
+
+    private static void copy(InputStream in, OutputStream out)
+        throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+    }
+
+    /**
+     * Copies the stream into a temporary file while computing its digest
+     * and takes the document of the digest from the document cache or the
+     * snapshot cache, or parses the file and stores the document in both.
+     */
+    private DXFDocument parseCached(Parser parser, InputStream stream,
+        String extension, String pipeline)
+        throws ProcessorException, ParseException {
+        File tmp = null;
+
+        try {
+            MessageDigest digest = SnapshotCache.createDigest();
+            digest.update(parser.getName().getBytes(DIGEST_CHARSET));
+            tmp = File.createTempFile("kabeja", "." + extension);
+
+            InputStream in = new DigestInputStream(stream, digest);
+            OutputStream out = new FileOutputStream(tmp);
+
+            try {
+                copy(in, out);
+            } finally {
+                out.close();
+            }
+
+            String key = SnapshotCache.getKey(digest);
+            DXFDocument doc = null;
+
+            if (documentCache != null) {
+                doc = getCached(key, pipeline);
+
+                if (doc != null) {
+                    return doc;
+                }
+            }
+
+            if (snapshotCache != null) {
+                doc = snapshotCache.get(key);
+            }
+
+            if (doc == null) {
+                parser.parse(tmp.getPath(), DXFParser.DEFAULT_ENCODING);
+                doc = parser.getDocument();
+
+                // the lazy loaders read the temporary file
+                loadDXFEntities(doc);
+
+                // before the post processors change the document
+                if (snapshotCache != null) {
+                    snapshotCache.put(key, doc);
+                }
+            }
+
+            if (documentCache != null) {
+                doc = putCached(key, doc, pipeline);
+            }
+
+            return doc;
+        } catch (IOException e) {
+            throw new ProcessorException(e);
+        } finally {
+            if (tmp != null) {
+                tmp.delete();
+            }
+        }
+    }
+
+    /**
+     * @return true if the pipeline has post processors, which may change
+     *         the document
+     */
+    private boolean changesDocument(String pipeline) {
+        ProcessPipeline pp = this.pipelines.get(pipeline);
+
+        return (pp != null) && !pp.getPostProcessorConfigs().isEmpty();
+    }
+
+    /**
+     * @return the shared document for a pipeline, which only reads it, or
+     *         a copy
+     */
+    private DXFDocument getCached(String key, String pipeline) {
+        return changesDocument(pipeline) ? documentCache.get(key)
+                                         : documentCache.getShared(key);
+    }
+
+    /**
+     * Caches the parsed document.
+     *
+     * @return the document or a copy for a pipeline, which may change it
+     */
+    private DXFDocument putCached(String key, DXFDocument doc,
+        String pipeline) {
+        // the cached document outlives the parsed file
+        loadDXFEntities(doc);
+        documentCache.put(key, doc);
+
+        if (changesDocument(pipeline)) {
+            DXFDocument copy = documentCache.copy(key);
+
+            if (copy != null) {
+                return copy;
+            }
+        }
+
+        return doc;
+    }
+
+    /**
+     * Builds the entities of a lazily parsed document, which are not built
+     * yet.
+     */
+    private static void loadDXFEntities(DXFDocument doc) {
+        Iterator<DXFLayer> layers = doc.getDXFLayerIterator();
+
+        while (layers.hasNext()) {
+            layers.next().loadDXFEntities();
+        }
+    }
+
+    /**
+     * Sets the cache of the parsed documents used by
+     * {@link #process(InputStream, String, Map, String, OutputStream)}.
+     * The snapshots are keyed by the content and the parser name only, a
+     * differently configured parser needs its own cache directory.
+     *
+     * @param snapshotCache the cache or null to parse every stream
+     */
+    public void setSnapshotCache(SnapshotCache snapshotCache) {
+        this.snapshotCache = snapshotCache;
+    }
+
+    public SnapshotCache getSnapshotCache() {
+        return snapshotCache;
+    }
+
+    /**
+     * Sets the in-memory cache of the parsed documents, which is asked
+     * before the snapshot cache. The documents are keyed like the
+     * snapshots. The pipelines without post processors share the cached
+     * document, the others get a copy.
+     *
+     * @param documentCache the cache or null
+     */
+    public void setDocumentCache(DocumentCache documentCache) {
+        this.documentCache = documentCache;
+    }
+
+    public DocumentCache getDocumentCache() {
+        return documentCache;
+    }
+
+    /**
+     * Parses and processes the file, the parsed document is cached by the
+     * path, modification time and size of the file if a document cache is
+     * set.
+     */
+    public void process(File file, Map<String, Object> context, String pipeline,
+        OutputStream out) throws ProcessorException {
+        String name = file.getName();
+        Parser parser = this.getParser(name.substring(name.lastIndexOf('.') +
+                    1));
+
+        if (parser == null) {
+            throw new ProcessorException("No parser found for:" + name);
+        }
+
+        try {
+            String key = null;
+            DXFDocument doc = null;
+
+            if (documentCache != null) {
+                key = parser.getName() + '|' + DocumentCache.getKey(file);
+                doc = getCached(key, pipeline);
+            }
+
+            if (doc == null) {
+                parser.parse(file.getPath(), DXFParser.DEFAULT_ENCODING);
+                doc = parser.getDocument();
+
+                if (documentCache != null) {
+                    doc = putCached(key, doc, pipeline);
+                }
+            }
+
+            this.process(doc, context, pipeline, out);
+        } catch (IOException e) {
+            throw new ProcessorException(e);
+        } catch (ParseException e) {
+            throw new ProcessorException(e);
         }
     }
 
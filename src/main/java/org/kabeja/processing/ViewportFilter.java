@@ -15,7 +15,10 @@
 */
 package org.kabeja.processing;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import org.kabeja.dxf.Bounds;
@@ -75,19 +78,33 @@ public class ViewportFilter extends AbstractPostProcessor {
 
         while (i.hasNext()) {
             DXFLayer l = i.next();
+            Map<String, List<DXFEntity>> kept = new HashMap<String, List<DXFEntity>>();
+
+            for (DXFEntity entity : l.getSpatialIndex().getDXFEntities(b)) {
+                if (b.contains(entity.getBounds())) {
+                    List<DXFEntity> list = kept.get(entity.getType());
+
+                    if (list == null) {
+                        list = new ArrayList<DXFEntity>();
+                        kept.put(entity.getType(), list);
+                    }
+
+                    list.add(entity);
+                }
+            }
+
             Iterator<String> ti = l.getDXFEntityTypeIterator();
 
             while (ti.hasNext()) {
                 String type = ti.next();
-                Iterator<DXFEntity> ei = l.getDXFEntities(type).iterator();
-
-                while (ei.hasNext()) {
-                    DXFEntity entity = ei.next();
-                    Bounds currentBounds = entity.getBounds();
-
-                    if (!b.contains(currentBounds)) {
-                        ei.remove();
-                    }
+                List<DXFEntity> entities = l.getDXFEntities(type);
+                List<DXFEntity> list = kept.get(type);
+
+                if (list == null) {
+                    entities.clear();
+                } else if (list.size() < entities.size()) {
+                    entities.clear();
+                    entities.addAll(list);
                 }
             }
         }
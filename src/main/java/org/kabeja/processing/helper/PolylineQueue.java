@@ -129,6 +129,8 @@ public class PolylineQueue {
         DXFPolyline pline = new DXFPolyline();
         DXFVertex first = new DXFVertex(this.startPoint);
         pline.addVertex(first);
+        // the bulge is set later, so use the vertex of the polyline
+        first = pline.getVertex(pline.getVertexCount() - 1);
 
         Iterator<DXFEntity> i = this.elements.iterator();
 
@@ -139,6 +141,7 @@ public class PolylineQueue {
                 DXFLine line = (DXFLine) e;
                 first = new DXFVertex(line.getEndPoint());
                 pline.addVertex(first);
+                first = pline.getVertex(pline.getVertexCount() - 1);
             } else if (DXFConstants.ENTITY_TYPE_POLYLINE.equals(e.getType()) ||
                     DXFConstants.ENTITY_TYPE_LWPOLYLINE.equals(e.getType())) {
                 DXFPolyline pl = (DXFPolyline) e;
@@ -151,6 +154,7 @@ public class PolylineQueue {
                 for (int x = 1; x < pl.getVertexCount(); x++) {
                     first = pl.getVertex(x);
                     pline.addVertex(first);
+                    first = pline.getVertex(pline.getVertexCount() - 1);
                 }
             } else if (DXFConstants.ENTITY_TYPE_ARC.equals(e.getType())) {
                 DXFArc arc = (DXFArc) e;
@@ -168,6 +172,7 @@ public class PolylineQueue {
                         first.setBulge((2 * h) / chordLength);
                         first = new DXFVertex(arc.getEndPoint());
                         pline.addVertex(first);
+                        first = pline.getVertex(pline.getVertexCount() - 1);
                     } else {
                         // reverse the arc, we change the start/end points
                         // and set the bulge to >0
@@ -175,6 +180,7 @@ public class PolylineQueue {
 
                         first = new DXFVertex(arc.getStartPoint());
                         pline.addVertex(first);
+                        first = pline.getVertex(pline.getVertexCount() - 1);
                     }
                 }
             }
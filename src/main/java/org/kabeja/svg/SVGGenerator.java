@@ -15,13 +15,14 @@
  */
 package org.kabeja.svg;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.StringTokenizer;
 
 import org.apache.commons.lang3.StringUtils;
 import org.kabeja.dxf.Bounds;
+import org.kabeja.dxf.CompactEntityList;
 import org.kabeja.dxf.DXFBlock;
 import org.kabeja.dxf.DXFColor;
 import org.kabeja.dxf.DXFConstants;
@@ -623,12 +624,15 @@ public class SVGGenerator extends AbstractSAXGenerator {
 
         while (types.hasNext()) {
             String type = types.next();
-            ArrayList<DXFEntity> list = (ArrayList<DXFEntity>) layer.getDXFEntities(type);
+            List<DXFEntity> list = layer.getDXFEntities(type);
 
             try {
                 SVGSAXGenerator gen = this.manager.getSVGGenerator(type);
 
-                Iterator<DXFEntity> i = list.iterator();
+                // the compact lists need no entity for each row
+                Iterator<DXFEntity> i = (list instanceof CompactEntityList)
+                    ? ((CompactEntityList) list).flyweightIterator()
+                    : list.iterator();
 
                 while (i.hasNext()) {
                     DXFEntity entity = i.next();
@@ -72,26 +72,21 @@ public class SVGPolylineGenerator extends AbstractSVGSAXGenerator
             polylinePartToSAX(handler, svgContext, pline);
         } else {
             StringBuilder d = new StringBuilder();
-            DXFVertex last;
-            DXFVertex first;
-            Iterator<DXFVertex> i = pline.getVertexIterator();
-            first = last = i.next();
+            int last = pline.getVertexCount() - 1;
             d.append("M ");
-            d.append(SVGUtils.formatNumberAttribute(last.getX()));
+            d.append(SVGUtils.formatNumberAttribute(pline.getVertexX(0)));
             d.append(SVGConstants.SVG_ATTRIBUTE_PATH_PLACEHOLDER);
-            d.append(SVGUtils.formatNumberAttribute(last.getY()));
+            d.append(SVGUtils.formatNumberAttribute(pline.getVertexY(0)));
             d.append(SVGConstants.SVG_ATTRIBUTE_PATH_PLACEHOLDER);
 
-            while (i.hasNext()) {
-                DXFVertex end = i.next();
-                d.append(getVertexPath(last, end, pline));
-                last = end;
+            for (int i = 1; i <= last; i++) {
+                appendVertexPath(d, pline, i - 1, i);
             }
 
             // bit coded values
             if (pline.isClosed()) {
-                if (last.getBulge() != 0) {
-                    d.append(getVertexPath(last, first, pline));
+                if (pline.getVertexBulge(last) != 0) {
+                    appendVertexPath(d, pline, last, 0);
                 }
 
                 d.append(" z");
@@ -120,28 +115,21 @@ public class SVGPolylineGenerator extends AbstractSVGSAXGenerator
         // create the path
         DXFPolyline pline = (DXFPolyline) entity;
         StringBuilder d = new StringBuilder();
-
-        DXFVertex last;
-        DXFVertex first;
-
-        Iterator<DXFVertex> i = pline.getVertexIterator();
-        first = last = i.next();
+        int last = pline.getVertexCount() - 1;
         d.append("M ");
-        d.append(last.getX());
+        d.append(pline.getVertexX(0));
         d.append(SVGConstants.SVG_ATTRIBUTE_PATH_PLACEHOLDER);
-        d.append(last.getY());
+        d.append(pline.getVertexY(0));
         d.append(SVGConstants.SVG_ATTRIBUTE_PATH_PLACEHOLDER);
 
-        while (i.hasNext()) {
-            DXFVertex end = i.next();
-            d.append(getVertexPath(last, end, pline));
-            last = end;
+        for (int i = 1; i <= last; i++) {
+            appendVertexPath(d, pline, i - 1, i);
         }
 
         // bit coded values
         if (pline.isClosed()) {
-            if (last.getBulge() != 0) {
-                d.append(getVertexPath(last, first, pline));
+            if (pline.getVertexBulge(last) != 0) {
+                appendVertexPath(d, pline, last, 0);
             }
 
             d.append(" z");
@@ -597,15 +585,36 @@ public class SVGPolylineGenerator extends AbstractSVGSAXGenerator
     protected String getVertexPath(DXFVertex start, DXFVertex end,
         DXFPolyline pline) {
         StringBuilder d = new StringBuilder();
+        appendVertexPath(d, start.getBulge(), start.getX(), start.getY(),
+            start.getZ(), end.getX(), end.getY(), end.getZ(), pline);
+
+        return d.toString();
+    }
+
+    /**
+     * Appends the path between the vertices of the polyline without
+     * creating vertex objects.
+     */
+    protected void appendVertexPath(StringBuilder d, DXFPolyline pline,
+        int start, int end) {
+        appendVertexPath(d, pline.getVertexBulge(start),
+            pline.getVertexX(start), pline.getVertexY(start),
+            pline.getVertexZ(start), pline.getVertexX(end),
+            pline.getVertexY(end), pline.getVertexZ(end), pline);
+    }
 
-        if (start.getBulge() != 0) {
+    private void appendVertexPath(StringBuilder d, double bulge,
+        double startX, double startY, double startZ, double endX, double endY,
+        double endZ, DXFPolyline pline) {
+        if (bulge != 0) {
             // from the DXF-Specs.
-            double l = MathUtils.distance(start.getPoint(), end.getPoint());
+            double l = Math.sqrt(Math.pow((endX - startX), 2) +
+                    Math.pow((endY - startY), 2) + Math.pow((endZ - startZ), 2));
 
             // do nothing if the points are the same
             if (l > 0.0) {
-                double r = pline.getRadius(Math.abs(start.getBulge()), l);
-                // double h = (start.getBulge() * l) / 2;
+                double r = pline.getRadius(Math.abs(bulge), l);
+                // double h = (bulge * l) / 2;
 
                 // converting to an elipse with the same rx=ry
                 d.append("A ");
@@ -614,7 +623,7 @@ public class SVGPolylineGenerator extends AbstractSVGSAXGenerator
                 d.append(SVGUtils.formatNumberAttribute(r));
                 d.append(" 0");
 
-                if (Math.abs(start.getBulge()) > 1.0) {
+                if (Math.abs(bulge) > 1.0) {
                     // large Arc-flag
                     d.append(" 1 ");
                 } else {
@@ -623,26 +632,24 @@ public class SVGPolylineGenerator extends AbstractSVGSAXGenerator
 
                 // if the bulge > 0 the center point is on the left side
                 // if the bulge < 0 the center point is ont the right side
-                if (start.getBulge() < 0) {
+                if (bulge < 0) {
                     // the sweep-flag
                     d.append(" 0 ");
                 } else {
                     d.append(" 1 ");
                 }
 
-                d.append(end.getX());
+                d.append(endX);
                 d.append(SVGConstants.SVG_ATTRIBUTE_PATH_PLACEHOLDER);
-                d.append(end.getY());
+                d.append(endY);
                 d.append(SVGConstants.SVG_ATTRIBUTE_PATH_PLACEHOLDER);
             }
         } else {
             d.append("L ");
-            d.append(SVGUtils.formatNumberAttribute(end.getX()));
+            d.append(SVGUtils.formatNumberAttribute(endX));
             d.append(SVGConstants.SVG_ATTRIBUTE_PATH_PLACEHOLDER);
-            d.append(SVGUtils.formatNumberAttribute(end.getY()));
+            d.append(SVGUtils.formatNumberAttribute(endY));
             d.append(SVGConstants.SVG_ATTRIBUTE_PATH_PLACEHOLDER);
         }
-
-        return d.toString();
     }
 }
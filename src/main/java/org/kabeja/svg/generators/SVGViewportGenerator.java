@@ -15,7 +15,6 @@
 */
 package org.kabeja.svg.generators;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -248,30 +247,28 @@ public class SVGViewportGenerator extends AbstractSVGSAXGenerator {
 
         SVGUtils.startElement(handler, SVGConstants.SVG_GROUP, attr);
 
-        Iterator<String> types = layer.getDXFEntityTypeIterator();
+        // only output the modelspace entities which are inside
+        // or partial the bounds
+        Map<String, SVGSAXGenerator> generators = new HashMap<String, SVGSAXGenerator>();
 
-        while (types.hasNext()) {
-            String type = types.next();
-            ArrayList<DXFEntity> list = (ArrayList<DXFEntity>) layer.getDXFEntities(type);
+        for (DXFEntity entity : layer.getSpatialIndex().getDXFEntities(viewBounds)) {
+            if (entity.isModelSpace() && entity.getBounds().contains(viewBounds)) {
+                String type = entity.getType();
+                SVGSAXGenerator gen = generators.get(type);
 
-            Iterator<DXFEntity> i = list.iterator();
+                if ((gen == null) && !generators.containsKey(type)) {
+                    try {
+                        gen = this.manager.getSVGGenerator(type);
+                    } catch (SVGGenerationException e) {
+                        e.printStackTrace();
+                    }
 
-            try {
-                SVGSAXGenerator gen = this.manager.getSVGGenerator(type);
+                    generators.put(type, gen);
+                }
 
-                while (i.hasNext()) {
-                    DXFEntity entity = i.next();
-                    Bounds b = entity.getBounds();
-
-                    // TODO only output the modelspace entities which are inside
-                    // or partial the
-                    // bounds
-                    if (entity.isModelSpace() && b.contains(viewBounds)) {
-                        gen.toSAX(handler, context, entity, null);
-                    }
+                if (gen != null) {
+                    gen.toSAX(handler, context, entity, null);
                 }
-            } catch (SVGGenerationException e) {
-                e.printStackTrace();
             }
         }
 
@@ -79,7 +79,7 @@ public class LayerSeparator {
         while (i.hasNext()) {
             DXFLayer l = i.next();
             layers.add(l);
-            i.remove();
+            doc.removeDXFLayer(l.getName());
         }
 
         //set fixed bounds
@@ -0,0 +1,150 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.dxf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+import org.kabeja.dxf.helpers.Point;
+import org.kabeja.parser.DXFParser;
+import org.kabeja.parser.ParserBuilder;
+
+
+public class CompactEntityStoreTest {
+    private static final String SAMPLE = "samples/dxf/draft2.dxf";
+
+    private static String describe(DXFDocument doc) {
+        Map<String, String> content = new TreeMap<String, String>();
+        Iterator<DXFLayer> layers = doc.getDXFLayerIterator();
+
+        while (layers.hasNext()) {
+            DXFLayer layer = layers.next();
+            Iterator<String> types = layer.getDXFEntityTypeIterator();
+
+            while (types.hasNext()) {
+                String type = types.next();
+                StringBuilder buf = new StringBuilder(" ");
+
+                for (DXFEntity entity : layer.getDXFEntities(type)) {
+                    assertSame(doc, entity.getDXFDocument());
+                    buf.append(entity.getID()).append(',')
+                       .append(entity.getColor()).append(',')
+                       .append(entity.getLineType()).append(',')
+                       .append(entity.getLayerName()).append(',')
+                       .append(entity.getBounds().getMaximumX()).append(' ');
+                }
+
+                Bounds b = layer.getBounds();
+                content.put(layer.getName() + "/" + type,
+                    buf.toString() + b.getMinimumX() + ',' + b.getMaximumY());
+            }
+        }
+
+        return content.toString();
+    }
+
+    private static DXFDocument parse(DXFEntityStore store)
+        throws Exception {
+        DXFParser parser = (DXFParser) ParserBuilder.createDefaultParser();
+        parser.setDXFEntityStore(store);
+        parser.parse(SAMPLE);
+
+        return parser.getDocument();
+    }
+
+    @Test
+    public void testCompact() throws Exception {
+        DXFDocument doc = parse(new CompactEntityStore());
+        assertEquals(describe(parse(null)), describe(doc));
+
+        DXFLayer layer = doc.getDXFLayer("0");
+        List<DXFEntity> lines = layer.getDXFEntities(DXFConstants.ENTITY_TYPE_LINE);
+        assertTrue(lines instanceof CompactEntityList);
+
+        // changes are written back with set()
+        DXFLine line = (DXFLine) lines.get(1);
+        line.setColor(77);
+        line.getEndPoint().setX(-1000);
+        lines.set(1, line);
+        assertEquals(77, lines.get(1).getColor());
+        assertEquals(-1000, layer.getBounds().getMinimumX(), 0.0);
+        assertEquals(77, doc.getDXFEntityByID(line.getID()).getColor());
+
+        // a line with further properties is kept
+        DXFLine thick = new DXFLine();
+        thick.setStartPoint(new Point(1, 2, 3));
+        thick.setThickness(2.0);
+        layer.addDXFEntity(thick);
+        assertSame(thick, lines.get(lines.size() - 1));
+
+        // removed by the values
+        int size = lines.size();
+        layer.removeDXFEntity(lines.get(1));
+        layer.removeDXFEntity(thick);
+        assertEquals(size - 2, lines.size());
+        assertEquals(null, doc.getDXFEntityByID(line.getID()));
+    }
+
+    @Test
+    public void testKeptEntities() throws Exception {
+        DXFDocument doc = parse(new CompactEntityStore());
+        DXFLayer layer = doc.getDXFLayer("0");
+        List<DXFEntity> lines = layer.getDXFEntities(DXFConstants.ENTITY_TYPE_LINE);
+        String id = lines.get(2).getID();
+
+        // the entities handed out are kept with their changes
+        doc.getDXFEntityByID(id).setColor(1);
+        assertEquals(1, doc.getDXFEntityByID(id).getColor());
+        assertSame(doc.getDXFEntityByID(id), lines.get(2));
+
+        for (DXFEntity entity : lines) {
+            entity.setLineWeight(13);
+        }
+
+        for (int i = 0; i < lines.size(); i++) {
+            assertEquals(13, lines.get(i).getLineWeight());
+        }
+
+        // setters of a kept entity change the bounds of the layer
+        ((DXFLine) lines.get(0)).setEndPoint(new Point(-5000, 0, 0));
+        assertEquals(-5000, layer.getBounds().getMinimumX(), 0.0);
+    }
+
+    @Test
+    public void testFlyweightIterators() throws Exception {
+        DXFDocument doc = parse(new CompactEntityStore());
+        CompactEntityList lines = (CompactEntityList) doc.getDXFLayer("0")
+                                                         .getDXFEntities(DXFConstants.ENTITY_TYPE_LINE);
+        Iterator<DXFEntity> first = lines.flyweightIterator();
+        Iterator<DXFEntity> second = lines.flyweightIterator();
+        second.next();
+
+        // the iterators do not change the entities of each other
+        for (int i = 0; second.hasNext(); i++) {
+            DXFEntity a = first.next();
+            DXFEntity b = second.next();
+            assertEquals(lines.get(i).getID(), a.getID());
+            assertEquals(lines.get(i + 1).getID(), b.getID());
+        }
+    }
+}
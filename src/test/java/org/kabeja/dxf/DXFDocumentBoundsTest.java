@@ -0,0 +1,131 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.dxf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.kabeja.dxf.helpers.Point;
+
+
+public class DXFDocumentBoundsTest {
+    double DELTA = 0.0000000001;
+
+    private static DXFLine line(double x, double y) {
+        DXFLine line = new DXFLine();
+        line.setStartPoint(new Point(0, 0, 0));
+        line.setEndPoint(new Point(x, y, 0));
+
+        return line;
+    }
+
+    @Test
+    public void testInvalidation() {
+        DXFDocument doc = new DXFDocument();
+        DXFBlock block = new DXFBlock();
+        block.setName("B");
+        doc.addDXFBlock(block);
+        block.addDXFEntity(line(10, 10));
+
+        DXFInsert insert = new DXFInsert();
+        insert.setBlockID("B");
+        insert.setPoint(new Point(100, 0, 0));
+        doc.addDXFEntity(insert);
+        assertEquals(110, doc.getBounds().getMaximumX(), DELTA);
+
+        // the returned bounds are copies
+        doc.getBounds().setMaximumX(0);
+        assertEquals(110, doc.getBounds().getMaximumX(), DELTA);
+
+        block.addDXFEntity(line(20, 10));
+        assertEquals(120, doc.getBounds().getMaximumX(), DELTA);
+
+        insert.setScaleX(2);
+        assertEquals(140, doc.getBounds().getMaximumX(), DELTA);
+
+        DXFLine line = line(500, 10);
+        line.setModelSpace(false);
+        doc.addDXFEntity(line);
+        assertEquals(500, doc.getBounds().getMaximumX(), DELTA);
+        assertEquals(140, doc.getBounds(true).getMaximumX(), DELTA);
+        assertEquals(500, doc.getBounds(false).getMaximumX(), DELTA);
+
+        // changes in place need an invalidation
+        line.getEndPoint().setX(600);
+        assertEquals(500, doc.getBounds().getMaximumX(), DELTA);
+        doc.invalidateBounds();
+        assertEquals(600, doc.getBounds().getMaximumX(), DELTA);
+
+        doc.getDXFLayer(DXFConstants.DEFAULT_LAYER).removeDXFEntity(line);
+        assertFalse(doc.getBounds(false).isValid());
+        assertEquals(140, doc.getBounds().getMaximumX(), DELTA);
+    }
+
+    @Test
+    public void testSetters() {
+        DXFDocument doc = new DXFDocument();
+        DXFLayer other = new DXFLayer();
+        other.setName("other");
+        doc.addDXFLayer(other);
+
+        DXFLine line = line(10, 10);
+        doc.addDXFEntity(line);
+
+        DXFCircle circle = new DXFCircle();
+        circle.setCenterPoint(new Point(0, 0, 0));
+        circle.setRadius(1);
+        circle.setLayerName("other");
+        doc.addDXFEntity(circle);
+
+        DXFPolyline pline = new DXFPolyline();
+        pline.addVertex(0, 0, 0);
+        doc.addDXFEntity(pline);
+        assertEquals(10, doc.getBounds().getMaximumX(), DELTA);
+
+        DXFSpatialIndex index = other.getSpatialIndex();
+        line.setEndPoint(new Point(20, 10, 0));
+        assertEquals(20, doc.getBounds().getMaximumX(), DELTA);
+
+        // the other layer keeps its bounds and index
+        assertSame(index, other.getSpatialIndex());
+
+        circle.setRadius(30);
+        assertEquals(30, doc.getBounds().getMaximumX(), DELTA);
+        assertNotSame(index, other.getSpatialIndex());
+
+        pline.addVertex(40, 0, 0);
+        assertEquals(40, doc.getBounds().getMaximumX(), DELTA);
+
+        pline.getVertex(1).setX(50);
+        assertEquals(50, doc.getBounds().getMaximumX(), DELTA);
+
+        // a vertex with further properties is kept as it is
+        DXFVertex vertex = new DXFVertex(new Point(60, 0, 0));
+        vertex.setColor(1);
+        pline.addVertex(vertex);
+        assertEquals(60, doc.getBounds().getMaximumX(), DELTA);
+        vertex.setX(70);
+        assertEquals(70, doc.getBounds().getMaximumX(), DELTA);
+
+        // removed entities do not change the document
+        doc.getDXFLayer(DXFConstants.DEFAULT_LAYER).removeDXFEntity(pline);
+        pline.addVertex(80, 0, 0);
+        assertEquals(30, doc.getBounds().getMaximumX(), DELTA);
+    }
+}
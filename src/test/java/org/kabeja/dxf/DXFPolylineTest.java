@@ -16,6 +16,8 @@
 package org.kabeja.dxf;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Test;
 import org.kabeja.dxf.helpers.Point;
@@ -146,4 +148,92 @@ public class DXFPolylineTest {
         assertEquals(0, b.getMaximumY(), DELTA);
         assertEquals(-100, b.getMinimumY(), DELTA);
     }
+
+    @Test
+    public void testPackedVertices() {
+        DXFPolyline pl = new DXFPolyline();
+        DXFVertex v = new DXFVertex(new Point(10, 20, 0));
+        v.setStartWidth(2.0);
+        v.setID("1F");
+        pl.addPackedVertex(v);
+        pl.addVertex(0, 0, 0);
+
+        // a vertex with further properties is kept
+        DXFVertex colored = new DXFVertex(new Point(100, 0, 0));
+        colored.setColor(3);
+        pl.addPackedVertex(colored);
+
+        assertEquals(3, pl.getVertexCount());
+        assertEquals(20, pl.getVertexY(0), 0.0);
+        assertEquals(2.0, pl.getVertexStartWidth(0), 0.0);
+        assertEquals("1F", pl.getVertex(0).getID());
+        assertSame(colored, pl.getVertex(2));
+        assertFalse(pl.isConstantWidth());
+
+        // the view changes the polyline
+        pl.getVertex(1).setBulge(-1.0);
+        assertEquals(-1.0, pl.getVertexBulge(1), 0.0);
+        assertEquals(50, pl.getBounds().getMaximumY(), DELTA);
+
+        DXFVertex removed = pl.removeVertex(0);
+        assertEquals(10, removed.getX(), 0.0);
+        assertEquals("1F", removed.getID());
+        assertEquals(2, pl.getVertexCount());
+        assertEquals(-1.0, pl.getVertex(0).getBulge(), 0.0);
+        assertSame(colored, pl.getVertex(1));
+    }
+
+    @Test
+    public void testPackedVertexProperties() {
+        DXFPolyline pl = new DXFPolyline();
+        pl.addVertex(0, 0, 0);
+        pl.addVertex(10, 0, 0);
+
+        // the other properties move the vertex out of the packed ones
+        DXFVertex view = pl.getVertex(1);
+        view.setColor(3);
+        view.setLineType("DASHED");
+        view.setThickness(2.0);
+        view.setX(20);
+
+        DXFVertex kept = pl.getVertex(1);
+        assertSame(kept, pl.getVertex(1));
+        assertEquals(3, kept.getColor());
+        assertEquals("DASHED", kept.getLineType());
+        assertEquals(2.0, kept.getThickness(), 0.0);
+        assertEquals(20, kept.getX(), 0.0);
+        assertEquals(20, pl.getVertexX(1), 0.0);
+        assertEquals(3, view.getColor());
+
+        // a view returned before changes the kept vertex
+        DXFVertex other = pl.getVertex(0);
+        pl.getVertex(0).setExtrusionZ(-1.0);
+        other.setBulge(0.5);
+        assertEquals(-1.0, pl.getVertex(0).getExtrusion().getZ(), 0.0);
+        assertEquals(0.5, pl.getVertex(0).getBulge(), 0.0);
+
+        pl.removeVertex(0);
+        assertSame(kept, pl.getVertex(0));
+    }
+
+    @Test
+    public void testAddedVertexIsKept() {
+        DXFPolyline pl = new DXFPolyline();
+        DXFVertex v = new DXFVertex(new Point(10, 20, 0));
+        pl.addVertex(v);
+        assertSame(v, pl.getVertex(0));
+
+        v.setX(30);
+        v.setColor(2);
+        assertEquals(30, pl.getVertexX(0), 0.0);
+        assertEquals(30, pl.getBounds().getMaximumX(), 0.0);
+
+        // the packed vertices of another polyline are copied
+        DXFPolyline other = new DXFPolyline();
+        other.addVertex(1, 2, 0);
+        pl.addVertex(other.getVertex(0));
+        pl.getVertex(1).setX(5);
+        assertEquals(1, other.getVertexX(0), 0.0);
+        assertEquals(5, pl.getVertexX(1), 0.0);
+    }
 }
@@ -0,0 +1,125 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.dxf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+import org.kabeja.parser.DXFParser;
+import org.kabeja.parser.ParserBuilder;
+
+
+public class DXFSpatialIndexTest {
+    private static final String SAMPLE = "samples/dxf/draft2.dxf";
+    double DELTA = 0.0000000001;
+
+    private static List<DXFEntity> scan(DXFDocument doc, Bounds window) {
+        List<DXFEntity> result = new ArrayList<DXFEntity>();
+        Iterator<DXFLayer> layers = doc.getDXFLayerIterator();
+
+        while (layers.hasNext()) {
+            DXFLayer layer = layers.next();
+            Iterator<String> types = layer.getDXFEntityTypeIterator();
+
+            while (types.hasNext()) {
+                for (DXFEntity entity : layer.getDXFEntities(types.next())) {
+                    Bounds b = entity.getBounds();
+
+                    if ((window == null) ? b.isValid() : b.contains(window)) {
+                        result.add(entity);
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private static double distance(Bounds b, double x, double y) {
+        double dx = Math.max(Math.max(b.getMinimumX() - x, 0.0),
+                x - b.getMaximumX());
+        double dy = Math.max(Math.max(b.getMinimumY() - y, 0.0),
+                y - b.getMaximumY());
+
+        return (dx * dx) + (dy * dy);
+    }
+
+    @Test
+    public void testQueries() throws Exception {
+        DXFParser parser = (DXFParser) ParserBuilder.createDefaultParser();
+        parser.parse(SAMPLE);
+
+        DXFDocument doc = parser.getDocument();
+        DXFSpatialIndex index = doc.getSpatialIndex();
+        Bounds bounds = doc.getBounds();
+
+        assertEquals(bounds.getMinimumX(), index.getBounds().getMinimumX(),
+            DELTA);
+        assertEquals(bounds.getMaximumY(), index.getBounds().getMaximumY(),
+            DELTA);
+
+        double w = bounds.getWidth() / 4;
+        double h = bounds.getHeight() / 4;
+
+        for (int x = 0; x < 4; x++) {
+            for (int y = 0; y < 4; y++) {
+                Bounds window = new Bounds();
+                window.addToBounds(bounds.getMinimumX() + (x * w),
+                    bounds.getMinimumY() + (y * h), 0);
+                window.addToBounds(bounds.getMinimumX() + ((x + 1) * w),
+                    bounds.getMinimumY() + ((y + 1) * h), 0);
+
+                List<DXFEntity> found = new ArrayList<DXFEntity>();
+
+                for (DXFEntity entity : index.getDXFEntities(window)) {
+                    if (entity.getBounds().contains(window)) {
+                        found.add(entity);
+                    }
+                }
+
+                assertEquals(scan(doc, window), found);
+
+                double px = window.getMinimumX() + (w / 3);
+                double py = window.getMinimumY() + (h / 3);
+                DXFEntity nearest = index.getNearestDXFEntity(px, py);
+                double min = Double.POSITIVE_INFINITY;
+
+                for (DXFEntity entity : scan(doc, null)) {
+                    min = Math.min(min, distance(entity.getBounds(), px, py));
+                }
+
+                assertNotNull(nearest);
+                assertEquals(min, distance(nearest.getBounds(), px, py), DELTA);
+            }
+        }
+
+        // the index is built again after changes
+        DXFLayer layer = doc.getDXFLayer("0");
+        assertSame(layer.getSpatialIndex(), layer.getSpatialIndex());
+
+        DXFSpatialIndex old = layer.getSpatialIndex();
+        doc.invalidateBounds();
+        assertEquals(old.size(), layer.getSpatialIndex().size());
+        assertNotSame(old, layer.getSpatialIndex());
+    }
+}
@@ -0,0 +1,166 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.dxf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+import org.kabeja.dxf.helpers.Point;
+import org.kabeja.parser.DXFParser;
+import org.kabeja.parser.ParserBuilder;
+
+
+public class HandleIndexTest {
+    private static final String SAMPLE = "samples/dxf/draft2.dxf";
+
+    private static DXFDocument parse(DXFEntityStore store)
+        throws Exception {
+        DXFParser parser = (DXFParser) ParserBuilder.createDefaultParser();
+        parser.setDXFEntityStore(store);
+        parser.parse(SAMPLE);
+
+        return parser.getDocument();
+    }
+
+    private static List<String> ids(DXFDocument doc) {
+        List<String> ids = new ArrayList<String>();
+        Iterator<DXFLayer> layers = doc.getDXFLayerIterator();
+
+        while (layers.hasNext()) {
+            DXFLayer layer = layers.next();
+            Iterator<String> types = layer.getDXFEntityTypeIterator();
+
+            while (types.hasNext()) {
+                for (DXFEntity entity : layer.getDXFEntities(types.next())) {
+                    ids.add(entity.getID());
+                }
+            }
+        }
+
+        return ids;
+    }
+
+    private static DXFLine line(String id) {
+        DXFLine line = new DXFLine();
+        line.setID(id);
+        line.setStartPoint(new Point(0, 0, 0));
+        line.setEndPoint(new Point(1, 1, 0));
+
+        return line;
+    }
+
+    @Test
+    public void testStores() throws Exception {
+        DXFEntityStore[] stores = new DXFEntityStore[] {
+                null, new CompactEntityStore()
+            };
+
+        for (DXFEntityStore store : stores) {
+            DXFDocument doc = parse(store);
+            List<String> ids = ids(doc);
+
+            for (String id : ids) {
+                assertEquals(id, doc.getDXFEntityByID(id).getID());
+            }
+
+            DXFEntity first = doc.getDXFEntityByID(ids.get(0));
+            assertSame(first,
+                doc.getDXFLayer(first.getLayerName()).getDXFEntityByID(ids.get(0)));
+
+            // removing moves the positions of the following entities
+            DXFLayer layer = doc.getDXFLayer("0");
+            List<DXFEntity> lines = layer.getDXFEntities(DXFConstants.ENTITY_TYPE_LINE);
+            String removed = lines.get(0).getID();
+            layer.removeDXFEntity(lines.get(0));
+            assertNull(doc.getDXFEntityByID(removed));
+
+            for (DXFEntity entity : lines) {
+                assertEquals(entity.getID(),
+                    doc.getDXFEntityByID(entity.getID()).getID());
+            }
+        }
+    }
+
+    @Test
+    public void testChanges() {
+        DXFDocument doc = new DXFDocument();
+        DXFLayer layer = new DXFLayer();
+        layer.setName("a");
+        doc.addDXFLayer(layer);
+
+        DXFLine a = line("A1");
+        DXFLine b = line("A2");
+        DXFLine c = line("A3");
+        layer.addDXFEntity(a);
+        layer.addDXFEntity(b);
+        layer.addDXFEntity(c);
+        assertSame(b, doc.getDXFEntityByID("A2"));
+
+        // setters and blocks do not change the handles
+        b.setStartPoint(new Point(5, 5, 0));
+
+        DXFBlock block = new DXFBlock();
+        block.setName("block");
+        doc.addDXFBlock(block);
+
+        DXFLine d = line("B1");
+        block.addDXFEntity(d);
+        assertSame(b, doc.getDXFEntityByID("A2"));
+        assertSame(d, doc.getDXFEntityByID("B1"));
+
+        layer.removeDXFEntity(a);
+        assertNull(doc.getDXFEntityByID("A1"));
+        assertSame(c, doc.getDXFEntityByID("A3"));
+
+        c.setID("A4");
+        assertNull(doc.getDXFEntityByID("A3"));
+        assertSame(c, doc.getDXFEntityByID("A4"));
+
+        // the lists changed directly
+        List<DXFEntity> lines = layer.getDXFEntities(DXFConstants.ENTITY_TYPE_LINE);
+        lines.remove(b);
+        assertNull(doc.getDXFEntityByID("A2"));
+        assertSame(c, doc.getDXFEntityByID("A4"));
+
+        DXFLine e = line("A5");
+        lines.add(0, e);
+        assertSame(e, doc.getDXFEntityByID("A5"));
+        assertSame(c, doc.getDXFEntityByID("A4"));
+
+        // moved to another layer
+        DXFLayer other = new DXFLayer();
+        other.setName("b");
+        doc.addDXFLayer(other);
+        lines.remove(c);
+        other.getDXFEntities(DXFConstants.ENTITY_TYPE_LINE);
+        other.addDXFEntity(c);
+        assertSame(c, doc.getDXFEntityByID("A4"));
+        assertSame(c, other.getDXFEntityByID("A4"));
+        assertNull(layer.getDXFEntityByID("A4"));
+        assertSame(e, layer.getDXFEntityByID("A5"));
+        assertNull(other.getDXFEntityByID("A5"));
+
+        doc.removeDXFLayer("a");
+        assertNull(doc.getDXFEntityByID("A5"));
+        assertSame(c, doc.getDXFEntityByID("A4"));
+    }
+}
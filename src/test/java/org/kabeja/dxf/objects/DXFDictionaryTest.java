@@ -0,0 +1,65 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.dxf.objects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+
+public class DXFDictionaryTest {
+    private static DXFDictionary dictionary(String id) {
+        DXFDictionary d = new DXFDictionary();
+        d.setID(id);
+
+        return d;
+    }
+
+    @Test
+    public void testNestedLookup() {
+        DXFDictionary root = dictionary("C");
+        root.putDXFObjectRelation("LAYOUTS", "D");
+
+        DXFDictionary layouts = dictionary("D");
+
+        for (int i = 0; i < 100; i++) {
+            layouts.putDXFObjectRelation("L" + i, Integer.toHexString(0x100 + i));
+        }
+
+        root.putDXFObject(layouts);
+
+        DXFDictionary child = dictionary("100");
+        child.putDXFObjectRelation("X", "200");
+        layouts.putDXFObject(child);
+
+        assertSame(root, root.getDXFDictionaryForID("D"));
+        assertSame(layouts, root.getDXFDictionaryForID("163"));
+        assertSame(child, root.getDXFDictionaryForID("200"));
+        assertSame(child, root.getDXFObjectByID("100"));
+        assertSame(layouts, root.getDXFObjectByName("LAYOUTS"));
+        assertEquals("L5", layouts.getNameForDXFObjectID("105"));
+
+        // added and changed relations below the root
+        child.putDXFObjectRelation("Y", "201");
+        assertSame(child, root.getDXFDictionaryForID("201"));
+        layouts.putDXFObjectRelation("L5", "300");
+        assertSame(layouts, root.getDXFDictionaryForID("300"));
+        assertNull(root.getDXFDictionaryForID("105"));
+        assertNull(root.getDXFDictionaryForID("999"));
+    }
+}
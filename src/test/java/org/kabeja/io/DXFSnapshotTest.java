@@ -0,0 +1,256 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+import org.kabeja.dxf.Bounds;
+import org.kabeja.dxf.DXFBlock;
+import org.kabeja.dxf.DXFDocument;
+import org.kabeja.dxf.DXFEntity;
+import org.kabeja.dxf.DXFLayer;
+import org.kabeja.dxf.DXFVariable;
+import org.kabeja.parser.DXFParser;
+import org.kabeja.parser.ParserBuilder;
+import org.kabeja.processing.ProcessingManager;
+import org.kabeja.processing.ProcessorException;
+
+
+public class DXFSnapshotTest {
+    private static File[] samples() {
+        return new File("samples/dxf").listFiles(new FilenameFilter() {
+                @Override
+                public boolean accept(File dir, String name) {
+                    return name.endsWith(".dxf");
+                }
+            });
+    }
+
+    private static String bounds(Bounds b) {
+        return b.isValid()
+        ? (b.getMinimumX() + "," + b.getMinimumY() + "," + b.getMaximumX() +
+        "," + b.getMaximumY()) : "invalid";
+    }
+
+    /**
+     * @return a description of the document, which does not depend on
+     *         the iteration order of the hash tables
+     */
+    private static Map<String, String> describe(DXFDocument doc) {
+        Map<String, String> d = new TreeMap<String, String>();
+        d.put("bounds", bounds(doc.getBounds()));
+
+        Iterator<DXFLayer> layers = doc.getDXFLayerIterator();
+
+        while (layers.hasNext()) {
+            DXFLayer layer = layers.next();
+            Iterator<String> types = layer.getDXFEntityTypeIterator();
+
+            while (types.hasNext()) {
+                String type = types.next();
+                StringBuilder buf = new StringBuilder();
+
+                for (DXFEntity e : layer.getDXFEntities(type)) {
+                    buf.append(e.getID()).append(' ')
+                       .append(bounds(e.getBounds())).append(';');
+                }
+
+                d.put("layer " + layer.getName() + "/" + type, buf.toString());
+            }
+        }
+
+        Iterator<DXFBlock> blocks = doc.getDXFBlockIterator();
+
+        while (blocks.hasNext()) {
+            DXFBlock block = blocks.next();
+            d.put("block " + block.getName(), bounds(block.getBounds()));
+        }
+
+        Iterator<DXFVariable> variables = doc.getDXFHeader()
+                                             .getVarialbeIterator();
+
+        while (variables.hasNext()) {
+            DXFVariable v = variables.next();
+            Iterator<String> keys = v.getValueKeyIterator();
+
+            while (keys.hasNext()) {
+                String key = keys.next();
+                d.put("variable " + v.getName() + "/" + key, v.getValue(key));
+            }
+        }
+
+        return d;
+    }
+
+    private static byte[] write(DXFDocument doc) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DXFSnapshot.write(doc, out);
+
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testSnapshot() throws Exception {
+        for (File sample : samples()) {
+            DXFParser parser = (DXFParser) ParserBuilder.createDefaultParser();
+            parser.parse(sample.getPath());
+
+            DXFDocument doc = parser.getDocument();
+            byte[] snapshot = write(doc);
+            DXFDocument copy = DXFSnapshot.read(new ByteArrayInputStream(
+                        snapshot));
+
+            assertEquals(sample.getName(), describe(doc), describe(copy));
+            assertEquals(sample.getName(), describe(doc),
+                describe(DXFSnapshot.read(new ByteArrayInputStream(write(copy)))));
+
+            // the entities are connected to the new document
+            DXFLayer layer = copy.getDXFLayerIterator().next();
+            String type = layer.getDXFEntityTypeIterator().next();
+            assertSame(copy,
+                layer.getDXFEntities(type).get(0).getDXFDocument());
+        }
+    }
+
+    @Test
+    public void testVersion() throws Exception {
+        byte[] snapshot = write(new DXFDocument());
+        // the version follows the magic
+        snapshot[4] = (byte) (DXFSnapshot.FORMAT_VERSION + 1);
+
+        try {
+            DXFSnapshot.read(new ByteArrayInputStream(snapshot));
+            fail("No exception");
+        } catch (IOException e) {
+        }
+    }
+
+    @Test
+    public void testRejectedClasses() throws Exception {
+        byte[] snapshot = write(new DXFDocument());
+        String[] names = {
+                "java.lang.ProcessBuilder",
+                "org.kabeja.processing.ProcessingManager", "[Ljava.io.File;"
+            };
+
+        for (String name : names) {
+            try {
+                DXFSnapshot.read(new ByteArrayInputStream(rename(snapshot,
+                            DXFDocument.class.getName(), name)));
+                fail(name);
+            } catch (IOException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains(name));
+            }
+        }
+    }
+
+    /**
+     * @return the snapshot with the first class name replaced
+     */
+    private static byte[] rename(byte[] snapshot, String from, String to) {
+        byte[] f = from.getBytes(StandardCharsets.UTF_8);
+        byte[] t = to.getBytes(StandardCharsets.UTF_8);
+
+        for (int i = 1; i <= (snapshot.length - f.length); i++) {
+            if (Arrays.equals(f, Arrays.copyOfRange(snapshot, i, i + f.length))) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                // the length is written before the name
+                out.write(snapshot, 0, i - 1);
+                out.write(t.length);
+                out.write(t, 0, t.length);
+                out.write(snapshot, i + f.length,
+                    snapshot.length - i - f.length);
+
+                return out.toByteArray();
+            }
+        }
+
+        throw new IllegalArgumentException(from);
+    }
+
+    @Test
+    public void testSnapshotCache() throws Exception {
+        File directory = Files.createTempDirectory("snapshots").toFile();
+        File sample = samples()[0];
+
+        try {
+            SnapshotCache cache = new SnapshotCache(directory);
+            DXFParser parser = (DXFParser) ParserBuilder.createDefaultParser();
+            ProcessingManager manager = new ProcessingManager();
+            manager.addParser(parser);
+            manager.setSnapshotCache(cache);
+
+            process(manager, sample);
+
+            DXFDocument parsed = parser.getDocument();
+            assertNotNull(parsed);
+            assertEquals(1, directory.listFiles().length);
+
+            // the second time the parser is not used
+            process(manager, sample);
+            assertSame(parsed, parser.getDocument());
+
+            // a broken snapshot is removed
+            File snapshot = directory.listFiles()[0];
+            String name = snapshot.getName();
+            Files.write(snapshot.toPath(), new byte[] { 1, 2, 3 });
+            assertNull(cache.get(name.substring(0,
+                        name.length() - SnapshotCache.SUFFIX.length())));
+            assertEquals(0, directory.listFiles().length);
+        } finally {
+            for (File f : directory.listFiles()) {
+                f.delete();
+            }
+
+            directory.delete();
+        }
+    }
+
+    private static void process(ProcessingManager manager, File sample)
+        throws Exception {
+        FileInputStream in = new FileInputStream(sample);
+
+        try {
+            // the document is parsed before the pipeline is looked up
+            manager.process(in, "dxf", new HashMap<String, Object>(), "none",
+                new ByteArrayOutputStream());
+            fail("No exception");
+        } catch (ProcessorException e) {
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+import org.kabeja.dxf.DXFDocument;
+import org.kabeja.dxf.DXFEntity;
+import org.kabeja.dxf.DXFLayer;
+import org.kabeja.parser.DXFParser;
+import org.kabeja.parser.ParserBuilder;
+
+
+public class SpillingEntityStoreTest {
+    private static final String SAMPLE = "samples/dxf/draft1.dxf";
+
+    private static String describe(DXFDocument doc) {
+        Map<String, String> content = new TreeMap<String, String>();
+        Iterator<DXFLayer> layers = doc.getDXFLayerIterator();
+
+        while (layers.hasNext()) {
+            DXFLayer layer = layers.next();
+            Iterator<String> types = layer.getDXFEntityTypeIterator();
+
+            while (types.hasNext()) {
+                String type = types.next();
+                StringBuilder buf = new StringBuilder(" ");
+
+                for (DXFEntity entity : layer.getDXFEntities(type)) {
+                    assertSame(doc, entity.getDXFDocument());
+                    buf.append(entity.getID()).append(',')
+                       .append(entity.getColor()).append(' ');
+                }
+
+                content.put(layer.getName() + "/" + type, buf.toString());
+            }
+        }
+
+        return content.toString();
+    }
+
+    private static DXFDocument parse(SpillingEntityStore store)
+        throws Exception {
+        DXFParser parser = (DXFParser) ParserBuilder.createDefaultParser();
+        parser.setDXFEntityStore(store);
+        parser.parse(SAMPLE);
+
+        return parser.getDocument();
+    }
+
+    @Test
+    public void testSpilling() throws Exception {
+        SpillingEntityStore store = new SpillingEntityStore(0, 16, null);
+
+        try {
+            DXFDocument doc = parse(store);
+            assertTrue(store.getSpilledCount() > 0);
+            assertTrue(store.getFileLength() > 0);
+            assertEquals(describe(parse(null)), describe(doc));
+
+            DXFLayer layer = doc.getDXFLayerIterator().next();
+            String type = null;
+            Iterator<String> types = layer.getDXFEntityTypeIterator();
+
+            while (types.hasNext()) {
+                String t = types.next();
+
+                if ((type == null) ||
+                        (layer.getDXFEntities(t).size() > layer.getDXFEntities(
+                            type).size())) {
+                    type = t;
+                }
+            }
+
+            // changes of spilled entities are kept
+            List<DXFEntity> entities = layer.getDXFEntities(type);
+            assertTrue(entities.size() > 16);
+
+            DXFEntity first = entities.get(0);
+
+            for (DXFEntity entity : entities) {
+                entity.setColor(77);
+            }
+
+            String expected = describe(doc);
+            assertTrue(expected.contains(" " + first.getID() + ",77 "));
+            assertEquals(expected, describe(doc));
+
+            // removed by ID after the segment was dropped
+            int size = entities.size();
+            layer.removeDXFEntity(first);
+            assertEquals(size - 1, entities.size());
+            assertFalse(describe(doc).contains(" " + first.getID() + ",77 "));
+
+            // a snapshot contains the spilled entities
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            DXFSnapshot.write(doc, out);
+            assertEquals(describe(doc),
+                describe(DXFSnapshot.read(new ByteArrayInputStream(
+                            out.toByteArray()))));
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    public void testRewriting() throws Exception {
+        SpillingEntityStore store = new SpillingEntityStore(0, 16, null);
+
+        try {
+            DXFDocument doc = parse(store);
+            String expected = describe(doc);
+            long length = store.getFileLength();
+
+            // unchanged segments are not written again
+            assertEquals(expected, describe(doc));
+            assertEquals(length, store.getFileLength());
+
+            // changed segments are written to their old place
+            for (int color = 1; color < 4; color++) {
+                Iterator<DXFLayer> layers = doc.getDXFLayerIterator();
+
+                while (layers.hasNext()) {
+                    DXFLayer layer = layers.next();
+                    Iterator<String> types = layer.getDXFEntityTypeIterator();
+
+                    while (types.hasNext()) {
+                        for (DXFEntity entity : layer.getDXFEntities(
+                                types.next())) {
+                            entity.setColor(color);
+                        }
+                    }
+                }
+
+                assertFalse(describe(doc).contains(",0 "));
+                assertFalse(describe(doc).contains("," + (color - 1) + " "));
+            }
+
+            assertEquals(length, store.getFileLength());
+        } finally {
+            store.close();
+        }
+    }
+}
@@ -0,0 +1,573 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+import org.kabeja.dxf.DXFBlock;
+import org.kabeja.dxf.DXFConstants;
+import org.kabeja.dxf.DXFDocument;
+import org.kabeja.dxf.DXFEntity;
+import org.kabeja.dxf.DXFEntityStore;
+import org.kabeja.dxf.DXFLayer;
+import org.kabeja.dxf.DXFLine;
+import org.kabeja.dxf.objects.DXFObject;
+import org.kabeja.parser.entities.DXFLineHandler;
+import org.kabeja.parser.entities.DXFPolylineHandler;
+
+
+public class DXFParserTest {
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+
+    private static void writeCode(ByteArrayOutputStream out, int code) {
+        out.write(code & 0xff);
+        out.write((code >> 8) & 0xff);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, int code,
+        String value) {
+        writeCode(out, code);
+
+        byte[] b = value.getBytes(ASCII);
+        out.write(b, 0, b.length);
+        out.write(0);
+    }
+
+    private static void writeDouble(ByteArrayOutputStream out, int code,
+        double value) {
+        writeCode(out, code);
+
+        long l = Double.doubleToLongBits(value);
+
+        for (int i = 0; i < 8; i++) {
+            out.write((int) (l >> (8 * i)) & 0xff);
+        }
+    }
+
+    private static void writeShort(ByteArrayOutputStream out, int code,
+        int value) {
+        writeCode(out, code);
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+    }
+
+    @Test
+    public void testBinaryDXF() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] sentinel = BinaryDXFTokenizer.SENTINEL.getBytes(ASCII);
+        out.write(sentinel, 0, sentinel.length);
+        writeString(out, 0, "SECTION");
+        writeString(out, 2, "ENTITIES");
+        writeString(out, 0, "LINE");
+        writeString(out, 5, "2A");
+        writeString(out, 8, "walls");
+        writeShort(out, 62, 3);
+        writeDouble(out, 10, 1.5);
+        writeDouble(out, 20, -2.25);
+        writeDouble(out, 30, 0.0);
+        writeDouble(out, 11, 100.0);
+        writeDouble(out, 21, 1e-3);
+        writeDouble(out, 31, 0.0);
+        writeString(out, 0, "ENDSEC");
+        writeString(out, 0, "EOF");
+
+        Parser parser = ParserBuilder.createDefaultParser();
+        parser.parse(new ByteArrayInputStream(out.toByteArray()), "");
+
+        DXFDocument doc = parser.getDocument();
+        List<DXFEntity> lines = doc.getDXFLayer("0").getDXFEntities("LINE");
+        assertNotNull(lines);
+        assertEquals(1, lines.size());
+
+        DXFLine line = (DXFLine) lines.get(0);
+        assertEquals("2A", line.getID());
+        assertEquals("walls", line.getLayerName());
+        assertEquals(3, line.getColor());
+        assertEquals(1.5, line.getStartPoint().getX(), 0.0);
+        assertEquals(-2.25, line.getStartPoint().getY(), 0.0);
+        assertEquals(100.0, line.getEndPoint().getX(), 0.0);
+        assertEquals(1e-3, line.getEndPoint().getY(), 0.0);
+    }
+
+    /**
+     * Lists the blocks and the entities per layer and type in order.
+     */
+    private static String describe(DXFDocument doc) {
+        TreeMap<String, String> content = new TreeMap<String, String>();
+        Iterator<DXFLayer> layers = doc.getDXFLayerIterator();
+
+        while (layers.hasNext()) {
+            DXFLayer layer = layers.next();
+            Iterator<String> types = layer.getDXFEntityTypeIterator();
+
+            while (types.hasNext()) {
+                String type = types.next();
+                StringBuilder ids = new StringBuilder();
+
+                for (DXFEntity entity : layer.getDXFEntities(type)) {
+                    ids.append(entity.getID()).append(' ');
+                    assertTrue(entity.getDXFDocument() == doc);
+                }
+
+                content.put(layer.getName() + "/" + type, ids.toString());
+            }
+        }
+
+        Iterator<DXFBlock> blocks = doc.getDXFBlockIterator();
+
+        while (blocks.hasNext()) {
+            DXFBlock block = blocks.next();
+            content.put("block " + block.getName(),
+                String.valueOf(block.getDXFEntitiesIterator().hasNext()));
+        }
+
+        return content.toString();
+    }
+
+    @Test
+    public void testParallel() throws Exception {
+        File[] samples = samples();
+        assertTrue(samples.length > 0);
+
+        for (File sample : samples) {
+            DXFParser parser = (DXFParser) ParserBuilder.createDefaultParser();
+            parser.parse(sample.getPath());
+
+            String expected = describe(parser.getDocument());
+
+            parser = (DXFParser) ParserBuilder.createDefaultParser();
+            parser.setParallelism(4);
+            parser.parse(sample.getPath());
+            assertEquals(sample.getName(), expected,
+                describe(parser.getDocument()));
+        }
+    }
+
+    @Test
+    public void testMemoryMapping() throws Exception {
+        for (File sample : samples()) {
+            DXFParser parser = (DXFParser) ParserBuilder.createDefaultParser();
+            parser.parse(sample.getPath());
+
+            String expected = describe(parser.getDocument());
+
+            // read as stream
+            parser = (DXFParser) ParserBuilder.createDefaultParser();
+            parser.setMemoryMapping(false);
+            parser.parse(sample.getPath());
+            assertEquals(sample.getName(), expected,
+                describe(parser.getDocument()));
+        }
+    }
+
+    @Test
+    public void testLazy() throws Exception {
+        for (File sample : samples()) {
+            DXFParser parser = (DXFParser) ParserBuilder.createDefaultParser();
+            parser.parse(sample.getPath());
+
+            DXFDocument doc = parser.getDocument();
+            DXFLayer layer = doc.getDXFLayer(DXFConstants.DEFAULT_LAYER);
+            String type = layer.getDXFEntityTypeIterator().next();
+            String id = layer.getDXFEntities(type).get(0).getID();
+
+            parser = (DXFParser) ParserBuilder.createDefaultParser();
+            parser.setLazy(true);
+            parser.parse(sample.getPath());
+
+            DXFDocument lazy = parser.getDocument();
+            assertEquals(sample.getName(), type,
+                lazy.getDXFEntityByID(id).getType());
+            assertEquals(sample.getName(), doc.getBounds().getMaximumX(),
+                lazy.getBounds().getMaximumX(), 0.0);
+            assertEquals(sample.getName(), doc.getBounds().getMinimumY(),
+                lazy.getBounds().getMinimumY(), 0.0);
+            assertEquals(sample.getName(), describe(doc), describe(lazy));
+        }
+    }
+
+    @Test
+    public void testEntityByID() throws Exception {
+        for (File sample : samples()) {
+            DXFParser parser = (DXFParser) ParserBuilder.createDefaultParser();
+            parser.parse(sample.getPath());
+
+            DXFDocument doc = parser.getDocument();
+            Iterator<DXFLayer> layers = doc.getDXFLayerIterator();
+            DXFEntity last = null;
+
+            while (layers.hasNext()) {
+                DXFLayer layer = layers.next();
+                Iterator<String> types = layer.getDXFEntityTypeIterator();
+
+                while (types.hasNext()) {
+                    for (DXFEntity entity : layer.getDXFEntities(types.next())) {
+                        assertEquals(sample.getName(), entity.getID(),
+                            doc.getDXFEntityByID(entity.getID()).getID());
+                        last = entity;
+                    }
+                }
+            }
+
+            Iterator<DXFBlock> blocks = doc.getDXFBlockIterator();
+
+            while (blocks.hasNext()) {
+                Iterator<DXFEntity> i = blocks.next().getDXFEntitiesIterator();
+
+                while (i.hasNext()) {
+                    String id = i.next().getID();
+                    assertEquals(sample.getName(), id,
+                        doc.getDXFEntityByID(id).getID());
+                }
+            }
+
+            Iterator<DXFObject> objects = doc.getRootDXFDictionary()
+                                             .getDXFObjectIterator();
+
+            while (objects.hasNext()) {
+                DXFObject obj = objects.next();
+
+                if (obj != null) {
+                    assertTrue(obj == doc.getDXFObjectByID(obj.getID()));
+                }
+            }
+
+            if ((last != null) && (last.getID().length() > 0)) {
+                DXFLine line = new DXFLine();
+                line.setID("ABCDEF0123");
+                doc.addDXFEntity(line);
+                assertTrue(line == doc.getDXFEntityByID("ABCDEF0123"));
+
+                doc.getDXFLayer(last.getLayerName()).removeDXFEntity(last);
+                assertEquals(null, doc.getDXFEntityByID(last.getID()));
+            }
+        }
+    }
+
+    @Test
+    public void testParallelEntityChunks() throws Exception {
+        File file = File.createTempFile("entities", ".dxf");
+        file.deleteOnExit();
+
+        Writer out = new OutputStreamWriter(new FileOutputStream(file), ASCII);
+        out.write("0\nSECTION\n2\nHEADER\n9\n$ACADVER\n1\nAC1015\n0\nENDSEC\n");
+        out.write("0\nSECTION\n2\nTABLES\n0\nTABLE\n2\nLAYER\n70\n7\n");
+
+        for (int l = 0; l < 7; l++) {
+            out.write("0\nLAYER\n2\nL" + l + "\n70\n0\n62\n" + (l + 1) +
+                "\n6\nCONTINUOUS\n");
+        }
+
+        out.write("0\nENDTAB\n0\nENDSEC\n");
+        out.write("0\nSECTION\n2\nENTITIES\n");
+
+        int id = 1;
+
+        for (int i = 0; i < 40000; i++) {
+            String layer = "L" + (i % 7);
+
+            if ((i % 5) == 0) {
+                out.write("0\nPOLYLINE\n5\n" + Integer.toHexString(id++) +
+                    "\n8\n" + layer + "\n66\n1\n70\n0\n");
+
+                for (int v = 0; v < 4; v++) {
+                    out.write("0\nVERTEX\n8\n" + layer + "\n10\n" + v +
+                        ".0\n20\n" + i + ".5\n70\n0\n");
+                }
+
+                out.write("0\nSEQEND\n8\n" + layer + "\n");
+            } else {
+                out.write("0\nLINE\n5\n" + Integer.toHexString(id++) +
+                    "\n8\n" + layer + "\n10\n" + i + ".25\n20\n0\n30\n0\n" +
+                    "11\n0\n21\n" + i + ".75\n31\n0\n");
+            }
+        }
+
+        out.write("0\nENDSEC\n0\nEOF\n");
+        out.close();
+
+        List<String> order = new ArrayList<String>();
+        DXFParser parser = (DXFParser) ParserBuilder.createDefaultParser();
+        parser.setDXFEntityStore(recordOrder(order));
+        parser.parse(file.getPath());
+
+        String expected = describe(parser.getDocument());
+
+        // the chunks see the header and the tables
+        final List<Boolean> seen = Collections.synchronizedList(new ArrayList<Boolean>());
+        HandlerFactory factory = new HandlerFactory() {
+                @Override
+                public Handler createHandler() {
+                    DXFParser p = (DXFParser) ParserBuilder.createDefaultParser();
+                    p.addDXFSectionHandler(new TablesCheckingHandler(seen));
+                    p.setHandlerFactory(this);
+
+                    return p;
+                }
+            };
+
+        List<String> parallelOrder = new ArrayList<String>();
+        parser = (DXFParser) factory.createHandler();
+        parser.setParallelism(4);
+        parser.setDXFEntityStore(recordOrder(parallelOrder));
+        parser.parse(file.getPath());
+        assertEquals(expected, describe(parser.getDocument()));
+        assertEquals(order, parallelOrder);
+        assertTrue(seen.size() > 1);
+        assertFalse(seen.contains(Boolean.FALSE));
+        file.delete();
+    }
+
+    /**
+     * @return a store, which records the IDs of the added entities
+     */
+    private static DXFEntityStore recordOrder(final List<String> ids) {
+        return new DXFEntityStore() {
+                @Override
+                public List<DXFEntity> createList(String type) {
+                    return new ArrayList<DXFEntity>() {
+                            @Override
+                            public boolean add(DXFEntity entity) {
+                                ids.add(entity.getID());
+
+                                return super.add(entity);
+                            }
+                        };
+                }
+            };
+    }
+
+    private static class TablesCheckingHandler extends DXFEntitiesSectionHandler {
+        private List<Boolean> seen;
+
+        public TablesCheckingHandler(List<Boolean> seen) {
+            this.seen = seen;
+            addHandler(new DXFLineHandler());
+            addHandler(new DXFPolylineHandler());
+        }
+
+        @Override
+        public void startSection() {
+            super.startSection();
+            seen.add(Boolean.valueOf(doc.getDXFHeader().hasVariable("$ACADVER") &&
+                    doc.containsDXFLayer("L6")));
+        }
+    }
+
+    @Test
+    public void testEntityListener() throws Exception {
+        for (File sample : samples()) {
+            DXFParser parser = (DXFParser) ParserBuilder.createDefaultParser();
+            parser.parse(sample.getPath());
+
+            DXFDocument expected = parser.getDocument();
+            final int[] counts = new int[2];
+
+            parser = (DXFParser) ParserBuilder.createDefaultParser();
+            parser.setKeepEntities(false);
+            parser.addDXFEntityListener(new DXFEntityListener() {
+                    @Override
+                    public void entityParsed(DXFEntity entity, DXFLayer layer,
+                        DXFBlock block) {
+                        assertNotNull(entity.getDXFDocument());
+
+                        if (block == null) {
+                            assertTrue(layer.getName()
+                                            .equals(entity.getLayerName()) ||
+                                layer.getName().equals("0"));
+                            counts[0]++;
+                        } else {
+                            counts[1]++;
+                        }
+                    }
+                });
+            parser.parse(sample.getPath());
+
+            DXFDocument doc = parser.getDocument();
+            assertEquals(sample.getName(), count(expected), counts[0]);
+
+            int blockEntities = 0;
+            Iterator<DXFBlock> blocks = doc.getDXFBlockIterator();
+
+            while (blocks.hasNext()) {
+                Iterator<DXFEntity> i = blocks.next().getDXFEntitiesIterator();
+
+                while (i.hasNext()) {
+                    i.next();
+                    blockEntities++;
+                }
+            }
+
+            assertEquals(blockEntities, counts[1]);
+            assertEquals(0, count(doc));
+        }
+    }
+
+    @Test
+    public void testParseStatistics() throws Exception {
+        for (File sample : samples()) {
+            ParseStatistics statistics = new ParseStatistics();
+            DXFParser parser = (DXFParser) ParserBuilder.createDefaultParser();
+            parser.setParseStatistics(statistics);
+            parser.parse(sample.getPath());
+
+            assertEquals(sample.length(), statistics.getBytes());
+            assertTrue(statistics.getGroups() > statistics.getSkippedGroups());
+            assertTrue(statistics.getSectionTimes().containsKey(
+                    DXFConstants.SECTION_ENTITIES));
+
+            long entities = 0;
+
+            for (Long c : statistics.getEntityCounts().values()) {
+                entities += c.longValue();
+            }
+
+            assertTrue(entities >= count(parser.getDocument()));
+
+            Map<String, Long> expected = new TreeMap<String, Long>(statistics.getEntityCounts());
+
+            parser = (DXFParser) ParserBuilder.createDefaultParser();
+            parser.setParseStatistics(statistics);
+            parser.setParallelism(4);
+            parser.parse(sample.getPath());
+            assertEquals(sample.getName(), expected,
+                new TreeMap<String, Long>(statistics.getEntityCounts()));
+        }
+    }
+
+    private static int count(DXFDocument doc) {
+        int count = 0;
+        Iterator<DXFLayer> layers = doc.getDXFLayerIterator();
+
+        while (layers.hasNext()) {
+            DXFLayer layer = layers.next();
+            Iterator<String> types = layer.getDXFEntityTypeIterator();
+
+            while (types.hasNext()) {
+                count += layer.getDXFEntities(types.next()).size();
+            }
+        }
+
+        return count;
+    }
+
+    private static File[] samples() {
+        return new File("samples/dxf").listFiles(new FilenameFilter() {
+                @Override
+                public boolean accept(File dir, String name) {
+                    return name.endsWith(".dxf");
+                }
+            });
+    }
+
+    @Test
+    public void testSelectedSections() throws Exception {
+        for (File sample : samples()) {
+            DXFParser parser = (DXFParser) ParserBuilder.createDefaultParser();
+            parser.parse(sample.getPath());
+
+            DXFDocument expected = parser.getDocument();
+
+            parser = (DXFParser) ParserBuilder.createDefaultParser();
+            parser.setSections(Arrays.asList(DXFConstants.SECTION_TABLES));
+            parser.parse(sample.getPath());
+
+            DXFDocument doc = parser.getDocument();
+            assertEquals(0, count(doc));
+            assertTrue(!doc.getDXFBlockIterator().hasNext());
+
+            Iterator<DXFLayer> layers = expected.getDXFLayerIterator();
+
+            while (layers.hasNext()) {
+                assertTrue(doc.containsDXFLayer(layers.next().getName()));
+            }
+
+            parser = (DXFParser) ParserBuilder.createDefaultParser();
+            parser.setEntityTypes(Arrays.asList(DXFConstants.ENTITY_TYPE_LINE));
+            parser.parse(sample.getPath());
+            doc = parser.getDocument();
+
+            int lines = 0;
+            layers = expected.getDXFLayerIterator();
+
+            while (layers.hasNext()) {
+                DXFLayer layer = layers.next();
+
+                if (layer.hasDXFEntities(DXFConstants.ENTITY_TYPE_LINE)) {
+                    lines += layer.getDXFEntities(DXFConstants.ENTITY_TYPE_LINE)
+                                  .size();
+                }
+            }
+
+            assertEquals(lines, count(doc));
+        }
+    }
+
+    @Test
+    public void testCodePageAfterLongHeader() throws Exception {
+        Charset cp1251 = Charset.forName("windows-1251");
+        StringBuilder data = new StringBuilder("0\nSECTION\n2\nHEADER\n");
+
+        for (int i = 0; i < 1000; i++) {
+            data.append("9\n$USERI1\n70\n" + i + "\n");
+        }
+
+        data.append("9\n$DWGCODEPAGE\n3\nANSI_1251\n0\nENDSEC\n");
+        data.append("0\nSECTION\n2\nENTITIES\n0\nLINE\n8\n\u0421\u043b\u043e\u0439\n");
+        data.append("10\n0\n20\n0\n11\n1\n21\n1\n0\nENDSEC\n0\nEOF\n");
+
+        byte[] b = data.toString().getBytes(cp1251);
+        File file = File.createTempFile("codepage", ".dxf");
+        file.deleteOnExit();
+
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(b);
+        out.close();
+
+        Parser parser = ParserBuilder.createDefaultParser();
+        parser.parse(new ByteArrayInputStream(b), "");
+        assertEquals("\u0421\u043b\u043e\u0439",
+            parser.getDocument().getDXFLayer("0").getDXFEntities("LINE").get(0)
+                  .getLayerName());
+
+        parser = ParserBuilder.createDefaultParser();
+        parser.parse(file.getPath());
+        assertEquals("\u0421\u043b\u043e\u0439",
+            parser.getDocument().getDXFLayer("0").getDXFEntities("LINE").get(0)
+                  .getLayerName());
+        file.delete();
+    }
+}
@@ -0,0 +1,50 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.parser;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.junit.Test;
+
+
+/**
+ * Compares the time of the probe with a full parse. Runs only with the
+ * benchmark profile: mvn test -Pbenchmark
+ */
+public class DXFProbeBenchmark {
+    @Test
+    public void testThroughput() throws Exception {
+        for (File sample : DXFProbeTest.samples()) {
+            long probe = Long.MAX_VALUE;
+            long full = Long.MAX_VALUE;
+
+            for (int round = 0; round < 5; round++) {
+                long start = System.nanoTime();
+                DXFProbe.probe(sample.getPath());
+                probe = Math.min(probe, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                ParserBuilder.createDefaultParser().parse(sample.getPath());
+                full = Math.min(full, System.nanoTime() - start);
+            }
+
+            assertTrue(sample.getName() + ": probe " + (probe / 1000) +
+                "us, full parse " + (full / 1000) + "us", probe < full);
+        }
+    }
+}
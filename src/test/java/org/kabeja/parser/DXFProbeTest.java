@@ -0,0 +1,80 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.junit.Test;
+import org.kabeja.dxf.DXFBlock;
+import org.kabeja.dxf.DXFDocument;
+import org.kabeja.dxf.DXFLayer;
+
+
+public class DXFProbeTest {
+    static File[] samples() {
+        return new File("samples/dxf").listFiles(new FilenameFilter() {
+                @Override
+                public boolean accept(File dir, String name) {
+                    return name.endsWith(".dxf");
+                }
+            });
+    }
+
+    @Test
+    public void testProbe() throws Exception {
+        for (File sample : samples()) {
+            DXFProbe.Summary summary = DXFProbe.probe(sample.toPath());
+            DXFParser parser = (DXFParser) ParserBuilder.createDefaultParser();
+            parser.parse(sample.getPath());
+
+            DXFDocument doc = parser.getDocument();
+            assertEquals(doc.getDXFHeader().getVariable("$ACADVER")
+                            .getValue("1"), summary.getVersion());
+            assertNotNull(summary.getExtMin());
+            assertEquals(doc.getDXFHeader().getVariable("$EXTMAX")
+                            .getDoubleValue("10"), summary.getExtMax().getX(),
+                0.0);
+
+            Set<String> layers = new HashSet<String>();
+            Iterator<DXFLayer> i = doc.getDXFLayerIterator();
+
+            while (i.hasNext()) {
+                layers.add(i.next().getName());
+            }
+
+            assertEquals(layers, new HashSet<String>(summary.getLayerNames()));
+
+            Set<String> blocks = new HashSet<String>();
+            Iterator<DXFBlock> b = doc.getDXFBlockIterator();
+
+            while (b.hasNext()) {
+                blocks.add(b.next().getName());
+            }
+
+            // the BLOCK_RECORD table can list blocks without definition
+            assertTrue(summary.getBlockNames().containsAll(blocks));
+            assertTrue(summary.getParsedLength() < sample.length());
+        }
+    }
+}
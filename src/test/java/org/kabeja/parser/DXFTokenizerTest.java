@@ -0,0 +1,198 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+
+
+public class DXFTokenizerTest {
+    private static final Charset LATIN1 = Charset.forName("ISO-8859-1");
+
+    private DXFTokenizer tokenizer(String data, int bufferSize) {
+        return new DXFTokenizer(new ByteArrayInputStream(data.getBytes(LATIN1)),
+            LATIN1, bufferSize);
+    }
+
+    @Test
+    public void testLineBreaks() throws Exception {
+        String[] breaks = { "\n", "\r\n", "\r" };
+
+        for (String lb : breaks) {
+            // small buffers force refills inside of lines
+            for (int size = 1; size < 8; size++) {
+                DXFTokenizer t = tokenizer("  0" + lb + "SECTION  " + lb +
+                        "2" + lb + "HEADER" + lb + " 10" + lb + " 1.5" + lb +
+                        "999", size);
+                assertTrue(t.next());
+                assertEquals(0, t.getGroupCode());
+                assertEquals("SECTION", t.getValue().getValue());
+                assertEquals(0, t.getGroupOffset());
+                assertTrue(t.next());
+                assertEquals(2, t.getGroupCode());
+                assertEquals("HEADER", t.getValue().getValue());
+                assertTrue(t.next());
+                assertEquals(10, t.getGroupCode());
+                assertEquals(1.5, t.getValue().getDoubleValue(), 0.0);
+                // a group code without value is ignored
+                assertFalse(t.next());
+                assertEquals(7, t.getLineNumber());
+            }
+        }
+    }
+
+    @Test
+    public void testCopy() throws Exception {
+        DXFTokenizer t = tokenizer("8\nLayer\n62\n7\n", 4);
+        assertTrue(t.next());
+
+        DXFValue copy = t.getValue().copy();
+        assertTrue(t.next());
+        assertEquals("Layer", copy.getValue());
+        assertEquals("7", t.getValue().getValue());
+        assertEquals(7, t.getValue().getIntegerValue());
+    }
+
+    @Test(expected = ParseException.class)
+    public void testInvalidGroupCode() throws Exception {
+        DXFTokenizer t = tokenizer("X\nvalue\n", 16);
+        t.next();
+    }
+
+    @Test
+    public void testSkipSection() throws Exception {
+        // a value 0 followed by the value ENDSEC of a group 1 is no section end
+        String data = "0\nSECTION\n2\nENTITIES\n0\nTEXT\n70\n0\n1\nENDSEC\n" +
+            "0\r\nENDSEC\r\n0\nSECTION\n2\nOBJECTS\n";
+
+        for (int size = 1; size < 8; size++) {
+            DXFTokenizer t = tokenizer(data, size);
+            assertTrue(t.next());
+            assertTrue(t.next());
+            assertTrue(t.skipSection());
+            assertEquals(0, t.getGroupCode());
+            assertEquals("ENDSEC", t.getValue().getValue());
+            assertEquals(42, t.getGroupOffset());
+            assertEquals(12, t.getLineNumber());
+            assertTrue(t.next());
+            assertEquals("SECTION", t.getValue().getValue());
+            assertTrue(t.next());
+            assertFalse(t.skipSection());
+        }
+    }
+
+    @Test
+    public void testDetectEncoding() throws Exception {
+        StringBuilder header = new StringBuilder("0\r\nSECTION\r\n2\r\nHEADER\r\n");
+
+        // longer than the old mark limit of 9000 bytes
+        for (int i = 0; i < 1000; i++) {
+            header.append("9\r\n$USERI1\r\n70\r\n" + i + "\r\n");
+        }
+
+        header.append("9\r\n$DWGCODEPAGE\r\n3\r\nANSI_1251\r\n0\r\nENDSEC\r\n");
+
+        for (int size = 1; size < 8; size++) {
+            DXFTokenizer t = tokenizer(header.toString(), size);
+            assertEquals("Cp1251", t.detectEncoding());
+            // nothing is consumed
+            assertTrue(t.next());
+            assertEquals("SECTION", t.getValue().getValue());
+        }
+
+        assertEquals("", tokenizer("0\nSECTION\n2\nENTITIES\n", 4).detectEncoding());
+        assertEquals("", tokenizer("", 4).detectEncoding());
+    }
+
+    @Test
+    public void testPipelined() throws Exception {
+        String file = "samples/dxf/draft2.dxf";
+
+        for (int batchSize = 1; batchSize < 2048; batchSize *= 7) {
+            DXFTokenizer expected = new DXFTokenizer(new FileInputStream(file),
+                    LATIN1);
+            DXFGroupReader t = new PipelinedDXFTokenizer(new DXFTokenizer(
+                        new FileInputStream(file), LATIN1, 16), batchSize, 2);
+
+            while (expected.next()) {
+                assertTrue(t.next());
+                assertEquals(expected.getGroupCode(), t.getGroupCode());
+                assertEquals(expected.getValue().getValue(),
+                    t.getValue().getValue());
+                assertEquals(expected.getLineNumber(), t.getLineNumber());
+                assertEquals(expected.getGroupOffset(), t.getGroupOffset());
+                assertEquals(expected.getPosition(), t.getPosition());
+            }
+
+            assertFalse(t.next());
+            expected.close();
+            t.close();
+        }
+
+        // an error of the producer is thrown by the consumer
+        DXFGroupReader t = new PipelinedDXFTokenizer(tokenizer("0\nA\nB\nC\n", 4));
+        assertTrue(t.next());
+
+        try {
+            t.next();
+            fail("No exception");
+        } catch (ParseException e) {
+        }
+    }
+
+    @Test
+    public void testPipelinedClose() throws Exception {
+        final boolean[] state = new boolean[2];
+        InputStream in = new FilterInputStream(new FileInputStream(
+                    "samples/dxf/draft2.dxf")) {
+                @Override
+                public int read(byte[] b, int off, int len)
+                    throws IOException {
+                    if (state[0]) {
+                        // read after close
+                        state[1] = true;
+                    }
+
+                    return super.read(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    state[0] = true;
+                    super.close();
+                }
+            };
+
+        DXFGroupReader t = new PipelinedDXFTokenizer(new DXFTokenizer(in,
+                    LATIN1, 16), 1, 2);
+        assertTrue(t.next());
+        t.close();
+        Thread.sleep(50);
+        assertTrue(state[0]);
+        assertFalse(state[1]);
+    }
+}
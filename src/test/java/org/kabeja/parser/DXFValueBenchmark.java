@@ -0,0 +1,70 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.parser;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.Charset;
+import java.util.List;
+
+import org.junit.Test;
+
+
+/**
+ * Compares the number decoding of DXFValue with the JDK. Runs only with
+ * the benchmark profile: mvn test -Pbenchmark
+ */
+public class DXFValueBenchmark {
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+
+    @Test
+    public void testThroughput() {
+        List<String> corpus = DXFValueTest.corpus(100000, 42);
+        byte[][] bytes = new byte[corpus.size()][];
+
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = corpus.get(i).getBytes(ASCII);
+        }
+
+        DXFValue v = new DXFValue();
+        double sum = 0;
+        long jdk = Long.MAX_VALUE;
+        long fast = Long.MAX_VALUE;
+
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+
+            for (int i = 0; i < bytes.length; i++) {
+                sum += Double.parseDouble(new String(bytes[i], ASCII));
+            }
+
+            jdk = Math.min(jdk, System.nanoTime() - start);
+            start = System.nanoTime();
+
+            for (int i = 0; i < bytes.length; i++) {
+                v.setBytes(bytes[i], 0, bytes[i].length, ASCII);
+                sum -= v.getDoubleValue();
+            }
+
+            fast = Math.min(fast, System.nanoTime() - start);
+        }
+
+        assertFalse(Double.isNaN(sum));
+        assertTrue("DXFValue " + (fast / 1000000) + "ms, JDK " +
+            (jdk / 1000000) + "ms", fast < jdk);
+    }
+}
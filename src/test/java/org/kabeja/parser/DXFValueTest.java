@@ -0,0 +1,172 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+
+
+/**
+ * Compares the decoding of DXFValue with the JDK.
+ */
+public class DXFValueTest {
+    private static final Charset ASCII = Charset.forName("US-ASCII");
+
+    private static DXFValue value(String s) {
+        DXFValue v = new DXFValue();
+        byte[] b = s.getBytes(ASCII);
+        v.setBytes(b, 0, b.length, ASCII);
+
+        return v;
+    }
+
+    private static void assertDouble(String s) {
+        double expected = Double.parseDouble(s);
+        double actual = value(s).getDoubleValue();
+
+        if (Double.doubleToRawLongBits(expected) != Double.doubleToRawLongBits(
+                    actual)) {
+            fail("Wrong result for " + s + ": " + actual + " expected " +
+                expected);
+        }
+    }
+
+    static List<String> corpus(int count, long seed) {
+        Random r = new Random(seed);
+        List<String> values = new ArrayList<String>();
+
+        for (int i = 0; i < count; i++) {
+            double d = (r.nextDouble() - 0.5) * Math.pow(10,
+                    r.nextInt(16) - 6);
+
+            switch (i % 6) {
+            case 0:
+                values.add(Double.toString(d));
+
+                break;
+
+            case 1:
+                values.add(String.format(Locale.ENGLISH, "%." +
+                        r.nextInt(17) + "f", d));
+
+                break;
+
+            case 2:
+                values.add(String.format(Locale.ENGLISH, "%." +
+                        r.nextInt(17) + "E", d));
+
+                break;
+
+            case 3:
+                // 16 significant digits like AutoCAD writes them
+                values.add(String.format(Locale.ENGLISH, "%.15e", d));
+
+                break;
+
+            case 4:
+                values.add(Long.toString(r.nextLong() % 100000000L));
+
+                break;
+
+            default:
+                values.add(String.format(Locale.ENGLISH, "%.6f", d) + "000");
+            }
+        }
+
+        return values;
+    }
+
+    @Test
+    public void testDoubleCorpus() {
+        String[] special = {
+                "0", "-0", "+0", "0.0", "-0.0", "1", "-1", "+1.5", "1.", ".5",
+                "-.5", "0.1", "0.2", "0.3", "1e22", "1e23", "9007199254740991",
+                "9007199254740993", "123456789012345678", "1234567890123456789",
+                "1.7976931348623157E308", "4.9E-324", "1e-400", "1e400",
+                "2.2250738585072014E-308", "100000000000000000000000000",
+                "0.000000000000000000000000001", "1200.50", "10.05", "1.0E-10",
+                "3.14159265358979323846", "1e+05", "1E5", "NaN", "Infinity",
+                "-Infinity", "0x1p3", "1.5d", "1.5f"
+            };
+
+        for (String s : special) {
+            assertDouble(s);
+        }
+
+        for (String s : corpus(200000, 4711)) {
+            assertDouble(s);
+        }
+    }
+
+    @Test
+    public void testInvalidDouble() {
+        String[] invalid = { "", "-", ".", "e5", "1e", "1.2.3", "1,5", "abc" };
+
+        for (String s : invalid) {
+            try {
+                value(s).getDoubleValue();
+                fail("No exception for " + s);
+            } catch (NumberFormatException e) {
+            }
+        }
+    }
+
+    @Test
+    public void testInteger() {
+        String[] values = {
+                "0", "-0", "+7", "-7", "256", "2147483647", "-2147483648",
+                "0000012"
+            };
+
+        for (String s : values) {
+            assertEquals(Integer.parseInt(s), value(s).getIntegerValue());
+        }
+
+        String[] invalid = { "", "-", "2147483648", "1.0", "0x10", "12a" };
+
+        for (String s : invalid) {
+            try {
+                value(s).getIntegerValue();
+                fail("No exception for " + s);
+            } catch (NumberFormatException e) {
+            }
+        }
+    }
+
+    @Test
+    public void testBitSet() {
+        DXFValue v = value("5");
+        assertTrue(v.isBitSet(1));
+        assertFalse(v.isBitSet(2));
+        assertTrue(v.isBitSet(4));
+
+        // the view is reused
+        byte[] b = "2".getBytes(ASCII);
+        v.setBytes(b, 0, b.length, ASCII);
+        assertFalse(v.isBitSet(1));
+        assertTrue(v.isBitSet(2));
+    }
+}
@@ -0,0 +1,158 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+import org.junit.Test;
+
+
+public class MappedDXFTokenizerTest {
+    private static final Charset LATIN1 = Charset.forName("ISO-8859-1");
+    private static final String SAMPLE = "samples/dxf/draft2.dxf";
+
+    private static String tokens(DXFTokenizer t) throws Exception {
+        StringBuilder buf = new StringBuilder();
+
+        while (t.next()) {
+            buf.append(t.getGroupCode()).append('@').append(t.getGroupOffset())
+               .append(':').append(t.getLineNumber()).append('=')
+               .append(t.getValue().getValue()).append('\n');
+        }
+
+        return buf.toString();
+    }
+
+    private static File write(String data) throws Exception {
+        File file = File.createTempFile("mapped", ".dxf");
+        file.deleteOnExit();
+
+        FileOutputStream out = new FileOutputStream(file);
+
+        try {
+            out.write(data.getBytes(LATIN1));
+        } finally {
+            out.close();
+        }
+
+        return file;
+    }
+
+    private static void assertChunks(File file, int[] chunkSizes)
+        throws Exception {
+        FileInputStream in = new FileInputStream(file);
+        String expected = tokens(new DXFTokenizer(in, LATIN1));
+        in.close();
+
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+
+        try {
+            FileChannel channel = raf.getChannel();
+
+            for (int chunkSize : chunkSizes) {
+                assertTrue(channel.size() > chunkSize);
+
+                MappedDXFTokenizer t = new MappedDXFTokenizer(channel, LATIN1,
+                        0, channel.size(), chunkSize);
+                assertEquals("chunk size " + chunkSize, expected, tokens(t));
+                t.close();
+            }
+        } finally {
+            raf.close();
+        }
+    }
+
+    @Test
+    public void testChunkBorders() throws Exception {
+        // a file of several chunks
+        assertChunks(new File(SAMPLE), new int[] { 4093, 65521 });
+
+        // chunks smaller than a group, every mapping counts against the
+        // limit of mappings of the process until it is collected
+        StringBuilder data = new StringBuilder("  0\r\nSECTION\r\n  2\r\nENTITIES\r\n");
+
+        for (int i = 0; i < 50; i++) {
+            data.append("  0\r\nLINE\r\n  8\r\nLayer").append(i)
+                .append("\r\n 10\r\n").append(i * 0.5).append("\r\n");
+        }
+
+        data.append("  0\r\nENDSEC\r\n  0\r\nEOF\r\n");
+        assertChunks(write(data.toString()), new int[] { 1, 2, 3, 7, 64 });
+    }
+
+    @Test
+    public void testGroupAcrossChunks() throws Exception {
+        String data = "  0\nSECTION\n  2\nENTITIES\n  0\nLINE\n  8\nLayer1\n";
+
+        // the border is inside of the layer name
+        int border = data.indexOf("Layer1") + 3;
+        RandomAccessFile raf = new RandomAccessFile(write(data), "r");
+
+        try {
+            FileChannel channel = raf.getChannel();
+            MappedDXFTokenizer t = new MappedDXFTokenizer(channel, LATIN1, 0,
+                    channel.size(), border);
+
+            for (int i = 0; i < 3; i++) {
+                assertTrue(t.next());
+            }
+
+            assertTrue(t.next());
+            assertEquals(8, t.getGroupCode());
+            assertEquals("Layer1", t.getValue().getValue());
+            assertFalse(t.next());
+
+            // the channel is still open after closing the tokenizer
+            t.close();
+            assertFalse(t.next());
+            assertTrue(channel.isOpen());
+        } finally {
+            raf.close();
+        }
+    }
+
+    @Test
+    public void testRange() throws Exception {
+        String section = "  0\nLINE\n  8\nA\n";
+        String data = "999\nskipped\n" + section + "999\nskipped\n";
+        int start = data.indexOf(section);
+        RandomAccessFile raf = new RandomAccessFile(write(data), "r");
+
+        try {
+            FileChannel channel = raf.getChannel();
+            MappedDXFTokenizer t = new MappedDXFTokenizer(channel, LATIN1,
+                    start, start + section.length(), 5);
+            assertTrue(t.next());
+            assertEquals("LINE", t.getValue().getValue());
+            assertEquals(start, t.getGroupOffset());
+            assertTrue(t.next());
+            assertEquals("A", t.getValue().getValue());
+            assertFalse(t.next());
+            t.close();
+        } finally {
+            raf.close();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.parser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+import org.kabeja.dxf.DXFBlock;
+import org.kabeja.dxf.DXFConstants;
+import org.kabeja.dxf.DXFDocument;
+import org.kabeja.dxf.DXFEntity;
+import org.kabeja.dxf.DXFLayer;
+
+
+public class ParserFactoryTest {
+    private static File[] samples() {
+        return new File("samples/dxf").listFiles(new FilenameFilter() {
+                @Override
+                public boolean accept(File dir, String name) {
+                    return name.endsWith(".dxf");
+                }
+            });
+    }
+
+    private static int count(DXFDocument doc) {
+        int count = 0;
+        Iterator<DXFLayer> i = doc.getDXFLayerIterator();
+
+        while (i.hasNext()) {
+            DXFLayer layer = i.next();
+            Iterator<String> types = layer.getDXFEntityTypeIterator();
+
+            while (types.hasNext()) {
+                count += layer.getDXFEntities(types.next()).size();
+            }
+        }
+
+        return count;
+    }
+
+    @Test
+    public void testPool() {
+        ParserFactory factory = new ParserFactory(ParserBuilder.DEFAULT_FACTORY,
+                1);
+        Parser p1 = factory.borrowParser();
+        Parser p2 = factory.borrowParser();
+        assertNotSame(p1, p2);
+        assertTrue(p1.supportedExtension("dxf"));
+
+        factory.returnParser(p1);
+        factory.returnParser(p2);
+        assertEquals(1, factory.getPoolSize());
+        assertSame(p1, factory.borrowParser());
+        assertEquals(0, factory.getPoolSize());
+    }
+
+    @Test
+    public void testReconfiguredParser() {
+        ParserFactory factory = ParserFactory.createDefaultFactory();
+        DXFParser parser = (DXFParser) factory.borrowParser();
+        assertSame(ParserBuilder.DEFAULT_FACTORY, parser.getHandlerFactory());
+
+        parser.setKeepEntities(false);
+        parser.addDXFEntityListener(new DXFEntityListener() {
+                @Override
+                public void entityParsed(DXFEntity entity, DXFLayer layer,
+                    DXFBlock block) {
+                }
+            });
+        factory.returnParser(parser);
+        assertEquals(0, factory.getPoolSize());
+
+        // the next borrower gets the default configuration
+        parser = (DXFParser) factory.borrowParser();
+        assertTrue(parser.isKeepEntities());
+        assertTrue(parser.entityListeners.isEmpty());
+        factory.returnParser(parser);
+        assertEquals(1, factory.getPoolSize());
+    }
+
+    @Test
+    public void testXML() throws Exception {
+        String xml = "<parser class=\"org.kabeja.parser.DXFParser\" " +
+            "xmlns=\"http://kabeja.org/parser/1.0\">" +
+            "<handler class=\"org.kabeja.parser.DXFEntitiesSectionHandler\">" +
+            "<handlers><handler class=\"org.kabeja.parser.entities.DXFLineHandler\"/>" +
+            "</handlers></handler></parser>";
+
+        ParserFactory factory = ParserFactory.createFromXML(new ByteArrayInputStream(
+                    xml.getBytes("UTF-8")));
+        DXFParser p1 = (DXFParser) factory.borrowParser();
+        DXFParser p2 = (DXFParser) factory.borrowParser();
+        assertNotSame(p1, p2);
+        assertNotSame(p1.handlers.get(DXFConstants.SECTION_ENTITIES),
+            p2.handlers.get(DXFConstants.SECTION_ENTITIES));
+        assertTrue(p1.getHandlerFactory() != null);
+    }
+
+    @Test
+    public void testConcurrentParsing() throws Exception {
+        final ParserFactory factory = ParserFactory.createDefaultFactory();
+        final File[] samples = samples();
+        Map<File, Integer> expected = new HashMap<File, Integer>();
+
+        for (File sample : samples) {
+            Parser parser = ParserBuilder.createDefaultParser();
+            parser.parse(sample.getPath());
+            expected.put(sample, Integer.valueOf(count(parser.getDocument())));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+
+        for (int i = 0; i < (samples.length * 4); i++) {
+            final File sample = samples[i % samples.length];
+            results.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        Parser parser = factory.borrowParser();
+
+                        try {
+                            parser.parse(sample.getPath());
+
+                            return Integer.valueOf(count(parser.getDocument()));
+                        } finally {
+                            factory.returnParser(parser);
+                        }
+                    }
+                }));
+        }
+
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(expected.get(samples[i % samples.length]),
+                results.get(i).get());
+        }
+
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,202 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.parser.dxf.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+import org.kabeja.dxf.Bounds;
+import org.kabeja.dxf.DXFBlock;
+import org.kabeja.dxf.DXFConstants;
+import org.kabeja.dxf.DXFDocument;
+import org.kabeja.dxf.DXFEntity;
+import org.kabeja.dxf.DXFLayer;
+import org.kabeja.parser.DXFParser;
+import org.kabeja.parser.ParserBuilder;
+
+
+public class DXFStreamFilterTest {
+    private static File[] samples() {
+        return new File("samples/dxf").listFiles(new FilenameFilter() {
+                @Override
+                public boolean accept(File dir, String name) {
+                    return name.endsWith(".dxf");
+                }
+            });
+    }
+
+    private static DXFDocument parse(File sample, DXFStreamFilter filter,
+        String key, String value) throws Exception {
+        DXFParser parser = (DXFParser) ParserBuilder.createDefaultParser();
+
+        if (filter != null) {
+            Map<String, Object> p = new HashMap<String, Object>();
+            p.put(key, value);
+            filter.setProperties(p);
+            parser.addDXFStreamFilter(filter);
+        }
+
+        parser.parse(sample.getPath());
+
+        return parser.getDocument();
+    }
+
+    /**
+     * @return the number of entities by layer and type
+     */
+    private static Map<String, Integer> count(DXFDocument doc) {
+        Map<String, Integer> counts = new TreeMap<String, Integer>();
+        Iterator<DXFLayer> layers = doc.getDXFLayerIterator();
+
+        while (layers.hasNext()) {
+            DXFLayer layer = layers.next();
+            Iterator<String> types = layer.getDXFEntityTypeIterator();
+
+            while (types.hasNext()) {
+                String type = types.next();
+                counts.put(layer.getName() + "/" + type,
+                    layer.getDXFEntities(type).size());
+            }
+        }
+
+        return counts;
+    }
+
+    private static int blocks(DXFDocument doc) {
+        int count = 0;
+        Iterator<DXFBlock> i = doc.getDXFBlockIterator();
+
+        while (i.hasNext()) {
+            i.next();
+            count++;
+        }
+
+        return count;
+    }
+
+    private static Map<String, Integer> select(Map<String, Integer> counts,
+        String layer, String type) {
+        Map<String, Integer> selected = new TreeMap<String, Integer>();
+
+        for (Map.Entry<String, Integer> e : counts.entrySet()) {
+            String[] key = e.getKey().split("/");
+
+            if (((layer == null) || !layer.equals(key[0])) &&
+                    ((type == null) || type.equals(key[1]))) {
+                selected.put(e.getKey(), e.getValue());
+            }
+        }
+
+        return selected;
+    }
+
+    @Test
+    public void testLayerFilter() throws Exception {
+        for (File sample : samples()) {
+            DXFDocument doc = parse(sample, null, null, null);
+            Map<String, Integer> all = count(doc);
+            String layer = all.keySet().iterator().next().split("/")[0];
+
+            DXFDocument filtered = parse(sample, new DXFStreamLayerFilter(),
+                    DXFStreamLayerFilter.PROPERTY_LAYERS_EXCLUDE, layer);
+            assertEquals(sample.getName(), select(all, layer, null),
+                count(filtered));
+
+            // the other sections are not touched
+            assertEquals(blocks(doc), blocks(filtered));
+        }
+    }
+
+    @Test
+    public void testEntityTypeFilter() throws Exception {
+        for (File sample : samples()) {
+            Map<String, Integer> all = count(parse(sample, null, null, null));
+            DXFDocument filtered = parse(sample,
+                    new DXFStreamEntityTypeFilter(),
+                    DXFStreamEntityTypeFilter.PROPERTY_TYPES_INCLUDE,
+                    DXFConstants.ENTITY_TYPE_LINE);
+            assertEquals(sample.getName(),
+                select(all, null, DXFConstants.ENTITY_TYPE_LINE),
+                count(filtered));
+        }
+    }
+
+    @Test
+    public void testWindowFilter() throws Exception {
+        for (File sample : samples()) {
+            DXFDocument doc = parse(sample, null, null, null);
+            Bounds b = doc.getBounds();
+
+            if (!b.isValid()) {
+                continue;
+            }
+
+            // the lower left quarter
+            double maxX = b.getMinimumX() + (b.getWidth() / 2);
+            double maxY = b.getMinimumY() + (b.getHeight() / 2);
+            DXFDocument filtered = parse(sample, new DXFStreamWindowFilter(),
+                    DXFStreamWindowFilter.PROPERTY_WINDOW,
+                    b.getMinimumX() + "|" + b.getMinimumY() + "|" + maxX +
+                    "|" + maxY);
+            int inside = 0;
+            int passed = 0;
+            Iterator<DXFLayer> layers = doc.getDXFLayerIterator();
+
+            while (layers.hasNext()) {
+                DXFLayer layer = layers.next();
+
+                if (!layer.hasDXFEntities(DXFConstants.ENTITY_TYPE_LINE)) {
+                    continue;
+                }
+
+                List<DXFEntity> lines = layer.getDXFEntities(DXFConstants.ENTITY_TYPE_LINE);
+
+                for (DXFEntity line : lines) {
+                    Bounds lb = line.getBounds();
+
+                    if ((lb.getMaximumX() < maxX) && (lb.getMaximumY() < maxY)) {
+                        inside++;
+                    }
+                }
+
+                DXFLayer l = filtered.getDXFLayer(layer.getName());
+
+                if (l.hasDXFEntities(DXFConstants.ENTITY_TYPE_LINE)) {
+                    passed += l.getDXFEntities(DXFConstants.ENTITY_TYPE_LINE)
+                               .size();
+                }
+            }
+
+            assertTrue(sample.getName(), passed >= inside);
+
+            Map<String, Integer> all = count(doc);
+            Map<String, Integer> rest = count(filtered);
+
+            // the other types are passed
+            assertEquals(select(all, null, DXFConstants.ENTITY_TYPE_ARC),
+                select(rest, null, DXFConstants.ENTITY_TYPE_ARC));
+        }
+    }
+}
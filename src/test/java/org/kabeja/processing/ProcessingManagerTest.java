@@ -0,0 +1,302 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.processing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Test;
+import org.kabeja.dxf.DXFDocument;
+import org.kabeja.parser.DXFParser;
+import org.kabeja.parser.ParserBuilder;
+import org.kabeja.svg.SVGGenerator;
+import org.kabeja.xml.SAXPrettyOutputter;
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+
+
+public class ProcessingManagerTest {
+    private static final String SAMPLE = "samples/dxf/draft4.dxf";
+
+    private static int parse(InputStream in, String extension, boolean readAhead)
+        throws Exception {
+        DXFParser parser = (DXFParser) ParserBuilder.createDefaultParser();
+        parser.setReadAhead(readAhead);
+
+        ProcessingManager manager = new ProcessingManager();
+        manager.addParser(parser);
+
+        try {
+            // the document is parsed before the pipeline is looked up
+            manager.process(in, extension, new HashMap<String, Object>(),
+                "none", new ByteArrayOutputStream());
+            fail("No exception");
+        } catch (ProcessorException e) {
+        }
+
+        return parser.getDocument().getDXFLayer("0").getDXFEntities("LINE")
+                     .size();
+    }
+
+    @Test
+    public void testCompressedInput() throws Exception {
+        byte[] dxf = Files.readAllBytes(Paths.get(SAMPLE));
+        int expected = parse(new ByteArrayInputStream(dxf), "dxf", false);
+
+        ByteArrayOutputStream gz = new ByteArrayOutputStream();
+        GZIPOutputStream gzOut = new GZIPOutputStream(gz);
+        gzOut.write(dxf);
+        gzOut.close();
+
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        ZipOutputStream zipOut = new ZipOutputStream(zip);
+        zipOut.putNextEntry(new ZipEntry("drawings/"));
+        zipOut.putNextEntry(new ZipEntry("drawings/draft4.dxf"));
+        zipOut.write(dxf);
+        zipOut.close();
+
+        for (boolean readAhead : new boolean[] { false, true }) {
+            assertEquals(expected,
+                parse(new ByteArrayInputStream(gz.toByteArray()), "dxf.gz",
+                    readAhead));
+            assertEquals(expected,
+                parse(new ByteArrayInputStream(zip.toByteArray()), "zip",
+                    readAhead));
+        }
+    }
+
+    @Test
+    public void testZipWithSeveralFiles() throws Exception {
+        byte[] dxf = Files.readAllBytes(Paths.get(SAMPLE));
+        ByteArrayOutputStream zip = new ByteArrayOutputStream();
+        ZipOutputStream zipOut = new ZipOutputStream(zip);
+        zipOut.putNextEntry(new ZipEntry("draft4.dxf"));
+        zipOut.write(dxf);
+        zipOut.putNextEntry(new ZipEntry("other/"));
+        zipOut.putNextEntry(new ZipEntry("other/readme.txt"));
+        zipOut.write(1);
+        zipOut.close();
+
+        ProcessingManager manager = new ProcessingManager();
+        manager.addParser(ParserBuilder.createDefaultParser());
+
+        try {
+            manager.process(new ByteArrayInputStream(zip.toByteArray()), "zip",
+                new HashMap<String, Object>(), "none",
+                new ByteArrayOutputStream());
+            fail("No exception");
+        } catch (ProcessorException e) {
+            assertTrue(e.getMessage(),
+                e.getMessage().contains("other/readme.txt"));
+        }
+    }
+
+    @Test
+    public void testDocumentCache() throws Exception {
+        DXFParser parser = (DXFParser) ParserBuilder.createDefaultParser();
+        ProcessingManager manager = new ProcessingManager();
+        manager.addParser(parser);
+
+        DocumentCache cache = new DocumentCache();
+        manager.setDocumentCache(cache);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                manager.process(new File(SAMPLE), new HashMap<String, Object>(),
+                    "none", new ByteArrayOutputStream());
+                fail("No exception");
+            } catch (ProcessorException e) {
+            }
+        }
+
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getCount());
+
+        // the pipelines, which change the document, get their own copy
+        String key = parser.getName() + '|' + DocumentCache.getKey(new File(
+                    SAMPLE));
+        long size = cache.getSize();
+        assertTrue(size > 0);
+
+        DXFDocument doc = cache.get(key);
+        assertNotNull(doc);
+        assertNotSame(doc, cache.get(key));
+        assertNotSame(doc, cache.getShared(key));
+        assertSame(cache.getShared(key), cache.getShared(key));
+
+        // the snapshot for the copies is counted
+        assertTrue(cache.getSize() > size);
+        assertEquals(parser.getDocument().getDXFLayer("0")
+                           .getDXFEntities("LINE").size(),
+            doc.getDXFLayer("0").getDXFEntities("LINE").size());
+
+        // the least recently used document is evicted
+        cache.setBudget(cache.getSize());
+        cache.put("other", new DXFDocument());
+        assertNull(cache.get(key));
+        assertNotNull(cache.get("other"));
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void testLazyDocumentCache() throws Exception {
+        DXFParser parser = (DXFParser) ParserBuilder.createDefaultParser();
+        parser.parse(SAMPLE);
+
+        int lines = parser.getDocument().getDXFLayer("0")
+                          .getDXFEntities("LINE").size();
+
+        parser = (DXFParser) ParserBuilder.createDefaultParser();
+        parser.setLazy(true);
+
+        ProcessingManager manager = new ProcessingManager();
+        manager.addParser(parser);
+        manager.setDocumentCache(new DocumentCache());
+
+        try {
+            manager.process(new FileInputStream(SAMPLE), "dxf",
+                new HashMap<String, Object>(), "none",
+                new ByteArrayOutputStream());
+            fail("No exception");
+        } catch (ProcessorException e) {
+        }
+
+        // the temporary file of the cached document is deleted
+        assertEquals(1, manager.getDocumentCache().getCount());
+        assertEquals(lines,
+            parser.getDocument().getDXFLayer("0").getDXFEntities("LINE").size());
+    }
+
+    @Test
+    public void testDocumentLock() throws Exception {
+        final boolean[] locked = new boolean[1];
+        ProcessingManager manager = new ProcessingManager();
+        manager.addPostProcessor(new AbstractPostProcessor() {
+                @Override
+                public void process(DXFDocument doc, Map<String, Object> context) {
+                    locked[0] = doc.getLock().isWriteLockedByCurrentThread();
+                }
+            }, "check");
+
+        PostProcessorConfig config = new PostProcessorConfig();
+        config.setPostProcessorName("check");
+
+        ProcessPipeline pipeline = new ProcessPipeline();
+        pipeline.setName("svg");
+        pipeline.setProcessorManager(manager);
+        pipeline.addPostProcessorConfig(config);
+        pipeline.setSAXGenerator(new SVGGenerator());
+        pipeline.setSAXSerializer(new SAXPrettyOutputter());
+        manager.addProcessPipeline(pipeline);
+
+        DXFDocument doc = new DXFDocument();
+        manager.process(doc, new HashMap<String, Object>(), "svg",
+            new ByteArrayOutputStream());
+        assertTrue(locked[0]);
+        assertFalse(doc.getLock().isWriteLocked());
+    }
+
+    private static ProcessingManager createSVGManager(
+        final boolean[] readLocked) {
+        ProcessingManager manager = new ProcessingManager();
+        ProcessPipeline pipeline = new ProcessPipeline();
+        pipeline.setName("svg");
+        pipeline.setProcessorManager(manager);
+        pipeline.setSAXGenerator(new SVGGenerator() {
+                @Override
+                public void generate(DXFDocument doc, ContentHandler handler,
+                    Map<String, Object> context) throws SAXException {
+                    readLocked[0] = doc.getLock().getReadHoldCount() > 0;
+                    super.generate(doc, handler, context);
+                }
+            });
+        pipeline.setSAXSerializer(new SAXPrettyOutputter());
+        manager.addProcessPipeline(pipeline);
+
+        return manager;
+    }
+
+    @Test
+    public void testConcurrentReaders() throws Exception {
+        DXFParser parser = (DXFParser) ParserBuilder.createDefaultParser();
+        parser.parse(SAMPLE);
+
+        final DXFDocument doc = parser.getDocument();
+        final boolean[] readLocked = new boolean[1];
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        createSVGManager(readLocked)
+            .process(doc, new HashMap<String, Object>(), "svg", expected);
+        assertTrue(readLocked[0]);
+
+        // the caches of a new document are built by the readers
+        parser = (DXFParser) ParserBuilder.createDefaultParser();
+        parser.parse(SAMPLE);
+
+        final DXFDocument shared = parser.getDocument();
+        final ByteArrayOutputStream[] outs = new ByteArrayOutputStream[4];
+        final Exception[] errors = new Exception[outs.length];
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[outs.length];
+
+        for (int i = 0; i < threads.length; i++) {
+            final int n = i;
+            outs[n] = new ByteArrayOutputStream();
+            threads[n] = new Thread() {
+                        @Override
+                        public void run() {
+                            try {
+                                ProcessingManager manager = createSVGManager(new boolean[1]);
+                                start.await();
+                                manager.process(shared,
+                                    new HashMap<String, Object>(), "svg", outs[n]);
+                            } catch (Exception e) {
+                                errors[n] = e;
+                            }
+                        }
+                    };
+            threads[n].start();
+        }
+
+        start.countDown();
+
+        for (int i = 0; i < threads.length; i++) {
+            threads[i].join();
+            assertNull(errors[i]);
+            assertEquals(expected.toString("UTF-8"), outs[i].toString("UTF-8"));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+   Copyright 2026 Kabeja contributors
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+*/
+package org.kabeja.svg;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+import org.kabeja.dxf.DXFDocument;
+import org.kabeja.parser.DXFParser;
+import org.kabeja.parser.ParserBuilder;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+
+/**
+ * Measures the throughput of the SVGGenerator into a handler, which only
+ * counts the elements, with the documents parsed once. Runs only with the
+ * benchmark profile: mvn test -Pbenchmark
+ */
+public class SVGGeneratorBenchmark {
+    private static final String[] SAMPLES = {
+            "samples/dxf/draft2.dxf", "samples/dxf/hatch_1.dxf",
+            "samples/dxf/draft4.dxf"
+        };
+    private static final int RUNS = 100;
+
+    @Test
+    public void testThroughput() throws Exception {
+        for (String sample : SAMPLES) {
+            DXFParser parser = (DXFParser) ParserBuilder.createDefaultParser();
+            parser.parse(sample);
+
+            DXFDocument doc = parser.getDocument();
+            SVGGenerator generator = new SVGGenerator();
+            Counter counter = new Counter();
+            long best = Long.MAX_VALUE;
+
+            for (int round = 0; round < 5; round++) {
+                long start = System.nanoTime();
+
+                for (int i = 0; i < RUNS; i++) {
+                    generator.generate(doc, counter,
+                        new HashMap<String, Object>());
+                }
+
+                best = Math.min(best, System.nanoTime() - start);
+            }
+
+            System.out.println(sample + ": " + ((best / RUNS) / 1000) +
+                "us per generation, " + (counter.elements / (5 * RUNS)) +
+                " elements");
+            assertTrue(sample, counter.elements > 0);
+        }
+    }
+
+    private static class Counter extends DefaultHandler {
+        private long elements;
+
+        @Override
+        public void startElement(String uri, String localName, String qName,
+            Attributes attributes) {
+            elements++;
+        }
+    }
+}